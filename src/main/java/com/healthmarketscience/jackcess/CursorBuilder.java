@@ -22,10 +22,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import com.healthmarketscience.jackcess.impl.ColumnImpl;
+import com.healthmarketscience.jackcess.impl.ColumnPredicate;
 import com.healthmarketscience.jackcess.impl.CursorImpl;
 import com.healthmarketscience.jackcess.impl.IndexCursorImpl;
 import com.healthmarketscience.jackcess.impl.IndexData;
 import com.healthmarketscience.jackcess.impl.IndexImpl;
+import com.healthmarketscience.jackcess.impl.RowIdCursor;
 import com.healthmarketscience.jackcess.impl.TableImpl;
 import com.healthmarketscience.jackcess.util.ColumnMatcher;
 
@@ -51,6 +54,38 @@ import com.healthmarketscience.jackcess.util.ColumnMatcher;
  * @usage _general_class_
  */
 public class CursorBuilder {
+
+  /**
+   * Comparison operators for the predicates added using {@link #where}.
+   * Comparisons use the same semantics as Access expressions (e.g. text
+   * comparisons are case-insensitive and comparisons with {@code null} are
+   * never satisfied).
+   */
+  public enum Op {
+    /** column value equals the given value */
+    EQ,
+    /** column value does not equal the given value */
+    NE,
+    /** column value is less than the given value */
+    LT,
+    /** column value is less than or equal to the given value */
+    LE,
+    /** column value is greater than the given value */
+    GT,
+    /** column value is greater than or equal to the given value */
+    GE,
+    /** column value is between the two given values (inclusive) */
+    BETWEEN,
+    /** column value equals one of the given values */
+    IN,
+    /** column value matches the given Access LIKE pattern */
+    LIKE,
+    /** column value is {@code null} (takes no values) */
+    IS_NULL,
+    /** column value is not {@code null} (takes no values) */
+    IS_NOT_NULL;
+  }
+
   /** the table which the cursor will traverse */
   private final TableImpl _table;
   /** optional index to use in traversal */
@@ -69,6 +104,14 @@ public class CursorBuilder {
   private Cursor.Savepoint _savepoint;
   /** ColumnMatcher to be used when matching column values */
   private ColumnMatcher _columnMatcher;
+  /** whether or not an index range should be traversed in physical (RowId)
+      order */
+  private boolean _rowIdOrder;
+  /** optional predicates which all rows must match */
+  private List<ColumnPredicate> _predicates;
+  /** number of pages to read ahead for sequential traversals, or -1 to use
+      the database default */
+  private int _readAheadPages = -1;
 
   public CursorBuilder(Table table) {
     _table = (TableImpl)table;
@@ -248,6 +291,93 @@ public class CursorBuilder {
     return this;
   }
 
+  /**
+   * Sets whether or not the rows in the range of an index cursor should be
+   * traversed in physical (RowId) order instead of index order.  When
+   * enabled, the RowIds for the index range are gathered up front and the
+   * relevant data pages are then read in ascending order, each page only
+   * once.  For larger ranges on non-clustered indexes, this is generally
+   * much faster than reading the rows in index order (which may require a
+   * separate page read for each row).
+   * <p>
+   * The resulting cursor is <i>not</i> an {@link IndexCursor}, and it
+   * traverses a snapshot of the rows in the range when the cursor was
+   * created (rows added to the table later will not be seen).
+   * <p>
+   * A valid index must be specified before creating the cursor.
+   */
+  public CursorBuilder setRowIdOrder(boolean rowIdOrder) {
+    _rowIdOrder = rowIdOrder;
+    return this;
+  }
+
+  /**
+   * Adds a predicate which all rows traversed by the cursor must match.  If
+   * multiple predicates are added, all must be satisfied.  Where possible,
+   * one of the predicates is compiled into index ranges (using the index
+   * given to this builder or, if none, the best index for the predicate
+   * column), so that only the potentially matching rows are read.  All other
+   * rows are filtered out as the cursor is traversed.
+   * <p>
+   * Operators which can use an index are {@link Op#EQ}, {@link Op#LT},
+   * {@link Op#LE}, {@link Op#GT}, {@link Op#GE}, {@link Op#BETWEEN}, {@link
+   * Op#IN} and {@link Op#LIKE} (for patterns with a literal prefix, e.g.
+   * {@code "abc*"}).
+   * <p>
+   * The resulting cursor is <i>not</i> an {@link IndexCursor}, and may not be
+   * combined with explicit start/end rows.  Note, multiple index ranges (e.g.
+   * for {@link Op#IN}) are traversed in physical (RowId) order, as if {@link
+   * #setRowIdOrder} were enabled.
+   * <p>
+   * Where possible, the remaining predicates are evaluated directly against
+   * the raw row data (e.g. null checks and comparisons of numeric, date/time
+   * and unicode text columns), so that non-matching rows are skipped without
+   * decoding any of their values.
+   *
+   * @param columnName the name of the column to compare
+   * @param op the comparison operator
+   * @param values the value(s) to compare against ({@link Op#BETWEEN}
+   *               requires two values, {@link Op#IN} requires one or more
+   *               values, {@link Op#IS_NULL} and {@link Op#IS_NOT_NULL}
+   *               take no values, all other operators require a single
+   *               value)
+   * @throws IllegalArgumentException if the column does not exist or the
+   *         wrong number of values is given
+   */
+  public CursorBuilder where(String columnName, Op op, Object... values) {
+    return where(_table.getColumn(columnName), op, values);
+  }
+
+  /**
+   * Adds a predicate which all rows traversed by the cursor must match.  See
+   * {@link #where(String,Op,Object...)} for details.
+   */
+  public CursorBuilder where(Column column, Op op, Object... values) {
+    if(_predicates == null) {
+      _predicates = new ArrayList<ColumnPredicate>();
+    }
+    _predicates.add(new ColumnPredicate((ColumnImpl)column, op, values));
+    return this;
+  }
+
+  /**
+   * Sets the number of pages which sequential traversals of the cursor read
+   * ahead of the current page in the background.  Once the cursor has moved
+   * over a few consecutive pages (without being repositioned), the upcoming
+   * data pages (or index pages for an index cursor) are read on a
+   * background thread, so that the I/O overlaps with the processing of the
+   * current rows.
+   *
+   * @param readAheadPages the number of pages to read ahead, {@code 0} to
+   *                       disable, or a negative number to use the database
+   *                       default (see {@link
+   *                       DatabaseBuilder#setReadAheadPages})
+   */
+  public CursorBuilder setReadAheadPages(int readAheadPages) {
+    _readAheadPages = readAheadPages;
+    return this;
+  }
+
   /**
    * Sets the ColumnMatcher to use for matching row patterns.
    */
@@ -263,14 +393,30 @@ public class CursorBuilder {
   public Cursor toCursor() throws IOException
   {
     CursorImpl cursor = null;
-    if(_index == null) {
+    if(_predicates != null) {
+      if((_startRow != null) || (_endRow != null)) {
+        throw new IllegalStateException(
+            "Predicates may not be combined with start/end rows");
+      }
+      cursor = ColumnPredicate.createCursor(_table, _index, _predicates,
+                                            _rowIdOrder);
+    } else if(_index == null) {
+      if(_rowIdOrder) {
+        throw new IllegalStateException(
+            "An index must be given for a rowId ordered cursor");
+      }
       cursor = CursorImpl.createCursor(_table);
+    } else if(_rowIdOrder) {
+      cursor = RowIdCursor.createCursor(_table, _index,
+                                        _startRow, _startRowInclusive,
+                                        _endRow, _endRowInclusive);
     } else {
       cursor = IndexCursorImpl.createCursor(_table, _index,
                                             _startRow, _startRowInclusive,
                                             _endRow, _endRowInclusive);
     }
     cursor.setColumnMatcher(_columnMatcher);
+    cursor.setReadAheadPages(_readAheadPages);
     if(_savepoint == null) {
       if(!_beforeFirst) {
         cursor.afterLast();
@@ -287,6 +433,14 @@ public class CursorBuilder {
    */
   public IndexCursor toIndexCursor() throws IOException
   {
+    if(_rowIdOrder) {
+      throw new IllegalStateException(
+          "A rowId ordered cursor is not an index cursor");
+    }
+    if(_predicates != null) {
+      throw new IllegalStateException(
+          "A cursor with predicates is not an index cursor");
+    }
     return (IndexCursorImpl)toCursor();
   }
 
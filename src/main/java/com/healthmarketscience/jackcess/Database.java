@@ -264,6 +264,13 @@ public interface Database extends Iterable<Table>, Closeable, Flushable
    */
   public List<Query> getQueries() throws IOException;
 
+  /**
+   * @param name Query name (case-insensitive)
+   * @return The query, or null if it doesn't exist
+   * @usage _intermediate_method_
+   */
+  public Query getQuery(String name) throws IOException;
+
   /**
    * Returns a reference to <i>any</i> available table in this access
    * database, including system tables.
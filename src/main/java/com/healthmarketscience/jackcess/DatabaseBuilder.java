@@ -76,6 +76,12 @@ public class DatabaseBuilder
   private Map<String,PropertyMap.Property> _summaryProps;
   /** database user-defined (if any) */
   private Map<String,PropertyMap.Property> _userProps;
+  /** number of pages to read ahead for sequential scans (0 to disable) */
+  private int _readAheadPages;
+  /** number of recently used tables to hold strongly (0 to disable) */
+  private int _tableCacheSize;
+  /** whether or not to cache tables using soft references */
+  private boolean _softTableCache;
 
   
   public DatabaseBuilder() {
@@ -174,6 +180,41 @@ public class DatabaseBuilder
     return this;
   }
 
+  /**
+   * Sets the number of pages which sequential cursor traversals read ahead
+   * in the background ({@code 0}, the default, disables reading ahead).  May
+   * be overridden per cursor via {@link CursorBuilder#setReadAheadPages}.
+   * @usage _advanced_method_
+   */
+  public DatabaseBuilder setReadAheadPages(int readAheadPages) {
+    _readAheadPages = readAheadPages;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of recently used tables which the Database holds
+   * strongly, so that they are not re-loaded from the file after being
+   * garbage collected ({@code 0}, the default, holds tables only while they
+   * are in use by the caller).
+   * @usage _advanced_method_
+   */
+  public DatabaseBuilder setTableCacheSize(int tableCacheSize) {
+    _tableCacheSize = tableCacheSize;
+    return this;
+  }
+
+  /**
+   * Sets whether tables which are not strongly held by the Database (see
+   * {@link #setTableCacheSize}) are cached using soft references (which are
+   * only cleared when memory is low) instead of weak references (the
+   * default, which are cleared on the next garbage collection).
+   * @usage _advanced_method_
+   */
+  public DatabaseBuilder setSoftTableCache(boolean softTableCache) {
+    _softTableCache = softTableCache;
+    return this;
+  }
+
   /**
    * Sets the database property with the given name to the given value.
    * Attempts to determine the type of the property (see
@@ -249,16 +290,24 @@ public class DatabaseBuilder
    * Opens an existingnew Database using the configured information.
    */
   public Database open() throws IOException {
-    return DatabaseImpl.open(_mdbFile, _readOnly, _channel, _autoSync, _charset,
-                             _timeZone, _codecProvider);
+    DatabaseImpl db = DatabaseImpl.open(_mdbFile, _readOnly, _channel,
+                                        _autoSync, _charset, _timeZone,
+                                        _codecProvider);
+    db.setReadAheadPages(_readAheadPages);
+    db.setTableCacheSize(_tableCacheSize);
+    db.setSoftTableCache(_softTableCache);
+    return db;
   }
 
   /**
    * Creates a new Database using the configured information.
    */
   public Database create() throws IOException {
-    Database db = DatabaseImpl.create(_fileFormat, _mdbFile, _channel, _autoSync, 
-                                      _charset, _timeZone);
+    DatabaseImpl db = DatabaseImpl.create(_fileFormat, _mdbFile, _channel,
+                                          _autoSync, _charset, _timeZone);
+    db.setReadAheadPages(_readAheadPages);
+    db.setTableCacheSize(_tableCacheSize);
+    db.setSoftTableCache(_softTableCache);
     if(_dbProps != null) {
       PropertyMap props = db.getDatabaseProperties();
       props.putAll(_dbProps.values());
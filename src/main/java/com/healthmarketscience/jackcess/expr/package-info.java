@@ -202,6 +202,20 @@ limitations under the License.
  * <tr class="TableRowColor"><td>Tan</td><td>Y</td></tr>
  * </table>
  *
+ * <h3>Domain Aggregate</h3>
+ *
+ * <table border="1" width="25%" cellpadding="3" cellspacing="0">
+ * <tr class="TableHeadingColor" align="left"><th>Function</th><th>Supported</th></tr>
+ * <tr class="TableRowColor"><td>DAvg</td><td></td></tr>
+ * <tr class="TableRowColor"><td>DCount</td><td>Y</td></tr>
+ * <tr class="TableRowColor"><td>DFirst</td><td></td></tr>
+ * <tr class="TableRowColor"><td>DLast</td><td></td></tr>
+ * <tr class="TableRowColor"><td>DLookup</td><td>Y</td></tr>
+ * <tr class="TableRowColor"><td>DMax</td><td>Y</td></tr>
+ * <tr class="TableRowColor"><td>DMin</td><td>Y</td></tr>
+ * <tr class="TableRowColor"><td>DSum</td><td>Y</td></tr>
+ * </table>
+ *
  * <h3>Program Flow</h3>
  *
  * <table border="1" width="25%" cellpadding="3" cellspacing="0">
@@ -127,11 +127,14 @@ public abstract class BaseEvalContext implements EvalContext
   }
 
   public Object eval() throws IOException {
+    _dbCtx.startEval();
     try {
       return _expr.eval(this);
     } catch(Exception e) {
       String msg = withErrorContext(e.getMessage());
       throw new JackcessException(msg, e);
+    } finally {
+      _dbCtx.endEval();
     }
   }
 
@@ -145,8 +148,16 @@ public abstract class BaseEvalContext implements EvalContext
   }
 
   protected Value toValue(Object val, DataType dType) {
+    return toValue(val, dType, getDatabase());
+  }
+
+  /**
+   * Converts the given column value of the given type into an expression
+   * Value.
+   */
+  static Value toValue(Object val, DataType dType, DatabaseImpl db) {
     try {
-      val = ColumnImpl.toInternalValue(dType, val, getDatabase());
+      val = ColumnImpl.toInternalValue(dType, val, db);
       if(val == null) {
         return ValueSupport.NULL_VAL;
       }
@@ -168,7 +179,7 @@ public abstract class BaseEvalContext implements EvalContext
                     ((Number)val).doubleValue());
         return ValueSupport.toValue(d);
       case BIG_DEC:
-        BigDecimal bd = ColumnImpl.toBigDecimal(val, getDatabase());
+        BigDecimal bd = ColumnImpl.toBigDecimal(val, db);
         return ValueSupport.toValue(bd);
       default:
         throw new RuntimeException("Unexpected type " + vType);
@@ -58,6 +58,28 @@ public class CalcColEvalContext extends RowEvalContext
     }
   }
 
+  /**
+   * Evaluates this calculated column for all the rows in the given batch,
+   * setting the calculated value into each row.  The context is set up once
+   * for the batch.  If the evaluation fails for a row, the batch is
+   * truncated before that row.
+   */
+  void calculate(TableImpl.RowBatch batch) {
+    try {
+      for(int i = 0; i < batch.size(); ++i) {
+        Object[] row = batch.getRow(i);
+        setRow(row);
+        try {
+          _col.setRowValue(row, eval());
+        } catch(Exception e) {
+          batch.fail(i, e);
+        }
+      }
+    } finally {
+      reset();
+    }
+  }
+
   @Override
   protected String withErrorContext(String msg) {
     return _col.withErrorContext(msg);
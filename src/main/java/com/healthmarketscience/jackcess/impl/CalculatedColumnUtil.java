@@ -253,6 +253,11 @@ class CalculatedColumnUtil
       return decodeTextValue(unwrapCalculatedValue(data));
     }
 
+    @Override
+    Object read(byte[] data, TextDecoder textDecoder) throws IOException {
+      return decodeTextValue(unwrapCalculatedValue(data), textDecoder);
+    }
+
     @Override
     protected ByteBuffer writeRealData(Object obj, int remainingRowLength,
                                        ByteOrder order)
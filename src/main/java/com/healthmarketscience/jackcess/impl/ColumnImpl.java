@@ -46,6 +46,7 @@ import com.healthmarketscience.jackcess.ColumnBuilder;
 import com.healthmarketscience.jackcess.DataType;
 import com.healthmarketscience.jackcess.InvalidValueException;
 import com.healthmarketscience.jackcess.PropertyMap;
+import com.healthmarketscience.jackcess.RuntimeIOException;
 import com.healthmarketscience.jackcess.Table;
 import com.healthmarketscience.jackcess.complex.ComplexColumnInfo;
 import com.healthmarketscience.jackcess.complex.ComplexValue;
@@ -129,6 +130,9 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
 
   static final byte NUMERIC_NEGATIVE_BYTE = (byte)0x80;
 
+  /** the scale of currency values */
+  static final int CURRENCY_SCALE = 4;
+
   /** the value for the "general" sort order */
   private static final short GENERAL_SORT_ORDER_VALUE = 1033;
 
@@ -151,7 +155,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
   private static final Pattern GUID_PATTERN = Pattern.compile("\\s*[{]?([\\p{XDigit}]{8})-([\\p{XDigit}]{4})-([\\p{XDigit}]{4})-([\\p{XDigit}]{4})-([\\p{XDigit}]{12})[}]?\\s*");
 
   /** header used to indicate unicode text compression */
-  private static final byte[] TEXT_COMPRESSION_HEADER =
+  static final byte[] TEXT_COMPRESSION_HEADER =
   { (byte)0xFF, (byte)0XFE };
   private static final char MIN_COMPRESS_CHAR = 1;
   private static final char MAX_COMPRESS_CHAR = 0xFF;
@@ -498,7 +502,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     }
 
     // first initialize any "external" (user-defined) validator
-    setColumnValidator(null);
+    setColumnValidatorImpl(null);
 
     // next, initialize any "internal" (property defined) validators
     reloadPropertiesValidators();
@@ -531,7 +535,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
 
     // discard any existing internal validators and re-compute them
     // (essentially unwrap the external validator)
-    _validator = getColumnValidator();
+    _validator = getExternalColumnValidator();
     _defValue = null;
 
     PropertyMap props = getProperties();
@@ -583,12 +587,22 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
   }
 
   public ColumnValidator getColumnValidator() {
+    initTableValidators();
+    return getExternalColumnValidator();
+  }
+
+  private ColumnValidator getExternalColumnValidator() {
     // unwrap any "internal" validator
     return ((_validator instanceof InternalColumnValidator) ?
             ((InternalColumnValidator)_validator).getExternal() : _validator);
   }
 
   public void setColumnValidator(ColumnValidator newValidator) {
+    initTableValidators();
+    setColumnValidatorImpl(newValidator);
+  }
+
+  private void setColumnValidatorImpl(ColumnValidator newValidator) {
 
     if(isAutoNumber()) {
       // cannot set autonumber validator (autonumber values are controlled
@@ -695,6 +709,14 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     return read(data, PageChannel.DEFAULT_BYTE_ORDER);
   }
 
+  /**
+   * Deserialize a raw byte value for this column into an Object, using the
+   * given (re-usable) decoder for any text data.
+   */
+  Object read(byte[] data, TextDecoder textDecoder) throws IOException {
+    return read(data);
+  }
+
   /**
    * Deserialize a raw byte value for this column into an Object
    * @param data The raw byte value
@@ -757,7 +779,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
       throw new IOException(withErrorContext("Invalid money value"));
     }
 
-    return new BigDecimal(BigInteger.valueOf(buffer.getLong(0)), 4);
+    return BigDecimal.valueOf(buffer.getLong(0), CURRENCY_SCALE);
   }
 
   /**
@@ -773,11 +795,11 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
 
       // adjust scale (will cause the an ArithmeticException if number has too
       // many decimal places)
-      decVal = decVal.setScale(4);
+      decVal = decVal.setScale(CURRENCY_SCALE);
 
       // now, remove scale and convert to long (this will throw if the value is
       // too big)
-      buffer.putLong(decVal.movePointRight(4).longValueExact());
+      buffer.putLong(decVal.movePointRight(CURRENCY_SCALE).longValueExact());
     } catch(ArithmeticException e) {
       throw (IOException)
         new IOException(withErrorContext(
@@ -793,6 +815,15 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
   {
     boolean negate = (buffer.get() != 0);
 
+    int pos = buffer.position();
+    long high = getNumericLong(buffer, pos);
+    long low = getNumericLong(buffer, pos + 8);
+    if((high == 0L) && (low >= 0L)) {
+      // common case, avoid the BigInteger
+      buffer.position(pos + 16);
+      return BigDecimal.valueOf((negate ? -low : low), getScale());
+    }
+
     byte[] tmpArr = ByteUtil.getBytes(buffer, 16);
 
     if(buffer.order() != ByteOrder.BIG_ENDIAN) {
@@ -802,6 +833,34 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     return toBigDecimal(tmpArr, negate, getScale());
   }
 
+  /**
+   * Reads the given (non-null) currency or numeric value from the given
+   * buffer (positioned at the value) into the given holder without creating
+   * a BigDecimal.
+   */
+  void readDecimalValue(ByteBuffer buffer, UnscaledDecimal value)
+  {
+    int pos = buffer.position();
+    if(getType() == DataType.MONEY) {
+      value.set(buffer.getLong(pos), CURRENCY_SCALE);
+      return;
+    }
+
+    boolean negate = (buffer.get(pos) != 0);
+    value.set(negate, getNumericLong(buffer, pos + 1),
+              getNumericLong(buffer, pos + 9), getScale());
+  }
+
+  /**
+   * Returns 64 bits of an (unsigned) numeric value from the given position
+   * (two 4 byte segments, each in the buffer order, most significant first).
+   */
+  private static long getNumericLong(ByteBuffer buffer, int pos)
+  {
+    return (((buffer.getInt(pos) & 0xFFFFFFFFL) << 32) |
+            (buffer.getInt(pos + 4) & 0xFFFFFFFFL));
+  }
+
   static BigDecimal toBigDecimal(byte[] bytes, boolean negate, int scale)
   {
     if((bytes[0] & 0x80) != 0) {
@@ -892,7 +951,8 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     // seems access stores dates in the local timezone.  guess you just hope
     // you read it in the same timezone in which it was written!
     long dateBits = buffer.getLong();
-    long time = fromDateDouble(Double.longBitsToDouble(dateBits));
+    long time = fromDateDouble(Double.longBitsToDouble(dateBits),
+                               getDatabase());
     return new DateExt(time, dateBits);
   }
 
@@ -911,7 +971,8 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
    */
   public static long fromDateDouble(double value, DatabaseImpl db)
   {
-    return fromDateDouble(value, db.getCalendar());
+    long localTime = fromLocalDateDouble(value);
+    return localTime - db.getTimeZoneOffsets().getFromLocalOffset(localTime);
   }
 
   /**
@@ -941,6 +1002,18 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     return time;
   }
 
+  /**
+   * Returns an access date double for the given date value (using the
+   * original date bits if the value was read from the database).
+   */
+  double getDateDouble(Object value)
+  {
+    if(value instanceof DateExt) {
+      return Double.longBitsToDouble(((DateExt)value).getDateBits());
+    }
+    return toDateDouble(value, getDatabase());
+  }
+
   /**
    * Writes a date value.
    */
@@ -956,7 +1029,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
 
     } else {
 
-      buffer.putDouble(toDateDouble(value));
+      buffer.putDouble(toDateDouble(value, getDatabase()));
     }
   }
 
@@ -977,7 +1050,11 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
    */
   public static double toDateDouble(Object value, DatabaseImpl db)
   {
-    return toDateDouble(value, db.getCalendar());
+    // seems access stores dates in the local timezone.  guess you just
+    // hope you read it in the same timezone in which it was written!
+    long time = toDateLong(value);
+    time += db.getTimeZoneOffsets().getToLocalOffset(time);
+    return toLocalDateDouble(time);
   }
 
   /**
@@ -1129,6 +1206,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
    * Returns a default value for this column
    */
   public Object generateDefaultValue() throws IOException {
+    getTable().initValidators();
     return ((_defValue != null) ? _defValue.eval() : null);
   }
 
@@ -1137,9 +1215,22 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
    * column and returns the result.
    */
   public Object validate(Object obj) throws IOException {
+    getTable().initValidators();
     return _validator.validate(this, obj);
   }
 
+  /**
+   * Ensures that the validators for the table (which are loaded on first
+   * use) have been loaded.
+   */
+  private void initTableValidators() {
+    try {
+      getTable().initValidators();
+    } catch(IOException e) {
+      throw new RuntimeIOException(e);
+    }
+  }
+
   /**
    * Returns the context used to manage calculated column values.
    */
@@ -1312,86 +1403,20 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
    * Decodes a compressed or uncompressed text value.
    */
   String decodeTextValue(byte[] data)
-    throws IOException
   {
-    // see if data is compressed.  the 0xFF, 0xFE sequence indicates that
-    // compression is used (sort of, see algorithm below)
-    boolean isCompressed = ((data.length > 1) &&
-                            (data[0] == TEXT_COMPRESSION_HEADER[0]) &&
-                            (data[1] == TEXT_COMPRESSION_HEADER[1]));
-
-    if(isCompressed) {
-
-      // this is a whacky compression combo that switches back and forth
-      // between compressed/uncompressed using a 0x00 byte (starting in
-      // compressed mode)
-      StringBuilder textBuf = new StringBuilder(data.length);
-      // start after two bytes indicating compression use
-      int dataStart = TEXT_COMPRESSION_HEADER.length;
-      int dataEnd = dataStart;
-      boolean inCompressedMode = true;
-      while(dataEnd < data.length) {
-        if(data[dataEnd] == (byte)0x00) {
-
-          // handle current segment
-          decodeTextSegment(data, dataStart, dataEnd, inCompressedMode,
-                            textBuf);
-          inCompressedMode = !inCompressedMode;
-          ++dataEnd;
-          dataStart = dataEnd;
-
-        } else {
-          ++dataEnd;
-        }
-      }
-      // handle last segment
-      decodeTextSegment(data, dataStart, dataEnd, inCompressedMode, textBuf);
-
-      return textBuf.toString();
-
-    }
-
-    return decodeUncompressedText(data, getCharset());
+    return TextDecoder.decodeText(data, getCharset());
   }
 
   /**
-   * Decodes a segnment of a text value into the given buffer according to the
-   * given status of the segment (compressed/uncompressed).
+   * Decodes a compressed or uncompressed text value using the given
+   * (re-usable) decoder, if any.
    */
-  private void decodeTextSegment(byte[] data, int dataStart, int dataEnd,
-                                 boolean inCompressedMode,
-                                 StringBuilder textBuf)
+  String decodeTextValue(byte[] data, TextDecoder textDecoder)
   {
-    if(dataEnd <= dataStart) {
-      // no data
-      return;
-    }
-    int dataLength = dataEnd - dataStart;
-
-    if(inCompressedMode) {
-      byte[] tmpData = new byte[dataLength * 2];
-      int tmpIdx = 0;
-      for(int i = dataStart; i < dataEnd; ++i) {
-        tmpData[tmpIdx] = data[i];
-        tmpIdx += 2;
-      }
-      data = tmpData;
-      dataStart = 0;
-      dataLength = data.length;
+    if(textDecoder == null) {
+      return decodeTextValue(data);
     }
-
-    textBuf.append(decodeUncompressedText(data, dataStart, dataLength,
-                                          getCharset()));
-  }
-
-  /**
-   * @param textBytes bytes of text to decode
-   * @return the decoded string
-   */
-  private static CharBuffer decodeUncompressedText(
-      byte[] textBytes, int startPos, int length, Charset charset)
-  {
-    return charset.decode(ByteBuffer.wrap(textBytes, startPos, length));
+    return textDecoder.decode(data, 0, data.length, getCharset());
   }
 
   /**
@@ -1529,8 +1554,7 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
   public static String decodeUncompressedText(byte[] textBytes,
                                               Charset charset)
   {
-    return decodeUncompressedText(textBytes, 0, textBytes.length, charset)
-      .toString();
+    return charset.decode(ByteBuffer.wrap(textBytes)).toString();
   }
 
   /**
@@ -1774,6 +1798,26 @@ public class ColumnImpl implements Column, Comparable<ColumnImpl> {
     return(value instanceof RawData);
   }
 
+  /**
+   * Returns the original date bits of the given value if it is a date which
+   * was read from a database, {@code null} otherwise.
+   * @usage _advanced_method_
+   */
+  public static Long getOriginalDateBits(Object value) {
+    return ((value instanceof DateExt) ?
+            (Long)((DateExt)value).getDateBits() : null);
+  }
+
+  /**
+   * Returns a date with the given time which retains the given original date
+   * bits (as if it were read from a database, see {@link
+   * #getOriginalDateBits}).
+   * @usage _advanced_method_
+   */
+  public static Date newDateValue(long time, long dateBits) {
+    return new DateExt(time, dateBits);
+  }
+
   /**
    * Writes the column definitions into a table definition buffer.
    * @param buffer Buffer to write to
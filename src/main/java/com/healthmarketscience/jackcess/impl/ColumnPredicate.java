@@ -0,0 +1,787 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.expr.Value;
+import com.healthmarketscience.jackcess.impl.expr.BuiltinOperators;
+import com.healthmarketscience.jackcess.impl.expr.LikeMatcher;
+import com.healthmarketscience.jackcess.impl.expr.ValueSupport;
+import com.healthmarketscience.jackcess.util.RowFilter;
+
+/**
+ * A comparison of a column value against one or more literal values (e.g.
+ * {@code col >= 5} or {@code col LIKE 'abc*'}).  A predicate can be
+ * evaluated against a row value (using the same semantics as an Access
+ * expression) and, where possible, compiled into the ranges of an index
+ * which contain all the matching rows.
+ *
+ * @author agent
+ * @usage _advanced_class_
+ */
+public class ColumnPredicate
+{
+  /** index lookup cost for predicates which cannot use an index */
+  private static final int NO_INDEX_COST = Integer.MAX_VALUE;
+  /** marker for a missing bound of an index range */
+  private static final Object OPEN_BOUND = new Object();
+  /** marker for an index range bound which excludes all values */
+  private static final Object NO_MATCH_BOUND = new Object();
+
+  private final ColumnImpl _column;
+  private final CursorBuilder.Op _op;
+  private final Object[] _values;
+  /** the literal values as expression values (not used for LIKE) */
+  private final Value[] _exprValues;
+  /** compiled pattern for LIKE */
+  private final LikeMatcher _likePattern;
+
+  public ColumnPredicate(ColumnImpl column, CursorBuilder.Op op,
+                         Object... values)
+  {
+    _column = column;
+    _op = op;
+    _values = ((values != null) ? values : new Object[]{null});
+
+    int minValues = 1;
+    int maxValues = 1;
+    switch(op) {
+    case BETWEEN:
+      minValues = maxValues = 2;
+      break;
+    case IN:
+      maxValues = Integer.MAX_VALUE;
+      break;
+    case IS_NULL:
+    case IS_NOT_NULL:
+      minValues = maxValues = 0;
+      break;
+    default:
+      // single value
+    }
+    if((_values.length < minValues) || (_values.length > maxValues)) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Invalid number of values " + _values.length + " for operator " +
+          op));
+    }
+
+    if(op == CursorBuilder.Op.LIKE) {
+      if(!(_values[0] instanceof CharSequence)) {
+        throw new IllegalArgumentException(withErrorContext(
+            "LIKE pattern must be a string"));
+      }
+      _likePattern = LikeMatcher.compile(_values[0].toString());
+      _exprValues = null;
+    } else {
+      _likePattern = null;
+      _exprValues = new Value[_values.length];
+      for(int i = 0; i < _values.length; ++i) {
+        _exprValues[i] = toLiteralValue(_values[i]);
+      }
+    }
+  }
+
+  public ColumnImpl getColumn() {
+    return _column;
+  }
+
+  public CursorBuilder.Op getOp() {
+    return _op;
+  }
+
+  public List<Object> getValues() {
+    return Collections.unmodifiableList(Arrays.asList(_values));
+  }
+
+  /**
+   * Returns {@code true} if the given value for this predicate's column
+   * satisfies this predicate, {@code false} otherwise.  As with Access
+   * expressions, comparisons with {@code null} are never satisfied.
+   */
+  public boolean matches(Object rowValue)
+  {
+    DBEvalContext ctx = getDatabase().getEvalContext();
+    Value value = BaseEvalContext.toValue(rowValue, _column.getType(),
+                                          getDatabase());
+    Value result = null;
+    switch(_op) {
+    case EQ:
+      result = BuiltinOperators.equals(ctx, value, _exprValues[0]);
+      break;
+    case NE:
+      result = BuiltinOperators.notEquals(ctx, value, _exprValues[0]);
+      break;
+    case LT:
+      result = BuiltinOperators.lessThan(ctx, value, _exprValues[0]);
+      break;
+    case LE:
+      result = BuiltinOperators.lessThanEq(ctx, value, _exprValues[0]);
+      break;
+    case GT:
+      result = BuiltinOperators.greaterThan(ctx, value, _exprValues[0]);
+      break;
+    case GE:
+      result = BuiltinOperators.greaterThanEq(ctx, value, _exprValues[0]);
+      break;
+    case BETWEEN:
+      result = BuiltinOperators.between(ctx, value, _exprValues[0],
+                                        _exprValues[1]);
+      break;
+    case IN:
+      result = BuiltinOperators.in(ctx, value, _exprValues);
+      break;
+    case LIKE:
+      result = BuiltinOperators.like(ctx, value, _likePattern);
+      break;
+    case IS_NULL:
+      return value.isNull();
+    case IS_NOT_NULL:
+      return !value.isNull();
+    default:
+      throw new RuntimeException("Unexpected operator " + _op);
+    }
+    return (!result.isNull() && result.getAsBoolean(ctx));
+  }
+
+  /**
+   * Returns a RawColumnPredicate which is equivalent to this predicate, or
+   * {@code null} if this predicate cannot be evaluated against the raw
+   * column data.
+   */
+  public RawColumnPredicate toRawPredicate()
+  {
+    if(_column.storeInNullMask()) {
+      // boolean values are stored in the null mask
+      return null;
+    }
+    if(_column.isCalculated()) {
+      // calculated values are stored wrapped with extra calculation info
+      return null;
+    }
+    return RawColumnPredicate.create(_column, _op, _exprValues);
+  }
+
+  /**
+   * Returns the index of this predicate's table which can be used to find
+   * the rows matching this predicate, or {@code null} if no usable index
+   * exists.
+   */
+  public IndexImpl findIndex()
+  {
+    if(getIndexCost() == NO_INDEX_COST) {
+      return null;
+    }
+    IndexImpl index = getTable().findIndexForColumns(
+        Collections.singleton(_column.getName()),
+        TableImpl.IndexFeature.ANY_MATCH);
+    return (((index != null) && RowIdCursor.isUsableIndex(index)) ?
+            index : null);
+  }
+
+  /**
+   * Returns {@code true} if this predicate can use the given index to find
+   * its matching rows, {@code false} otherwise.
+   */
+  public boolean canUseIndex(IndexImpl index)
+  {
+    return ((getIndexCost() != NO_INDEX_COST) &&
+            RowIdCursor.isUsableIndex(index) &&
+            index.getColumns().get(0).getName().equalsIgnoreCase(
+                _column.getName()));
+  }
+
+  /**
+   * Returns the single index range which contains all the rows matching this
+   * predicate, or {@code null} if the matching rows cannot be described by a
+   * single range of the given index.
+   */
+  public IndexRange getIndexRange(IndexImpl index)
+  {
+    // note, a missing bound is indicated by a -1 value index
+    int lowerIdx = -1;
+    boolean lowerInclusive = true;
+    int upperIdx = -1;
+    boolean upperInclusive = true;
+    switch(_op) {
+    case EQ:
+      lowerIdx = upperIdx = 0;
+      break;
+    case LT:
+    case LE:
+      upperIdx = 0;
+      upperInclusive = (_op == CursorBuilder.Op.LE);
+      break;
+    case GT:
+    case GE:
+      lowerIdx = 0;
+      lowerInclusive = (_op == CursorBuilder.Op.GE);
+      break;
+    case BETWEEN:
+      lowerIdx = 0;
+      upperIdx = 1;
+      DBEvalContext ctx = getDatabase().getEvalContext();
+      Value gt = BuiltinOperators.greaterThan(ctx, _exprValues[0],
+                                              _exprValues[1]);
+      if(!gt.isNull() && gt.getAsBoolean(ctx)) {
+        // the between values can be in either order
+        lowerIdx = 1;
+        upperIdx = 0;
+      }
+      break;
+    default:
+      return null;
+    }
+
+    if(_column.getType().isTextual() && (_op != CursorBuilder.Op.EQ)) {
+      // text index entries are not in the same order as text comparisons
+      return null;
+    }
+
+    return newIndexRange(index, lowerIdx, lowerInclusive, upperIdx,
+                         upperInclusive);
+  }
+
+  /**
+   * Returns a range of the given index between the literal values with the
+   * given indexes (-1 for an open bound).
+   */
+  private IndexRange newIndexRange(IndexImpl index, int lowerIdx,
+                                   boolean lowerInclusive, int upperIdx,
+                                   boolean upperInclusive)
+  {
+    if(((lowerIdx >= 0) && _exprValues[lowerIdx].isNull()) ||
+       ((upperIdx >= 0) && _exprValues[upperIdx].isNull())) {
+      // comparisons with null are never satisfied
+      return new IndexRange(index);
+    }
+
+    Object lower = OPEN_BOUND;
+    Object upper = OPEN_BOUND;
+    if(isNumeric(_column.getType())) {
+      // the literal values may not be representable by the column type, so
+      // the range is widened to the nearest representable values (the
+      // matching rows are always re-checked)
+      if(lowerIdx >= 0) {
+        lower = toNumericBound(_exprValues[lowerIdx], true);
+        lowerInclusive = true;
+      }
+      if(upperIdx >= 0) {
+        upper = toNumericBound(_exprValues[upperIdx], false);
+        upperInclusive = true;
+      }
+      if((lower == NO_MATCH_BOUND) || (upper == NO_MATCH_BOUND)) {
+        return new IndexRange(index);
+      }
+    } else {
+      if(lowerIdx >= 0) {
+        lower = _values[lowerIdx];
+      }
+      if(upperIdx >= 0) {
+        upper = _values[upperIdx];
+      }
+    }
+
+    if(index.getColumns().get(0).isAscending()) {
+      return new IndexRange(index, lower, lowerInclusive, upper,
+                            upperInclusive);
+    }
+    // the index is in descending order, so the bounds are reversed
+    return new IndexRange(index, upper, upperInclusive, lower, lowerInclusive);
+  }
+
+  /**
+   * Converts the given numeric literal value into an (inclusive) index bound
+   * value for this predicate's column.  The literal is rounded outwards to
+   * the scale of the column type, and literals outside the range of the
+   * column type result in an {@code OPEN_BOUND} or a {@code NO_MATCH_BOUND}.
+   */
+  private Object toNumericBound(Value val, boolean isLower)
+  {
+    DBEvalContext ctx = getDatabase().getEvalContext();
+    DataType type = _column.getType();
+    if((type == DataType.FLOAT) || (type == DataType.DOUBLE)) {
+      // the nearest float/double is always an inclusive bound for the
+      // literal value
+      return val.getAsDouble(ctx);
+    }
+
+    int scale = 0;
+    BigDecimal maxVal = null;
+    switch(type) {
+    case BYTE:
+      maxVal = BigDecimal.valueOf(Byte.MAX_VALUE);
+      break;
+    case INT:
+      maxVal = BigDecimal.valueOf(Short.MAX_VALUE);
+      break;
+    case LONG:
+      maxVal = BigDecimal.valueOf(Integer.MAX_VALUE);
+      break;
+    case BIG_INT:
+      maxVal = BigDecimal.valueOf(Long.MAX_VALUE);
+      break;
+    case MONEY:
+      scale = 4;
+      maxVal = BigDecimal.valueOf(Long.MAX_VALUE, scale);
+      break;
+    default:
+      // NUMERIC
+      scale = _column.getScale();
+      maxVal = BigDecimal.ONE.movePointRight(
+          _column.getPrecision() - scale).subtract(
+              BigDecimal.ONE.movePointLeft(scale));
+    }
+    BigDecimal minVal = maxVal.negate();
+    if(type == DataType.BYTE) {
+      minVal = BigDecimal.valueOf(Byte.MIN_VALUE);
+    } else if(type != DataType.NUMERIC) {
+      // two's complement range
+      minVal = minVal.subtract(BigDecimal.ONE.movePointLeft(scale));
+    }
+
+    BigDecimal dec = val.getAsBigDecimal(ctx).setScale(
+        scale, (isLower ? RoundingMode.FLOOR : RoundingMode.CEILING));
+    if(dec.compareTo(maxVal) > 0) {
+      return (isLower ? NO_MATCH_BOUND : OPEN_BOUND);
+    }
+    if(dec.compareTo(minVal) < 0) {
+      return (isLower ? OPEN_BOUND : NO_MATCH_BOUND);
+    }
+
+    switch(type) {
+    case BYTE:
+      return dec.byteValue();
+    case INT:
+      return dec.shortValue();
+    case LONG:
+      return dec.intValue();
+    case BIG_INT:
+      return dec.longValue();
+    default:
+      return dec;
+    }
+  }
+
+  /**
+   * Returns the rows of the given index which may match this predicate.
+   * Note, the returned rows are a superset of the rows matching this
+   * predicate (e.g. text index entries are case-insensitive), so the rows
+   * still need to be checked with {@link #matches}.
+   */
+  public RowIdSet findRowIds(IndexImpl index) throws IOException
+  {
+    switch(_op) {
+    case IN:
+      RowIdSet rowIds = RowIdSet.EMPTY;
+      for(int i = 0; i < _values.length; ++i) {
+        if(_exprValues[i].isNull()) {
+          // null never matches anything
+          continue;
+        }
+        IndexRange range = newIndexRange(index, i, true, i, true);
+        rowIds = rowIds.union(range.findRowIds());
+      }
+      return rowIds;
+    case LIKE:
+      String prefix = getLikePrefix();
+      RowIdSet prefixRowIds = index.getIndexData().getPrefixRowIds(prefix);
+      if(prefixRowIds != null) {
+        return prefixRowIds;
+      }
+      // the index cannot handle prefix lookups, so use all the entries
+      return RowIdCursor.findRowIds(getTable(), index, null, true, null, true);
+    default:
+      return getIndexRange(index).findRowIds();
+    }
+  }
+
+  /**
+   * Returns a relative estimate of the cost of finding the matching rows for
+   * this predicate using an index (lower is better).
+   */
+  public int getIndexCost()
+  {
+    boolean isText = _column.getType().isTextual();
+    switch(_op) {
+    case EQ:
+      return 0;
+    case IN:
+      return 1;
+    case BETWEEN:
+      // text index entries are not in the same order as text comparisons
+      return (!isText ? 2 : NO_INDEX_COST);
+    case LIKE:
+      return ((isText && (getLikePrefix().length() > 0)) ? 3 : NO_INDEX_COST);
+    case LT:
+    case LE:
+    case GT:
+    case GE:
+      return (!isText ? 4 : NO_INDEX_COST);
+    default:
+      return NO_INDEX_COST;
+    }
+  }
+
+  /**
+   * Returns the literal prefix of the LIKE pattern (the chars before the
+   * first wildcard).
+   */
+  private String getLikePrefix()
+  {
+    String pattern = _values[0].toString();
+    int idx = 0;
+    while(idx < pattern.length()) {
+      char c = pattern.charAt(idx);
+      if((c == '*') || (c == '?') || (c == '#') || (c == '[')) {
+        break;
+      }
+      ++idx;
+    }
+    return pattern.substring(0, idx);
+  }
+
+  /**
+   * Converts the given literal value into an expression Value.  Numeric
+   * literals for numeric columns keep their own type, so that they are
+   * compared using the expression numeric rules (instead of being truncated
+   * to the column type).  Other literals are converted to the column type.
+   */
+  private Value toLiteralValue(Object val)
+  {
+    if((val == null) || !isNumeric(_column.getType())) {
+      return BaseEvalContext.toValue(val, _column.getType(), getDatabase());
+    }
+
+    if(val instanceof CharSequence) {
+      try {
+        val = new BigDecimal(val.toString().trim());
+      } catch(NumberFormatException e) {
+        throw new IllegalArgumentException(withErrorContext(
+            "Invalid numeric value '" + val + "'"));
+      }
+    }
+    if(val instanceof Boolean) {
+      return ValueSupport.toValue((Boolean)val);
+    }
+    if(!(val instanceof Number)) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Invalid numeric value '" + val + "'"));
+    }
+    if((val instanceof Integer) || (val instanceof Short) ||
+       (val instanceof Byte)) {
+      return ValueSupport.toValue(((Number)val).intValue());
+    }
+    if((val instanceof Double) || (val instanceof Float)) {
+      return ValueSupport.toValue(((Number)val).doubleValue());
+    }
+    if(val instanceof BigDecimal) {
+      return ValueSupport.toValue((BigDecimal)val);
+    }
+    return ValueSupport.toValue(new BigDecimal(val.toString()));
+  }
+
+  private static boolean isNumeric(DataType type)
+  {
+    switch(type) {
+    case BYTE:
+    case INT:
+    case LONG:
+    case BIG_INT:
+    case MONEY:
+    case FLOAT:
+    case DOUBLE:
+    case NUMERIC:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Returns {@code true} if a predicate with the given literal values (e.g.
+   * from an expression) on a column of the given type matches exactly the
+   * same rows as the equivalent expression comparison, {@code false}
+   * otherwise.  Only null checks, comparisons of integer columns with
+   * integer values and equality comparisons of text columns with text
+   * values are considered exact (e.g. expressions convert the values of
+   * some column types before comparing them).
+   */
+  public static boolean isExactPredicate(DataType type, CursorBuilder.Op op,
+                                         Object... values)
+  {
+    switch(op) {
+    case IS_NULL:
+    case IS_NOT_NULL:
+      return true;
+    case LIKE:
+      return false;
+    default:
+      // check the values below
+    }
+
+    if(values.length == 0) {
+      return false;
+    }
+    for(Object val : values) {
+      switch(type) {
+      case BYTE:
+      case INT:
+      case LONG:
+      case BIG_INT:
+        if(!((val instanceof Integer) || (val instanceof Short) ||
+             (val instanceof Byte) || (val instanceof Long))) {
+          return false;
+        }
+        break;
+      case TEXT:
+      case MEMO:
+        if(!(val instanceof String) ||
+           ((op != CursorBuilder.Op.EQ) && (op != CursorBuilder.Op.IN))) {
+          return false;
+        }
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a RowFilter which accepts only rows matching all the given
+   * predicates.
+   */
+  public static RowFilter toRowFilter(
+      final Collection<ColumnPredicate> predicates)
+  {
+    return new RowFilter() {
+      @Override
+      public boolean matches(Row row) {
+        for(ColumnPredicate pred : predicates) {
+          if(!pred.matches(row.get(pred.getColumn().getName()))) {
+            return false;
+          }
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Creates a cursor for the given table which traverses only the rows
+   * matching all the given predicates.  The predicate with the cheapest index
+   * lookup (if any) is used to narrow the rows which need to be read, the
+   * remaining predicates are checked for each row read.
+   *
+   * @param table the table over which the cursor will traverse
+   * @param index optional index which must be used for the traversal
+   * @param predicates the predicates which all rows must match
+   * @param rowIdOrder whether or not the rows found using an index should be
+   *                   traversed in physical (RowId) order
+   */
+  public static CursorImpl createCursor(TableImpl table, IndexImpl index,
+                                        List<ColumnPredicate> predicates,
+                                        boolean rowIdOrder)
+    throws IOException
+  {
+    // find the predicate with the cheapest index lookup
+    ColumnPredicate bestPred = null;
+    IndexImpl bestIndex = index;
+    for(ColumnPredicate pred : predicates) {
+      IndexImpl predIndex = null;
+      if(index == null) {
+        predIndex = pred.findIndex();
+      } else if(pred.canUseIndex(index)) {
+        predIndex = index;
+      }
+      if((predIndex != null) &&
+         ((bestPred == null) ||
+          (pred.getIndexCost() < bestPred.getIndexCost()))) {
+        bestPred = pred;
+        bestIndex = predIndex;
+      }
+    }
+
+    CursorImpl cursor = null;
+    if(bestPred == null) {
+      if(index == null) {
+        if(rowIdOrder) {
+          throw new IllegalStateException(
+              "An index must be given for a rowId ordered cursor");
+        }
+        cursor = CursorImpl.createCursor(table);
+      } else if(rowIdOrder) {
+        cursor = RowIdCursor.createCursor(table, index, null, true,
+                                          null, true);
+      } else {
+        cursor = IndexCursorImpl.createCursor(table, index, null, true,
+                                              null, true);
+      }
+    } else {
+      IndexRange range = bestPred.getIndexRange(bestIndex);
+      if((range != null) && !range.isEmpty() && !rowIdOrder) {
+        // we can traverse a single range of the index directly
+        cursor = IndexCursorImpl.createCursor(
+            table, bestIndex, range.getStartRow(), range.isStartInclusive(),
+            range.getEndRow(), range.isEndInclusive());
+      } else {
+        cursor = RowIdCursor.createCursor(table,
+                                          bestPred.findRowIds(bestIndex));
+      }
+    }
+
+    // all predicates (including the one used for the index lookup) are
+    // re-checked for each row, since the index lookup may include extra rows.
+    // where possible, the predicates are checked against the raw row data
+    // (before any row values are decoded)
+    List<RawColumnPredicate> rawPreds = new ArrayList<RawColumnPredicate>();
+    List<ColumnPredicate> rowPreds = new ArrayList<ColumnPredicate>();
+    Set<String> colNames = new LinkedHashSet<String>();
+    for(ColumnPredicate pred : predicates) {
+      RawColumnPredicate rawPred = pred.toRawPredicate();
+      if(rawPred != null) {
+        rawPreds.add(rawPred);
+      } else {
+        rowPreds.add(pred);
+        colNames.add(pred.getColumn().getName());
+      }
+    }
+    if(!rawPreds.isEmpty()) {
+      cursor.setRawPredicates(rawPreds);
+    }
+    if(!rowPreds.isEmpty()) {
+      cursor.setRowFilter(toRowFilter(rowPreds), colNames);
+    }
+    return cursor;
+  }
+
+  private TableImpl getTable() {
+    return _column.getTable();
+  }
+
+  private DatabaseImpl getDatabase() {
+    return _column.getDatabase();
+  }
+
+  private String withErrorContext(String msg) {
+    return _column.withErrorContext(msg);
+  }
+
+  @Override
+  public String toString() {
+    return _column.getName() + " " + _op + " " +
+      Arrays.asList(_values);
+  }
+
+  /**
+   * A single range of index entries, defined by the leading values of the
+   * first and last entries.
+   */
+  public static final class IndexRange
+  {
+    private final IndexImpl _index;
+    private final Object[] _startRow;
+    private final boolean _startInclusive;
+    private final Object[] _endRow;
+    private final boolean _endInclusive;
+    private final boolean _empty;
+
+    /**
+     * Creates an empty range.
+     */
+    private IndexRange(IndexImpl index)
+    {
+      _index = index;
+      _startRow = null;
+      _startInclusive = true;
+      _endRow = null;
+      _endInclusive = true;
+      _empty = true;
+    }
+
+    private IndexRange(IndexImpl index, Object start, boolean startInclusive,
+                       Object end, boolean endInclusive)
+    {
+      _index = index;
+      _empty = false;
+      _startInclusive = startInclusive;
+      _endInclusive = endInclusive;
+      _startRow = ((start != OPEN_BOUND) ?
+                   toRow(start, true, startInclusive) : null);
+      _endRow = ((end != OPEN_BOUND) ? toRow(end, false, endInclusive) : null);
+    }
+
+    private Object[] toRow(Object value, boolean isStart, boolean inclusive) {
+      // fill in the remaining index columns so that an inclusive bound
+      // includes all entries with the given leading value and an exclusive
+      // bound excludes them
+      Object filler = ((isStart == inclusive) ?
+                       IndexData.MIN_VALUE : IndexData.MAX_VALUE);
+      return _index.constructPartialIndexRowFromEntry(filler,
+                                                      new Object[]{value});
+    }
+
+    public Object[] getStartRow() {
+      return _startRow;
+    }
+
+    public boolean isStartInclusive() {
+      return _startInclusive;
+    }
+
+    public Object[] getEndRow() {
+      return _endRow;
+    }
+
+    public boolean isEndInclusive() {
+      return _endInclusive;
+    }
+
+    /**
+     * Returns {@code true} if this range contains no entries (e.g. the
+     * predicate values are out of range for the column), {@code false}
+     * otherwise.
+     */
+    public boolean isEmpty() {
+      return _empty;
+    }
+
+    /**
+     * Returns the rows in this range in physical (RowId) order.
+     */
+    public RowIdSet findRowIds() throws IOException {
+      if(_empty) {
+        return RowIdSet.EMPTY;
+      }
+      return RowIdCursor.findRowIds(_index.getTable(), _index, _startRow,
+                                    _startInclusive, _endRow, _endInclusive);
+    }
+  }
+}
@@ -17,6 +17,7 @@ limitations under the License.
 package com.healthmarketscience.jackcess.impl;
 
 import java.io.IOException;
+import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -26,6 +27,7 @@ import java.util.NoSuchElementException;
 import com.healthmarketscience.jackcess.Column;
 import com.healthmarketscience.jackcess.Cursor;
 import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
 import com.healthmarketscience.jackcess.Row;
 import com.healthmarketscience.jackcess.RowId;
 import com.healthmarketscience.jackcess.RuntimeIOException;
@@ -33,6 +35,7 @@ import com.healthmarketscience.jackcess.impl.TableImpl.RowState;
 import com.healthmarketscience.jackcess.util.ColumnMatcher;
 import com.healthmarketscience.jackcess.util.ErrorHandler;
 import com.healthmarketscience.jackcess.util.IterableBuilder;
+import com.healthmarketscience.jackcess.util.RowFilter;
 import com.healthmarketscience.jackcess.util.SimpleColumnMatcher;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -61,6 +64,10 @@ public abstract class CursorImpl implements Cursor
   public static final boolean MOVE_FORWARD = true;
   /** boolean value indicating reverse movement */
   public static final boolean MOVE_REVERSE = false;
+
+  /** the number of consecutive page moves after which a traversal is
+      considered sequential (and upcoming pages are read ahead) */
+  private static final int MIN_SEQUENTIAL_PAGE_MOVES = 2;
   
   /** identifier for this cursor */
   private final IdImpl _id;
@@ -78,6 +85,19 @@ public abstract class CursorImpl implements Cursor
   protected PositionImpl _curPos;
   /** ColumnMatcher to be used when matching column values */
   protected ColumnMatcher _columnMatcher = SimpleColumnMatcher.INSTANCE;
+  /** optional filter which restricts the rows visible through this cursor */
+  private RowFilter _rowFilter;
+  /** the columns needed to evaluate the row filter ({@code null} for all) */
+  private Collection<String> _rowFilterColumnNames;
+  /** optional predicates checked against the raw row data */
+  private Collection<RawColumnPredicate> _rawPredicates;
+  /** number of pages to read ahead for sequential traversals, or -1 to use
+      the database default */
+  private int _readAheadPages = -1;
+  /** number of consecutive page moves since this cursor was repositioned */
+  private int _sequentialPageMoves;
+  /** number of page moves until more pages should be read ahead */
+  private int _pageMovesUntilReadAhead;
 
   protected CursorImpl(IdImpl id, TableImpl table, PositionImpl firstPos,
                        PositionImpl lastPos) {
@@ -137,6 +157,105 @@ public abstract class CursorImpl implements Cursor
     _columnMatcher = columnMatcher;
   }
 
+  public RowFilter getRowFilter() {
+    return _rowFilter;
+  }
+
+  /**
+   * Sets a filter which restricts the rows visible through this cursor.  Rows
+   * which do not match the filter are skipped when moving the cursor (and
+   * will not be found by any searches).
+   *
+   * @param rowFilter the filter to apply, or {@code null} for no filtering
+   * @param columnNames the columns needed by the filter to evaluate a row, or
+   *                    {@code null} to load all columns
+   */
+  public void setRowFilter(RowFilter rowFilter,
+                           Collection<String> columnNames) {
+    _rowFilter = rowFilter;
+    _rowFilterColumnNames = columnNames;
+  }
+
+  public Collection<RawColumnPredicate> getRawPredicates() {
+    return _rawPredicates;
+  }
+
+  /**
+   * Sets predicates which restrict the rows visible through this cursor.
+   * The predicates are evaluated against the raw row data before the row
+   * filter (if any), so non-matching rows are skipped without decoding any
+   * row values.
+   *
+   * @param rawPredicates the predicates which all visible rows must match,
+   *                      or {@code null} for no predicates
+   */
+  public void setRawPredicates(Collection<RawColumnPredicate> rawPredicates) {
+    _rawPredicates = rawPredicates;
+  }
+
+  /**
+   * Returns the number of pages which sequential traversals of this cursor
+   * read ahead of the current page in the background ({@code 0} if
+   * disabled).
+   */
+  public int getReadAheadPages() {
+    return ((_readAheadPages >= 0) ? _readAheadPages :
+            getPageChannel().getReadAheadPages());
+  }
+
+  /**
+   * Sets the number of pages which sequential traversals of this cursor read
+   * ahead of the current page in the background.
+   *
+   * @param readAheadPages the number of pages to read ahead, {@code 0} to
+   *                       disable, or a negative number to use the database
+   *                       default (see {@link PageChannel#getReadAheadPages})
+   */
+  public void setReadAheadPages(int readAheadPages) {
+    _readAheadPages = Math.max(-1, readAheadPages);
+  }
+
+  /**
+   * Should be called by subclasses whenever a traversal moves to another
+   * (data) page.  Once the traversal appears to be sequential, returns the
+   * number of upcoming pages which should be read ahead (in batches, so that
+   * the pages are not requested on every page move).
+   *
+   * @return the number of upcoming pages to read ahead, {@code 0} if none
+   */
+  protected int getPagesToReadAhead() {
+    if(!isSequentialPageMove() || (--_pageMovesUntilReadAhead > 0)) {
+      return 0;
+    }
+    int numPages = getReadAheadPages();
+    // request more pages when half of the current pages have been consumed
+    _pageMovesUntilReadAhead = Math.max(1, numPages / 2);
+    return numPages;
+  }
+
+  /**
+   * Should be called by subclasses whenever a traversal moves to another
+   * page.  Returns {@code true} if the traversal appears to be sequential
+   * (the cursor has moved over consecutive pages without being
+   * repositioned), {@code false} otherwise.
+   */
+  protected boolean isSequentialPageMove() {
+    return (++_sequentialPageMoves >= MIN_SEQUENTIAL_PAGE_MOVES);
+  }
+
+  private void resetReadAhead() {
+    _sequentialPageMoves = 0;
+    _pageMovesUntilReadAhead = 0;
+  }
+
+  /**
+   * Returns {@code true} if this cursor has a row filter or raw predicates,
+   * {@code false} otherwise.
+   */
+  protected boolean hasRowFilter() {
+    return ((_rowFilter != null) || (_rawPredicates != null));
+  }
+
   /**
    * Returns the default ColumnMatcher for this Cursor.
    */
@@ -222,6 +341,7 @@ public abstract class CursorImpl implements Cursor
     _curPos = getDirHandler(moveForward).getBeginningPosition();
     _prevPos = _curPos;
     _rowState.reset();
+    resetReadAhead();
   }  
   
   public Iterator<Row> iterator() {
@@ -372,6 +492,7 @@ public abstract class CursorImpl implements Cursor
     _prevPos = _curPos;
     _curPos = curPos;
     _rowState.reset();
+    resetReadAhead();
   }
   
   /**
@@ -400,11 +521,14 @@ public abstract class CursorImpl implements Cursor
   private boolean moveToAnotherRowImpl(boolean moveForward)
     throws IOException
   {
-    _rowState.reset();
+    PositionImpl endPos = getDirHandler(moveForward).getEndPosition();
     _prevPos = _curPos;
-    _curPos = findAnotherPosition(_rowState, _curPos, moveForward);
-    TableImpl.positionAtRowHeader(_rowState, _curPos.getRowId());
-    return(!_curPos.equals(getDirHandler(moveForward).getEndPosition()));
+    do {
+      _rowState.reset();
+      _curPos = findAnotherPosition(_rowState, _curPos, moveForward);
+      TableImpl.positionAtRowHeader(_rowState, _curPos.getRowId());
+    } while(!_curPos.equals(endPos) && !currentRowMatchesFilter());
+    return(!_curPos.equals(endPos));
   }
 
   public boolean findRow(RowId rowId) throws IOException
@@ -711,6 +835,103 @@ public abstract class CursorImpl implements Cursor
     return _table.getRowValue(_rowState, _curPos.getRowId(), column);
   }
 
+  /**
+   * Returns the value of the given date/time column in the current row as a
+   * java time value (millis since the epoch, interpreted in the database
+   * timezone), without creating a Date.
+   * @param nullValue the value to return if the value is null
+   * @throws IllegalArgumentException if the column is not a date/time column
+   * @usage _advanced_method_
+   */
+  public long getCurrentRowDateMillis(Column column, long nullValue)
+    throws IOException
+  {
+    double value = _table.getRowDateDouble(_rowState, _curPos.getRowId(),
+                                           (ColumnImpl)column);
+    return (!Double.isNaN(value) ?
+            ColumnImpl.fromDateDouble(value, _table.getDatabase()) :
+            nullValue);
+  }
+
+  /**
+   * Returns the value of the given date/time column in the current row as a
+   * "local" time value, without creating a Date and without any timezone
+   * conversion.  The returned value is the number of millis since the epoch
+   * of the date/time value as stored in the database as if it were in UTC
+   * (i.e. the equivalent of a "local date/time").
+   * @param nullValue the value to return if the value is null
+   * @throws IllegalArgumentException if the column is not a date/time column
+   * @usage _advanced_method_
+   */
+  public long getCurrentRowLocalDateMillis(Column column, long nullValue)
+    throws IOException
+  {
+    double value = _table.getRowDateDouble(_rowState, _curPos.getRowId(),
+                                           (ColumnImpl)column);
+    return (!Double.isNaN(value) ?
+            ColumnImpl.fromLocalDateDouble(value) : nullValue);
+  }
+
+  /**
+   * Reads the value of the given currency or numeric column in the current
+   * row into the given holder, without creating a BigDecimal.
+   * @return {@code true} if the value was read, {@code false} if the value is
+   *         null (in which case the holder is unchanged)
+   * @throws IllegalArgumentException if the column is not a currency or
+   *         numeric column
+   * @usage _advanced_method_
+   */
+  public boolean getCurrentRowDecimal(Column column, UnscaledDecimal value)
+    throws IOException
+  {
+    return _table.getRowDecimal(_rowState, _curPos.getRowId(),
+                                (ColumnImpl)column, value);
+  }
+
+  /**
+   * Returns the value of the given currency column in the current row as a
+   * scaled long (the currency value multiplied by 10,000), without creating
+   * a BigDecimal.
+   * @param nullValue the value to return if the value is null
+   * @throws IllegalArgumentException if the column is not a currency column
+   * @usage _advanced_method_
+   */
+  public long getCurrentRowCurrencyUnscaled(Column column, long nullValue)
+    throws IOException
+  {
+    if(column.getType() != DataType.MONEY) {
+      throw new IllegalArgumentException(
+          "Given column " + column + " is not a currency column");
+    }
+    UnscaledDecimal value = _rowState.getDecimal();
+    if(!getCurrentRowDecimal(column, value)) {
+      return nullValue;
+    }
+    if(value.getScale() != ColumnImpl.CURRENCY_SCALE) {
+      // calculated value
+      return value.toBigDecimal().setScale(
+          ColumnImpl.CURRENCY_SCALE, RoundingMode.HALF_EVEN)
+        .unscaledValue().longValue();
+    }
+    return value.getUnscaledLong();
+  }
+
+  /**
+   * Returns the value of the given text column in the current row as a
+   * CharSequence.  For (non-calculated) text columns, the value is decoded
+   * into a scratch buffer held by this cursor without creating a String, so
+   * the returned value is only valid until this cursor is next used.
+   * @return the text value, or {@code null} if the value is null
+   * @throws IllegalArgumentException if the column is not a textual column
+   * @usage _advanced_method_
+   */
+  public CharSequence getCurrentRowTextView(Column column)
+    throws IOException
+  {
+    return _table.getRowTextView(_rowState, _curPos.getRowId(),
+                                 (ColumnImpl)column);
+  }
+
   public void setCurrentRowValue(Column column, Object value)
     throws IOException
   {
@@ -739,7 +960,21 @@ public abstract class CursorImpl implements Cursor
    */
   protected boolean isCurrentRowValid() throws IOException {
     return(_curPos.getRowId().isValid() && !isCurrentRowDeleted() &&
-           !isBeforeFirst() && !isAfterLast());
+           !isBeforeFirst() && !isAfterLast() && currentRowMatchesFilter());
+  }
+
+  /**
+   * Returns {@code true} if the current row matches the raw predicates and
+   * row filter for this cursor (if any), {@code false} otherwise.
+   */
+  protected boolean currentRowMatchesFilter() throws IOException {
+    if((_rawPredicates != null) &&
+       !_table.matchesRawPredicates(_rowState, _curPos.getRowId(),
+                                    _rawPredicates)) {
+      return false;
+    }
+    return((_rowFilter == null) ||
+           _rowFilter.matches(getCurrentRow(_rowFilterColumnNames)));
   }
   
   @Override
@@ -41,7 +41,8 @@ public class DBEvalContext implements Expressionator.ParseContext, EvalConfig
   private static final int MAX_CACHE_SIZE = 10;
 
   private final DatabaseImpl _db;
-  private FunctionLookup _funcs = DefaultFunctions.LOOKUP;
+  private final DomainFunctions _domainFuncs;
+  private FunctionLookup _funcs;
   private Map<String,SimpleDateFormat> _sdfs;
   private Map<String,DecimalFormat> _dfs;
   private TemporalConfig _temporal = TemporalConfig.US_TEMPORAL_CONFIG;
@@ -51,6 +52,8 @@ public class DBEvalContext implements Expressionator.ParseContext, EvalConfig
 
   public DBEvalContext(DatabaseImpl db) {
     _db = db;
+    _domainFuncs = new DomainFunctions(db, DefaultFunctions.LOOKUP);
+    _funcs = _domainFuncs;
   }
 
   protected DatabaseImpl getDatabase() {
@@ -129,6 +132,20 @@ public class DBEvalContext implements Expressionator.ParseContext, EvalConfig
     return _rndCtx.getRandom(seed);
   }
 
+  /**
+   * Called at the start of a (possibly nested) expression evaluation.
+   */
+  void startEval() {
+    _domainFuncs.startEval();
+  }
+
+  /**
+   * Called at the end of a (possibly nested) expression evaluation.
+   */
+  void endEval() {
+    _domainFuncs.endEval();
+  }
+
   void resetDateTimeConfig() {
     _sdfs = null;
   }
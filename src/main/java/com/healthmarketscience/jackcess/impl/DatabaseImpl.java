@@ -21,7 +21,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
@@ -34,11 +36,13 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -64,6 +68,7 @@ import com.healthmarketscience.jackcess.Table;
 import com.healthmarketscience.jackcess.TableBuilder;
 import com.healthmarketscience.jackcess.TableMetaData;
 import com.healthmarketscience.jackcess.expr.EvalConfig;
+import com.healthmarketscience.jackcess.impl.query.QueryFormat;
 import com.healthmarketscience.jackcess.impl.query.QueryImpl;
 import com.healthmarketscience.jackcess.query.Query;
 import com.healthmarketscience.jackcess.util.CaseInsensitiveColumnMatcher;
@@ -270,14 +275,14 @@ public class DatabaseImpl implements Database
    */
   private final Map<String, TableInfo> _tableLookup =
     new SimpleCache<String,TableInfo>(MAX_CACHED_LOOKUP_TABLES);
-  /** set of table names as stored in the mdb file, created on demand */
-  private Set<String> _tableNames;
   /** Reads and writes database pages */
   private final PageChannel _pageChannel;
   /** System catalog table */
   private TableImpl _systemCatalog;
   /** utility table finder */
   private TableFinder _tableFinder;
+  /** in-memory index of the system catalog, created on demand */
+  private CatalogIndex _catalogIndex;
   /** System access control entries table (initialized on first use) */
   private TableImpl _accessControlEntries;
   /** ID of the Relationships system object */
@@ -286,8 +291,12 @@ public class DatabaseImpl implements Database
   private final List<byte[]> _newRelSIDs = new ArrayList<byte[]>();
   /** System relationships table (initialized on first use) */
   private TableImpl _relationships;
+  /** in-memory graph of the relationships, created on demand */
+  private RelationshipGraph _relGraph;
   /** System queries table (initialized on first use) */
   private TableImpl _queries;
+  /** cache of the queries in this database, created on demand */
+  private QueryRegistry _queryRegistry;
   /** System complex columns table (initialized on first use) */
   private TableImpl _complexCols;
   /** SIDs to use for the ACEs added for new tables */
@@ -337,6 +346,8 @@ public class DatabaseImpl implements Database
     FKEnforcer.initSharedState();
   /** Calendar for use interpreting dates/times in Columns */
   private Calendar _calendar;
+  /** cached timezone offsets for converting date values in Columns */
+  private TimeZoneOffsets _tzOffsets;
   /** shared context for evaluating expressions */
   private DBEvalContext _evalCtx;
 
@@ -560,6 +571,84 @@ public class DatabaseImpl implements Database
     return _pageChannel;
   }
 
+  /**
+   * Returns the number of pages which sequential cursor traversals read
+   * ahead in the background by default ({@code 0} if disabled).
+   * @usage _advanced_method_
+   */
+  public int getReadAheadPages() {
+    return _pageChannel.getReadAheadPages();
+  }
+
+  /**
+   * Sets the number of pages which sequential cursor traversals read ahead
+   * in the background by default ({@code 0} to disable).
+   * @usage _advanced_method_
+   */
+  public void setReadAheadPages(int readAheadPages) {
+    _pageChannel.setReadAheadPages(readAheadPages);
+  }
+
+  /**
+   * Returns the maximum number of recently used tables which are strongly
+   * held by this database ({@code 0}, the default, if tables are only held
+   * while in use by the caller).
+   * @usage _advanced_method_
+   */
+  public int getTableCacheSize() {
+    return _tableCache.getMaxStrongTables();
+  }
+
+  /**
+   * Sets the maximum number of recently used tables which are strongly held
+   * by this database, so that they do not need to be re-loaded after they
+   * are garbage collected ({@code 0} to only hold tables while in use by the
+   * caller).
+   * @usage _advanced_method_
+   */
+  public void setTableCacheSize(int tableCacheSize) {
+    _tableCache.setMaxStrongTables(tableCacheSize);
+  }
+
+  /**
+   * Returns {@code true} if tables which are not strongly held are cached
+   * using soft references, {@code false} (the default) if weak references
+   * are used.
+   * @usage _advanced_method_
+   */
+  public boolean isSoftTableCache() {
+    return _tableCache.isSoftReferences();
+  }
+
+  /**
+   * Sets whether tables which are not strongly held (see {@link
+   * #setTableCacheSize}) are cached using soft references (which are only
+   * cleared when memory is low) or weak references (which are cleared on the
+   * next garbage collection).
+   * @usage _advanced_method_
+   */
+  public void setSoftTableCache(boolean softTableCache) {
+    _tableCache.setSoftReferences(softTableCache);
+  }
+
+  /**
+   * Returns the number of table lookups which were satisfied by the table
+   * cache.
+   * @usage _advanced_method_
+   */
+  public long getTableCacheHits() {
+    return _tableCache.getHits();
+  }
+
+  /**
+   * Returns the number of tables which were loaded from the database file
+   * (because they were not found in the table cache).
+   * @usage _advanced_method_
+   */
+  public long getTableCacheMisses() {
+    return _tableCache.getMisses();
+  }
+
   /**
    * @usage _advanced_method_
    */
@@ -635,7 +724,15 @@ public class DatabaseImpl implements Database
 
     // but, the local table name may not match the remote table name, so we
     // need to do a search if the common case fails
-    return _tableFinder.isLinkedTable(table);
+    for(CatalogEntry entry : getCatalogIndex().getEntries()) {
+      if(TYPE_LINKED_TABLE.equals(entry.type) &&
+         _tableParentId.equals(entry.parentId) &&
+         matchesLinkedTable(table, entry.linkedTableName,
+                            entry.linkedDbName)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private boolean matchesLinkedTable(Table table, String linkedTableName,
@@ -656,6 +753,7 @@ public class DatabaseImpl implements Database
     _timeZone = newTimeZone;
     // clear cached calendar(s) when timezone is changed
     _calendar = null;
+    _tzOffsets = null;
     if(_evalCtx != null) {
       _evalCtx.resetDateTimeConfig();
     }
@@ -746,6 +844,19 @@ public class DatabaseImpl implements Database
     return _calendar;
   }
 
+  /**
+   * @return the cached timezone offsets for the current timezone
+   * @usage _advanced_method_
+   */
+  TimeZoneOffsets getTimeZoneOffsets() {
+    TimeZoneOffsets tzOffsets = _tzOffsets;
+    if(tzOffsets == null) {
+      tzOffsets = new TimeZoneOffsets(_timeZone);
+      _tzOffsets = tzOffsets;
+    }
+    return tzOffsets;
+  }
+
   public EvalConfig getEvalConfig() {
     return getEvalContext();
   }
@@ -941,10 +1052,7 @@ public class DatabaseImpl implements Database
   }
 
   public Set<String> getTableNames() throws IOException {
-    if(_tableNames == null) {
-      _tableNames = getTableNames(true, false, true);
-    }
-    return _tableNames;
+    return getCatalogIndex().getTableNames();
   }
 
   public Set<String> getSystemTableNames() throws IOException {
@@ -956,8 +1064,24 @@ public class DatabaseImpl implements Database
     throws IOException
   {
     Set<String> tableNames = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
-    _tableFinder.getTableNames(tableNames, normalTables, systemTables,
-                               linkedTables);
+    for(CatalogEntry entry : getCatalogIndex().getEntries()) {
+
+      if(!_tableParentId.equals(entry.parentId)) {
+        continue;
+      }
+
+      if(TYPE_TABLE.equals(entry.type)) {
+        if(!isSystemObject(entry.flags)) {
+          if(normalTables) {
+            tableNames.add(entry.name);
+          }
+        } else if(systemTables) {
+          tableNames.add(entry.name);
+        }
+      } else if(TYPE_LINKED_TABLE.equals(entry.type) && linkedTables) {
+        tableNames.add(entry.name);
+      }
+    }
     return tableNames;
   }
 
@@ -1005,6 +1129,12 @@ public class DatabaseImpl implements Database
     }
 
     // lookup table info from system catalog
+    if(useCatalogIndex()) {
+      CatalogEntry entry = getCatalogIndex().getEntry(tableDefPageNumber);
+      return ((entry != null) ?
+              readTable(entry.name, tableDefPageNumber, entry.flags) : null);
+    }
+
     Row objectRow = _tableFinder.getObjectRow(
         tableDefPageNumber, SYSTEM_CATALOG_COLUMNS);
     if(objectRow == null) {
@@ -1201,22 +1331,21 @@ public class DatabaseImpl implements Database
       TableImpl table1, TableImpl table2, boolean includeSystemTables)
     throws IOException
   {
-    initRelationships();
+    RelationshipGraph graph = getRelationshipGraph();
 
     List<Relationship> relationships = new ArrayList<Relationship>();
+    Set<String> relNames = new HashSet<String>();
 
     if(table1 != null) {
-      Cursor cursor = createCursorWithOptionalIndex(
-          _relationships, REL_COL_FROM_TABLE, table1.getName());
-      collectRelationships(cursor, table1, table2, relationships,
+      collectRelationships(graph.getEntriesFrom(table1.getName()),
+                           table1, table2, relationships, relNames,
                            includeSystemTables);
-      cursor = createCursorWithOptionalIndex(
-          _relationships, REL_COL_TO_TABLE, table1.getName());
-      collectRelationships(cursor, table2, table1, relationships,
+      collectRelationships(graph.getEntriesTo(table1.getName()),
+                           table2, table1, relationships, relNames,
                            includeSystemTables);
     } else {
-      collectRelationships(new CursorBuilder(_relationships).toCursor(),
-                           null, null, relationships, includeSystemTables);
+      collectRelationships(graph.getEntries(), null, null, relationships,
+                           relNames, includeSystemTables);
     }
 
     return relationships;
@@ -1258,7 +1387,10 @@ public class DatabaseImpl implements Database
     try {
 
       int relObjId = _tableFinder.getNextFreeSyntheticId();
+      // make sure the graph is current before we add to it
+      RelationshipGraph graph = getRelationshipGraph();
       _relationships.addRows(rows);
+      graph.addEntry(new RelationshipEntry(newRel));
       addToSystemCatalog(name, relObjId, TYPE_RELATIONSHIP, null, null,
                          _relParentId);
       addToAccessControlEntries(relObjId, _relParentId, _newRelSIDs);
@@ -1270,6 +1402,18 @@ public class DatabaseImpl implements Database
     return newRel;
   }
 
+  /**
+   * Returns the in-memory graph of the relationships in this database,
+   * (re-)creating it if necessary.
+   */
+  private RelationshipGraph getRelationshipGraph() throws IOException {
+    initRelationships();
+    if((_relGraph == null) || !_relGraph.isUpToDate()) {
+      _relGraph = new RelationshipGraph();
+    }
+    return _relGraph;
+  }
+
   private void initRelationships() throws IOException {
     // the relationships table does not get loaded until first accessed
     if(_relationships == null) {
@@ -1305,13 +1449,9 @@ public class DatabaseImpl implements Database
     Set<String> names = new HashSet<String>();
 
     // collect the names of all relationships for uniqueness check
-    for(Row row :
-          CursorImpl.createCursor(_systemCatalog).newIterable().setColumnNames(
-              SYSTEM_CATALOG_COLUMNS))
-    {
-      String name = row.getString(CAT_COL_NAME);
-      if (name != null && TYPE_RELATIONSHIP.equals(row.get(CAT_COL_TYPE))) {
-        names.add(toLookupName(name));
+    for(CatalogEntry entry : getCatalogIndex().getEntries()) {
+      if(TYPE_RELATIONSHIP.equals(entry.type)) {
+        names.add(toLookupName(entry.name));
       }
     }
 
@@ -1334,52 +1474,31 @@ public class DatabaseImpl implements Database
   }
 
   public List<Query> getQueries() throws IOException
+  {
+    return getQueryRegistry().getQueries();
+  }
+
+  public Query getQuery(String name) throws IOException
+  {
+    return getQueryRegistry().getQuery(name);
+  }
+
+  /**
+   * Returns the cache of the queries in this database, (re-)creating it if
+   * necessary.
+   */
+  private QueryRegistry getQueryRegistry() throws IOException
   {
     // the queries table does not get loaded until first accessed
     if(_queries == null) {
       _queries = getRequiredSystemTable(TABLE_SYSTEM_QUERIES);
     }
 
-    // find all the queries from the system catalog
-    List<Row> queryInfo = new ArrayList<Row>();
-    Map<Integer,List<QueryImpl.Row>> queryRowMap =
-      new HashMap<Integer,List<QueryImpl.Row>>();
-    for(Row row :
-          CursorImpl.createCursor(_systemCatalog).newIterable().setColumnNames(
-              SYSTEM_CATALOG_COLUMNS))
-    {
-      String name = row.getString(CAT_COL_NAME);
-      if (name != null && TYPE_QUERY.equals(row.get(CAT_COL_TYPE))) {
-        queryInfo.add(row);
-        Integer id = row.getInt(CAT_COL_ID);
-        queryRowMap.put(id, new ArrayList<QueryImpl.Row>());
-      }
-    }
-
-    // find all the query rows
-    for(Row row : CursorImpl.createCursor(_queries)) {
-      QueryImpl.Row queryRow = new QueryImpl.Row(row);
-      List<QueryImpl.Row> queryRows = queryRowMap.get(queryRow.objectId);
-      if(queryRows == null) {
-        LOG.warn(withErrorContext(
-                     "Found rows for query with id " + queryRow.objectId +
-                     " missing from system catalog"));
-        continue;
-      }
-      queryRows.add(queryRow);
-    }
-
-    // lastly, generate all the queries
-    List<Query> queries = new ArrayList<Query>();
-    for(Row row : queryInfo) {
-      String name = row.getString(CAT_COL_NAME);
-      Integer id = row.getInt(CAT_COL_ID);
-      int flags = row.getInt(CAT_COL_FLAGS);
-      List<QueryImpl.Row> queryRows = queryRowMap.get(id);
-      queries.add(QueryImpl.create(flags, name, queryRows, id));
+    CatalogIndex catalogIndex = getCatalogIndex();
+    if((_queryRegistry == null) || !_queryRegistry.isUpToDate(catalogIndex)) {
+      _queryRegistry = new QueryRegistry(catalogIndex);
     }
-
-    return queries;
+    return _queryRegistry;
   }
 
   public TableImpl getSystemTable(String tableName) throws IOException
@@ -1536,73 +1655,61 @@ public class DatabaseImpl implements Database
 
   /**
    * Finds the relationships matching the given from and to tables from the
-   * given cursor and adds them to the given list.
+   * given relationship entries and adds them to the given list (skipping any
+   * relationships whose names have already been collected).
    */
   private void collectRelationships(
-      Cursor cursor, TableImpl fromTable, TableImpl toTable,
-      List<Relationship> relationships, boolean includeSystemTables)
+      Collection<RelationshipEntry> entries, TableImpl fromTable,
+      TableImpl toTable, List<Relationship> relationships,
+      Set<String> relNames, boolean includeSystemTables)
     throws IOException
   {
     String fromTableName = ((fromTable != null) ? fromTable.getName() : null);
     String toTableName = ((toTable != null) ? toTable.getName() : null);
 
-    for(Row row : cursor) {
-      String fromName = row.getString(REL_COL_FROM_TABLE);
-      String toName = row.getString(REL_COL_TO_TABLE);
-
-      if(((fromTableName == null) ||
-          fromTableName.equalsIgnoreCase(fromName)) &&
-         ((toTableName == null) ||
-          toTableName.equalsIgnoreCase(toName))) {
+    for(RelationshipEntry entry : entries) {
 
-        String relName = row.getString(REL_COL_NAME);
-
-        // found more info for a relationship.  see if we already have some
-        // info for this relationship
-        Relationship rel = null;
-        for(Relationship tmp : relationships) {
-          if(tmp.getName().equalsIgnoreCase(relName)) {
-            rel = tmp;
-            break;
-          }
-        }
+      if(((fromTableName != null) &&
+          !fromTableName.equalsIgnoreCase(entry.fromTable)) ||
+         ((toTableName != null) &&
+          !toTableName.equalsIgnoreCase(entry.toTable)) ||
+         relNames.contains(toLookupName(entry.name))) {
+        continue;
+      }
 
-        TableImpl relFromTable = fromTable;
+      TableImpl relFromTable = fromTable;
+      if(relFromTable == null) {
+        relFromTable = getTable(entry.fromTable, includeSystemTables);
         if(relFromTable == null) {
-          relFromTable = getTable(fromName, includeSystemTables);
-          if(relFromTable == null) {
-            // invalid table or ignoring system tables, just ignore
-            continue;
-          }
+          // invalid table or ignoring system tables, just ignore
+          continue;
         }
-        TableImpl relToTable = toTable;
+      }
+      TableImpl relToTable = toTable;
+      if(relToTable == null) {
+        relToTable = getTable(entry.toTable, includeSystemTables);
         if(relToTable == null) {
-          relToTable = getTable(toName, includeSystemTables);
-          if(relToTable == null) {
-            // invalid table or ignoring system tables, just ignore
-            continue;
-          }
+          // invalid table or ignoring system tables, just ignore
+          continue;
         }
+      }
 
-        if(rel == null) {
-          // new relationship
-          int numCols = row.getInt(REL_COL_COLUMN_COUNT);
-          int flags = row.getInt(REL_COL_FLAGS);
-          rel = new RelationshipImpl(relName, relFromTable, relToTable,
-                                     flags, numCols);
-          relationships.add(rel);
+      int numCols = entry.fromColumns.length;
+      RelationshipImpl rel = new RelationshipImpl(
+          entry.name, relFromTable, relToTable, entry.flags, numCols);
+      for(int i = 0; i < numCols; ++i) {
+        if(entry.fromColumns[i] != null) {
+          rel.getFromColumns().set(i, relFromTable.getColumn(
+                                       entry.fromColumns[i]));
+        }
+        if(entry.toColumns[i] != null) {
+          rel.getToColumns().set(i, relToTable.getColumn(
+                                     entry.toColumns[i]));
         }
-
-        // add column info
-        int colIdx = row.getInt(REL_COL_COLUMN_INDEX);
-        ColumnImpl fromCol = relFromTable.getColumn(
-            row.getString(REL_COL_FROM_COLUMN));
-        ColumnImpl toCol = relToTable.getColumn(
-            row.getString(REL_COL_TO_COLUMN));
-
-        rel.getFromColumns().set(colIdx, fromCol);
-        rel.getToColumns().set(colIdx, toCol);
       }
+
+      relNames.add(toLookupName(entry.name));
+      relationships.add(rel);
     }
   }
 
@@ -1646,6 +1753,9 @@ public class DatabaseImpl implements Database
       }
     }
     _systemCatalog.addRow(catalogRow);
+
+    // catalog index will be re-created next time needed
+    _catalogIndex = null;
   }
 
   /**
@@ -1854,7 +1964,7 @@ public class DatabaseImpl implements Database
   }
 
   /**
-   * Adds a table to the _tableLookup and resets the _tableNames set
+   * Adds a table to the _tableLookup
    */
   private void addTable(String tableName, Integer pageNumber, Short type,
                         String linkedDbName, String linkedTableName)
@@ -1862,8 +1972,6 @@ public class DatabaseImpl implements Database
     _tableLookup.put(toLookupName(tableName),
                      createTableInfo(tableName, pageNumber, 0, type,
                                      linkedDbName, linkedTableName));
-    // clear this, will be created next time needed
-    _tableNames = null;
   }
 
   /**
@@ -1891,7 +1999,9 @@ public class DatabaseImpl implements Database
       return tableInfo;
     }
 
-    tableInfo = _tableFinder.lookupTable(tableName);
+    tableInfo = (useCatalogIndex() ?
+                 getCatalogIndex().lookupTable(lookupTableName) :
+                 _tableFinder.lookupTable(tableName));
 
     if(tableInfo != null) {
       // cache for later
@@ -1901,6 +2011,34 @@ public class DatabaseImpl implements Database
     return tableInfo;
   }
 
+  /**
+   * Returns the in-memory index of the system catalog, (re-)creating it if
+   * necessary.
+   */
+  private CatalogIndex getCatalogIndex() throws IOException {
+    if((_catalogIndex != null) && !_catalogIndex.isUpToDate()) {
+      // the catalog was modified behind our back, so any cached lookups may
+      // be stale as well
+      _tableLookup.clear();
+      _catalogIndex = null;
+    }
+    if(_catalogIndex == null) {
+      _catalogIndex = new CatalogIndex();
+    }
+    return _catalogIndex;
+  }
+
+  /**
+   * Returns {@code true} if single object lookups should use the in-memory
+   * catalog index, {@code false} if they should use the table finder.  The
+   * index is used if it is already up-to-date or if the table finder would
+   * need to scan the system catalog anyway.
+   */
+  private boolean useCatalogIndex() {
+    return (((_catalogIndex != null) && _catalogIndex.isUpToDate()) ||
+            !_tableFinder.isIndexed());
+  }
+
   /**
    * @return a string usable in the _tableLookup map.
    */
@@ -2271,53 +2409,11 @@ public class DatabaseImpl implements Database
       return ((cur != null) ? cur.getCurrentRow(columns) : null);
     }
 
-    public void getTableNames(Set<String> tableNames,
-                              boolean normalTables,
-                              boolean systemTables,
-                              boolean linkedTables)
-      throws IOException
-    {
-      for(Row row : getTableNamesCursor().newIterable().setColumnNames(
-              SYSTEM_CATALOG_COLUMNS)) {
-
-        String tableName = row.getString(CAT_COL_NAME);
-        int flags = row.getInt(CAT_COL_FLAGS);
-        Short type = row.getShort(CAT_COL_TYPE);
-        int parentId = row.getInt(CAT_COL_PARENT_ID);
-
-        if(parentId != _tableParentId) {
-          continue;
-        }
-
-        if(TYPE_TABLE.equals(type)) {
-          if(!isSystemObject(flags)) {
-            if(normalTables) {
-              tableNames.add(tableName);
-            }
-          } else if(systemTables) {
-            tableNames.add(tableName);
-          }
-        } else if(TYPE_LINKED_TABLE.equals(type) && linkedTables) {
-          tableNames.add(tableName);
-        }
-      }
-    }
-
-    public boolean isLinkedTable(Table table) throws IOException
-    {
-      for(Row row : getTableNamesCursor().newIterable().setColumnNames(
-              SYSTEM_CATALOG_TABLE_DETAIL_COLUMNS)) {
-        Short type = row.getShort(CAT_COL_TYPE);
-        String linkedDbName = row.getString(CAT_COL_DATABASE);
-        String linkedTableName = row.getString(CAT_COL_FOREIGN_NAME);
-
-        if(TYPE_LINKED_TABLE.equals(type) &&
-           matchesLinkedTable(table, linkedTableName, linkedDbName)) {
-          return true;
-        }
-      }
-      return false;
-    }
+    /**
+     * Returns {@code true} if this finder can lookup single objects without
+     * scanning the system catalog, {@code false} otherwise.
+     */
+    public abstract boolean isIndexed();
 
     protected abstract Cursor findRow(Integer parentId, String name)
       throws IOException;
@@ -2325,8 +2421,6 @@ public class DatabaseImpl implements Database
     protected abstract Cursor findRow(Integer objectId)
       throws IOException;
 
-    protected abstract Cursor getTableNamesCursor() throws IOException;
-
     public abstract TableInfo lookupTable(String tableName)
       throws IOException;
 
@@ -2356,6 +2450,11 @@ public class DatabaseImpl implements Database
       _systemCatalogCursor = systemCatalogCursor;
     }
 
+    @Override
+    public boolean isIndexed() {
+      return true;
+    }
+
     private void initIdCursor() throws IOException {
       if(_systemCatalogIdCursor == null) {
         _systemCatalogIdCursor = _systemCatalog.newCursor()
@@ -2405,13 +2504,6 @@ public class DatabaseImpl implements Database
                              linkedTableName);
     }
 
-    @Override
-    protected Cursor getTableNamesCursor() throws IOException {
-      return _systemCatalogCursor.getIndex().newCursor()
-        .setStartEntry(_tableParentId, IndexData.MIN_VALUE)
-        .setEndEntry(_tableParentId, IndexData.MAX_VALUE)
-        .toIndexCursor();
-    }
 
     @Override
     protected int findMaxSyntheticId() throws IOException {
@@ -2440,6 +2532,11 @@ public class DatabaseImpl implements Database
       _systemCatalogCursor = systemCatalogCursor;
     }
 
+    @Override
+    public boolean isIndexed() {
+      return false;
+    }
+
     @Override
     protected Cursor findRow(Integer parentId, String name)
       throws IOException
@@ -2492,10 +2589,6 @@ public class DatabaseImpl implements Database
       return null;
     }
 
-    @Override
-    protected Cursor getTableNamesCursor() throws IOException {
-      return _systemCatalogCursor;
-    }
 
     @Override
     protected int findMaxSyntheticId() throws IOException {
@@ -2513,11 +2606,390 @@ public class DatabaseImpl implements Database
     }
   }
 
+  /**
+   * Compact, in-memory index of the system catalog, built with a single scan
+   * of the catalog table (only decoding the columns needed for the common
+   * object lookups).  Discarded whenever the catalog table is modified.
+   */
+  private final class CatalogIndex
+  {
+    /** the catalog table mod count when this index was built */
+    private final int _modCount;
+    /** all catalog entries, in catalog table order */
+    private final List<CatalogEntry> _entries = new ArrayList<CatalogEntry>();
+    /** catalog entries by object id */
+    private final Map<Integer,CatalogEntry> _entriesById =
+      new HashMap<Integer,CatalogEntry>();
+    /** table (and linked table) entries by lookup name */
+    private final Map<String,CatalogEntry> _tablesByName =
+      new HashMap<String,CatalogEntry>();
+    /** set of normal and linked table names, created on demand */
+    private Set<String> _tableNames;
+
+    private CatalogIndex() throws IOException {
+      _modCount = _systemCatalog.getModCount();
+
+      for(Row row :
+            CursorImpl.createCursor(_systemCatalog).newIterable()
+            .setColumnNames(SYSTEM_CATALOG_TABLE_DETAIL_COLUMNS)) {
+
+        String name = row.getString(CAT_COL_NAME);
+        Integer objectId = row.getInt(CAT_COL_ID);
+        if((name == null) || (objectId == null)) {
+          continue;
+        }
+
+        Integer flags = row.getInt(CAT_COL_FLAGS);
+        CatalogEntry entry = new CatalogEntry(
+            objectId, name, row.getShort(CAT_COL_TYPE),
+            ((flags != null) ? flags : 0), row.getInt(CAT_COL_PARENT_ID),
+            row.getString(CAT_COL_DATABASE),
+            row.getString(CAT_COL_FOREIGN_NAME));
+
+        _entries.add(entry);
+        _entriesById.put(objectId, entry);
+        if(isTableType(entry.type) && _tableParentId.equals(entry.parentId)) {
+          _tablesByName.put(toLookupName(name), entry);
+        }
+      }
+    }
+
+    public boolean isUpToDate() {
+      return (_modCount == _systemCatalog.getModCount());
+    }
+
+    public List<CatalogEntry> getEntries() {
+      return _entries;
+    }
+
+    public Set<String> getTableNames() throws IOException {
+      if(_tableNames == null) {
+        _tableNames = DatabaseImpl.this.getTableNames(true, false, true);
+      }
+      return _tableNames;
+    }
+
+    public CatalogEntry getEntry(Integer objectId) {
+      return _entriesById.get(objectId);
+    }
+
+    public TableInfo lookupTable(String lookupTableName) {
+      CatalogEntry entry = _tablesByName.get(lookupTableName);
+      return ((entry != null) ?
+              createTableInfo(entry.name, entry.objectId, entry.flags,
+                              entry.type, entry.linkedDbName,
+                              entry.linkedTableName) :
+              null);
+    }
+  }
+
+  /**
+   * The details of a system catalog row held by the CatalogIndex.
+   */
+  private static final class CatalogEntry
+  {
+    public final Integer objectId;
+    public final String name;
+    public final Short type;
+    public final int flags;
+    public final Integer parentId;
+    public final String linkedDbName;
+    public final String linkedTableName;
+
+    private CatalogEntry(Integer newObjectId, String newName, Short newType,
+                         int newFlags, Integer newParentId,
+                         String newLinkedDbName, String newLinkedTableName) {
+      objectId = newObjectId;
+      name = newName;
+      type = newType;
+      flags = newFlags;
+      parentId = newParentId;
+      linkedDbName = newLinkedDbName;
+      linkedTableName = newLinkedTableName;
+    }
+  }
+
+  /**
+   * Cache of the queries in this database.  The queries are found using the
+   * system catalog index, but each query is only parsed (from its rows in
+   * the system queries table) when first requested.  The cache is discarded
+   * whenever the system catalog or the system queries table is modified.
+   */
+  private final class QueryRegistry
+  {
+    /** the catalog index used to find the queries */
+    private final CatalogIndex _catalogIndex;
+    /** the queries table mod count when this registry was built */
+    private final int _modCount;
+    /** query catalog entries by lookup name, in catalog table order */
+    private final Map<String,CatalogEntry> _entries =
+      new LinkedHashMap<String,CatalogEntry>();
+    /** the queries which have been parsed, by object id */
+    private final Map<Integer,QueryImpl> _parsedQueries =
+      new HashMap<Integer,QueryImpl>();
+    /** whether or not all the queries have been parsed */
+    private boolean _allParsed;
+
+    private QueryRegistry(CatalogIndex catalogIndex) {
+      _catalogIndex = catalogIndex;
+      _modCount = _queries.getModCount();
+
+      for(CatalogEntry entry : catalogIndex.getEntries()) {
+        if(TYPE_QUERY.equals(entry.type)) {
+          _entries.put(toLookupName(entry.name), entry);
+        }
+      }
+    }
+
+    public boolean isUpToDate(CatalogIndex catalogIndex) {
+      return ((_catalogIndex == catalogIndex) &&
+              (_modCount == _queries.getModCount()));
+    }
+
+    public QueryImpl getQuery(String name) throws IOException {
+      CatalogEntry entry = _entries.get(toLookupName(name));
+      if(entry == null) {
+        return null;
+      }
+
+      QueryImpl query = _parsedQueries.get(entry.objectId);
+      if(query == null) {
+        // only read the rows for this query (using the object id index, if
+        // available)
+        List<Row> tableRows = new ArrayList<Row>();
+        for(Row row : _queries.newCursor()
+              .where(QueryFormat.COL_OBJECTID, CursorBuilder.Op.EQ,
+                     entry.objectId)
+              .toCursor()) {
+          tableRows.add(row);
+        }
+        // query rows are expected in table order
+        Collections.sort(tableRows, new Comparator<Row>() {
+          public int compare(Row r1, Row r2) {
+            return r1.getId().compareTo(r2.getId());
+          }
+        });
+
+        List<QueryImpl.Row> queryRows =
+          new ArrayList<QueryImpl.Row>(tableRows.size());
+        for(Row row : tableRows) {
+          queryRows.add(new QueryImpl.Row(row));
+        }
+        query = createQuery(entry, queryRows);
+      }
+      return query;
+    }
+
+    public List<Query> getQueries() throws IOException {
+      if(!_allParsed) {
+        parseAllQueries();
+      }
+
+      List<Query> queries = new ArrayList<Query>(_entries.size());
+      for(CatalogEntry entry : _entries.values()) {
+        queries.add(_parsedQueries.get(entry.objectId));
+      }
+      return queries;
+    }
+
+    private void parseAllQueries() throws IOException {
+      // gather the rows for all the queries which have not yet been parsed
+      Map<Integer,List<QueryImpl.Row>> queryRowMap =
+        new HashMap<Integer,List<QueryImpl.Row>>();
+      for(CatalogEntry entry : _entries.values()) {
+        if(!_parsedQueries.containsKey(entry.objectId)) {
+          queryRowMap.put(entry.objectId, new ArrayList<QueryImpl.Row>());
+        }
+      }
+
+      if(!queryRowMap.isEmpty()) {
+        for(Row row : CursorImpl.createCursor(_queries)) {
+          Integer objectId = row.getInt(QueryFormat.COL_OBJECTID);
+          List<QueryImpl.Row> queryRows = queryRowMap.get(objectId);
+          if(queryRows == null) {
+            if(!_parsedQueries.containsKey(objectId)) {
+              LOG.warn(withErrorContext(
+                           "Found rows for query with id " + objectId +
+                           " missing from system catalog"));
+            }
+            continue;
+          }
+          queryRows.add(new QueryImpl.Row(row));
+        }
+
+        for(CatalogEntry entry : _entries.values()) {
+          List<QueryImpl.Row> queryRows = queryRowMap.get(entry.objectId);
+          if(queryRows != null) {
+            createQuery(entry, queryRows);
+          }
+        }
+      }
+
+      _allParsed = true;
+    }
+
+    private QueryImpl createQuery(CatalogEntry entry,
+                                  List<QueryImpl.Row> queryRows) {
+      QueryImpl query = QueryImpl.create(entry.flags, entry.name, queryRows,
+                                         entry.objectId);
+      _parsedQueries.put(entry.objectId, query);
+      return query;
+    }
+  }
+
+  /**
+   * In-memory graph of the relationships in this database (parsed from the
+   * system relationships table), indexed by the "from" and "to" tables.  The
+   * relationships are held by table and column name, so the related tables
+   * are only loaded when a relationship is actually returned.
+   */
+  private final class RelationshipGraph
+  {
+    /** the relationships table mod count when this graph was built */
+    private int _modCount;
+    /** all relationships, in relationships table order */
+    private final Map<String,RelationshipEntry> _entries =
+      new LinkedHashMap<String,RelationshipEntry>();
+    /** relationships by "from" table lookup name */
+    private final Map<String,List<RelationshipEntry>> _entriesFrom =
+      new HashMap<String,List<RelationshipEntry>>();
+    /** relationships by "to" table lookup name */
+    private final Map<String,List<RelationshipEntry>> _entriesTo =
+      new HashMap<String,List<RelationshipEntry>>();
+
+    private RelationshipGraph() throws IOException {
+      _modCount = _relationships.getModCount();
+
+      for(Row row : CursorImpl.createCursor(_relationships)) {
+        String relName = row.getString(REL_COL_NAME);
+        if(relName == null) {
+          continue;
+        }
+
+        // each relationship column is a separate row.  see if we already
+        // have some info for this relationship
+        String lookupName = toLookupName(relName);
+        RelationshipEntry entry = _entries.get(lookupName);
+        if(entry == null) {
+          entry = new RelationshipEntry(
+              relName, row.getString(REL_COL_FROM_TABLE),
+              row.getString(REL_COL_TO_TABLE), row.getInt(REL_COL_FLAGS),
+              row.getInt(REL_COL_COLUMN_COUNT));
+          addEntry(entry);
+        }
+
+        // add column info
+        int colIdx = row.getInt(REL_COL_COLUMN_INDEX);
+        entry.fromColumns[colIdx] = row.getString(REL_COL_FROM_COLUMN);
+        entry.toColumns[colIdx] = row.getString(REL_COL_TO_COLUMN);
+      }
+    }
+
+    public boolean isUpToDate() {
+      return (_modCount == _relationships.getModCount());
+    }
+
+    public Collection<RelationshipEntry> getEntries() {
+      return _entries.values();
+    }
+
+    public List<RelationshipEntry> getEntriesFrom(String tableName) {
+      return getEntries(_entriesFrom, tableName);
+    }
+
+    public List<RelationshipEntry> getEntriesTo(String tableName) {
+      return getEntries(_entriesTo, tableName);
+    }
+
+    /**
+     * Adds the given relationship to this graph.  If called after the
+     * relationships table was updated with the given relationship, this
+     * graph is considered up-to-date.
+     */
+    public void addEntry(RelationshipEntry entry) {
+      _entries.put(toLookupName(entry.name), entry);
+      addEntry(_entriesFrom, entry.fromTable, entry);
+      addEntry(_entriesTo, entry.toTable, entry);
+      _modCount = _relationships.getModCount();
+    }
+
+    private List<RelationshipEntry> getEntries(
+        Map<String,List<RelationshipEntry>> entries, String tableName)
+    {
+      List<RelationshipEntry> tableEntries =
+        entries.get(toLookupName(tableName));
+      return ((tableEntries != null) ? tableEntries :
+              Collections.<RelationshipEntry>emptyList());
+    }
+
+    private void addEntry(Map<String,List<RelationshipEntry>> entries,
+                          String tableName, RelationshipEntry entry)
+    {
+      if(tableName == null) {
+        return;
+      }
+      String lookupName = toLookupName(tableName);
+      List<RelationshipEntry> tableEntries = entries.get(lookupName);
+      if(tableEntries == null) {
+        tableEntries = new ArrayList<RelationshipEntry>(1);
+        entries.put(lookupName, tableEntries);
+      }
+      tableEntries.add(entry);
+    }
+  }
+
+  /**
+   * The details of a relationship held by the RelationshipGraph.
+   */
+  private static final class RelationshipEntry
+  {
+    public final String name;
+    public final String fromTable;
+    public final String toTable;
+    public final int flags;
+    public final String[] fromColumns;
+    public final String[] toColumns;
+
+    private RelationshipEntry(String newName, String newFromTable,
+                              String newToTable, Integer newFlags,
+                              Integer numCols) {
+      name = newName;
+      fromTable = newFromTable;
+      toTable = newToTable;
+      flags = ((newFlags != null) ? newFlags : 0);
+      int numColsVal = ((numCols != null) ? numCols : 0);
+      fromColumns = new String[numColsVal];
+      toColumns = new String[numColsVal];
+    }
+
+    private RelationshipEntry(RelationshipImpl rel) {
+      this(rel.getName(), rel.getFromTable().getName(),
+           rel.getToTable().getName(), rel.getFlags(),
+           rel.getFromColumns().size());
+      for(int i = 0; i < fromColumns.length; ++i) {
+        fromColumns[i] = rel.getFromColumns().get(i).getName();
+        toColumns[i] = rel.getToColumns().get(i).getName();
+      }
+    }
+  }
+
+  /**
+   * Reference to a cached Table which holds the table pageNumber (for later
+   * cache purging).
+   */
+  private interface TableReference
+  {
+    public Integer getPageNumber();
+
+    public TableImpl get();
+  }
+
   /**
    * WeakReference for a Table which holds the table pageNumber (for later
    * cache purging).
    */
   private static final class WeakTableReference extends WeakReference<TableImpl>
+    implements TableReference
   {
     private final Integer _pageNumber;
 
@@ -2533,35 +3005,134 @@ public class DatabaseImpl implements Database
   }
 
   /**
-   * Cache of currently in-use tables, allows re-use of existing tables.
+   * SoftReference for a Table which holds the table pageNumber (for later
+   * cache purging).
+   */
+  private static final class SoftTableReference extends SoftReference<TableImpl>
+    implements TableReference
+  {
+    private final Integer _pageNumber;
+
+    private SoftTableReference(Integer pageNumber, TableImpl table,
+                               ReferenceQueue<TableImpl> queue) {
+      super(table, queue);
+      _pageNumber = pageNumber;
+    }
+
+    public Integer getPageNumber() {
+      return _pageNumber;
+    }
+  }
+
+  /**
+   * Cache of currently in-use tables, allows re-use of existing tables.  The
+   * most recently used tables (up to the configured max) are held strongly,
+   * all others are held by weak (or soft) references.
    */
   private static final class TableCache
   {
-    private final Map<Integer,WeakTableReference> _tables =
-      new HashMap<Integer,WeakTableReference>();
+    private final Map<Integer,TableReference> _tables =
+      new HashMap<Integer,TableReference>();
     private final ReferenceQueue<TableImpl> _queue =
       new ReferenceQueue<TableImpl>();
+    /** the most recently used tables, least recently used first */
+    private final Map<Integer,TableImpl> _strongTables =
+      new LinkedHashMap<Integer,TableImpl>(16, 0.75f, true) {
+      private static final long serialVersionUID = 0L;
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer,TableImpl> e) {
+        return (size() > _maxStrongTables);
+      }
+    };
+    private int _maxStrongTables;
+    private boolean _softRefs;
+    private long _hits;
+    private long _misses;
 
     public TableImpl get(Integer pageNumber) {
-      WeakTableReference ref = _tables.get(pageNumber);
-      return ((ref != null) ? ref.get() : null);
+      TableReference ref = _tables.get(pageNumber);
+      TableImpl table = ((ref != null) ? ref.get() : null);
+      if(table != null) {
+        ++_hits;
+        if(_maxStrongTables > 0) {
+          // mark as most recently used
+          _strongTables.put(pageNumber, table);
+        }
+      }
+      return table;
     }
 
     public TableImpl put(TableImpl table) {
       purgeOldRefs();
 
+      // every table added to the cache was loaded from the file
+      ++_misses;
+
       Integer pageNumber = table.getTableDefPageNumber();
-      WeakTableReference ref = new WeakTableReference(
-          pageNumber, table, _queue);
-      _tables.put(pageNumber, ref);
+      _tables.put(pageNumber, newReference(pageNumber, table));
+      if(_maxStrongTables > 0) {
+        _strongTables.put(pageNumber, table);
+      }
 
       return table;
     }
 
+    public int getMaxStrongTables() {
+      return _maxStrongTables;
+    }
+
+    public void setMaxStrongTables(int maxStrongTables) {
+      _maxStrongTables = Math.max(maxStrongTables, 0);
+      // drop the least recently used tables which no longer fit
+      Iterator<Integer> iter = _strongTables.keySet().iterator();
+      while((_strongTables.size() > _maxStrongTables) && iter.hasNext()) {
+        iter.next();
+        iter.remove();
+      }
+    }
+
+    public boolean isSoftReferences() {
+      return _softRefs;
+    }
+
+    public void setSoftReferences(boolean softRefs) {
+      if(_softRefs == softRefs) {
+        return;
+      }
+      _softRefs = softRefs;
+
+      // re-wrap the tables which are still available
+      purgeOldRefs();
+      for(Map.Entry<Integer,TableReference> e : _tables.entrySet()) {
+        TableImpl table = e.getValue().get();
+        if(table != null) {
+          e.setValue(newReference(e.getKey(), table));
+        }
+      }
+    }
+
+    public long getHits() {
+      return _hits;
+    }
+
+    public long getMisses() {
+      return _misses;
+    }
+
+    private TableReference newReference(Integer pageNumber, TableImpl table) {
+      return (_softRefs ?
+              new SoftTableReference(pageNumber, table, _queue) :
+              new WeakTableReference(pageNumber, table, _queue));
+    }
+
     private void purgeOldRefs() {
-      WeakTableReference oldRef = null;
-      while((oldRef = (WeakTableReference)_queue.poll()) != null) {
-        _tables.remove(oldRef.getPageNumber());
+      Reference<? extends TableImpl> oldRef = null;
+      while((oldRef = _queue.poll()) != null) {
+        Integer pageNumber = ((TableReference)oldRef).getPageNumber();
+        // only remove the entry if it has not since been replaced
+        if(_tables.get(pageNumber) == oldRef) {
+          _tables.remove(pageNumber);
+        }
       }
     }
   }
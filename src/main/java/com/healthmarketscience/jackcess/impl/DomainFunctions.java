@@ -0,0 +1,433 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RuntimeIOException;
+import com.healthmarketscience.jackcess.expr.EvalContext;
+import com.healthmarketscience.jackcess.expr.EvalException;
+import com.healthmarketscience.jackcess.expr.Expression;
+import com.healthmarketscience.jackcess.expr.Function;
+import com.healthmarketscience.jackcess.expr.FunctionLookup;
+import com.healthmarketscience.jackcess.expr.Identifier;
+import com.healthmarketscience.jackcess.expr.Value;
+import com.healthmarketscience.jackcess.impl.expr.BuiltinOperators;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator.SimpleComparison;
+import com.healthmarketscience.jackcess.impl.expr.FunctionSupport;
+import com.healthmarketscience.jackcess.impl.expr.ValueSupport;
+import com.healthmarketscience.jackcess.impl.query.SelectQueryExecutor;
+import com.healthmarketscience.jackcess.query.Query;
+import com.healthmarketscience.jackcess.query.SelectQuery;
+
+/**
+ * FunctionLookup which provides the Access domain aggregate functions
+ * (DLookup, DCount, DSum, DMin, DMax) for the tables (and saved select
+ * queries) of a database.  All other functions are found using the delegate
+ * FunctionLookup.
+ * <p/>
+ * Simple comparisons in the criteria are used to restrict the traversed rows
+ * using an index (where possible).  DMin/DMax of an indexed column are found
+ * by reading the matching rows in index order, stopping at the first non-null
+ * value.  The results of the domain functions are cached for the duration of
+ * a single (top-level) expression evaluation.
+ *
+ * @author agent
+ */
+class DomainFunctions implements FunctionLookup
+{
+  private enum AggType {
+    LOOKUP, COUNT, SUM, MIN, MAX;
+  }
+
+  private final DatabaseImpl _db;
+  private final FunctionLookup _delegate;
+  private final Map<String,Function> _funcs = new HashMap<String,Function>();
+  /** nesting depth of the current expression evaluation */
+  private int _evalDepth;
+  /** results cached for the current expression evaluation */
+  private Map<List<String>,Value> _cache;
+
+  DomainFunctions(DatabaseImpl db, FunctionLookup delegate) {
+    _db = db;
+    _delegate = delegate;
+    addFunc(new DomainFunc("DLookup", AggType.LOOKUP));
+    addFunc(new DomainFunc("DCount", AggType.COUNT));
+    addFunc(new DomainFunc("DSum", AggType.SUM));
+    addFunc(new DomainFunc("DMin", AggType.MIN));
+    addFunc(new DomainFunc("DMax", AggType.MAX));
+  }
+
+  private void addFunc(Function func) {
+    _funcs.put(DatabaseImpl.toLookupName(func.getName()), func);
+  }
+
+  public Function getFunction(String name) {
+    Function func = _funcs.get(DatabaseImpl.toLookupName(name));
+    return ((func != null) ? func : _delegate.getFunction(name));
+  }
+
+  void startEval() {
+    ++_evalDepth;
+  }
+
+  void endEval() {
+    if(--_evalDepth == 0) {
+      _cache = null;
+    }
+  }
+
+  private static String stripBrackets(String name) {
+    name = name.trim();
+    if((name.length() >= 2) && (name.charAt(0) == '[') &&
+       (name.charAt(name.length() - 1) == ']')) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+
+  private static boolean isTrue(Object val, DomainContext ctx) {
+    return ((val != null) && ctx.toValue(val).getAsBoolean(ctx));
+  }
+
+  /**
+   * A domain aggregate function.  The params are the expression to
+   * evaluate, the name of the domain and the (optional) criteria.
+   */
+  private final class DomainFunc extends FunctionSupport.FuncVar
+  {
+    private final AggType _type;
+
+    private DomainFunc(String name, AggType type) {
+      super(name, 2, 3);
+      _type = type;
+    }
+
+    @Override
+    public boolean isPure() {
+      // the result depends on the current contents of the database
+      return false;
+    }
+
+    @Override
+    protected Value evalVar(EvalContext ctx, Value[] params) {
+      if(params[0].isNull() || params[1].isNull()) {
+        throw invalidFunctionCall(null, params);
+      }
+      String exprStr = params[0].getAsString(ctx).trim();
+      String domain = stripBrackets(params[1].getAsString(ctx));
+      String criteria = (((params.length > 2) && !params[2].isNull()) ?
+                         params[2].getAsString(ctx) : null);
+
+      List<String> key = null;
+      if(_evalDepth > 0) {
+        key = Arrays.asList(getName(), exprStr, domain, criteria);
+        Value result = ((_cache != null) ? _cache.get(key) : null);
+        if(result != null) {
+          return result;
+        }
+      }
+
+      Value result = null;
+      try {
+        result = eval(exprStr, new DomainContext(domain), criteria);
+      } catch(IOException e) {
+        throw new RuntimeIOException(e);
+      }
+
+      if(key != null) {
+        if(_cache == null) {
+          _cache = new HashMap<List<String>,Value>();
+        }
+        _cache.put(key, result);
+      }
+      return result;
+    }
+
+    private Value eval(String exprStr, DomainContext ctx, String criteria)
+      throws IOException
+    {
+      boolean countAll = ((_type == AggType.COUNT) && exprStr.equals("*"));
+      // simple column references are read directly
+      String exprCol = (!countAll ? ctx.findColumn(stripBrackets(exprStr)) :
+                        null);
+      Expression expr = (((exprCol == null) && !countAll) ?
+                         ctx.parse(exprStr) : null);
+
+      Expression critExpr = null;
+      List<SimpleComparison> comps = Collections.emptyList();
+      if(criteria != null) {
+        critExpr = ctx.parse(criteria);
+        comps = Expressionator.getSimpleComparisons(critExpr, ctx);
+      }
+
+      Iterator<Row> rows = null;
+      boolean minMax = ((_type == AggType.MIN) || (_type == AggType.MAX));
+      if(minMax && (exprCol != null)) {
+        rows = ctx.findOrderedRows(exprCol, (_type == AggType.MIN), comps);
+      }
+      // if the rows are in value order, the first value is the result
+      boolean firstValue = (rows != null);
+      if(rows == null) {
+        rows = ctx.findRows(comps);
+      }
+
+      int count = 0;
+      Value result = null;
+      while(rows.hasNext()) {
+        ctx._row = rows.next();
+        if((critExpr != null) && !isTrue(critExpr.eval(ctx), ctx)) {
+          continue;
+        }
+        if(countAll) {
+          ++count;
+          continue;
+        }
+
+        Value val = ((exprCol != null) ? ctx.getColumnValue(exprCol) :
+                     ctx.toValue(expr.eval(ctx)));
+        if(_type == AggType.LOOKUP) {
+          return val;
+        }
+        if(val.isNull()) {
+          continue;
+        }
+
+        switch(_type) {
+        case COUNT:
+          ++count;
+          break;
+        case SUM:
+          result = ((result != null) ? BuiltinOperators.add(ctx, result, val) :
+                    val);
+          break;
+        case MIN:
+        case MAX:
+          if(firstValue) {
+            return val;
+          }
+          if((result == null) ||
+             ((_type == AggType.MIN) ?
+              BuiltinOperators.lessThan(ctx, val, result) :
+              BuiltinOperators.greaterThan(ctx, val, result))
+             .getAsBoolean(ctx)) {
+            result = val;
+          }
+          break;
+        default:
+          throw new RuntimeException("unexpected type " + _type);
+        }
+      }
+
+      if(_type == AggType.COUNT) {
+        return ValueSupport.toValue(count);
+      }
+      return ((result != null) ? result : ValueSupport.NULL_VAL);
+    }
+  }
+
+  /**
+   * EvalContext for evaluating the expression and criteria of a domain
+   * function against the rows of the domain.
+   */
+  private final class DomainContext extends QueryEvalContext
+  {
+    private final String _domain;
+    private final TableImpl _table;
+    private final SelectQueryExecutor _queryExec;
+    /** the query column names, by lookup name */
+    private final Map<String,String> _queryCols;
+    private Row _row;
+
+    private DomainContext(String domain) throws IOException {
+      super(_db);
+      _domain = domain;
+      _table = _db.getTable(domain);
+      if(_table != null) {
+        _queryExec = null;
+        _queryCols = null;
+        return;
+      }
+
+      Query query = _db.getQuery(domain);
+      if(!(query instanceof SelectQuery)) {
+        throw new EvalException(
+            "Could not find table or select query for domain '" + domain +
+            "'");
+      }
+      _queryExec = new SelectQueryExecutor(_db, (SelectQuery)query);
+      _queryCols = new HashMap<String,String>();
+      for(String colName : _queryExec.getColumnNames()) {
+        _queryCols.put(DatabaseImpl.toLookupName(colName), colName);
+      }
+    }
+
+    /**
+     * @return the actual name of the domain column with the given name, or
+     *         {@code null} if the domain has no such column
+     */
+    private String findColumn(String name) {
+      if(_table != null) {
+        for(ColumnImpl col : _table.getColumns()) {
+          if(col.getName().equalsIgnoreCase(name)) {
+            return col.getName();
+          }
+        }
+        return null;
+      }
+      return _queryCols.get(DatabaseImpl.toLookupName(name));
+    }
+
+    private Value getColumnValue(String colName) {
+      Object val = _row.get(colName);
+      return ((_table != null) ?
+              toColumnValue(val, _table.getColumn(colName).getType()) :
+              toValue(val));
+    }
+
+    @Override
+    public Value getIdentifierValue(Identifier identifier) {
+      String colName = resolveColumn(identifier);
+      if(colName == null) {
+        throw new EvalException(withErrorContext(
+            "Unknown field " + identifier));
+      }
+      return getColumnValue(colName);
+    }
+
+    private String resolveColumn(Identifier identifier) {
+      if(((identifier.getCollectionName() != null) &&
+          !identifier.getCollectionName().equalsIgnoreCase(_domain)) ||
+         (identifier.getPropertyName() != null)) {
+        return null;
+      }
+      return findColumn(identifier.getObjectName());
+    }
+
+    /**
+     * @return the name of the table column for the given comparison if it
+     *         can be used to restrict the traversed rows, {@code null}
+     *         otherwise
+     */
+    private String getPredicateColumn(SimpleComparison comp) {
+      if(comp.getOtherIdentifier() != null) {
+        return null;
+      }
+      String colName = resolveColumn(comp.getIdentifier());
+      if(colName == null) {
+        return null;
+      }
+      DataType type = _table.getColumn(colName).getType();
+      if(comp.getOp() == SimpleComparison.Op.LIKE) {
+        // text patterns are matched the same way by the predicate
+        return ((type.isTextual() && (comp.getValues()[0] instanceof String)) ?
+                colName : null);
+      }
+      // other comparisons which the predicate handles differently than the
+      // expression could skip matching rows
+      return (ColumnPredicate.isExactPredicate(
+                  type, CursorBuilder.Op.valueOf(comp.getOp().name()),
+                  comp.getValues()) ? colName : null);
+    }
+
+    /**
+     * Returns the rows of the domain (which still need to be checked against
+     * the criteria).
+     */
+    private Iterator<Row> findRows(List<SimpleComparison> comps)
+      throws IOException
+    {
+      if(_table == null) {
+        return _queryExec.execute();
+      }
+      CursorBuilder builder = _table.newCursor();
+      for(SimpleComparison comp : comps) {
+        String colName = getPredicateColumn(comp);
+        if(colName != null) {
+          builder.where(colName, CursorBuilder.Op.valueOf(comp.getOp().name()),
+                        comp.getValues());
+        }
+      }
+      return builder.toCursor().iterator();
+    }
+
+    /**
+     * Returns the rows of the domain ordered by the given column (ascending
+     * or descending), or {@code null} if there is no usable index.  Any
+     * equality comparisons in the criteria are used as the leading columns
+     * of the index.
+     */
+    private Iterator<Row> findOrderedRows(
+        String colName, boolean ascending, List<SimpleComparison> comps)
+      throws IOException
+    {
+      if((_table == null) || _table.getColumn(colName).getType().isTextual()) {
+        // text index entries are not in expression comparison order
+        return null;
+      }
+
+      List<String> idxColNames = new ArrayList<String>();
+      List<Object> prefix = new ArrayList<Object>();
+      for(SimpleComparison comp : comps) {
+        if(comp.getOp() != SimpleComparison.Op.EQ) {
+          continue;
+        }
+        String predColName = getPredicateColumn(comp);
+        if((predColName != null) && !idxColNames.contains(predColName) &&
+           !predColName.equals(colName)) {
+          idxColNames.add(predColName);
+          prefix.add(comp.getValues()[0]);
+        }
+      }
+      idxColNames.add(colName);
+
+      IndexImpl index = _table.findIndexForColumns(
+          idxColNames, TableImpl.IndexFeature.ANY_MATCH);
+      if((index == null) || !RowIdCursor.isUsableIndex(index)) {
+        return null;
+      }
+
+      CursorBuilder builder = _table.newCursor().setIndex(index);
+      if(!prefix.isEmpty()) {
+        Object[] entry = prefix.toArray();
+        builder.setStartEntry(entry).setEndEntry(entry);
+      }
+      boolean forward =
+        (index.getColumns().get(prefix.size()).isAscending() == ascending);
+      return builder.toCursor().newIterable().setForward(forward).iterator();
+    }
+
+    @Override
+    protected String withErrorContext(String msg) {
+      if(_table != null) {
+        return _table.withErrorContext(msg);
+      }
+      return msg + " (Domain: " + _domain + ")";
+    }
+  }
+}
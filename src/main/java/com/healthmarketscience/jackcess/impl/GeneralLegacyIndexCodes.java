@@ -278,6 +278,10 @@ public class GeneralLegacyIndexCodes {
 
   static final GeneralLegacyIndexCodes GEN_LEG_INSTANCE = 
     new GeneralLegacyIndexCodes();
+
+  /** inline codes for the first 256 chars which are Type.SIMPLE (null for
+      all other chars), created on demand */
+  private byte[][] _simpleCodes;
   
   GeneralLegacyIndexCodes() {
   }
@@ -295,6 +299,49 @@ public class GeneralLegacyIndexCodes {
     return ExtCodes._values[extOffset];
   }
 
+  /**
+   * Returns the inline codes for the first 256 chars, where the entry for any
+   * char which is not Type.SIMPLE is {@code null}.
+   */
+  private byte[][] getSimpleCodes()
+  {
+    byte[][] simpleCodes = _simpleCodes;
+    if(simpleCodes == null) {
+      simpleCodes = new byte[asUnsignedChar(LAST_CHAR) + 1][];
+      for(int i = 0; i < simpleCodes.length; ++i) {
+        CharHandler ch = getCharHandler((char)i);
+        if(ch.getType() == Type.SIMPLE) {
+          simpleCodes[i] = ch.getInlineBytes();
+        }
+      }
+      // note, racy publication is safe here, another thread will at worst
+      // see null codes and use the "slow" path
+      _simpleCodes = simpleCodes;
+    }
+    return simpleCodes;
+  }
+
+  /**
+   * Writes the inline codes for the leading Type.SIMPLE chars (the common
+   * case for ascii/latin-1 text) of the given string directly to the given
+   * stream.
+   * @return the index of the first char which was not written
+   */
+  private int writeSimpleChars(String str, ByteStream bout)
+  {
+    byte[][] simpleCodes = getSimpleCodes();
+    int len = str.length();
+    for(int i = 0; i < len; ++i) {
+      char c = str.charAt(i);
+      byte[] bytes = ((c <= LAST_CHAR) ? simpleCodes[c] : null);
+      if(bytes == null) {
+        return i;
+      }
+      bout.write(bytes);
+    }
+    return len;
+  }
+
   /**
    * Loads the CharHandlers for the given range of characters from the
    * resource file with the given name.
@@ -485,12 +532,17 @@ public class GeneralLegacyIndexCodes {
     // necessary for this entry (handling descending)
     int prevLength = bout.getLength();
     
-    // now, convert each character to a "code" of one or more bytes
+    // the leading simple chars just have inline codes (and each has a char
+    // offset), so they can be written immediately.  usually this is the
+    // entire string.
+    int start = writeSimpleChars(str, bout);
+
+    // now, convert each remaining character to a "code" of one or more bytes
     ExtraCodesStream extraCodes = null;
     ByteStream unprintableCodes = null;
     ByteStream crazyCodes = null;
-    int charOffset = 0;
-    for(int i = 0; i < str.length(); ++i) {
+    int charOffset = start;
+    for(int i = start; i < str.length(); ++i) {
 
       char c = str.charAt(i);
       CharHandler ch = getCharHandler(c);
@@ -602,6 +654,38 @@ public class GeneralLegacyIndexCodes {
     bout.write(END_EXTRA_TEXT);    
   }
 
+  /**
+   * Converts a prefix of a text value into the leading bytes of the entry
+   * value for any text value which starts with the given prefix.  Only the
+   * "inline" codes of the prefix are written, so the resulting bytes will
+   * match (case-insensitively) all the entries which start with the prefix.
+   */
+  void writeNonNullIndexTextPrefix(
+      String prefix, ByteStream bout, boolean isAscending)
+    throws IOException
+  {
+    // all text columns (including memos) are only indexed up to the max
+    // number of chars in a VARCHAR column
+    if(prefix.length() > MAX_TEXT_INDEX_CHAR_LENGTH) {
+      prefix = prefix.substring(0, MAX_TEXT_INDEX_CHAR_LENGTH);
+    }
+
+    int prevLength = bout.getLength();
+
+    for(int i = writeSimpleChars(prefix, bout); i < prefix.length(); ++i) {
+      byte[] bytes = getCharHandler(prefix.charAt(i)).getInlineBytes();
+      if(bytes != null) {
+        bout.write(bytes);
+      }
+    }
+
+    // handle descending order by inverting the bytes
+    if(!isAscending) {
+      IndexData.flipBytes(bout.getBytes(), prevLength, 
+                          (bout.getLength() - prevLength));
+    }
+  }
+
   /**
    * Encodes the given extra code info in the given stream.
    */
@@ -93,6 +93,22 @@ public class IndexCursorImpl extends CursorImpl implements IndexCursor
                                              Object[] endRow,
                                              boolean endInclusive)
     throws IOException
+  {
+    validateIndex(table, index);
+    IndexCursorImpl cursor = new IndexCursorImpl(
+        table, index, index.cursor(startRow, startInclusive,
+                                   endRow, endInclusive));
+    // init the column matcher appropriately for the index type
+    cursor.setColumnMatcher(null);
+    return cursor;
+  }  
+
+  /**
+   * Verifies that the given index can be used for indexed lookups on the
+   * given table.
+   * @throws IllegalArgumentException if the index is not usable
+   */
+  static void validateIndex(TableImpl table, IndexImpl index)
   {
     if(table != index.getTable()) {
       throw new IllegalArgumentException(
@@ -109,13 +125,7 @@ public class IndexCursorImpl extends CursorImpl implements IndexCursor
           " is not usable for indexed lookups due to " +
           index.getIndexData().getUnsupportedReason());
     }
-    IndexCursorImpl cursor = new IndexCursorImpl(
-        table, index, index.cursor(startRow, startInclusive,
-                                   endRow, endInclusive));
-    // init the column matcher appropriately for the index type
-    cursor.setColumnMatcher(null);
-    return cursor;
-  }  
+  }
 
   private Set<String> getIndexEntryPattern()
   {
@@ -253,6 +263,13 @@ public class IndexCursorImpl extends CursorImpl implements IndexCursor
       return super.findAnotherRowImpl(columnPattern, valuePattern, moveForward,
                                       columnMatcher, rowValues);
     }
+
+    if(hasRowFilter()) {
+      // the first matching index entry may not be visible through this
+      // cursor, so we need to use the default table scan
+      return super.findAnotherRowImpl(columnPattern, valuePattern, moveForward,
+                                      columnMatcher, null);
+    }
       
     // sweet, we can use our index
     if(!findPotentialRow(rowValues, true)) {
@@ -302,6 +319,13 @@ public class IndexCursorImpl extends CursorImpl implements IndexCursor
                                       rowValues);
     }
 
+    if(hasRowFilter()) {
+      // the first matching index entry may not be visible through this
+      // cursor, so we need to use the default table scan
+      return super.findAnotherRowImpl(rowPattern, moveForward, columnMatcher,
+                                      null);
+    }
+
     // sweet, we can use our index
     if(!findPotentialRow(rowValues, true)) {
       // at end of index, no potential matches
@@ -422,6 +446,7 @@ public class IndexCursorImpl extends CursorImpl implements IndexCursor
   {
     IndexDirHandler handler = getDirHandler(moveForward);
     IndexPosition endPos = (IndexPosition)handler.getEndPosition();
+    _entryCursor.setReadAheadPages(getReadAheadPages());
     IndexData.Entry entry = handler.getAnotherEntry();
     return ((!entry.equals(endPos.getEntry())) ?
             new IndexPosition(entry) : endPos);
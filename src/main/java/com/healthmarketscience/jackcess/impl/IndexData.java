@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -85,6 +86,15 @@ public class IndexData {
   private static final int MAGIC_INDEX_NUMBER = 1923;
 
   private static final ByteOrder ENTRY_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+  /** the number of consecutive data page moves after which an index
+      traversal is considered sequential (and upcoming pages are read
+      ahead) */
+  private static final int MIN_SEQUENTIAL_PAGE_MOVES = 2;
+
+  /** the default number of encoded text values cached per text column when
+      the text key cache is enabled */
+  public static final int DEFAULT_TEXT_KEY_CACHE_SIZE = 64;
   
   /** type attributes for Entries which simplify comparisons */
   public enum EntryType {
@@ -334,6 +344,120 @@ public class IndexData {
     return _columns.size();
   }
 
+  /**
+   * Returns {@code true} if the entries of this index and the given index
+   * are ordered the same way for equal values (and therefore the join keys
+   * of the rows of both indexes are in index order), {@code false}
+   * otherwise.  The indexes must have the same number of columns, with
+   * matching types, text sort orders and ordering.  Additionally, a text
+   * column must be the last column of the indexes (the case of text values
+   * affects the order of any subsequent columns).
+   * @usage _advanced_method_
+   */
+  public boolean isJoinCompatible(IndexData other) {
+    if(_columns.size() != other._columns.size()) {
+      return false;
+    }
+    for(int i = 0; i < _columns.size(); ++i) {
+      ColumnDescriptor col = _columns.get(i);
+      ColumnDescriptor otherCol = other._columns.get(i);
+      ColumnImpl column = col.getColumn();
+      ColumnImpl otherColumn = otherCol.getColumn();
+      if((col.getClass() != otherCol.getClass()) ||
+         (column.getType() != otherColumn.getType()) ||
+         (col.isAscending() != otherCol.isAscending())) {
+        return false;
+      }
+      if(col instanceof TextColumnDescriptor) {
+        if(!column.getTextSortOrder().equals(
+               otherColumn.getTextSortOrder()) ||
+           (i < (_columns.size() - 1))) {
+          return false;
+        }
+      } else if(col instanceof ReadOnlyColumnDescriptor) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates the join key for the given entry values (in the order of the
+   * columns of this index).  A join key is the entry bytes for the values,
+   * except that text values only include the case-insensitive inline codes.
+   * Thus, the join keys of values which would be matched by a
+   * (case-insensitive) lookup are equal, and join keys sort in index order
+   * (see {@link #isJoinCompatible}).  Note that the inline codes ignore
+   * punctuation, accents, etc., so values with equal join keys do not
+   * necessarily match.
+   * @usage _advanced_method_
+   */
+  public byte[] createJoinKeyBytes(Object[] entryValues) throws IOException
+  {
+    ByteStream bout = new ByteStream();
+    for(int i = 0; i < _columns.size(); ++i) {
+      _columns.get(i).writeJoinKeyValue(entryValues[i], bout);
+    }
+    return bout.toByteArray();
+  }
+
+  /**
+   * Returns the bytes of the ascending index entry value for the given
+   * (non-{@code null}) text value using the given sort order.  The bytes of
+   * different values sort (using {@link #BYTE_CODE_COMPARATOR}) like the
+   * values in a text index using that sort order.
+   *
+   * @return the entry bytes, or {@code null} if the sort order is not
+   *         supported
+   * @usage _advanced_method_
+   */
+  public static byte[] createTextSortKey(Object value,
+                                         ColumnImpl.SortOrder sortOrder)
+    throws IOException
+  {
+    GeneralLegacyIndexCodes codes = getTextIndexCodes(sortOrder);
+    if(codes == null) {
+      return null;
+    }
+    ByteStream bout = new ByteStream();
+    codes.writeNonNullIndexTextValue(value, bout, true);
+    return bout.toByteArray();
+  }
+
+  /**
+   * Returns the codes used to encode the values of text indexes with the
+   * given sort order, or {@code null} if the sort order is not supported.
+   */
+  private static GeneralLegacyIndexCodes getTextIndexCodes(
+      ColumnImpl.SortOrder sortOrder)
+  {
+    if(ColumnImpl.GENERAL_LEGACY_SORT_ORDER.equals(sortOrder)) {
+      return GeneralLegacyIndexCodes.GEN_LEG_INSTANCE;
+    }
+    if(ColumnImpl.GENERAL_SORT_ORDER.equals(sortOrder)) {
+      return GeneralIndexCodes.GEN_INSTANCE;
+    }
+    return null;
+  }
+
+  /**
+   * Sets the max number of encoded text values cached for each text column
+   * in this index (0 disables the cache, which is the default).  Encoding
+   * text values is relatively expensive, so the cache is useful for indexes
+   * which are repeatedly searched for the same values (e.g. the index
+   * referenced by a foreign key relationship).  Note that the cache belongs
+   * to the (shared) index, so it affects all users of the index until it is
+   * disabled again.
+   * @usage _advanced_method_
+   */
+  public void setTextKeyCacheSize(int size) {
+    for(ColumnDescriptor col : _columns) {
+      if(col instanceof TextColumnDescriptor) {
+        ((TextColumnDescriptor)col).setKeyCacheSize(size);
+      }
+    }
+  }
+
   /**
    * Whether or not the complete index state has been read.
    */
@@ -882,6 +1006,87 @@ public class IndexData {
                            findEntryPosition(endEntry));
   }
 
+  /**
+   * Collects the RowIds of all the entries in the range defined by the given
+   * startRow and endRow.  The returned RowIds are sorted in physical order
+   * (not index order).
+   * <p>
+   * Forces index initialization.
+   * 
+   * @param startRow the first row of data for the range, or {@code null} for
+   *                 the first entry
+   * @param startInclusive whether or not startRow is inclusive or exclusive
+   * @param endRow the last row of data for the range, or {@code null} for
+   *               the last entry
+   * @param endInclusive whether or not endRow is inclusive or exclusive
+   */
+  public RowIdSet getRowIds(Object[] startRow,
+                            boolean startInclusive,
+                            Object[] endRow,
+                            boolean endInclusive)
+    throws IOException
+  {
+    EntryCursor cursor = cursor(startRow, startInclusive, endRow,
+                                endInclusive);
+    Entry lastEntry = cursor.getLastEntry();
+    RowIdSet.Builder rowIds = new RowIdSet.Builder();
+    Entry entry = null;
+    while(!(entry = cursor.getNextEntry()).equals(lastEntry)) {
+      rowIds.add(entry.getRowId());
+    }
+    return rowIds.toRowIdSet();
+  }
+
+  /**
+   * Collects the RowIds of all the entries where the first column of the
+   * index is a text value starting with the given prefix.  Text index
+   * entries are case-insensitive, so the returned RowIds are a superset of
+   * the rows which start with the given prefix exactly.  The returned RowIds
+   * are sorted in physical order (not index order).
+   * <p>
+   * Forces index initialization.
+   * 
+   * @param prefix the text prefix to find
+   * @return the matching RowIds, or {@code null} if the first column of this
+   *         index does not support prefix lookups
+   */
+  public RowIdSet getPrefixRowIds(String prefix)
+    throws IOException
+  {
+    ByteStream bout = new ByteStream();
+    if(!_columns.get(0).writePrefixValue(prefix, bout)) {
+      return null;
+    }
+    byte[] startEntryBytes = bout.toByteArray();
+
+    // all the entries which start with the prefix bytes sort before the
+    // "next" prefix
+    byte[] endEntryBytes = startEntryBytes.clone();
+    int idx = endEntryBytes.length - 1;
+    while((idx >= 0) && (endEntryBytes[idx] == (byte)0xFF)) {
+      endEntryBytes[idx--] = 0;
+    }
+
+    initialize();
+    Entry startEntry = new Entry(startEntryBytes, RowIdImpl.FIRST_ROW_ID);
+    Entry endEntry = LAST_ENTRY;
+    if(idx >= 0) {
+      ++endEntryBytes[idx];
+      endEntry = new Entry(Arrays.copyOf(endEntryBytes, idx + 1),
+                           RowIdImpl.FIRST_ROW_ID);
+    }
+
+    EntryCursor cursor = new EntryCursor(findEntryPosition(startEntry),
+                                         findEntryPosition(endEntry));
+    Entry lastEntry = cursor.getLastEntry();
+    RowIdSet.Builder rowIds = new RowIdSet.Builder();
+    Entry entry = null;
+    while(!(entry = cursor.getNextEntry()).equals(lastEntry)) {
+      rowIds.add(entry.getRowId());
+    }
+    return rowIds.toRowIdSet();
+  }
+
   private Position findEntryPosition(Entry entry)
     throws IOException
   {
@@ -1395,6 +1600,17 @@ public class IndexData {
     return _pageCache.getCacheDataPage(pageNumber);
   }
   
+  /**
+   * Reads up to the given number of upcoming unloaded data pages (in the
+   * given direction) after the given data page in the background.
+   */
+  protected void readAheadDataPages(DataPage dataPage, boolean moveForward,
+                                    int numPages)
+  {
+    _pageCache.readAheadDataPages(dataPage.getPageNumber(), moveForward,
+                                  numPages);
+  }
+
   /**
    * Flips the first bit in the byte at the given index.
    */
@@ -1514,11 +1730,9 @@ public class IndexData {
     case TEXT:
     case MEMO:
       ColumnImpl.SortOrder sortOrder = col.getTextSortOrder();
-      if(ColumnImpl.GENERAL_LEGACY_SORT_ORDER.equals(sortOrder)) {
-        return new GenLegTextColumnDescriptor(col, flags);
-      }
-      if(ColumnImpl.GENERAL_SORT_ORDER.equals(sortOrder)) {
-        return new GenTextColumnDescriptor(col, flags);
+      GeneralLegacyIndexCodes codes = getTextIndexCodes(sortOrder);
+      if(codes != null) {
+        return new TextColumnDescriptor(col, flags, codes);
       }
       // unsupported sort order
       setUnsupportedReason("unsupported collating sort order " + sortOrder +
@@ -1656,6 +1870,28 @@ public class IndexData {
 
     protected abstract void writeNonNullValue(Object value, ByteStream bout)
       throws IOException; 
+
+    /**
+     * Writes the join key bytes for the given value (see {@link
+     * IndexData#createJoinKeyBytes}).
+     */
+    protected void writeJoinKeyValue(Object value, ByteStream bout)
+      throws IOException
+    {
+      writeValue(value, bout);
+    }
+
+    /**
+     * Writes the leading bytes shared by the entries of all text values
+     * starting with the given prefix.
+     * @return {@code true} if the prefix was written, {@code false} if this
+     *         column does not support prefix lookups
+     */
+    protected boolean writePrefixValue(String prefix, ByteStream bout)
+      throws IOException
+    {
+      return false;
+    }
     
     @Override
     public String toString() {
@@ -1869,44 +2105,83 @@ public class IndexData {
   }
   
   /**
-   * ColumnDescriptor for "general legacy" sort order text based columns.
+   * ColumnDescriptor for text based columns (using either the "general
+   * legacy" or "general" (2010+) sort order).
    */
-  private static final class GenLegTextColumnDescriptor 
-    extends ColumnDescriptor
+  private static final class TextColumnDescriptor extends ColumnDescriptor
   {
-    private GenLegTextColumnDescriptor(ColumnImpl column, byte flags)
+    private final GeneralLegacyIndexCodes _codes;
+    /** cache of the encoded bytes of recently written values, if enabled */
+    private Map<String,byte[]> _keyCache;
+
+    private TextColumnDescriptor(ColumnImpl column, byte flags,
+                                 GeneralLegacyIndexCodes codes)
       throws IOException
     {
       super(column, flags);
+      _codes = codes;
     }
-    
+
+    private void setKeyCacheSize(final int maxSize) {
+      if(maxSize <= 0) {
+        _keyCache = null;
+        return;
+      }
+      _keyCache = new LinkedHashMap<String,byte[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 0L;
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,byte[]> e) {
+          return (size() > maxSize);
+        }
+      };
+    }
+
     @Override
     protected void writeNonNullValue(Object value, ByteStream bout)
       throws IOException
     {
-      GeneralLegacyIndexCodes.GEN_LEG_INSTANCE.writeNonNullIndexTextValue(
-          value, bout, isAscending());
-    }    
-  }
+      if(_keyCache == null) {
+        _codes.writeNonNullIndexTextValue(value, bout, isAscending());
+        return;
+      }
 
-  /**
-   * ColumnDescriptor for "general" sort order (2010+) text based columns.
-   */
-  private static final class GenTextColumnDescriptor extends ColumnDescriptor
-  {
-    private GenTextColumnDescriptor(ColumnImpl column, byte flags)
+      String key = ColumnImpl.toCharSequence(value).toString();
+      byte[] keyBytes = _keyCache.get(key);
+      if(keyBytes != null) {
+        bout.write(keyBytes);
+        return;
+      }
+
+      int prevLength = bout.getLength();
+      _codes.writeNonNullIndexTextValue(key, bout, isAscending());
+      _keyCache.put(key, ByteUtil.copyOf(bout.getBytes(), prevLength,
+                                         bout.getLength() - prevLength));
+    }
+
+    @Override
+    protected boolean writePrefixValue(String prefix, ByteStream bout)
       throws IOException
     {
-      super(column, flags);
+      bout.write(getStartEntryFlag(isAscending()));
+      _codes.writeNonNullIndexTextPrefix(prefix, bout, isAscending());
+      return true;
     }
-    
+
     @Override
-    protected void writeNonNullValue(Object value, ByteStream bout)
+    protected void writeJoinKeyValue(Object value, ByteStream bout)
       throws IOException
     {
-      GeneralIndexCodes.GEN_INSTANCE.writeNonNullIndexTextValue(
-          value, bout, isAscending());
-    }    
+      if(isNullValue(value)) {
+        writeValue(value, bout);
+        return;
+      }
+
+      // the inline codes are case-insensitive, the end flag keeps a value
+      // from matching the longer values which it prefixes
+      writePrefixValue(ColumnImpl.toCharSequence(value).toString(), bout);
+      bout.write(isAscending() ? GeneralLegacyIndexCodes.END_TEXT :
+                 (byte)~GeneralLegacyIndexCodes.END_TEXT);
+    }
   }
 
   /**
@@ -2275,6 +2550,11 @@ public class IndexData {
         the cursor can detect updates to the index while traversing and act
         accordingly */
     private int _lastModCount;
+    /** number of data pages to read ahead for sequential traversals */
+    private int _readAheadPages;
+    /** number of consecutive data page moves since this cursor was
+        repositioned */
+    private int _sequentialPageMoves;
 
     private EntryCursor(Position firstPos, Position lastPos)
     {
@@ -2320,6 +2600,22 @@ public class IndexData {
     public boolean isUpToDate() {
       return(getIndexModCount() == _lastModCount);
     }
+
+    /**
+     * Returns the number of data pages which sequential traversals of this
+     * cursor read ahead in the background.
+     */
+    public int getReadAheadPages() {
+      return _readAheadPages;
+    }
+
+    /**
+     * Sets the number of data pages which sequential traversals of this
+     * cursor read ahead in the background ({@code 0} to disable).
+     */
+    public void setReadAheadPages(int readAheadPages) {
+      _readAheadPages = Math.max(0, readAheadPages);
+    }
         
     public void reset() {
       beforeFirst();
@@ -2337,6 +2633,7 @@ public class IndexData {
     {
       _curPos = getDirHandler(moveForward).getBeginningPosition();
       _prevPos = _curPos;
+      _sequentialPageMoves = 0;
     }
 
     /**
@@ -2402,6 +2699,7 @@ public class IndexData {
         }
         _prevPos = updatePosition(prevEntry);
         _curPos = updatePosition(curEntry);
+        _sequentialPageMoves = 0;
       } else {
         checkForModification();
       }
@@ -2428,9 +2726,26 @@ public class IndexData {
 
       _prevPos = _curPos;
       _curPos = handler.getAnotherPosition(_curPos);
+      if(_readAheadPages > 0) {
+        readAhead(moveForward);
+      }
       return _curPos;
     }
 
+    /**
+     * Reads the upcoming data page in the background if this cursor has
+     * moved to another data page while traversing sequentially.
+     */
+    private void readAhead(boolean moveForward) {
+      DataPage dataPage = _curPos.getDataPage();
+      if((dataPage.getPageNumber() ==
+          _prevPos.getDataPage().getPageNumber()) ||
+         (++_sequentialPageMoves < MIN_SEQUENTIAL_PAGE_MOVES)) {
+        return;
+      }
+      readAheadDataPages(dataPage, moveForward, _readAheadPages);
+    }
+
     /**
      * Checks the index for modifications and updates state accordingly.
      */
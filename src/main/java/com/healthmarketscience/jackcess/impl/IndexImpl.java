@@ -278,6 +278,30 @@ public class IndexImpl implements Index, Comparable<IndexImpl>
                                  endInclusive);
   }
 
+  /**
+   * Collects the RowIds of all the entries in the range defined by the given
+   * startRow and endRow.  The returned RowIds are sorted in physical order
+   * (not index order).
+   * <p>
+   * Forces index initialization.
+   * 
+   * @param startRow the first row of data for the range, or {@code null} for
+   *                 the first entry
+   * @param startInclusive whether or not startRow is inclusive or exclusive
+   * @param endRow the last row of data for the range, or {@code null} for
+   *               the last entry
+   * @param endInclusive whether or not endRow is inclusive or exclusive
+   */
+  public RowIdSet getRowIds(Object[] startRow,
+                            boolean startInclusive,
+                            Object[] endRow,
+                            boolean endInclusive)
+    throws IOException
+  {
+    return getIndexData().getRowIds(startRow, startInclusive, endRow,
+                                    endInclusive);
+  }
+
   /**
    * Constructs an array of values appropriate for this index from the given
    * column values, expected to match the columns for this index.
@@ -44,6 +44,9 @@ public class IndexPageCache
   /** max number of pages to cache (unless a write operation is in
       progress) */
   private static final int MAX_CACHE_SIZE = 25;
+  /** max number of preceding pages checked when resolving the parent of a
+      page for read ahead */
+  private static final int MAX_PARENT_SEARCH_PAGES = 8;
   
   /** the index whose pages this cache is managing */
   private final IndexData _indexData;
@@ -212,6 +215,165 @@ public class IndexPageCache
     return((main != null) ? new CacheDataPage(main) : null);
   }
   
+  /**
+   * Requests that up to the given number of upcoming leaf pages (in the
+   * given direction) after the given leaf page which are not currently
+   * loaded be read ahead in the background.  Since the upcoming leaf pages
+   * are not loaded, they are found using the child entries of their parent
+   * pages (which are loaded as necessary).  If the parent of the given page
+   * cannot be determined, only the next linked leaf page is read ahead.
+   */
+  public void readAheadDataPages(int pageNumber, boolean moveForward,
+                                 int numPages)
+  {
+    DataPageMain main = _dataPages.get(pageNumber);
+    if(main == null) {
+      return;
+    }
+
+    List<Integer> pageNumbers = new ArrayList<Integer>();
+    try {
+      collectUpcomingPageNumbers(main, moveForward, numPages, pageNumbers);
+    } catch(IOException e) {
+      // ignored, the "real" read will report any problems
+    }
+
+    if(pageNumbers.isEmpty()) {
+      pageNumbers.add(moveForward ? main._nextPageNumber :
+                      main._prevPageNumber);
+    }
+    for(Integer upcomingPageNumber : pageNumbers) {
+      if((upcomingPageNumber != INVALID_INDEX_PAGE_NUMBER) &&
+         !_dataPages.containsKey(upcomingPageNumber)) {
+        getPageChannel().readAhead(upcomingPageNumber);
+      }
+    }
+  }
+
+  /**
+   * Collects the page numbers of up to the given number of pages which
+   * follow the given page (in the given direction) at the same level of the
+   * index.
+   */
+  private void collectUpcomingPageNumbers(
+      DataPageMain main, boolean moveForward, int numPages,
+      List<Integer> pageNumbers)
+    throws IOException
+  {
+    DataPageMain parentMain = findParentPage(main, moveForward);
+    if(parentMain == null) {
+      return;
+    }
+
+    List<Entry> entries = parentMain.getExtra()._entryView;
+    int idx = indexOfChild(entries, main._pageNumber);
+    while(pageNumbers.size() < numPages) {
+      idx += (moveForward ? 1 : -1);
+      if((idx < 0) || (idx >= entries.size())) {
+        // move on to the children of the next parent page
+        parentMain = findPeerPage(parentMain, moveForward);
+        if(parentMain == null) {
+          return;
+        }
+        entries = parentMain.getExtra()._entryView;
+        idx = (moveForward ? -1 : entries.size());
+        continue;
+      }
+      pageNumbers.add(entries.get(idx).getSubPageNumber());
+    }
+  }
+
+  /**
+   * Returns the parent page of the given page, or {@code null} if it cannot
+   * be determined.  Leaf pages reached by following the leaf page links do
+   * not know their parent, so the parent is resolved using the preceding
+   * pages (in the given direction), which were traversed before the given
+   * page.
+   */
+  private DataPageMain findParentPage(DataPageMain main, boolean moveForward)
+    throws IOException
+  {
+    // walk back to the nearest page which knows its parent
+    List<DataPageMain> unresolved = new ArrayList<DataPageMain>();
+    DataPageMain curMain = main;
+    while(curMain._parentPageNumber == null) {
+      if(unresolved.size() == MAX_PARENT_SEARCH_PAGES) {
+        return null;
+      }
+      unresolved.add(curMain);
+      curMain = _dataPages.get(moveForward ? curMain._prevPageNumber :
+                               curMain._nextPageNumber);
+      if(curMain == null) {
+        return null;
+      }
+    }
+
+    DataPageMain parentMain = getDataPage(curMain._parentPageNumber);
+    if(parentMain == null) {
+      return null;
+    }
+    for(int i = unresolved.size() - 1; i >= 0; --i) {
+      DataPageMain childMain = unresolved.get(i);
+      if(indexOfChild(parentMain.getExtra()._entryView,
+                      childMain._pageNumber) < 0) {
+        // the child belongs to the next parent page
+        parentMain = findPeerPage(parentMain, moveForward);
+        if((parentMain == null) ||
+           (indexOfChild(parentMain.getExtra()._entryView,
+                         childMain._pageNumber) < 0)) {
+          return null;
+        }
+      }
+      childMain.initParentPage(
+          parentMain._pageNumber,
+          parentMain.isChildTailPageNumber(childMain._pageNumber));
+    }
+    return parentMain;
+  }
+
+  /**
+   * Returns the page which follows the given page (in the given direction)
+   * at the same level of the index, or {@code null} if there is none (or it
+   * cannot be determined).
+   */
+  private DataPageMain findPeerPage(DataPageMain main, boolean moveForward)
+    throws IOException
+  {
+    if(main.isRoot()) {
+      return null;
+    }
+    DataPageMain parentMain = findParentPage(main, moveForward);
+    if(parentMain == null) {
+      return null;
+    }
+
+    List<Entry> entries = parentMain.getExtra()._entryView;
+    int idx = indexOfChild(entries, main._pageNumber) +
+      (moveForward ? 1 : -1);
+    if((idx < 0) || (idx >= entries.size())) {
+      // the first/last child of the next parent page
+      parentMain = findPeerPage(parentMain, moveForward);
+      if(parentMain == null) {
+        return null;
+      }
+      entries = parentMain.getExtra()._entryView;
+      if(entries.isEmpty()) {
+        return null;
+      }
+      idx = (moveForward ? 0 : entries.size() - 1);
+    }
+    return parentMain.getChildPage(entries.get(idx));
+  }
+
+  private static int indexOfChild(List<Entry> entries, int pageNumber) {
+    for(int i = 0; i < entries.size(); ++i) {
+      if(entries.get(i).getSubPageNumber() == pageNumber) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Returns a DataPageMain for the given page number, may be {@code null} if
    * the given page number is invalid.  Loads the given page if necessary.
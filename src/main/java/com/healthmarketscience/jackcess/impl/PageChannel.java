@@ -44,6 +44,8 @@ public class PageChannel implements Channel, Flushable {
   static final int PAGE_GLOBAL_USAGE_MAP = 1;
   /** Global usage map always lives at row 0 */
   static final int ROW_GLOBAL_USAGE_MAP = 0;
+  /** max number of pages read by a single read of the channel */
+  static final int MAX_MULTI_PAGE_READ_PAGES = 64;
   
   /** Channel containing the database */
   private final FileChannel _channel;
@@ -67,6 +69,20 @@ public class PageChannel implements Channel, Flushable {
   private TempPageHolder _fullPageEncodeBufferH;
   private TempBufferHolder _tempDecodeBufferH;
   private int _writeCount;
+  /** default number of pages to read ahead for sequential scans (0 if
+      disabled) */
+  private int _readAheadPages;
+  /** handles background page reads, created on demand */
+  private PageReadAhead _readAhead;
+  /** the (decoded) pages read by the last call to {@link #readPages},
+      created on demand */
+  private ByteBuffer _runBuffer;
+  /** buffer used to decode the pages of a run, created on demand */
+  private ByteBuffer _runPageBuffer;
+  /** the first page in the _runBuffer */
+  private int _runStartPage;
+  /** the number of valid pages in the _runBuffer */
+  private int _runPages;
   
   /**
    * Only used by unit tests
@@ -126,6 +142,53 @@ public class PageChannel implements Channel, Flushable {
     return _autoSync;
   }
 
+  /**
+   * Returns the default number of pages which sequential scans read ahead
+   * of the current page in the background ({@code 0} if disabled).
+   */
+  public int getReadAheadPages() {
+    return _readAheadPages;
+  }
+
+  /**
+   * Sets the default number of pages which sequential scans read ahead of
+   * the current page in the background ({@code 0} to disable).
+   */
+  public void setReadAheadPages(int readAheadPages) {
+    _readAheadPages = Math.max(0, Math.min(readAheadPages,
+                                           PageReadAhead.MAX_READ_AHEAD_PAGES));
+  }
+
+  /**
+   * Requests that the given page be read in the background, so that a
+   * subsequent call to {@link #readPage} for the page does not need to wait
+   * for the I/O.  Should only be used for pages which are very likely to be
+   * read soon (e.g. the upcoming pages of a sequential scan).
+   */
+  public void readAhead(int pageNumber) {
+    readAhead(pageNumber, 1);
+  }
+
+  /**
+   * Requests that the given run of consecutive pages be read in the
+   * background (using as few reads of the underlying channel as possible).
+   * See {@link #readAhead(int)} for details.
+   */
+  public void readAhead(int startPageNumber, int numPages) {
+    if(startPageNumber == 0) {
+      // page 0 is never read ahead
+      ++startPageNumber;
+      --numPages;
+    }
+    if((startPageNumber <= 0) || (numPages <= 0) || !_channel.isOpen()) {
+      return;
+    }
+    if(_readAhead == null) {
+      _readAhead = new PageReadAhead(_channel, getFormat().PAGE_SIZE);
+    }
+    _readAhead.requestPages(startPageNumber, numPages);
+  }
+
   /**
    * Begins a "logical" write operation.  See {@link #finishWrite} for more
    * details.
@@ -213,6 +276,16 @@ public class PageChannel implements Channel, Flushable {
   {
     validatePageNumber(pageNumber);
 
+    if(isRunPage(pageNumber)) {
+      // page was already read (and decoded) as part of a run
+      buffer.clear();
+      buffer.put(_runBuffer.array(),
+                 (pageNumber - _runStartPage) * getFormat().PAGE_SIZE,
+                 getFormat().PAGE_SIZE);
+      buffer.flip();
+      return;
+    }
+
     ByteBuffer inPage = buffer;
     ByteBuffer outPage = buffer;
     if((pageNumber != 0) && !_codecHandler.canDecodeInline()) {
@@ -221,8 +294,12 @@ public class PageChannel implements Channel, Flushable {
     }
 
     inPage.clear();
-    int bytesRead = _channel.read(
-        inPage, (long) pageNumber * (long) getFormat().PAGE_SIZE);
+    int bytesRead = ((_readAhead != null) ?
+                     _readAhead.takePage(pageNumber, inPage) : -1);
+    if(bytesRead < 0) {
+      bytesRead = _channel.read(
+          inPage, (long) pageNumber * (long) getFormat().PAGE_SIZE);
+    }
     inPage.flip();
     if(bytesRead != getFormat().PAGE_SIZE) {
       throw new IOException("Failed attempting to read " +
@@ -237,7 +314,90 @@ public class PageChannel implements Channel, Flushable {
       _codecHandler.decodePage(inPage, outPage, pageNumber);
     }
   }
-  
+
+  /**
+   * Reads a run of consecutive pages using a single read of the underlying
+   * channel (reading at most {@link #MAX_MULTI_PAGE_READ_PAGES}
+   * pages).  Each page is decoded exactly as if read by {@link #readPage}.
+   * The decoded pages are held until the next call to this method (or until
+   * the file is written), and subsequent calls to {@link #readPage} for
+   * these pages do not read the underlying channel.
+   *
+   * @param startPageNumber Number of the first page to read in (starting at
+   *                        0)
+   * @param numPages Number of consecutive pages to read
+   */
+  public void readPages(int startPageNumber, int numPages)
+    throws IOException
+  {
+    // discard any previous run
+    _runPages = 0;
+
+    if(startPageNumber == 0) {
+      // page 0 is handled specially
+      ++startPageNumber;
+      --numPages;
+    }
+    numPages = Math.min(numPages, MAX_MULTI_PAGE_READ_PAGES);
+    if(numPages <= 1) {
+      // a single page gains nothing
+      return;
+    }
+    validatePageNumber(startPageNumber);
+    validatePageNumber(startPageNumber + numPages - 1);
+
+    int pageSize = getFormat().PAGE_SIZE;
+    int runSize = numPages * pageSize;
+    if((_runBuffer == null) || (_runBuffer.capacity() < runSize)) {
+      _runBuffer = createBuffer(runSize);
+    }
+    _runBuffer.clear();
+    _runBuffer.limit(runSize);
+    long offset = getPageOffset(startPageNumber);
+    while(_runBuffer.hasRemaining()) {
+      if(_channel.read(_runBuffer, offset + _runBuffer.position()) < 0) {
+        break;
+      }
+    }
+    if(_runBuffer.hasRemaining()) {
+      throw new IOException("Failed attempting to read " + runSize +
+                            " bytes from page " + startPageNumber +
+                            ", only read " + _runBuffer.position());
+    }
+
+    if(_runPageBuffer == null) {
+      _runPageBuffer = createPageBuffer();
+    }
+    byte[] runBytes = _runBuffer.array();
+    for(int i = 0; i < numPages; ++i) {
+      // codec handlers expect whole page buffers, so each page is copied out
+      // of the run to be decoded (and then copied back)
+      ByteBuffer outPage = _runPageBuffer;
+      ByteBuffer inPage = outPage;
+      if(!_codecHandler.canDecodeInline()) {
+        inPage = _tempDecodeBufferH.getPageBuffer(this);
+        outPage.clear();
+      }
+      inPage.clear();
+      inPage.put(runBytes, i * pageSize, pageSize);
+      inPage.flip();
+      _codecHandler.decodePage(inPage, outPage, startPageNumber + i);
+      System.arraycopy(outPage.array(), 0, runBytes, i * pageSize, pageSize);
+    }
+
+    _runStartPage = startPageNumber;
+    _runPages = numPages;
+  }
+
+  /**
+   * Returns {@code true} if the given page was read by the last call to
+   * {@link #readPages} (and is still valid), {@code false} otherwise.
+   */
+  public boolean isRunPage(int pageNumber) {
+    return ((pageNumber >= _runStartPage) &&
+            (pageNumber < (_runStartPage + _runPages)));
+  }
+
   /**
    * Write a page to disk
    * @param page Page to write
@@ -307,7 +467,7 @@ public class PageChannel implements Channel, Flushable {
     }
 
     try {
-      _channel.write(encodedPage, (getPageOffset(pageNumber) + pageOffset));
+      writeChannel(encodedPage, (getPageOffset(pageNumber) + pageOffset));
     } finally {
       if(pageNumber == 0) {
         // de-mask header
@@ -316,6 +476,27 @@ public class PageChannel implements Channel, Flushable {
     }
   }
   
+  /**
+   * Writes the given bytes to the channel, discarding any pages which have
+   * been read ahead (or read as a run).
+   */
+  private void writeChannel(ByteBuffer buffer, long offset)
+    throws IOException
+  {
+    // discard any pages read by readPages
+    _runPages = 0;
+    if(_readAhead == null) {
+      _channel.write(buffer, offset);
+      return;
+    }
+    // any in-progress background reads will be discarded, and no new ones
+    // can start until the write is complete
+    synchronized(_readAhead) {
+      _readAhead.invalidate();
+      _channel.write(buffer, offset);
+    }
+  }
+
   /**
    * Allocates a new page in the database.  Data in the page is undefined
    * until it is written in a call to {@link #writePage(ByteBuffer,int)}.
@@ -345,7 +526,7 @@ public class PageChannel implements Channel, Flushable {
 
     // since we are just allocating page space at this point and not writing
     // meaningful data, we do _not_ encode the page.
-    _channel.write(_forceBytes, offset);
+    writeChannel(_forceBytes, offset);
 
     _globalUsageMap.removePageNumber(pageNumber);
     return pageNumber;
@@ -362,7 +543,7 @@ public class PageChannel implements Channel, Flushable {
     // don't write the whole page, just wipe out the header (which should be
     // enough to let us know if we accidentally try to use an invalid page)
     _invalidPageBytes.rewind();
-    _channel.write(_invalidPageBytes, getPageOffset(pageNumber));
+    writeChannel(_invalidPageBytes, getPageOffset(pageNumber));
     
     _globalUsageMap.addPageNumber(pageNumber);  //force is done here
   }
@@ -394,6 +575,9 @@ public class PageChannel implements Channel, Flushable {
   }
   
   public void close() throws IOException {
+    if(_readAhead != null) {
+      _readAhead.close();
+    }
     flush();
     if(_closeChannel) {
       _channel.close();
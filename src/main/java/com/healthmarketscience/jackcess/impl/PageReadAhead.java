@@ -0,0 +1,325 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reads pages from a database file on a background thread, so that the I/O
+ * for the upcoming pages of a sequential scan overlaps with the processing of
+ * the current page.  The raw (still encoded) page bytes are held until they
+ * are consumed by {@link PageChannel#readPage}, which then decodes them as
+ * usual.
+ * <p>
+ * All pages held by this instance are discarded whenever the database file
+ * is written.  The background reads are done without holding the lock on
+ * this instance (so callers are not blocked by the I/O), but the pages read
+ * are only kept if the file was not written in the meantime, so a page read
+ * in the background never contains partially written data.
+ *
+ * @author agent
+ */
+class PageReadAhead
+{
+  /** the max number of pages which may be read ahead (including those
+      pending) */
+  static final int MAX_READ_AHEAD_PAGES = 256;
+
+  private final FileChannel _channel;
+  private final int _pageSize;
+  /** the thread doing the background reads */
+  private final ExecutorService _executor;
+  /** pages which have been requested but not yet read */
+  private final Set<Integer> _pendingPages = new HashSet<Integer>();
+  /** pages which have been read (but not yet consumed), oldest first */
+  private final Map<Integer,ByteBuffer> _pages =
+    new LinkedHashMap<Integer,ByteBuffer>(16, 0.75f, true) {
+    private static final long serialVersionUID = 0L;
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer,ByteBuffer> e) {
+      // discard pages which were never consumed (e.g. an abandoned scan)
+      if(size() > MAX_READ_AHEAD_PAGES) {
+        recycleBuffer(e.getValue());
+        return true;
+      }
+      return false;
+    }
+  };
+  /** page buffers which can be re-used */
+  private final List<ByteBuffer> _freeBuffers = new ArrayList<ByteBuffer>();
+  /** buffer for reading runs of consecutive pages, created on demand (only
+      used by the background thread) */
+  private ByteBuffer _runBuffer;
+  /** incremented every time the pages are invalidated */
+  private int _generation;
+
+  PageReadAhead(FileChannel channel, int pageSize) {
+    _channel = channel;
+    _pageSize = pageSize;
+    _executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "jackcess-read-ahead");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+  }
+
+  /**
+   * Requests that the given page be read in the background (if it has not
+   * already been requested).
+   */
+  public void requestPage(int pageNumber) {
+    requestPages(pageNumber, 1);
+  }
+
+  /**
+   * Requests that the given run of consecutive pages be read in the
+   * background (skipping any pages which have already been requested).
+   * Each remaining run of consecutive pages is read with a single read of
+   * the channel.
+   */
+  public synchronized void requestPages(int startPageNumber, int numPages) {
+    int runStart = startPageNumber;
+    int runPages = 0;
+    for(int i = 0; i < numPages; ++i) {
+      int pageNumber = startPageNumber + i;
+      boolean isFull = ((_pendingPages.size() + _pages.size()) >=
+                        MAX_READ_AHEAD_PAGES);
+      if(isFull || _pendingPages.contains(pageNumber) ||
+         _pages.containsKey(pageNumber) ||
+         (runPages == PageChannel.MAX_MULTI_PAGE_READ_PAGES)) {
+        // end of the current run
+        submitRun(runStart, runPages);
+        runPages = 0;
+        if(isFull) {
+          return;
+        }
+      }
+      if(_pendingPages.contains(pageNumber) ||
+         _pages.containsKey(pageNumber)) {
+        continue;
+      }
+      if(runPages == 0) {
+        runStart = pageNumber;
+      }
+      _pendingPages.add(pageNumber);
+      ++runPages;
+    }
+    submitRun(runStart, runPages);
+  }
+
+  private void submitRun(final int startPageNumber, final int numPages) {
+    if(numPages == 0) {
+      return;
+    }
+    try {
+      _executor.execute(new Runnable() {
+        public void run() {
+          readPages(startPageNumber, numPages);
+        }
+      });
+    } catch(RejectedExecutionException ignored) {
+      // we've been closed
+      for(int i = 0; i < numPages; ++i) {
+        _pendingPages.remove(startPageNumber + i);
+      }
+    }
+  }
+
+  /**
+   * Copies the raw bytes of the given page into the given buffer if the page
+   * has been read ahead, waiting for a pending read of the page to complete.
+   *
+   * @return the number of bytes copied, or -1 if the page was not read ahead
+   */
+  public synchronized int takePage(int pageNumber, ByteBuffer buffer) {
+    boolean interrupted = false;
+    while(_pendingPages.contains(pageNumber)) {
+      try {
+        wait();
+      } catch(InterruptedException e) {
+        // the pending read will complete shortly
+        interrupted = true;
+      }
+    }
+    if(interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    ByteBuffer page = _pages.remove(pageNumber);
+    if(page == null) {
+      return -1;
+    }
+    page.flip();
+    int bytesRead = page.remaining();
+    buffer.put(page);
+    recycleBuffer(page);
+    return bytesRead;
+  }
+
+  /**
+   * Discards all pages which have been read ahead (or are pending).  Must be
+   * called (while synchronized on this instance) before the file is
+   * written.
+   */
+  public synchronized void invalidate() {
+    ++_generation;
+    for(ByteBuffer page : _pages.values()) {
+      recycleBuffer(page);
+    }
+    _pages.clear();
+    _pendingPages.clear();
+    notifyAll();
+  }
+
+  /**
+   * Stops the background thread and discards any pages read ahead.
+   */
+  public void close() {
+    // note, we don't interrupt the background thread as that would close the
+    // underlying FileChannel
+    invalidate();
+    _executor.shutdown();
+  }
+
+  private void readPages(int startPageNumber, int numPages) {
+
+    int generation = 0;
+    ByteBuffer page = null;
+    try {
+
+      // claim the pages which are still pending
+      synchronized(this) {
+        generation = _generation;
+        // trim any pages which were invalidated before we got to them
+        while((numPages > 0) && !_pendingPages.contains(startPageNumber)) {
+          ++startPageNumber;
+          --numPages;
+        }
+        while((numPages > 0) &&
+              !_pendingPages.contains(startPageNumber + numPages - 1)) {
+          --numPages;
+        }
+        if(numPages == 0) {
+          return;
+        }
+        if(numPages == 1) {
+          page = getBuffer();
+        }
+      }
+
+      // do the actual read without holding the lock
+      boolean success = false;
+      try {
+        if(numPages == 1) {
+          success = readFully(page, startPageNumber);
+        } else {
+          int runSize = numPages * _pageSize;
+          if((_runBuffer == null) || (_runBuffer.capacity() < runSize)) {
+            _runBuffer = ByteBuffer.allocate(runSize);
+          }
+          _runBuffer.clear();
+          _runBuffer.limit(runSize);
+          success = readFully(_runBuffer, startPageNumber);
+        }
+      } catch(IOException e) {
+        // ignored, the "real" read will report any problems
+      }
+
+      // publish the pages, unless the file was written while we were reading
+      synchronized(this) {
+        if(success && (generation == _generation)) {
+          if(numPages == 1) {
+            _pages.put(startPageNumber, page);
+            page = null;
+          } else {
+            byte[] runBytes = _runBuffer.array();
+            for(int i = 0; i < numPages; ++i) {
+              int pageNumber = startPageNumber + i;
+              if(_pendingPages.contains(pageNumber)) {
+                ByteBuffer runPage = getBuffer();
+                runPage.put(runBytes, i * _pageSize, _pageSize);
+                _pages.put(pageNumber, runPage);
+              }
+            }
+          }
+        }
+      }
+
+    } finally {
+      // the claimed pages are no longer pending, however the read ended (so
+      // that no reader waits on them forever)
+      synchronized(this) {
+        if(page != null) {
+          recycleBuffer(page);
+        }
+        if(generation == _generation) {
+          // (otherwise the pending pages were already discarded and may have
+          // been requested again since)
+          for(int i = 0; i < numPages; ++i) {
+            _pendingPages.remove(startPageNumber + i);
+          }
+        }
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Fills the given buffer starting at the given page, returning {@code
+   * true} if the buffer was filled, {@code false} otherwise (the "real" read
+   * will handle the problem).
+   */
+  private boolean readFully(ByteBuffer buffer, int pageNumber)
+    throws IOException
+  {
+    long offset = (long)pageNumber * _pageSize;
+    while(buffer.hasRemaining()) {
+      if(_channel.read(buffer, offset + buffer.position()) <= 0) {
+        break;
+      }
+    }
+    return !buffer.hasRemaining();
+  }
+
+  private ByteBuffer getBuffer() {
+    ByteBuffer page = (_freeBuffers.isEmpty() ?
+                       ByteBuffer.allocate(_pageSize) :
+                       _freeBuffers.remove(_freeBuffers.size() - 1));
+    page.clear();
+    return page;
+  }
+
+  private void recycleBuffer(ByteBuffer page) {
+    if(_freeBuffers.size() < MAX_READ_AHEAD_PAGES) {
+      _freeBuffers.add(page);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.expr.Expression;
+import com.healthmarketscience.jackcess.expr.Value;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator;
+import com.healthmarketscience.jackcess.impl.expr.ValueSupport;
+
+/**
+ * Base EvalContext for evaluating the expressions of a query (where the
+ * identifiers may reference columns of multiple tables).
+ *
+ * @author agent
+ */
+public abstract class QueryEvalContext extends BaseEvalContext
+{
+  private final DBEvalContext _dbCtx;
+
+  protected QueryEvalContext(Database db) {
+    this(((DatabaseImpl)db).getEvalContext());
+  }
+
+  private QueryEvalContext(DBEvalContext dbCtx) {
+    super(dbCtx);
+    _dbCtx = dbCtx;
+  }
+
+  /**
+   * Parses the given expression string as a query expression (which may
+   * reference columns by bare names).
+   */
+  public Expression parse(String exprStr) {
+    return Expressionator.parse(Expressionator.Type.QUERY, exprStr, null,
+                                _dbCtx);
+  }
+
+  /**
+   * Converts the given column value of the given type into an expression
+   * Value.
+   */
+  public Value toColumnValue(Object val, DataType dType) {
+    return toValue(val, dType);
+  }
+
+  /**
+   * Converts the given value (e.g. the result of another expression) into
+   * an expression Value.
+   */
+  public Value toValue(Object val) {
+    if(val == null) {
+      return ValueSupport.NULL_VAL;
+    }
+    if(val instanceof String) {
+      return ValueSupport.toValue((String)val);
+    }
+    if(val instanceof Boolean) {
+      return ValueSupport.toValue((Boolean)val);
+    }
+    if((val instanceof Integer) || (val instanceof Short) ||
+       (val instanceof Byte)) {
+      return ValueSupport.toValue(((Number)val).intValue());
+    }
+    if((val instanceof Double) || (val instanceof Float)) {
+      return ValueSupport.toValue(((Number)val).doubleValue());
+    }
+    if(val instanceof BigDecimal) {
+      return ValueSupport.toValue((BigDecimal)val);
+    }
+    if(val instanceof Number) {
+      return ValueSupport.toValue(new BigDecimal(val.toString()));
+    }
+    if(val instanceof Date) {
+      return ValueSupport.toValue(Value.Type.DATE_TIME, (Date)val);
+    }
+    return ValueSupport.toValue(val.toString());
+  }
+}
@@ -0,0 +1,464 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.expr.Value;
+import com.healthmarketscience.jackcess.impl.expr.BuiltinOperators;
+
+/**
+ * A column predicate which is evaluated directly against the raw bytes of a
+ * row in the page buffer (see {@link TableImpl#matchesRawPredicates}), so
+ * rows which do not match can be discarded without decoding any row values.
+ * Raw predicates are compiled from {@link ColumnPredicate}s and give the
+ * same results as {@link ColumnPredicate#matches}.  Only some predicates can
+ * be compiled:
+ * <ul>
+ * <li>null checks for any (non-boolean) column</li>
+ * <li>comparisons of fixed width numeric columns (compared using the raw
+ *     value bits)</li>
+ * <li>comparisons of date/time columns (compared at millisecond precision
+ *     in the local timezone)</li>
+ * <li>comparisons of text columns using the unicode encodings (compared
+ *     char by char, ignoring case, without decoding the text)</li>
+ * </ul>
+ *
+ * @author agent
+ * @usage _advanced_class_
+ */
+public abstract class RawColumnPredicate
+{
+  /** max money value which can be converted to a double without
+      BigDecimal */
+  private static final long MAX_SIMPLE_MONEY_VALUE = (1L << 52);
+  private static final double MONEY_SCALE = 10000d;
+  private static final Charset UNICODE_CHARSET = Charset.forName("UTF-16LE");
+
+  private final ColumnImpl _column;
+
+  protected RawColumnPredicate(ColumnImpl column) {
+    _column = column;
+  }
+
+  public ColumnImpl getColumn() {
+    return _column;
+  }
+
+  /**
+   * Returns {@code true} if a {@code null} value for this predicate's column
+   * satisfies this predicate, {@code false} otherwise.
+   */
+  public abstract boolean matchesNull();
+
+  /**
+   * Returns {@code true} if the given (non-null) raw column value satisfies
+   * this predicate, {@code false} otherwise.  Does not modify the position
+   * or limit of the given buffer.
+   *
+   * @param buffer buffer containing the raw column value
+   * @param dataPos the position of the raw value in the buffer
+   * @param dataLen the length of the raw value
+   */
+  public abstract boolean matches(ByteBuffer buffer, int dataPos, int dataLen)
+    throws IOException;
+
+  /**
+   * Returns a raw predicate which is equivalent to a ColumnPredicate with the
+   * given info, or {@code null} if the predicate cannot be evaluated against
+   * the raw column value.
+   */
+  static RawColumnPredicate create(ColumnImpl column, CursorBuilder.Op op,
+                                   Value[] exprValues)
+  {
+    switch(op) {
+    case IS_NULL:
+      return new NullCheck(column, true, false);
+    case IS_NOT_NULL:
+      return new NullCheck(column, false, true);
+    case EQ:
+    case NE:
+    case LT:
+    case LE:
+    case GT:
+    case GE:
+    case BETWEEN:
+      for(Value val : exprValues) {
+        if(val.isNull()) {
+          // comparisons with null are never satisfied
+          return new NullCheck(column, false, false);
+        }
+      }
+      break;
+    case IN:
+      // null values are ignored by IN
+      break;
+    default:
+      return null;
+    }
+
+    DBEvalContext ctx = column.getDatabase().getEvalContext();
+    if(op == CursorBuilder.Op.BETWEEN) {
+      // the between values can be in either order
+      Value gt = BuiltinOperators.greaterThan(ctx, exprValues[0],
+                                              exprValues[1]);
+      if(gt.getAsBoolean(ctx)) {
+        exprValues = new Value[]{exprValues[1], exprValues[0]};
+      }
+    }
+
+    switch(column.getType()) {
+    case BYTE:
+    case INT:
+    case LONG:
+    case BIG_INT:
+      return new IntComparison(column, op, exprValues, ctx);
+    case FLOAT:
+    case DOUBLE:
+    case MONEY:
+    case SHORT_DATE_TIME:
+      return new DoubleComparison(column, op, exprValues, ctx);
+    case TEXT:
+      if(!UNICODE_CHARSET.equals(column.getDatabase().getCharset())) {
+        // only the unicode encodings are handled
+        return null;
+      }
+      return new TextComparison(column, op, exprValues, ctx);
+    default:
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + _column.getName() + "]";
+  }
+
+  /**
+   * Raw predicate which only checks the null mask.
+   */
+  private static final class NullCheck extends RawColumnPredicate
+  {
+    private final boolean _matchesNull;
+    private final boolean _matchesNonNull;
+
+    private NullCheck(ColumnImpl column, boolean matchesNull,
+                      boolean matchesNonNull) {
+      super(column);
+      _matchesNull = matchesNull;
+      _matchesNonNull = matchesNonNull;
+    }
+
+    @Override
+    public boolean matchesNull() {
+      return _matchesNull;
+    }
+
+    @Override
+    public boolean matches(ByteBuffer buffer, int dataPos, int dataLen) {
+      return _matchesNonNull;
+    }
+  }
+
+  /**
+   * Base class for raw predicates which compare the column value against one
+   * or more literal values.
+   */
+  private static abstract class Comparison extends RawColumnPredicate
+  {
+    private final CursorBuilder.Op _op;
+    /** the non-null literal values */
+    protected final Value[] _values;
+
+    private Comparison(ColumnImpl column, CursorBuilder.Op op,
+                       Value[] values) {
+      super(column);
+      _op = op;
+      int numValues = 0;
+      for(Value val : values) {
+        if(!val.isNull()) {
+          ++numValues;
+        }
+      }
+      _values = new Value[numValues];
+      numValues = 0;
+      for(Value val : values) {
+        if(!val.isNull()) {
+          _values[numValues++] = val;
+        }
+      }
+    }
+
+    @Override
+    public boolean matchesNull() {
+      // comparisons with null are never satisfied
+      return false;
+    }
+
+    @Override
+    public boolean matches(ByteBuffer buffer, int dataPos, int dataLen)
+      throws IOException
+    {
+      switch(_op) {
+      case EQ:
+        return (compareTo(buffer, dataPos, dataLen, 0) == 0);
+      case NE:
+        return (compareTo(buffer, dataPos, dataLen, 0) != 0);
+      case LT:
+        return (compareTo(buffer, dataPos, dataLen, 0) < 0);
+      case LE:
+        return (compareTo(buffer, dataPos, dataLen, 0) <= 0);
+      case GT:
+        return (compareTo(buffer, dataPos, dataLen, 0) > 0);
+      case GE:
+        return (compareTo(buffer, dataPos, dataLen, 0) >= 0);
+      case BETWEEN:
+        return ((compareTo(buffer, dataPos, dataLen, 0) >= 0) &&
+                (compareTo(buffer, dataPos, dataLen, 1) <= 0));
+      case IN:
+        for(int i = 0; i < _values.length; ++i) {
+          if(compareTo(buffer, dataPos, dataLen, i) == 0) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        throw new RuntimeException("Unexpected operator " + _op);
+      }
+    }
+
+    /**
+     * Compares the given raw column value to the literal value with the
+     * given index.
+     */
+    protected abstract int compareTo(ByteBuffer buffer, int dataPos,
+                                     int dataLen, int valueIdx)
+      throws IOException;
+  }
+
+  /**
+   * Compares the values of "integer" columns (BYTE, INT, LONG, BIG_INT).
+   * The literal values are compared exactly (they may be fractional or out
+   * of the range of the column type).
+   */
+  private static final class IntComparison extends Comparison
+  {
+    /** the floor of each literal value (clamped to the range of long) */
+    private final long[] _floors;
+    /** the result of comparing each literal value to its floor */
+    private final int[] _floorCmps;
+
+    private IntComparison(ColumnImpl column, CursorBuilder.Op op,
+                          Value[] values, DBEvalContext ctx) {
+      super(column, op, values);
+      BigDecimal maxLong = BigDecimal.valueOf(Long.MAX_VALUE);
+      BigDecimal minLong = BigDecimal.valueOf(Long.MIN_VALUE);
+      _floors = new long[_values.length];
+      _floorCmps = new int[_values.length];
+      for(int i = 0; i < _values.length; ++i) {
+        BigDecimal dec = _values[i].getAsBigDecimal(ctx);
+        BigDecimal floor = dec.setScale(0, RoundingMode.FLOOR);
+        if(floor.compareTo(maxLong) > 0) {
+          // greater than all longs
+          _floors[i] = Long.MAX_VALUE;
+          _floorCmps[i] = 1;
+        } else if(floor.compareTo(minLong) < 0) {
+          // less than all longs
+          _floors[i] = Long.MIN_VALUE;
+          _floorCmps[i] = -1;
+        } else {
+          _floors[i] = floor.longValue();
+          _floorCmps[i] = dec.compareTo(floor);
+        }
+      }
+    }
+
+    @Override
+    protected int compareTo(ByteBuffer buffer, int dataPos, int dataLen,
+                            int valueIdx) {
+      long val = 0L;
+      switch(dataLen) {
+      case 1:
+        val = buffer.get(dataPos);
+        break;
+      case 2:
+        val = buffer.getShort(dataPos);
+        break;
+      case 4:
+        val = buffer.getInt(dataPos);
+        break;
+      default:
+        val = buffer.getLong(dataPos);
+      }
+      long floor = _floors[valueIdx];
+      if(val < floor) {
+        return -1;
+      }
+      if(val > floor) {
+        return 1;
+      }
+      return -_floorCmps[valueIdx];
+    }
+  }
+
+  /**
+   * Compares the values of columns which are treated as doubles by
+   * expressions (FLOAT, DOUBLE, MONEY, SHORT_DATE_TIME).
+   */
+  private static final class DoubleComparison extends Comparison
+  {
+    private final double[] _doubles;
+
+    private DoubleComparison(ColumnImpl column, CursorBuilder.Op op,
+                             Value[] values, DBEvalContext ctx) {
+      super(column, op, values);
+      _doubles = new double[_values.length];
+      for(int i = 0; i < _values.length; ++i) {
+        _doubles[i] = _values[i].getAsDouble(ctx);
+      }
+    }
+
+    @Override
+    protected int compareTo(ByteBuffer buffer, int dataPos, int dataLen,
+                            int valueIdx) {
+      double val = 0d;
+      switch(getColumn().getType()) {
+      case FLOAT:
+        val = buffer.getFloat(dataPos);
+        break;
+      case MONEY:
+        long moneyVal = buffer.getLong(dataPos);
+        // this matches the conversion done by BigDecimal.doubleValue() for
+        // "small" values
+        val = ((Math.abs(moneyVal) < MAX_SIMPLE_MONEY_VALUE) ?
+               (moneyVal / MONEY_SCALE) :
+               new BigDecimal(BigInteger.valueOf(moneyVal), 4).doubleValue());
+        break;
+      case SHORT_DATE_TIME:
+        // dates are read/written at millisecond precision
+        val = ColumnImpl.toLocalDateDouble(
+            ColumnImpl.fromLocalDateDouble(buffer.getDouble(dataPos)));
+        break;
+      default:
+        val = buffer.getDouble(dataPos);
+      }
+      return Double.compare(val, _doubles[valueIdx]);
+    }
+  }
+
+  /**
+   * Compares the values of TEXT columns ignoring case (as with {@link
+   * String#compareToIgnoreCase}), reading the chars directly from the
+   * encoded value.
+   */
+  private static final class TextComparison extends Comparison
+  {
+    private final String[] _strs;
+
+    private TextComparison(ColumnImpl column, CursorBuilder.Op op,
+                           Value[] values, DBEvalContext ctx) {
+      super(column, op, values);
+      _strs = new String[_values.length];
+      for(int i = 0; i < _values.length; ++i) {
+        _strs[i] = _values[i].getAsString(ctx);
+      }
+    }
+
+    @Override
+    protected int compareTo(ByteBuffer buffer, int dataPos, int dataLen,
+                            int valueIdx)
+      throws IOException
+    {
+      String str = _strs[valueIdx];
+
+      int charStart = dataPos;
+      int numChars = 0;
+      int charSize = 0;
+      if((dataLen > 1) &&
+         (buffer.get(dataPos) == ColumnImpl.TEXT_COMPRESSION_HEADER[0]) &&
+         (buffer.get(dataPos + 1) == ColumnImpl.TEXT_COMPRESSION_HEADER[1])) {
+
+        // compressed text, one byte per char (unless the text switches
+        // between compressed/uncompressed segments)
+        charStart += ColumnImpl.TEXT_COMPRESSION_HEADER.length;
+        int dataEnd = dataPos + dataLen;
+        for(int i = charStart; i < dataEnd; ++i) {
+          if(buffer.get(i) == (byte)0x00) {
+            // mixed compressed/uncompressed segments, do it the hard way
+            return decodeText(buffer, dataPos, dataLen).compareToIgnoreCase(
+                str);
+          }
+        }
+        numChars = dataEnd - charStart;
+        charSize = 1;
+
+      } else {
+
+        if((dataLen % 2) != 0) {
+          // invalid unicode text, let the decoder deal with it
+          return decodeText(buffer, dataPos, dataLen).compareToIgnoreCase(
+              str);
+        }
+        numChars = dataLen / 2;
+        charSize = 2;
+      }
+
+      // this is the same logic used by String.compareToIgnoreCase()
+      int minChars = Math.min(numChars, str.length());
+      for(int i = 0; i < minChars; ++i) {
+        char c1 = ((charSize == 1) ?
+                   (char)(buffer.get(charStart + i) & 0xFF) :
+                   getUnicodeChar(buffer, charStart + (i * 2)));
+        char c2 = str.charAt(i);
+        if(c1 != c2) {
+          c1 = Character.toUpperCase(c1);
+          c2 = Character.toUpperCase(c2);
+          if(c1 != c2) {
+            c1 = Character.toLowerCase(c1);
+            c2 = Character.toLowerCase(c2);
+            if(c1 != c2) {
+              return c1 - c2;
+            }
+          }
+        }
+      }
+      return numChars - str.length();
+    }
+
+    private static char getUnicodeChar(ByteBuffer buffer, int pos) {
+      // unicode text is always little endian
+      return (char)((buffer.get(pos) & 0xFF) |
+                    ((buffer.get(pos + 1) & 0xFF) << 8));
+    }
+
+    private String decodeText(ByteBuffer buffer, int dataPos, int dataLen)
+      throws IOException
+    {
+      byte[] data = new byte[dataLen];
+      for(int i = 0; i < dataLen; ++i) {
+        data[i] = buffer.get(dataPos + i);
+      }
+      return getColumn().decodeTextValue(data);
+    }
+  }
+}
@@ -16,6 +16,9 @@ limitations under the License.
 
 package com.healthmarketscience.jackcess.impl;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.healthmarketscience.jackcess.expr.EvalException;
 import com.healthmarketscience.jackcess.expr.Identifier;
 import com.healthmarketscience.jackcess.expr.Value;
@@ -27,6 +30,9 @@ import com.healthmarketscience.jackcess.expr.Value;
 public abstract class RowEvalContext extends BaseEvalContext
 {
   private Object[] _row;
+  /** identifiers of the expression bound to the relevant columns */
+  private final Map<Identifier,ColumnImpl> _boundCols =
+    new HashMap<Identifier,ColumnImpl>();
 
   public RowEvalContext(DatabaseImpl db) {
     super(db.getEvalContext());
@@ -43,6 +49,18 @@ public abstract class RowEvalContext extends BaseEvalContext
   @Override
   public Value getIdentifierValue(Identifier identifier) {
 
+    ColumnImpl col = _boundCols.get(identifier);
+    if(col == null) {
+      col = bindColumn(identifier);
+    }
+
+    Object val = col.getRowValue(_row);
+
+    return toValue(val, col.getType());
+  }
+
+  private ColumnImpl bindColumn(Identifier identifier) {
+
     TableImpl table = getTable();
 
     // we only support getting column values in this table from the current
@@ -53,11 +71,11 @@ public abstract class RowEvalContext extends BaseEvalContext
                               identifier);
     }
 
+    // the column is only looked up once per identifier (the expression is
+    // evaluated for every row)
     ColumnImpl col = table.getColumn(identifier.getObjectName());
-
-    Object val = col.getRowValue(_row);
-
-    return toValue(val, col.getType());
+    _boundCols.put(identifier, col);
+    return col;
   }
 
   protected abstract TableImpl getTable();
@@ -0,0 +1,309 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+
+import com.healthmarketscience.jackcess.impl.TableImpl.RowState;
+
+
+/**
+ * Cursor which traverses a fixed set of rows in physical (RowId) order.  The
+ * rows are typically gathered from an index range up front, after which the
+ * relevant data pages are read in ascending order, each page only once
+ * (instead of the random page access of a non-clustered index traversal).
+ * <p>
+ * The set of rows is a snapshot taken when the cursor is created.  Rows
+ * which are subsequently deleted will be skipped, but rows added to the
+ * table after the cursor was created will not be seen.
+ *
+ * @author agent
+ */
+public class RowIdCursor extends CursorImpl
+{
+  /** first position for the RowIdCursor */
+  private static final RowIdPosition FIRST_ROW_ID_POSITION =
+    new RowIdPosition(-1, RowIdImpl.FIRST_ROW_ID);
+
+  /** RowIdDirHandler for forward traversal */
+  private final RowIdDirHandler _forwardDirHandler =
+    new ForwardRowIdDirHandler();
+  /** RowIdDirHandler for backward traversal */
+  private final RowIdDirHandler _reverseDirHandler =
+    new ReverseRowIdDirHandler();
+  /** the rows traversed by this cursor */
+  private final RowIdSet _rowIds;
+
+  private RowIdCursor(TableImpl table, RowIdSet rowIds) {
+    super(new IdImpl(table, null), table, FIRST_ROW_ID_POSITION,
+          new RowIdPosition(rowIds.size(), RowIdImpl.LAST_ROW_ID));
+    _rowIds = rowIds;
+  }
+
+  /**
+   * Creates a cursor for the given table which traverses the given rows.
+   * @param table the table over which this cursor will traverse
+   * @param rowIds the rows of the given table to traverse
+   */
+  public static RowIdCursor createCursor(TableImpl table, RowIdSet rowIds) {
+    return new RowIdCursor(table, rowIds);
+  }
+
+  /**
+   * Creates a cursor for the given table which traverses the rows in the
+   * given index range in physical (RowId) order.
+   * <p>
+   * Note, index based table traversal may not include all rows, as certain
+   * types of indexes do not include all entries (namely, some indexes ignore
+   * null entries, see {@link IndexImpl#shouldIgnoreNulls}).
+   *
+   * @param table the table over which this cursor will traverse
+   * @param index index for the table which will define the range of rows
+   * @param startRow the first row of data for the cursor, or {@code null} for
+   *                 the first entry
+   * @param startInclusive whether or not startRow is inclusive or exclusive
+   * @param endRow the last row of data for the cursor, or {@code null} for
+   *               the last entry
+   * @param endInclusive whether or not endRow is inclusive or exclusive
+   */
+  public static RowIdCursor createCursor(TableImpl table, IndexImpl index,
+                                         Object[] startRow,
+                                         boolean startInclusive,
+                                         Object[] endRow,
+                                         boolean endInclusive)
+    throws IOException
+  {
+    return createCursor(table, findRowIds(table, index, startRow,
+                                          startInclusive, endRow,
+                                          endInclusive));
+  }
+
+  /**
+   * Returns the rows of the given table in the given index range, after
+   * verifying that the index is usable for lookups on the given table.
+   *
+   * @param table the table which owns the given index
+   * @param index index for the table which will define the range of rows
+   * @param startRow the first row of data for the range, or {@code null} for
+   *                 the first entry
+   * @param startInclusive whether or not startRow is inclusive or exclusive
+   * @param endRow the last row of data for the range, or {@code null} for
+   *               the last entry
+   * @param endInclusive whether or not endRow is inclusive or exclusive
+   */
+  public static RowIdSet findRowIds(TableImpl table, IndexImpl index,
+                                    Object[] startRow,
+                                    boolean startInclusive,
+                                    Object[] endRow,
+                                    boolean endInclusive)
+    throws IOException
+  {
+    IndexCursorImpl.validateIndex(table, index);
+    return index.getRowIds(startRow, startInclusive, endRow, endInclusive);
+  }
+
+  /**
+   * Returns {@code true} if the given index can be used to find rows,
+   * {@code false} otherwise.
+   */
+  public static boolean isUsableIndex(IndexImpl index) {
+    return (index.getTable().getFormat().INDEXES_SUPPORTED &&
+            (index.getIndexData().getUnsupportedReason() == null));
+  }
+
+  /**
+   * Returns the rows traversed by this cursor.
+   */
+  public RowIdSet getRowIds() {
+    return _rowIds;
+  }
+
+  @Override
+  protected RowIdDirHandler getDirHandler(boolean moveForward) {
+    return (moveForward ? _forwardDirHandler : _reverseDirHandler);
+  }
+
+  @Override
+  protected void restorePositionImpl(PositionImpl curPos, PositionImpl prevPos)
+    throws IOException
+  {
+    if(!(curPos instanceof RowIdPosition) ||
+       !(prevPos instanceof RowIdPosition)) {
+      throw new IllegalArgumentException(
+          "Restored positions must be rowId positions");
+    }
+    super.restorePositionImpl(curPos, prevPos);
+  }
+
+  @Override
+  protected PositionImpl getRowPosition(RowIdImpl rowId) throws IOException
+  {
+    int idx = _rowIds.indexOf(rowId);
+    if(idx < 0) {
+      // the row is not one of ours
+      return getFirstPosition();
+    }
+    return new RowIdPosition(idx, rowId);
+  }
+
+  @Override
+  protected PositionImpl findAnotherPosition(
+      RowState rowState, PositionImpl curPos, boolean moveForward)
+    throws IOException
+  {
+    RowIdDirHandler handler = getDirHandler(moveForward);
+    int idx = ((RowIdPosition)curPos).getIndex();
+
+    // loop until we find the next valid row or run out of rows
+    while(true) {
+
+      idx = handler.getAnotherIndex(idx);
+      if((idx < 0) || (idx >= _rowIds.size())) {
+        return handler.getEndPosition();
+      }
+
+      // note, consecutive rows on the same page will re-use the currently
+      // loaded page
+      RowIdImpl rowId = _rowIds.getRowId(idx);
+      if(rowId.getPageNumber() != rowState.getHeaderRowId().getPageNumber()) {
+        readAhead(idx, handler);
+      }
+      TableImpl.positionAtRowHeader(rowState, rowId);
+
+      if(rowState.isValid() && !rowState.isDeleted()) {
+        // we found a valid, non-deleted row, return it
+        return new RowIdPosition(idx, rowId);
+      }
+    }
+  }
+
+  /**
+   * Reads the data pages of the upcoming rows in the background if this
+   * cursor is moving sequentially.
+   */
+  private void readAhead(int idx, RowIdDirHandler handler) {
+    int numPages = getPagesToReadAhead();
+    int pageNumber = _rowIds.getPageNumber(idx);
+    // gather the pages into runs of consecutive pages so that each run can
+    // be read at once
+    int runStart = 0;
+    int runPages = 0;
+    while(numPages > 0) {
+      idx = handler.getAnotherIndex(idx);
+      if((idx < 0) || (idx >= _rowIds.size())) {
+        break;
+      }
+      int nextPageNumber = _rowIds.getPageNumber(idx);
+      if(nextPageNumber == pageNumber) {
+        continue;
+      }
+      pageNumber = nextPageNumber;
+      --numPages;
+      if((runPages > 0) && (pageNumber == (runStart + runPages))) {
+        ++runPages;
+        continue;
+      }
+      readAheadRun(runStart, runPages);
+      runStart = pageNumber;
+      runPages = 1;
+    }
+    readAheadRun(runStart, runPages);
+  }
+
+  private void readAheadRun(int startPageNumber, int numPages) {
+    if(numPages > 0) {
+      getPageChannel().readAhead(startPageNumber, numPages);
+    }
+  }
+
+  /**
+   * Handles moving the rowId cursor in a given direction.  Separates cursor
+   * logic from value storage.
+   */
+  private abstract class RowIdDirHandler extends DirHandler {
+    public abstract int getAnotherIndex(int curIdx);
+  }
+
+  /**
+   * Handles moving the rowId cursor forward.
+   */
+  private final class ForwardRowIdDirHandler extends RowIdDirHandler {
+    @Override
+    public PositionImpl getBeginningPosition() {
+      return getFirstPosition();
+    }
+    @Override
+    public PositionImpl getEndPosition() {
+      return getLastPosition();
+    }
+    @Override
+    public int getAnotherIndex(int curIdx) {
+      return curIdx + 1;
+    }
+  }
+
+  /**
+   * Handles moving the rowId cursor backward.
+   */
+  private final class ReverseRowIdDirHandler extends RowIdDirHandler {
+    @Override
+    public PositionImpl getBeginningPosition() {
+      return getLastPosition();
+    }
+    @Override
+    public PositionImpl getEndPosition() {
+      return getFirstPosition();
+    }
+    @Override
+    public int getAnotherIndex(int curIdx) {
+      return curIdx - 1;
+    }
+  }
+
+  /**
+   * Value object which maintains the current position of a RowIdCursor.
+   */
+  private static final class RowIdPosition extends PositionImpl
+  {
+    private final int _idx;
+    private final RowIdImpl _rowId;
+
+    private RowIdPosition(int idx, RowIdImpl rowId) {
+      _idx = idx;
+      _rowId = rowId;
+    }
+
+    public int getIndex() {
+      return _idx;
+    }
+
+    @Override
+    public RowIdImpl getRowId() {
+      return _rowId;
+    }
+
+    @Override
+    protected boolean equalsImpl(Object o) {
+      return getRowId().equals(((RowIdPosition)o).getRowId());
+    }
+
+    @Override
+    public String toString() {
+      return "RowId = " + getRowId();
+    }
+  }
+}
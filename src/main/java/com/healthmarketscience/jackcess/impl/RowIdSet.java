@@ -0,0 +1,271 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.healthmarketscience.jackcess.RowId;
+
+/**
+ * Compact, immutable Set of RowIds which is sorted in physical (page number,
+ * row number) order.  Each RowId is packed into a single int using the same
+ * layout as the rowId of an index entry (3 byte page number, 1 byte row
+ * number), so a large set of RowIds takes up very little memory.  Iterating
+ * a RowIdSet visits each data page at most once and in ascending page order.
+ * <p>
+ * Only valid RowIds may be added to a RowIdSet.
+ *
+ * @author agent
+ * @usage _advanced_class_
+ */
+public class RowIdSet extends AbstractSet<RowId>
+{
+  /** the empty RowIdSet */
+  public static final RowIdSet EMPTY = new RowIdSet(new int[0], 0);
+
+  private static final int MAX_PAGE_NUMBER = 0x7FFFFF;
+  private static final int MAX_ROW_NUMBER = 0xFF;
+  private static final int ROW_NUMBER_BITS = 8;
+
+  /** the packed RowIds, sorted and unique up to _size */
+  private final int[] _rowIds;
+  /** the number of RowIds in this set */
+  private final int _size;
+
+  private RowIdSet(int[] rowIds, int size) {
+    _rowIds = rowIds;
+    _size = size;
+  }
+
+  @Override
+  public int size() {
+    return _size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return (_size == 0);
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return ((o instanceof RowIdImpl) && (indexOf((RowIdImpl)o) >= 0));
+  }
+
+  /**
+   * Returns the RowId at the given position within this set.
+   */
+  public RowIdImpl getRowId(int idx) {
+    if((idx < 0) || (idx >= _size)) {
+      throw new IndexOutOfBoundsException("Invalid index " + idx);
+    }
+    return unpack(_rowIds[idx]);
+  }
+
+  /**
+   * Returns the page number of the RowId at the given position within this
+   * set.
+   */
+  public int getPageNumber(int idx) {
+    if((idx < 0) || (idx >= _size)) {
+      throw new IndexOutOfBoundsException("Invalid index " + idx);
+    }
+    return (_rowIds[idx] >>> ROW_NUMBER_BITS);
+  }
+
+  /**
+   * Returns the position of the given RowId within this set.  If the RowId
+   * is not in this set, returns {@code (-(insertion point) - 1)} (see {@link
+   * Arrays#binarySearch(int[],int)}).
+   */
+  public int indexOf(RowIdImpl rowId) {
+    if(!rowId.isValid()) {
+      // invalid rowIds sort before/after all valid rowIds
+      return ((rowId.getType() == RowIdImpl.Type.ALWAYS_LAST) ?
+              -(_size + 1) : -1);
+    }
+    if(rowId.getPageNumber() > MAX_PAGE_NUMBER) {
+      return -(_size + 1);
+    }
+    return Arrays.binarySearch(_rowIds, 0, _size, pack(rowId));
+  }
+
+  /**
+   * Returns a new RowIdSet containing the RowIds which are in both this set
+   * and the given set.
+   */
+  public RowIdSet intersect(RowIdSet other) {
+    int[] rowIds = new int[Math.min(_size, other._size)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while((i < _size) && (j < other._size)) {
+      int rowId = _rowIds[i];
+      int otherRowId = other._rowIds[j];
+      if(rowId < otherRowId) {
+        ++i;
+      } else if(rowId > otherRowId) {
+        ++j;
+      } else {
+        rowIds[size++] = rowId;
+        ++i;
+        ++j;
+      }
+    }
+    return newRowIdSet(rowIds, size);
+  }
+
+  /**
+   * Returns a new RowIdSet containing the RowIds which are in either this set
+   * or the given set.
+   */
+  public RowIdSet union(RowIdSet other) {
+    int[] rowIds = new int[_size + other._size];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while((i < _size) || (j < other._size)) {
+      if(j == other._size) {
+        rowIds[size++] = _rowIds[i++];
+      } else if(i == _size) {
+        rowIds[size++] = other._rowIds[j++];
+      } else {
+        int rowId = _rowIds[i];
+        int otherRowId = other._rowIds[j];
+        if(rowId < otherRowId) {
+          rowIds[size++] = rowId;
+          ++i;
+        } else if(rowId > otherRowId) {
+          rowIds[size++] = otherRowId;
+          ++j;
+        } else {
+          rowIds[size++] = rowId;
+          ++i;
+          ++j;
+        }
+      }
+    }
+    return newRowIdSet(rowIds, size);
+  }
+
+  /**
+   * Returns a RowIdSet containing the given RowIds (which may be the given
+   * collection if it is already a RowIdSet).
+   */
+  public static RowIdSet of(Collection<? extends RowId> rowIds) {
+    if(rowIds instanceof RowIdSet) {
+      return (RowIdSet)rowIds;
+    }
+    Builder builder = new Builder();
+    for(RowId rowId : rowIds) {
+      builder.add((RowIdImpl)rowId);
+    }
+    return builder.toRowIdSet();
+  }
+
+  private static RowIdSet newRowIdSet(int[] rowIds, int size) {
+    if(size == 0) {
+      return EMPTY;
+    }
+    if(size < rowIds.length) {
+      rowIds = Arrays.copyOf(rowIds, size);
+    }
+    return new RowIdSet(rowIds, size);
+  }
+
+  @Override
+  public Iterator<RowId> iterator() {
+    return new Iterator<RowId>() {
+      private int _idx;
+      public boolean hasNext() {
+        return (_idx < _size);
+      }
+      public RowId next() {
+        if(!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return unpack(_rowIds[_idx++]);
+      }
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  private static int pack(RowIdImpl rowId) {
+    int pageNumber = rowId.getPageNumber();
+    int rowNumber = rowId.getRowNumber();
+    if(!rowId.isValid() || (pageNumber > MAX_PAGE_NUMBER) ||
+       (rowNumber > MAX_ROW_NUMBER)) {
+      throw new IllegalArgumentException("Invalid rowId " + rowId);
+    }
+    return ((pageNumber << ROW_NUMBER_BITS) | rowNumber);
+  }
+
+  private static RowIdImpl unpack(int packedRowId) {
+    return new RowIdImpl((packedRowId >>> ROW_NUMBER_BITS),
+                         (packedRowId & MAX_ROW_NUMBER));
+  }
+
+  /**
+   * Utility for accumulating RowIds (in any order) into a new RowIdSet.
+   */
+  public static final class Builder
+  {
+    private int[] _rowIds = new int[16];
+    private int _size;
+    private boolean _sorted = true;
+
+    public Builder() {}
+
+    public Builder add(RowIdImpl rowId) {
+      int packedRowId = pack(rowId);
+      if(_size == _rowIds.length) {
+        _rowIds = Arrays.copyOf(_rowIds, _size * 2);
+      }
+      if((_size > 0) && (packedRowId <= _rowIds[_size - 1])) {
+        _sorted = false;
+      }
+      _rowIds[_size++] = packedRowId;
+      return this;
+    }
+
+    public RowIdSet toRowIdSet() {
+      if(_size == 0) {
+        return EMPTY;
+      }
+      if(!_sorted) {
+        // sort into physical order and remove any duplicates
+        Arrays.sort(_rowIds, 0, _size);
+        int newSize = 1;
+        for(int i = 1; i < _size; ++i) {
+          if(_rowIds[i] != _rowIds[newSize - 1]) {
+            _rowIds[newSize++] = _rowIds[i];
+          }
+        }
+        _size = newSize;
+        _sorted = true;
+      }
+      // the new set gets its own (trimmed) copy of the accumulated rowIds
+      return newRowIdSet(Arrays.copyOf(_rowIds, _size), _size);
+    }
+  }
+}
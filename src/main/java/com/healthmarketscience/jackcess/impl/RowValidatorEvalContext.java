@@ -49,16 +49,40 @@ public class RowValidatorEvalContext extends RowEvalContext
   public void validate(Object[] row) throws IOException {
     try {
       setRow(row);
-      Boolean result = (Boolean)eval();
-      if(!result) {
-        String msg = ((_helpStr != null) ? _helpStr : "Invalid row");
-        throw new InvalidValueException(withErrorContext(msg));
+      validateRow();
+    } finally {
+      reset();
+    }
+  }
+
+  /**
+   * Validates all the rows in the given batch.  The context is set up once
+   * for the batch.  If a row fails validation, the batch is truncated before
+   * that row.
+   */
+  void validate(TableImpl.RowBatch batch) {
+    try {
+      for(int i = 0; i < batch.size(); ++i) {
+        setRow(batch.getRow(i));
+        try {
+          validateRow();
+        } catch(Exception e) {
+          batch.fail(i, e);
+        }
       }
     } finally {
       reset();
     }
   }
 
+  private void validateRow() throws IOException {
+    Boolean result = (Boolean)eval();
+    if(!result) {
+      String msg = ((_helpStr != null) ? _helpStr : "Invalid row");
+      throw new InvalidValueException(withErrorContext(msg));
+    }
+  }
+
   @Override
   protected String withErrorContext(String msg) {
     return _table.withErrorContext(msg);
@@ -41,6 +41,7 @@ import com.healthmarketscience.jackcess.Column;
 import com.healthmarketscience.jackcess.ColumnBuilder;
 import com.healthmarketscience.jackcess.ConstraintViolationException;
 import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
 import com.healthmarketscience.jackcess.Index;
 import com.healthmarketscience.jackcess.IndexBuilder;
 import com.healthmarketscience.jackcess.InvalidValueException;
@@ -78,6 +79,10 @@ public class TableImpl implements Table, PropertyMaps.Owner
 
   private static final int MAX_BYTE = 256;
 
+  /** max number of rows which are prepared together when adding rows (see
+      {@link RowBatch}) */
+  private static final int ADD_ROW_BATCH_SIZE = 100;
+
   /**
    * Table type code for system tables
    * @usage _intermediate_class_
@@ -185,6 +190,9 @@ public class TableImpl implements Table, PropertyMaps.Owner
   private final FKEnforcer _fkEnforcer;
   /** table validator if any (and enabled) */
   private RowValidatorEvalContext _rowValidator;
+  /** whether or not the column/row validators have been loaded (they are
+      loaded on first use) */
+  private boolean _validatorsLoaded;
 
   /** default cursor for iterating through the table, kept here for basic
       table traversal */
@@ -221,6 +229,7 @@ public class TableImpl implements Table, PropertyMaps.Owner
     _logicalIndexCount = 0;
     _ownedPages = null;
     _freeSpacePages = null;
+    _validatorsLoaded = true;
   }
 
   /**
@@ -286,15 +295,34 @@ public class TableImpl implements Table, PropertyMaps.Owner
 
     _fkEnforcer = new FKEnforcer(this);
 
+    // note, the column/row validators (and calculated column expressions)
+    // are loaded on first use (see initValidators), as they require reading
+    // the table properties
+  }
+
+  /**
+   * Configures the column/row validators (and calculated column expressions)
+   * for this table if they have not already been configured.  Since these
+   * are defined by the table properties (which are relatively expensive to
+   * read and parse), they are only loaded when first needed (generally when
+   * the table is first written).
+   */
+  void initValidators() throws IOException {
+    if(_validatorsLoaded) {
+      return;
+    }
+
     if(!isSystem()) {
-      // after fully constructed, allow column/row validators to be configured
-      // (but only for user tables)
+      // allow column/row validators to be configured (but only for user
+      // tables)
       for(ColumnImpl col : _columns) {
         col.initColumnValidator();
       }
 
       reloadRowValidator();
     }
+
+    _validatorsLoaded = true;
   }
 
   private void reloadRowValidator() throws IOException {
@@ -397,6 +425,14 @@ public class TableImpl implements Table, PropertyMaps.Owner
     return _ownedPages.cursor();
   }
 
+  /**
+   * Returns the current modification count for this table, which changes
+   * whenever the table's data or definition is written.
+   */
+  int getModCount() {
+    return _modCount;
+  }
+
   /**
    * Returns the <i>approximate</i> number of database pages owned by this
    * table and all related indexes (this number does <i>not</i> take into
@@ -475,12 +511,15 @@ public class TableImpl implements Table, PropertyMaps.Owner
   }
 
   public void propertiesUpdated() throws IOException {
-    // propagate update to columns
-    for(ColumnImpl col : _columns) {
-      col.propertiesUpdated();
-    }
+    if(_validatorsLoaded) {
+      // propagate update to columns (otherwise, the updated properties will
+      // be loaded on first use)
+      for(ColumnImpl col : _columns) {
+        col.propertiesUpdated();
+      }
 
-    reloadRowValidator();
+      reloadRowValidator();
+    }
 
     // calculated columns will need to be re-sorted (their expressions may
     // have changed when their properties were updated)
@@ -715,6 +754,203 @@ public class TableImpl implements Table, PropertyMaps.Owner
     return getRowColumn(getFormat(), rowBuffer, column, rowState, null);
   }
 
+  /**
+   * Reads the raw access date double of the given date/time column from the
+   * given row.  For (non-calculated) columns, the value is read directly
+   * from the row data without creating a Date (and without caching the value
+   * in the rowState).
+   * @return the date double, or {@link Double#NaN} if the value is null
+   * @throws IllegalArgumentException if the column is not a date/time column
+   * @usage _advanced_method_
+   */
+  public double getRowDateDouble(RowState rowState, RowIdImpl rowId,
+                                 ColumnImpl column)
+    throws IOException
+  {
+    if(column.getType() != DataType.SHORT_DATE_TIME) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not a date/time column"));
+    }
+    if(column.isCalculated()) {
+      Object value = getRowValue(rowState, rowId, column);
+      return ((value != null) ? column.getDateDouble(value) : Double.NaN);
+    }
+    if(this != column.getTable()) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not from this table"));
+    }
+    requireValidRowId(rowId);
+
+    // position at correct row
+    ByteBuffer rowBuffer = positionAtRowData(rowState, rowId);
+    requireNonDeletedRow(rowState, rowId);
+
+    Object cachedValue = rowState.getRowCacheValue(column.getColumnIndex());
+    if(cachedValue != null) {
+      // we already have it, use it
+      return column.getDateDouble(cachedValue);
+    }
+
+    NullMask nullMask = rowState.getNullMask(rowBuffer);
+    if(nullMask.isNull(column)) {
+      return Double.NaN;
+    }
+
+    positionAtColumnData(getFormat(), rowBuffer, column, rowState, nullMask);
+    return rowBuffer.getDouble(rowBuffer.position());
+  }
+
+  /**
+   * Reads the value of the given currency or numeric column from the given
+   * row into the given holder.  For (non-calculated) columns, the value is
+   * read directly from the row data without creating a BigDecimal (and
+   * without caching the value in the rowState).
+   * @return {@code true} if the value was read, {@code false} if the value is
+   *         null (in which case the holder is unchanged)
+   * @throws IllegalArgumentException if the column is not a currency or
+   *         numeric column
+   * @usage _advanced_method_
+   */
+  public boolean getRowDecimal(RowState rowState, RowIdImpl rowId,
+                               ColumnImpl column, UnscaledDecimal value)
+    throws IOException
+  {
+    if((column.getType() != DataType.MONEY) &&
+       (column.getType() != DataType.NUMERIC)) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not a currency or numeric column"));
+    }
+    if(column.isCalculated()) {
+      Object calcValue = getRowValue(rowState, rowId, column);
+      if(calcValue == null) {
+        return false;
+      }
+      value.set(column.toBigDecimal(calcValue));
+      return true;
+    }
+    if(this != column.getTable()) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not from this table"));
+    }
+    requireValidRowId(rowId);
+
+    // position at correct row
+    ByteBuffer rowBuffer = positionAtRowData(rowState, rowId);
+    requireNonDeletedRow(rowState, rowId);
+
+    Object cachedValue = rowState.getRowCacheValue(column.getColumnIndex());
+    if(cachedValue != null) {
+      // we already have it, use it
+      value.set(column.toBigDecimal(cachedValue));
+      return true;
+    }
+
+    NullMask nullMask = rowState.getNullMask(rowBuffer);
+    if(nullMask.isNull(column)) {
+      return false;
+    }
+
+    positionAtColumnData(getFormat(), rowBuffer, column, rowState, nullMask);
+    column.readDecimalValue(rowBuffer, value);
+    return true;
+  }
+
+  /**
+   * Reads the value of the given text column from the given row as a
+   * CharSequence.  For (non-calculated) text columns, the value is decoded
+   * directly from the row data into a scratch buffer held by the rowState,
+   * without creating a String (and without caching the value in the
+   * rowState).  The returned value is therefore only valid until the next
+   * use of the rowState.
+   * @return the text value, or {@code null} if the value is null
+   * @throws IllegalArgumentException if the column is not a textual column
+   * @usage _advanced_method_
+   */
+  public CharSequence getRowTextView(RowState rowState, RowIdImpl rowId,
+                                     ColumnImpl column)
+    throws IOException
+  {
+    if(!column.getType().isTextual()) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not a text column"));
+    }
+    if((column.getType() != DataType.TEXT) || column.isCalculated()) {
+      return (CharSequence)getRowValue(rowState, rowId, column);
+    }
+    if(this != column.getTable()) {
+      throw new IllegalArgumentException(withErrorContext(
+          "Given column " + column + " is not from this table"));
+    }
+    requireValidRowId(rowId);
+
+    // position at correct row
+    ByteBuffer rowBuffer = positionAtRowData(rowState, rowId);
+    requireNonDeletedRow(rowState, rowId);
+
+    Object cachedValue = rowState.getRowCacheValue(column.getColumnIndex());
+    if(cachedValue != null) {
+      // we already have it, use it
+      return (CharSequence)cachedValue;
+    }
+
+    NullMask nullMask = rowState.getNullMask(rowBuffer);
+    if(nullMask.isNull(column)) {
+      return null;
+    }
+
+    int colDataLen = positionAtColumnData(getFormat(), rowBuffer, column,
+                                          rowState, nullMask);
+    byte[] data = null;
+    int dataPos = 0;
+    if(rowBuffer.hasArray()) {
+      data = rowBuffer.array();
+      dataPos = rowBuffer.arrayOffset() + rowBuffer.position();
+    } else {
+      data = ByteUtil.getBytes(rowBuffer, colDataLen);
+    }
+    return rowState.getTextDecoder().decodeView(data, dataPos, colDataLen,
+                                                column.getCharset());
+  }
+
+  /**
+   * Returns {@code true} if the given row satisfies all the given raw
+   * predicates, {@code false} otherwise.  The predicates are evaluated
+   * directly against the row data in the page buffer, so no row values are
+   * decoded (and nothing is cached in the rowState).  Deleted rows never
+   * match.
+   * @usage _advanced_method_
+   */
+  public boolean matchesRawPredicates(
+      RowState rowState, RowIdImpl rowId,
+      Collection<RawColumnPredicate> predicates)
+    throws IOException
+  {
+    requireValidRowId(rowId);
+
+    // position at correct row
+    ByteBuffer rowBuffer = positionAtRowData(rowState, rowId);
+    if(rowBuffer == null) {
+      return false;
+    }
+
+    NullMask nullMask = rowState.getNullMask(rowBuffer);
+    for(RawColumnPredicate pred : predicates) {
+      ColumnImpl column = pred.getColumn();
+      boolean matches = false;
+      if(nullMask.isNull(column)) {
+        matches = pred.matchesNull();
+      } else {
+        int colDataLen = positionAtColumnData(getFormat(), rowBuffer, column,
+                                              rowState, nullMask);
+        matches = pred.matches(rowBuffer, rowBuffer.position(), colDataLen);
+      }
+      if(!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Reads some columns from the given row.
    * @param columnNames Only column names in this collection will be returned
@@ -789,50 +1025,9 @@ public class TableImpl implements Table, PropertyMaps.Owner
         return cachedValue;
       }
 
-      // reset position to row start
-      rowBuffer.reset();
-
-      // locate the column data bytes
-      int rowStart = rowBuffer.position();
-      int colDataPos = 0;
-      int colDataLen = 0;
-      if(!column.isVariableLength()) {
-
-        // read fixed length value (non-boolean at this point)
-        int dataStart = rowStart + format.OFFSET_COLUMN_FIXED_DATA_ROW_OFFSET;
-        colDataPos = dataStart + column.getFixedDataOffset();
-        colDataLen = column.getType().getFixedSize(column.getLength());
-
-      } else {
-        int varDataStart;
-        int varDataEnd;
-
-        if(format.SIZE_ROW_VAR_COL_OFFSET == 2) {
-
-          // read simple var length value
-          int varColumnOffsetPos =
-            (rowBuffer.limit() - nullMask.byteSize() - 4) -
-            (column.getVarLenTableIndex() * 2);
-
-          varDataStart = rowBuffer.getShort(varColumnOffsetPos);
-          varDataEnd = rowBuffer.getShort(varColumnOffsetPos - 2);
-
-        } else {
-
-          // read jump-table based var length values
-          short[] varColumnOffsets = readJumpTableVarColOffsets(
-              rowState, rowBuffer, rowStart, nullMask);
-
-          varDataStart = varColumnOffsets[column.getVarLenTableIndex()];
-          varDataEnd = varColumnOffsets[column.getVarLenTableIndex() + 1];
-        }
-
-        colDataPos = rowStart + varDataStart;
-        colDataLen = varDataEnd - varDataStart;
-      }
-
       // grab the column data
-      rowBuffer.position(colDataPos);
+      int colDataLen = positionAtColumnData(format, rowBuffer, column,
+                                            rowState, nullMask);
       columnData = ByteUtil.getBytes(rowBuffer, colDataLen);
 
       if((rawVarValues != null) && column.isVariableLength()) {
@@ -844,8 +1039,9 @@ public class TableImpl implements Table, PropertyMaps.Owner
       // to update the index on row deletion.  note, most of the returned
       // values are immutable, except for binary data (returned as byte[]),
       // but binary data shouldn't be indexed anyway.
-      return rowState.setRowCacheValue(column.getColumnIndex(),
-                                       column.read(columnData));
+      return rowState.setRowCacheValue(
+          column.getColumnIndex(),
+          column.read(columnData, rowState.getTextDecoder()));
 
     } catch(Exception e) {
 
@@ -857,6 +1053,64 @@ public class TableImpl implements Table, PropertyMaps.Owner
     }
   }
 
+  /**
+   * Positions the given row buffer at the data for the given (non-null,
+   * non-boolean) column.  Leaves limit unchanged.
+   *
+   * @return the length of the column data
+   */
+  private static int positionAtColumnData(JetFormat format,
+                                          ByteBuffer rowBuffer,
+                                          ColumnImpl column,
+                                          RowState rowState,
+                                          NullMask nullMask)
+  {
+    // reset position to row start
+    rowBuffer.reset();
+
+    // locate the column data bytes
+    int rowStart = rowBuffer.position();
+    int colDataPos = 0;
+    int colDataLen = 0;
+    if(!column.isVariableLength()) {
+
+      // read fixed length value (non-boolean at this point)
+      int dataStart = rowStart + format.OFFSET_COLUMN_FIXED_DATA_ROW_OFFSET;
+      colDataPos = dataStart + column.getFixedDataOffset();
+      colDataLen = column.getType().getFixedSize(column.getLength());
+
+    } else {
+      int varDataStart;
+      int varDataEnd;
+
+      if(format.SIZE_ROW_VAR_COL_OFFSET == 2) {
+
+        // read simple var length value
+        int varColumnOffsetPos =
+          (rowBuffer.limit() - nullMask.byteSize() - 4) -
+          (column.getVarLenTableIndex() * 2);
+
+        varDataStart = rowBuffer.getShort(varColumnOffsetPos);
+        varDataEnd = rowBuffer.getShort(varColumnOffsetPos - 2);
+
+      } else {
+
+        // read jump-table based var length values
+        short[] varColumnOffsets = readJumpTableVarColOffsets(
+            rowState, rowBuffer, rowStart, nullMask);
+
+        varDataStart = varColumnOffsets[column.getVarLenTableIndex()];
+        varDataEnd = varColumnOffsets[column.getVarLenTableIndex() + 1];
+      }
+
+      colDataPos = rowStart + varDataStart;
+      colDataLen = varDataEnd - varDataStart;
+    }
+
+    rowBuffer.position(colDataPos);
+    return colDataLen;
+  }
+
   private static short[] readJumpTableVarColOffsets(
       RowState rowState, ByteBuffer rowBuffer, int rowStart,
       NullMask nullMask)
@@ -1340,7 +1594,7 @@ public class TableImpl implements Table, PropertyMaps.Owner
 
     newCol.postTableLoadInit();
 
-    if(!isSystem()) {
+    if(_validatorsLoaded && !isSystem()) {
       // after fully constructed, allow column validator to be configured (but
       // only for user tables)
       newCol.initColumnValidator();
@@ -2197,6 +2451,8 @@ public class TableImpl implements Table, PropertyMaps.Owner
       return rows;
     }
 
+    initValidators();
+
     getPageChannel().startWrite();
     try {
 
@@ -2206,109 +2462,107 @@ public class TableImpl implements Table, PropertyMaps.Owner
       int autoNumAssignCount = 0;
       WriteRowState writeRowState =
         (!_autoNumColumns.isEmpty() ? new WriteRowState() : null);
+      RowBatch batch = null;
       try {
 
         List<Object[]> dupeRows = null;
         final int numCols = _columns.size();
-        for (int i = 0; i < rows.size(); i++) {
-
-          // we need to make sure the row is the right length and is an
-          // Object[] (fill with null if too short).  note, if the row is
-          // copied the caller will not be able to access any generated
-          // auto-number value, but if they need that info they should use a
-          // row array of the right size/type!
-          Object[] row = rows.get(i);
-          if((row.length < numCols) || (row.getClass() != Object[].class)) {
-            row = dupeRow(row, numCols);
-            // copy the input rows to a modifiable list so we can update the
-            // elements
-            if(dupeRows == null) {
-              dupeRows = new ArrayList<Object[]>(rows);
-              rows = dupeRows;
-            }
-            // we copied the row, so put the copy back into the rows list
-            dupeRows.set(i, row);
-          }
-
-          // handle various value massaging activities
-          for(ColumnImpl column : _columns) {
-            if(!column.isAutoNumber()) {
-              Object val = column.getRowValue(row);
-              if(val == null) {
-                val = column.generateDefaultValue();
+        for(int batchStart = 0; batchStart < rows.size();
+            batchStart += ADD_ROW_BATCH_SIZE) {
+
+          int batchEnd = Math.min(batchStart + ADD_ROW_BATCH_SIZE,
+                                  rows.size());
+          for(int i = batchStart; i < batchEnd; ++i) {
+
+            // we need to make sure the row is the right length and is an
+            // Object[] (fill with null if too short).  note, if the row is
+            // copied the caller will not be able to access any generated
+            // auto-number value, but if they need that info they should use
+            // a row array of the right size/type!
+            Object[] row = rows.get(i);
+            if((row.length < numCols) || (row.getClass() != Object[].class)) {
+              row = dupeRow(row, numCols);
+              // copy the input rows to a modifiable list so we can update the
+              // elements
+              if(dupeRows == null) {
+                dupeRows = new ArrayList<Object[]>(rows);
+                rows = dupeRows;
               }
-              // pass input value through column validator
-              column.setRowValue(row, column.validate(val));
+              // we copied the row, so put the copy back into the rows list
+              dupeRows.set(i, row);
             }
           }
 
-          // fill in autonumbers
-          handleAutoNumbersForAdd(row, writeRowState);
-          ++autoNumAssignCount;
+          // handle various value massaging activities for the whole batch
+          batch = new RowBatch(rows.subList(batchStart, batchEnd),
+                               batchStart);
+          prepareRowsForAdd(batch, writeRowState);
+          autoNumAssignCount = batchStart + batch.getNumAutoNumbered();
 
-          // need to assign calculated values after all the other fields are
-          // filled in but before final validation
-          _calcColEval.calculate(row);
+          for(int i = 0; i < batch.size(); ++i) {
 
-          // run row validation if enabled
-          if(_rowValidator != null) {
-            _rowValidator.validate(row);
-          }
+            Object[] row = batch.getRow(i);
 
-          // write the row of data to a temporary buffer
-          ByteBuffer rowData = createRow(
-              row, _writeRowBufferH.getPageBuffer(getPageChannel()));
+            // write the row of data to a temporary buffer
+            ByteBuffer rowData = createRow(
+                row, _writeRowBufferH.getPageBuffer(getPageChannel()));
 
-          int rowSize = rowData.remaining();
-          if (rowSize > getFormat().MAX_ROW_SIZE) {
-            throw new InvalidValueException(withErrorContext(
-                    "Row size " + rowSize + " is too large"));
-          }
+            int rowSize = rowData.remaining();
+            if (rowSize > getFormat().MAX_ROW_SIZE) {
+              throw new InvalidValueException(withErrorContext(
+                      "Row size " + rowSize + " is too large"));
+            }
 
-          // get page with space
-          dataPage = findFreeRowSpace(rowSize, dataPage, pageNumber);
-          pageNumber = _addRowBufferH.getPageNumber();
+            // get page with space
+            dataPage = findFreeRowSpace(rowSize, dataPage, pageNumber);
+            pageNumber = _addRowBufferH.getPageNumber();
 
-          // determine where this row will end up on the page
-          int rowNum = getRowsOnDataPage(dataPage, getFormat());
+            // determine where this row will end up on the page
+            int rowNum = getRowsOnDataPage(dataPage, getFormat());
 
-          RowIdImpl rowId = new RowIdImpl(pageNumber, rowNum);
+            RowIdImpl rowId = new RowIdImpl(pageNumber, rowNum);
 
-          // before we actually write the row data, we verify all the database
-          // constraints.
-          if(!_indexDatas.isEmpty()) {
+            // before we actually write the row data, we verify all the database
+            // constraints.
+            if(!_indexDatas.isEmpty()) {
 
-            IndexData.PendingChange idxChange = null;
-            try {
+              IndexData.PendingChange idxChange = null;
+              try {
 
-              // handle foreign keys before adding to table
-              _fkEnforcer.addRow(row);
+                // handle foreign keys before adding to table
+                _fkEnforcer.addRow(row);
 
-              // prepare index updates
-              for(IndexData indexData : _indexDatas) {
-                idxChange = indexData.prepareAddRow(row, rowId, idxChange);
-              }
+                // prepare index updates
+                for(IndexData indexData : _indexDatas) {
+                  idxChange = indexData.prepareAddRow(row, rowId, idxChange);
+                }
 
-              // complete index updates
-              IndexData.commitAll(idxChange);
+                // complete index updates
+                IndexData.commitAll(idxChange);
 
-            } catch(ConstraintViolationException ce) {
-              IndexData.rollbackAll(idxChange);
-              throw ce;
+              } catch(ConstraintViolationException ce) {
+                IndexData.rollbackAll(idxChange);
+                throw ce;
+              }
             }
-          }
 
-          // we have satisfied all the constraints, write the row
-          addDataPageRow(dataPage, rowSize, getFormat(), 0);
-          dataPage.put(rowData);
+            // we have satisfied all the constraints, write the row
+            addDataPageRow(dataPage, rowSize, getFormat(), 0);
+            dataPage.put(rowData);
 
-          // return rowTd if desired
-          if((row.length > numCols) &&
-             (row[numCols] == ColumnImpl.RETURN_ROW_ID)) {
-            row[numCols] = rowId;
+            // return rowTd if desired
+            if((row.length > numCols) &&
+               (row[numCols] == ColumnImpl.RETURN_ROW_ID)) {
+              row[numCols] = rowId;
+            }
+
+            ++updateCount;
           }
 
-          ++updateCount;
+          // any failed row in the batch is handled after all the preceding
+          // rows have been written (as if the rows were handled one at a time)
+          batch.throwFailure();
+          batch = null;
         }
 
         writeDataPage(dataPage, pageNumber);
@@ -2322,8 +2576,15 @@ public class TableImpl implements Table, PropertyMaps.Owner
 
         if(!isWriteFailure && (autoNumAssignCount > updateCount)) {
           // we assigned some autonumbers which won't get written.  attempt to
-          // recover them so we don't get ugly "holes"
-          restoreAutoNumbersFromAdd(rows.get(autoNumAssignCount - 1));
+          // recover them so we don't get ugly "holes" (restoring from the
+          // failed row also recovers the autonumbers of any following rows)
+          restoreAutoNumbersFromAdd(rows.get(updateCount));
+        }
+
+        if(batch != null) {
+          // the rows following the failed row are left as they were passed
+          // in (as if the rows were handled one at a time)
+          batch.restoreRows(updateCount - batch.getStartIndex() + 1);
         }
 
         if(!isBatchWrite) {
@@ -2376,6 +2637,56 @@ public class TableImpl implements Table, PropertyMaps.Owner
     return rows;
   }
 
+  /**
+   * Handles the various value massaging activities for a batch of rows being
+   * added: default values, column validation, autonumbers, calculated values
+   * and row validation.  Each step is handled for all the rows in the batch
+   * before moving on to the next step, so each expression is evaluated in a
+   * loop over the rows of the batch.  If a row fails, the batch is truncated
+   * before the failed row (the failed row has been handled exactly as far as
+   * if the rows were handled one at a time).
+   */
+  private void prepareRowsForAdd(RowBatch batch, WriteRowState writeRowState)
+  {
+    for(ColumnImpl column : _columns) {
+      if(column.isAutoNumber()) {
+        continue;
+      }
+      for(int i = 0; i < batch.size(); ++i) {
+        Object[] row = batch.getRow(i);
+        try {
+          Object val = column.getRowValue(row);
+          if(val == null) {
+            val = column.generateDefaultValue();
+          }
+          // pass input value through column validator
+          column.setRowValue(row, column.validate(val));
+        } catch(Exception e) {
+          batch.fail(i, e);
+        }
+      }
+    }
+
+    // fill in autonumbers
+    for(int i = 0; i < batch.size(); ++i) {
+      try {
+        handleAutoNumbersForAdd(batch.getRow(i), writeRowState);
+        batch.setNumAutoNumbered(i + 1);
+      } catch(Exception e) {
+        batch.fail(i, e);
+      }
+    }
+
+    // need to assign calculated values after all the other fields are
+    // filled in but before final validation
+    _calcColEval.calculate(batch);
+
+    // run row validation if enabled
+    if(_rowValidator != null) {
+      _rowValidator.validate(batch);
+    }
+  }
+
   private static boolean isWriteFailure(Throwable t) {
     while(t != null) {
       if((t instanceof IOException) && !(t instanceof JackcessException)) {
@@ -2438,6 +2749,8 @@ public class TableImpl implements Table, PropertyMaps.Owner
   {
     requireValidRowId(rowId);
 
+    initValidators();
+
     getPageChannel().startWrite();
     try {
 
@@ -3293,6 +3606,87 @@ public class TableImpl implements Table, PropertyMaps.Owner
     INIT, AT_HEADER, AT_FINAL;
   }
 
+  /**
+   * A batch of rows which are being prepared for writing.  If a row fails
+   * during preparation, the batch is truncated to the rows preceding the
+   * failed row and the failure is held until the valid rows are written.
+   * The original values of the rows are kept so that the rows following a
+   * failed row can be restored.
+   */
+  static final class RowBatch
+  {
+    private final List<? extends Object[]> _rows;
+    private final int _startIdx;
+    /** copies of the rows as they were passed in */
+    private final Object[][] _origRows;
+    private int _size;
+    private int _numAutoNumbered;
+    private Exception _failure;
+
+    private RowBatch(List<? extends Object[]> rows, int startIdx) {
+      _rows = rows;
+      _startIdx = startIdx;
+      _size = rows.size();
+      _origRows = new Object[_size][];
+      for(int i = 0; i < _size; ++i) {
+        Object[] row = rows.get(i);
+        _origRows[i] = row.clone();
+      }
+    }
+
+    /**
+     * @return the number of (valid) rows in the batch
+     */
+    public int size() {
+      return _size;
+    }
+
+    public Object[] getRow(int idx) {
+      return _rows.get(idx);
+    }
+
+    private int getStartIndex() {
+      return _startIdx;
+    }
+
+    private int getNumAutoNumbered() {
+      return _numAutoNumbered;
+    }
+
+    private void setNumAutoNumbered(int numAutoNumbered) {
+      _numAutoNumbered = numAutoNumbered;
+    }
+
+    /**
+     * Marks the row at the given index as failed, truncating the batch.
+     */
+    public void fail(int idx, Exception failure) {
+      if(idx < _size) {
+        _size = idx;
+        _failure = failure;
+      }
+    }
+
+    private void throwFailure() throws IOException {
+      if(_failure instanceof IOException) {
+        throw (IOException)_failure;
+      }
+      if(_failure != null) {
+        throw (RuntimeException)_failure;
+      }
+    }
+
+    /**
+     * Restores the original values of the rows starting at the given index.
+     */
+    private void restoreRows(int startIdx) {
+      for(int i = Math.max(startIdx, 0); i < _origRows.length; ++i) {
+        Object[] origRow = _origRows[i];
+        System.arraycopy(origRow, 0, _rows.get(i), 0, origRow.length);
+      }
+    }
+  }
+
   /**
    * Maintains state for writing a new row of data.
    */
@@ -3353,6 +3747,11 @@ public class TableImpl implements Table, PropertyMaps.Owner
     private ErrorHandler _errorHandler;
     /** cached variable column offsets for jump-table based rows */
     private short[] _varColOffsets;
+    /** decoder for text values (re-uses a scratch buffer), created on
+        demand */
+    private TextDecoder _textDecoder;
+    /** holder for decimal values, created on demand */
+    private UnscaledDecimal _decimal;
 
     private RowState(TempBufferHolder.Type headerType) {
       _headerRowBufferH = TempPageHolder.newHolder(headerType);
@@ -3491,6 +3890,20 @@ public class TableImpl implements Table, PropertyMaps.Owner
       _varColOffsets = varColOffsets;
     }
 
+    TextDecoder getTextDecoder() {
+      if(_textDecoder == null) {
+        _textDecoder = new TextDecoder();
+      }
+      return _textDecoder;
+    }
+
+    UnscaledDecimal getDecimal() {
+      if(_decimal == null) {
+        _decimal = new UnscaledDecimal();
+      }
+      return _decimal;
+    }
+
     public RowIdImpl getHeaderRowId() {
       return _headerRowId;
     }
@@ -3614,6 +4027,20 @@ public class TableImpl implements Table, PropertyMaps.Owner
       }
     }
 
+    public void calculate(RowBatch batch) {
+      if(_calcColumns.isEmpty()) {
+        return;
+      }
+      if(!_sorted) {
+        sortColumnsByDeps();
+        _sorted = true;
+      }
+
+      for(ColumnImpl col : _calcColumns) {
+        col.getCalculationContext().calculate(batch);
+      }
+    }
+
     private void sortColumnsByDeps() {
 
       // a topological sort sorts nodes where A -> B such that A ends up in
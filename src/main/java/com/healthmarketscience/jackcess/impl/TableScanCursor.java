@@ -17,12 +17,22 @@ limitations under the License.
 package com.healthmarketscience.jackcess.impl;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 
 import com.healthmarketscience.jackcess.impl.TableImpl.RowState;
+import com.healthmarketscience.jackcess.util.CaseInsensitiveColumnMatcher;
+import com.healthmarketscience.jackcess.util.ColumnMatcher;
+import com.healthmarketscience.jackcess.util.SimpleColumnMatcher;
 
 
 /**
  * Simple un-indexed cursor.
+ * <p>
+ * Note, searches for rows matching a given pattern will transparently use
+ * an index on the table (if a usable one exists) to find the candidate rows.
+ * The candidate rows are visited in the same order as a full table scan, so
+ * the search results are unaffected by the use of the index.
  *
  * @author James Ahlborn
  */
@@ -34,6 +44,9 @@ public class TableScanCursor extends CursorImpl
   /** last position for the TableScanCursor */
   private static final ScanPosition LAST_SCAN_POSITION =
     new ScanPosition(RowIdImpl.LAST_ROW_ID);
+  /** max number of consecutive data pages read at once when not reading
+      ahead in the background */
+  private static final int MAX_RUN_PAGES = 16;
 
 
   /** ScanDirHandler for forward traversal */
@@ -132,6 +145,186 @@ public class TableScanCursor extends CursorImpl
     }
   }
 
+  @Override
+  protected boolean findAnotherRowImpl(
+      ColumnImpl columnPattern, Object valuePattern, boolean moveForward,
+      ColumnMatcher columnMatcher, Object searchInfo)
+    throws IOException
+  {
+    IndexSearchInfo indexInfo = (IndexSearchInfo)searchInfo;
+    if((indexInfo == null) || !isIndexCompatible(columnMatcher)) {
+      // use the default table scan
+      return super.findAnotherRowImpl(columnPattern, valuePattern, moveForward,
+                                      columnMatcher, searchInfo);
+    }
+
+    // only check the rows found by the index lookup
+    RowIdSet rowIds = indexInfo.getRowIds(getTable());
+    if(rowIds == null) {
+      // the pattern could not be converted to index entries
+      return super.findAnotherRowImpl(columnPattern, valuePattern, moveForward,
+                                      columnMatcher, null);
+    }
+    while(moveToAnotherIndexedRow(rowIds, moveForward)) {
+      if(currentRowMatchesImpl(columnPattern, valuePattern, columnMatcher)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected boolean findAnotherRowImpl(Map<String,?> rowPattern,
+                                       boolean moveForward,
+                                       ColumnMatcher columnMatcher,
+                                       Object searchInfo)
+    throws IOException
+  {
+    IndexSearchInfo indexInfo = (IndexSearchInfo)searchInfo;
+    if((indexInfo == null) || !isIndexCompatible(columnMatcher)) {
+      // use the default table scan
+      return super.findAnotherRowImpl(rowPattern, moveForward, columnMatcher,
+                                      searchInfo);
+    }
+
+    // only check the rows found by the index lookup
+    RowIdSet rowIds = indexInfo.getRowIds(getTable());
+    if(rowIds == null) {
+      // the pattern could not be converted to index entries
+      return super.findAnotherRowImpl(rowPattern, moveForward, columnMatcher,
+                                      null);
+    }
+    while(moveToAnotherIndexedRow(rowIds, moveForward)) {
+      if(currentRowMatchesImpl(rowPattern, columnMatcher)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected Object prepareSearchInfo(ColumnImpl columnPattern,
+                                     Object valuePattern)
+  {
+    return prepareSearchInfo(
+        Collections.singletonMap(columnPattern.getName(), valuePattern));
+  }
+
+  @Override
+  protected Object prepareSearchInfo(Map<String,?> rowPattern)
+  {
+    // find the index which covers the most leading columns of the pattern
+    IndexImpl bestIndex = null;
+    int bestNumCols = 0;
+    for(IndexImpl index : getTable().getIndexes()) {
+      if(!RowIdCursor.isUsableIndex(index)) {
+        continue;
+      }
+      int numCols = getNumPatternColumns(index, rowPattern);
+      if((numCols > bestNumCols) ||
+         ((numCols == bestNumCols) && (numCols > 0) && index.isUnique() &&
+          !bestIndex.isUnique())) {
+        bestIndex = index;
+        bestNumCols = numCols;
+      }
+    }
+
+    if(bestIndex == null) {
+      // no usable index, fall back to a full table scan
+      return null;
+    }
+
+    IndexData indexData = bestIndex.getIndexData();
+    return new IndexSearchInfo(
+        bestIndex,
+        indexData.constructPartialIndexRow(IndexData.MIN_VALUE, rowPattern),
+        indexData.constructPartialIndexRow(IndexData.MAX_VALUE, rowPattern));
+  }
+
+  /**
+   * Returns the number of leading columns of the given index which are in
+   * the given pattern, or 0 if the index cannot be used to search for the
+   * pattern.
+   */
+  private static int getNumPatternColumns(IndexImpl index,
+                                          Map<String,?> rowPattern)
+  {
+    int numCols = 0;
+    boolean allNull = true;
+    for(IndexData.ColumnDescriptor col : index.getColumns()) {
+      String colName = col.getName();
+      if(!rowPattern.containsKey(colName)) {
+        break;
+      }
+      allNull &= (rowPattern.get(colName) == null);
+      ++numCols;
+    }
+
+    if(allNull && index.shouldIgnoreNulls()) {
+      // rows with all null values may not be in the index
+      return 0;
+    }
+    return numCols;
+  }
+
+  /**
+   * Returns {@code true} if the rows found by an index lookup are a superset
+   * of the rows accepted by the given ColumnMatcher, {@code false} otherwise.
+   * Text index entries are case-insensitive, so only equality based matchers
+   * are compatible.
+   */
+  private static boolean isIndexCompatible(ColumnMatcher columnMatcher) {
+    Class<?> matcherClass = columnMatcher.getClass();
+    return((matcherClass == SimpleColumnMatcher.class) ||
+           (matcherClass == CaseInsensitiveColumnMatcher.class));
+  }
+
+  /**
+   * Moves to the next valid row in the given set of rows (in the given
+   * direction).  Caller manages save/restore on failure.
+   */
+  private boolean moveToAnotherIndexedRow(RowIdSet rowIds, boolean moveForward)
+    throws IOException
+  {
+    // find the first row after the current position (the positions of the
+    // scan are in RowId order)
+    int idx = rowIds.indexOf(_curPos.getRowId());
+    if(moveForward) {
+      idx = ((idx >= 0) ? (idx + 1) : -(idx + 1));
+    } else {
+      idx = ((idx >= 0) ? (idx - 1) : (-(idx + 1) - 1));
+    }
+
+    while((idx >= 0) && (idx < rowIds.size())) {
+      restorePosition(new ScanPosition(rowIds.getRowId(idx)));
+      if(isCurrentRowValid()) {
+        return true;
+      }
+      idx += (moveForward ? 1 : -1);
+    }
+    return false;
+  }
+
+  /**
+   * Reads the upcoming data pages in the background if this cursor is
+   * scanning sequentially.  Otherwise (if reading ahead is disabled), reads
+   * the run of consecutive data pages starting at the current page at once.
+   */
+  private void readAhead(boolean moveForward) {
+    if(getReadAheadPages() > 0) {
+      int numPages = getPagesToReadAhead();
+      if(numPages > 0) {
+        _ownedPagesCursor.readAhead(moveForward, numPages);
+      }
+      return;
+    }
+    try {
+      _ownedPagesCursor.readPages(moveForward, MAX_RUN_PAGES);
+    } catch(IOException e) {
+      // ignored, the "real" read will report any problems
+    }
+  }
+
   /**
    * Handles moving the table scan cursor in a given direction.  Separates
    * cursor logic from value storage.
@@ -160,7 +353,9 @@ public class TableScanCursor extends CursorImpl
     }
     @Override
     public int getAnotherPageNumber() {
-      return _ownedPagesCursor.getNextPage();
+      int pageNumber = _ownedPagesCursor.getNextPage();
+      readAhead(MOVE_FORWARD);
+      return pageNumber;
     }
     @Override
     public int getInitialRowNumber(int rowsOnPage) {
@@ -186,7 +381,9 @@ public class TableScanCursor extends CursorImpl
     }
     @Override
     public int getAnotherPageNumber() {
-      return _ownedPagesCursor.getPreviousPage();
+      int pageNumber = _ownedPagesCursor.getPreviousPage();
+      readAhead(MOVE_REVERSE);
+      return pageNumber;
     }
     @Override
     public int getInitialRowNumber(int rowsOnPage) {
@@ -194,6 +391,50 @@ public class TableScanCursor extends CursorImpl
     }
   }    
 
+  /**
+   * Search info for a search which can use an index to find the candidate
+   * rows.  The candidate rows are loaded lazily and reloaded if the table is
+   * modified.
+   */
+  private static final class IndexSearchInfo
+  {
+    private final IndexImpl _index;
+    private final Object[] _startRow;
+    private final Object[] _endRow;
+    private RowIdSet _rowIds;
+    private int _lastModCount;
+    private boolean _invalidEntry;
+
+    private IndexSearchInfo(IndexImpl index, Object[] startRow,
+                            Object[] endRow) {
+      _index = index;
+      _startRow = startRow;
+      _endRow = endRow;
+    }
+
+    /**
+     * Returns the candidate rows for the search, or {@code null} if the
+     * search values are not valid index entry values.
+     */
+    public RowIdSet getRowIds(TableImpl table) throws IOException {
+      if(_invalidEntry) {
+        return null;
+      }
+      if((_rowIds == null) || (_lastModCount != table.getModCount())) {
+        try {
+          _rowIds = _index.getRowIds(_startRow, true, _endRow, true);
+        } catch(IllegalArgumentException e) {
+          // the search values cannot be encoded for this index (e.g. the
+          // wrong type), so the search will need to use a table scan
+          _invalidEntry = true;
+          return null;
+        }
+        _lastModCount = table.getModCount();
+      }
+      return _rowIds;
+    }
+  }
+
   /**
    * Value object which maintains the current position of a TableScanCursor.
    */
@@ -61,4 +61,9 @@ class TextColumnImpl extends ColumnImpl
   public SortOrder getTextSortOrder() {
     return _sortOrder;
   }
+
+  @Override
+  Object read(byte[] data, TextDecoder textDecoder) throws IOException {
+    return decodeTextValue(data, textDecoder);
+  }
 }
@@ -0,0 +1,292 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes text values stored in the database.  Unicode text (as used by all
+ * jet 4+ databases), both compressed and uncompressed, is converted directly
+ * to chars.  Text in any other charset is decoded using the charset.
+ * <p>
+ * An instance re-uses a scratch buffer for the decoded chars, so it should
+ * be held by a single user (e.g. a cursor's row state) and is not thread
+ * safe.
+ *
+ * @author agent
+ */
+final class TextDecoder
+{
+  private static final Charset UNICODE_CHARSET = Charset.forName("UTF-16LE");
+
+  /** char used in place of malformed unicode data (matches the behavior of
+      the charset decoder) */
+  private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+  /** initial size of the scratch buffer */
+  private static final int INIT_CHARS_SIZE = 256;
+
+  /** scratch buffer for decoded chars, created on demand */
+  private char[] _chars;
+
+  TextDecoder() {}
+
+  /**
+   * Decodes the given text value.
+   */
+  public String decode(byte[] data, int offset, int length, Charset charset)
+  {
+    int maxChars = getMaxDecodedLength(data, offset, length, charset);
+    if(maxChars < 0) {
+      return decodeWithCharset(data, offset, length, charset);
+    }
+    char[] chars = getChars(maxChars);
+    int numChars = decodeUnicode(data, offset, length, chars);
+    return new String(chars, 0, numChars);
+  }
+
+  /**
+   * Decodes the given text value, returning a view of the decoded chars
+   * which is only valid until the next use of this decoder.
+   */
+  public CharSequence decodeView(byte[] data, int offset, int length,
+                                 Charset charset)
+  {
+    int maxChars = getMaxDecodedLength(data, offset, length, charset);
+    if(maxChars < 0) {
+      return decodeWithCharset(data, offset, length, charset);
+    }
+    char[] chars = getChars(maxChars);
+    int numChars = decodeUnicode(data, offset, length, chars);
+    return CharBuffer.wrap(chars, 0, numChars);
+  }
+
+  /**
+   * Decodes the given text value (without a re-usable decoder).
+   */
+  public static String decodeText(byte[] data, Charset charset)
+  {
+    int maxChars = getMaxDecodedLength(data, 0, data.length, charset);
+    if(maxChars < 0) {
+      return decodeWithCharset(data, 0, data.length, charset);
+    }
+    char[] chars = new char[maxChars];
+    int numChars = decodeUnicode(data, 0, data.length, chars);
+    return new String(chars, 0, numChars);
+  }
+
+  private char[] getChars(int maxChars) {
+    if((_chars == null) || (_chars.length < maxChars)) {
+      _chars = new char[Math.max(maxChars, INIT_CHARS_SIZE)];
+    }
+    return _chars;
+  }
+
+  /**
+   * Returns {@code true} if the given text value uses unicode compression,
+   * {@code false} otherwise.
+   */
+  private static boolean isCompressed(byte[] data, int offset, int length) {
+    // the 0xFF, 0xFE sequence indicates that compression is used (sort of,
+    // see decodeUnicode)
+    return ((length > 1) &&
+            (data[offset] == ColumnImpl.TEXT_COMPRESSION_HEADER[0]) &&
+            (data[offset + 1] == ColumnImpl.TEXT_COMPRESSION_HEADER[1]));
+  }
+
+  /**
+   * Returns the max number of chars in the given unicode text value, or -1
+   * if the value is not unicode text and must be decoded by the charset.
+   */
+  private static int getMaxDecodedLength(byte[] data, int offset, int length,
+                                      Charset charset)
+  {
+    if(!UNICODE_CHARSET.equals(charset)) {
+      return -1;
+    }
+
+    if(!isCompressed(data, offset, length)) {
+      return getUnicodeLength(length);
+    }
+
+    int numChars = 0;
+    int end = offset + length;
+    int segStart = offset + ColumnImpl.TEXT_COMPRESSION_HEADER.length;
+    boolean inCompressedMode = true;
+    for(int i = segStart; i < end; ++i) {
+      if(data[i] == (byte)0x00) {
+        numChars += getSegmentLength(i - segStart, inCompressedMode);
+        inCompressedMode = !inCompressedMode;
+        segStart = i + 1;
+      }
+    }
+    numChars += getSegmentLength(end - segStart, inCompressedMode);
+    return numChars;
+  }
+
+  private static int getSegmentLength(int length, boolean inCompressedMode) {
+    return (inCompressedMode ? length : getUnicodeLength(length));
+  }
+
+  private static int getUnicodeLength(int length) {
+    // a trailing odd byte is decoded as a replacement char
+    return ((length + 1) / 2);
+  }
+
+  /**
+   * Decodes the given unicode text value into the given chars (which must be
+   * big enough to hold the decoded value).
+   *
+   * @return the number of decoded chars
+   */
+  private static int decodeUnicode(byte[] data, int offset, int length,
+                                   char[] chars)
+  {
+    int end = offset + length;
+
+    if(!isCompressed(data, offset, length)) {
+      return decodeUnicodeSegment(data, offset, end, chars, 0);
+    }
+
+    // this is a whacky compression combo that switches back and forth
+    // between compressed/uncompressed using a 0x00 byte (starting in
+    // compressed mode)
+    int charPos = 0;
+    int segStart = offset + ColumnImpl.TEXT_COMPRESSION_HEADER.length;
+    boolean inCompressedMode = true;
+    for(int i = segStart; i <= end; ++i) {
+      if((i == end) || (data[i] == (byte)0x00)) {
+        if(inCompressedMode) {
+          // compressed chars are the low byte of the unicode char
+          for(int j = segStart; j < i; ++j) {
+            chars[charPos++] = (char)(data[j] & 0xFF);
+          }
+        } else {
+          charPos = decodeUnicodeSegment(data, segStart, i, chars, charPos);
+        }
+        inCompressedMode = !inCompressedMode;
+        segStart = i + 1;
+      }
+    }
+    return charPos;
+  }
+
+  /**
+   * Decodes the given uncompressed (little endian) unicode segment into the
+   * given chars at the given position.  Malformed data (unpaired surrogates,
+   * incomplete trailing bytes) is replaced the same way the charset decoder
+   * would replace it.
+   *
+   * @return the position after the decoded chars
+   */
+  private static int decodeUnicodeSegment(byte[] data, int start, int end,
+                                          char[] chars, int charPos)
+  {
+    int i = start;
+    while((end - i) >= 2) {
+      char c = getUnicodeChar(data, i);
+      if(Character.isHighSurrogate(c)) {
+        if((end - i) < 4) {
+          // incomplete surrogate pair, the rest of the data is malformed
+          i = end;
+          chars[charPos++] = REPLACEMENT_CHAR;
+          break;
+        }
+        char c2 = getUnicodeChar(data, i + 2);
+        if(Character.isLowSurrogate(c2)) {
+          chars[charPos++] = c;
+          chars[charPos++] = c2;
+        } else {
+          // both chars are malformed
+          chars[charPos++] = REPLACEMENT_CHAR;
+        }
+        i += 4;
+      } else {
+        chars[charPos++] = (Character.isLowSurrogate(c) ?
+                            REPLACEMENT_CHAR : c);
+        i += 2;
+      }
+    }
+    if(i < end) {
+      // trailing odd byte
+      chars[charPos++] = REPLACEMENT_CHAR;
+    }
+    return charPos;
+  }
+
+  private static char getUnicodeChar(byte[] data, int pos) {
+    return (char)((data[pos] & 0xFF) | ((data[pos + 1] & 0xFF) << 8));
+  }
+
+  /**
+   * Decodes the given text value using the given charset (the original
+   * algorithm, which works for any charset).
+   */
+  private static String decodeWithCharset(byte[] data, int offset, int length,
+                                          Charset charset)
+  {
+    if(!isCompressed(data, offset, length)) {
+      return charset.decode(ByteBuffer.wrap(data, offset, length)).toString();
+    }
+
+    StringBuilder textBuf = new StringBuilder(length);
+    // start after two bytes indicating compression use
+    int end = offset + length;
+    int segStart = offset + ColumnImpl.TEXT_COMPRESSION_HEADER.length;
+    boolean inCompressedMode = true;
+    for(int i = segStart; i <= end; ++i) {
+      if((i == end) || (data[i] == (byte)0x00)) {
+        decodeSegmentWithCharset(data, segStart, i, inCompressedMode, charset,
+                                 textBuf);
+        inCompressedMode = !inCompressedMode;
+        segStart = i + 1;
+      }
+    }
+    return textBuf.toString();
+  }
+
+  /**
+   * Decodes a segment of a text value into the given buffer according to
+   * the given status of the segment (compressed/uncompressed).
+   */
+  private static void decodeSegmentWithCharset(
+      byte[] data, int start, int end, boolean inCompressedMode,
+      Charset charset, StringBuilder textBuf)
+  {
+    if(end <= start) {
+      // no data
+      return;
+    }
+    int length = end - start;
+
+    if(inCompressedMode) {
+      byte[] tmpData = new byte[length * 2];
+      int tmpIdx = 0;
+      for(int i = start; i < end; ++i) {
+        tmpData[tmpIdx] = data[i];
+        tmpIdx += 2;
+      }
+      data = tmpData;
+      start = 0;
+      length = data.length;
+    }
+
+    textBuf.append(charset.decode(ByteBuffer.wrap(data, start, length)));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import com.healthmarketscience.jackcess.DatabaseBuilder;
+
+/**
+ * Cached timezone offsets for converting between UTC and local times, used
+ * for converting access date values.  The offsets are cached per day, so
+ * that once the offsets for a given day are known, conversions for that day
+ * do not need to use a Calendar.  Days which include an offset transition
+ * (e.g. a DST change) are always computed exactly using the Calendar.
+ * <p>
+ * The results are identical to computing the offsets using a (compatible)
+ * Calendar for the timezone.  This class is thread-safe.
+ *
+ * @author agent
+ */
+final class TimeZoneOffsets
+{
+  private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+
+  /** number of days which are cached (must be a power of 2) */
+  private static final int NUM_CACHED_DAYS = 4096;
+  private static final int CACHED_DAYS_MASK = NUM_CACHED_DAYS - 1;
+
+  /** calendar used to compute offsets (access must be synchronized) */
+  private final Calendar _cal;
+  /** offsets for recently used days (direct mapped by day number) */
+  private final DayOffsets[] _days = new DayOffsets[NUM_CACHED_DAYS];
+
+  TimeZoneOffsets(TimeZone tz) {
+    _cal = DatabaseBuilder.toCompatibleCalendar(Calendar.getInstance(tz));
+  }
+
+  /**
+   * Gets the timezone offset from UTC to local time for the given time
+   * (including DST).
+   */
+  public long getToLocalOffset(long time) {
+    DayOffsets offsets = getDayOffsets(time);
+    return ((offsets != null) ? offsets._totalOffset :
+            computeOffsets(time, false));
+  }
+
+  /**
+   * Gets the timezone offset from local time to UTC for the given time
+   * (including DST).
+   */
+  public long getFromLocalOffset(long time) {
+    // getting from local time back to UTC is a little wonky (and not
+    // guaranteed to get you back to where you started).  apply the zone
+    // offset first to get us closer to the original time
+    DayOffsets offsets = getDayOffsets(time);
+    long zoneOffset = ((offsets != null) ? offsets._zoneOffset :
+                       computeOffsets(time, true));
+    return getToLocalOffset(time - zoneOffset);
+  }
+
+  /**
+   * Returns the offsets for the day of the given time, or {@code null} if
+   * the offsets change during that day.
+   */
+  private DayOffsets getDayOffsets(long time) {
+    long day = time / MILLIS_PER_DAY;
+    if((time % MILLIS_PER_DAY) < 0L) {
+      --day;
+    }
+
+    int idx = (int)(day & CACHED_DAYS_MASK);
+    DayOffsets offsets = _days[idx];
+    if((offsets == null) || (offsets._day != day)) {
+      offsets = computeDayOffsets(day);
+      // note, racy publication of the immutable offsets is safe
+      _days[idx] = offsets;
+    }
+    return (offsets._uniform ? offsets : null);
+  }
+
+  private synchronized DayOffsets computeDayOffsets(long day) {
+    long start = day * MILLIS_PER_DAY;
+    long end = start + MILLIS_PER_DAY - 1L;
+    long mid = start + (MILLIS_PER_DAY / 2L);
+
+    int zoneOffset = computeOffsets(start, true);
+    int totalOffset = computeOffsets(start, false);
+    boolean uniform = true;
+    for(long time : new long[]{mid, end}) {
+      if((computeOffsets(time, true) != zoneOffset) ||
+         (computeOffsets(time, false) != totalOffset)) {
+        uniform = false;
+        break;
+      }
+    }
+    return new DayOffsets(day, zoneOffset, totalOffset, uniform);
+  }
+
+  /**
+   * Computes the zone offset (without DST) or the total offset (including
+   * DST) for the given time using the Calendar.
+   */
+  private synchronized int computeOffsets(long time, boolean zoneOnly) {
+    _cal.setTimeInMillis(time);
+    int zoneOffset = _cal.get(Calendar.ZONE_OFFSET);
+    return (zoneOnly ? zoneOffset :
+            (zoneOffset + _cal.get(Calendar.DST_OFFSET)));
+  }
+
+  /**
+   * The offsets for a single day.
+   */
+  private static final class DayOffsets
+  {
+    private final long _day;
+    private final int _zoneOffset;
+    private final int _totalOffset;
+    /** whether or not the offsets are the same for the entire day */
+    private final boolean _uniform;
+
+    private DayOffsets(long day, int zoneOffset, int totalOffset,
+                       boolean uniform) {
+      _day = day;
+      _zoneOffset = zoneOffset;
+      _totalOffset = totalOffset;
+      _uniform = uniform;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Mutable holder for a currency or numeric value read without creating a
+ * BigDecimal.  The value is held as a sign and an unsigned 128-bit unscaled
+ * magnitude (split into two longs) along with the scale, i.e. the value is
+ * {@code (-1)^negative * (high * 2^64 + low) * 10^-scale}.  Most values fit
+ * in a single long (see {@link #fitsInLong}), in which case the unscaled
+ * value is available via {@link #getUnscaledLong}.  Instances are intended
+ * to be re-used (e.g. for every row of a cursor traversal).
+ *
+ * @author agent
+ * @usage _advanced_class_
+ */
+public final class UnscaledDecimal
+{
+  private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+
+  private boolean _negative;
+  private long _high;
+  private long _low;
+  private int _scale;
+
+  public UnscaledDecimal() {}
+
+  /**
+   * @return {@code true} if the value is negative
+   */
+  public boolean isNegative() {
+    return _negative;
+  }
+
+  /**
+   * @return the high 64 bits of the unsigned unscaled magnitude
+   */
+  public long getHigh() {
+    return _high;
+  }
+
+  /**
+   * @return the low 64 bits of the unsigned unscaled magnitude
+   */
+  public long getLow() {
+    return _low;
+  }
+
+  /**
+   * @return the scale of the value (number of decimal places)
+   */
+  public int getScale() {
+    return _scale;
+  }
+
+  /**
+   * @return {@code true} if the unscaled (signed) value fits in a long
+   */
+  public boolean fitsInLong() {
+    return ((_high == 0L) &&
+            ((_low >= 0L) || (_negative && (_low == Long.MIN_VALUE))));
+  }
+
+  /**
+   * @return the signed unscaled value
+   * @throws ArithmeticException if the value does not fit in a long
+   */
+  public long getUnscaledLong() {
+    if(!fitsInLong()) {
+      throw new ArithmeticException("Value does not fit in a long");
+    }
+    return (_negative ? -_low : _low);
+  }
+
+  /**
+   * @return this value as a BigDecimal
+   */
+  public BigDecimal toBigDecimal() {
+    if(fitsInLong()) {
+      return BigDecimal.valueOf(getUnscaledLong(), _scale);
+    }
+    BigInteger intVal = toUnsigned(_high).multiply(TWO_64)
+      .add(toUnsigned(_low));
+    if(_negative) {
+      intVal = intVal.negate();
+    }
+    return new BigDecimal(intVal, _scale);
+  }
+
+  /**
+   * Sets this value from a signed unscaled long value and scale.
+   */
+  public UnscaledDecimal set(long unscaled, int scale) {
+    _negative = (unscaled < 0L);
+    _high = 0L;
+    // note, Long.MIN_VALUE negates to itself, which is the correct unsigned
+    // magnitude
+    _low = (_negative ? -unscaled : unscaled);
+    _scale = scale;
+    return this;
+  }
+
+  /**
+   * Sets this value from a sign, an unsigned 128-bit unscaled magnitude and
+   * a scale.
+   */
+  public UnscaledDecimal set(boolean negative, long high, long low, int scale)
+  {
+    _negative = negative;
+    _high = high;
+    _low = low;
+    _scale = scale;
+    return this;
+  }
+
+  /**
+   * Sets this value from the given BigDecimal.
+   * @throws ArithmeticException if the unscaled value needs more than 128
+   *         bits
+   */
+  public UnscaledDecimal set(BigDecimal value) {
+    BigInteger intVal = value.unscaledValue();
+    if(intVal.bitLength() < 64) {
+      return set(intVal.longValue(), value.scale());
+    }
+    BigInteger mag = intVal.abs();
+    if(mag.bitLength() > 128) {
+      throw new ArithmeticException("Value does not fit in 128 bits");
+    }
+    return set((intVal.signum() < 0), mag.shiftRight(64).longValue(),
+               mag.longValue(), value.scale());
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toString();
+  }
+
+  private static BigInteger toUnsigned(long val) {
+    BigInteger intVal = BigInteger.valueOf(val);
+    return ((val < 0L) ? intVal.add(TWO_64) : intVal);
+  }
+}
@@ -978,6 +978,78 @@ public class UsageMap
       return _curPageNumber;
     }
 
+    /**
+     * Requests that the given number of pages following the current page (in
+     * the given direction) be read ahead in the background.  Does not move
+     * this cursor.
+     */
+    public void readAhead(boolean moveForward, int numPages) {
+      DirHandler handler = getDirHandler(moveForward);
+      int endPageNumber = handler.getEndPageNumber();
+      int pageNumber = _curPageNumber;
+      // gather the pages into runs of consecutive pages so that each run can
+      // be read at once
+      int runStart = 0;
+      int runPages = 0;
+      for(int i = 0; (i < numPages) && (pageNumber != endPageNumber); ++i) {
+        pageNumber = handler.getAnotherPageNumber(pageNumber);
+        if(pageNumber == endPageNumber) {
+          break;
+        }
+        int runEnd = (moveForward ? (runStart + runPages) : (runStart - 1));
+        if((runPages > 0) && (pageNumber == runEnd)) {
+          if(!moveForward) {
+            runStart = pageNumber;
+          }
+          ++runPages;
+          continue;
+        }
+        readAheadRun(runStart, runPages);
+        runStart = pageNumber;
+        runPages = 1;
+      }
+      readAheadRun(runStart, runPages);
+    }
+
+    private void readAheadRun(int startPageNumber, int numPages) {
+      if(numPages > 0) {
+        getPageChannel().readAhead(startPageNumber, numPages);
+      }
+    }
+
+    /**
+     * Reads the run of consecutive pages starting at the current page (in
+     * the given direction, up to the given number of pages) using a single
+     * read of the channel (see {@link PageChannel#readPages}), unless the
+     * current page has already been read that way.  Does not move this
+     * cursor.
+     */
+    public void readPages(boolean moveForward, int numPages)
+      throws IOException
+    {
+      PageChannel pageChannel = getPageChannel();
+      if((_curPageNumber <= 0) || pageChannel.isRunPage(_curPageNumber)) {
+        return;
+      }
+      DirHandler handler = getDirHandler(moveForward);
+      int endPageNumber = handler.getEndPageNumber();
+      int runStart = _curPageNumber;
+      int runPages = 1;
+      int pageNumber = _curPageNumber;
+      while(runPages < numPages) {
+        pageNumber = handler.getAnotherPageNumber(pageNumber);
+        int runNext = (moveForward ? (runStart + runPages) : (runStart - 1));
+        if((pageNumber == endPageNumber) || (pageNumber != runNext)) {
+          break;
+        }
+        if(!moveForward) {
+          runStart = pageNumber;
+        }
+        ++runPages;
+      }
+      pageChannel.readPages(runStart, runPages);
+    }
+
     /**
      * After calling this method, getNextPage will return the first page in
      * the map
@@ -17,7 +17,6 @@ limitations under the License.
 package com.healthmarketscience.jackcess.impl.expr;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 import com.healthmarketscience.jackcess.expr.EvalException;
 import com.healthmarketscience.jackcess.expr.LocaleContext;
@@ -78,7 +77,7 @@ public class BuiltinOperators
       double result = -param1.getAsDouble(ctx);
       return toDateValue(ctx, mathType, result);
     case LONG:
-      return toValue(-param1.getAsLongInt(ctx));
+      return toIntValue(-(long)param1.getAsLongInt(ctx));
     case DOUBLE:
       return toValue(-param1.getAsDouble(ctx));
     case STRING:
@@ -96,8 +95,16 @@ public class BuiltinOperators
       return NULL_VAL;
     }
 
-    Value.Type mathType = getMathTypePrecedence(ctx, param1, param2,
-                                                CoercionType.SIMPLE);
+    Value.Type mathType = getPrimitiveMathType(param1, param2);
+    if(mathType != null) {
+      // fast path for the common numeric types
+      return ((mathType == Value.Type.LONG) ?
+              toIntValue((long)intVal(param1) + intVal(param2)) :
+              toValue(doubleVal(param1) + doubleVal(param2)));
+    }
+
+    mathType = getMathTypePrecedence(ctx, param1, param2,
+                                     CoercionType.SIMPLE);
 
     switch(mathType) {
     case STRING:
@@ -110,7 +117,8 @@ public class BuiltinOperators
       double result = param1.getAsDouble(ctx) + param2.getAsDouble(ctx);
       return toDateValue(ctx, mathType, result);
     case LONG:
-      return toValue(param1.getAsLongInt(ctx) + param2.getAsLongInt(ctx));
+      return toIntValue((long)param1.getAsLongInt(ctx) +
+                        param2.getAsLongInt(ctx));
     case DOUBLE:
       return toValue(param1.getAsDouble(ctx) + param2.getAsDouble(ctx));
     case BIG_DEC:
@@ -128,8 +136,16 @@ public class BuiltinOperators
       return NULL_VAL;
     }
 
-    Value.Type mathType = getMathTypePrecedence(ctx, param1, param2,
-                                                CoercionType.SIMPLE);
+    Value.Type mathType = getPrimitiveMathType(param1, param2);
+    if(mathType != null) {
+      // fast path for the common numeric types
+      return ((mathType == Value.Type.LONG) ?
+              toIntValue((long)intVal(param1) - intVal(param2)) :
+              toValue(doubleVal(param1) - doubleVal(param2)));
+    }
+
+    mathType = getMathTypePrecedence(ctx, param1, param2,
+                                     CoercionType.SIMPLE);
 
     switch(mathType) {
     // case STRING: break; unsupported
@@ -140,7 +156,8 @@ public class BuiltinOperators
       double result = param1.getAsDouble(ctx) - param2.getAsDouble(ctx);
       return toDateValue(ctx, mathType, result);
     case LONG:
-      return toValue(param1.getAsLongInt(ctx) - param2.getAsLongInt(ctx));
+      return toIntValue((long)param1.getAsLongInt(ctx) -
+                        param2.getAsLongInt(ctx));
     case DOUBLE:
       return toValue(param1.getAsDouble(ctx) - param2.getAsDouble(ctx));
     case BIG_DEC:
@@ -158,8 +175,16 @@ public class BuiltinOperators
       return NULL_VAL;
     }
 
-    Value.Type mathType = getMathTypePrecedence(ctx, param1, param2,
-                                                CoercionType.GENERAL);
+    Value.Type mathType = getPrimitiveMathType(param1, param2);
+    if(mathType != null) {
+      // fast path for the common numeric types
+      return ((mathType == Value.Type.LONG) ?
+              toIntValue((long)intVal(param1) * intVal(param2)) :
+              toValue(doubleVal(param1) * doubleVal(param2)));
+    }
+
+    mathType = getMathTypePrecedence(ctx, param1, param2,
+                                     CoercionType.GENERAL);
 
     switch(mathType) {
     // case STRING: break; unsupported
@@ -167,7 +192,8 @@ public class BuiltinOperators
     // case TIME: break; promoted to double
     // case DATE_TIME: break; promoted to double
     case LONG:
-      return toValue(param1.getAsLongInt(ctx) * param2.getAsLongInt(ctx));
+      return toIntValue((long)param1.getAsLongInt(ctx) *
+                        param2.getAsLongInt(ctx));
     case DOUBLE:
       return toValue(param1.getAsDouble(ctx) * param2.getAsDouble(ctx));
     case BIG_DEC:
@@ -185,8 +211,12 @@ public class BuiltinOperators
       return NULL_VAL;
     }
 
-    Value.Type mathType = getMathTypePrecedence(ctx, param1, param2,
-                                                CoercionType.GENERAL);
+    Value.Type mathType = getPrimitiveMathType(param1, param2);
+    boolean isPrimitive = (mathType != null);
+    if(!isPrimitive) {
+      mathType = getMathTypePrecedence(ctx, param1, param2,
+                                       CoercionType.GENERAL);
+    }
 
     switch(mathType) {
     // case STRING: break; unsupported
@@ -194,18 +224,19 @@ public class BuiltinOperators
     // case TIME: break; promoted to double
     // case DATE_TIME: break; promoted to double
     case LONG:
-      int lp1 = param1.getAsLongInt(ctx);
-      int lp2 = param2.getAsLongInt(ctx);
+      long lp1 = (isPrimitive ? intVal(param1) : param1.getAsLongInt(ctx));
+      long lp2 = (isPrimitive ? intVal(param2) : param2.getAsLongInt(ctx));
       if((lp1 % lp2) == 0) {
-        return toValue(lp1 / lp2);
+        return toIntValue(lp1 / lp2);
       }
       return toValue((double)lp1 / (double)lp2);
     case DOUBLE:
-      double d2 = param2.getAsDouble(ctx);
+      double d2 = (isPrimitive ? doubleVal(param2) : param2.getAsDouble(ctx));
       if(d2 == 0.0d) {
         throw new ArithmeticException(DIV_BY_ZERO);
       }
-      return toValue(param1.getAsDouble(ctx) / d2);
+      return toValue((isPrimitive ? doubleVal(param1) :
+                      param1.getAsDouble(ctx)) / d2);
     case BIG_DEC:
       return toValue(divide(param1.getAsBigDecimal(ctx), param2.getAsBigDecimal(ctx)));
     default:
@@ -224,7 +255,8 @@ public class BuiltinOperators
     if(mathType.isString()) {
       throw new EvalException("Unexpected type " + mathType);
     }
-    return toValue(param1.getAsLongInt(ctx) / param2.getAsLongInt(ctx));
+    return toIntValue((long)param1.getAsLongInt(ctx) /
+                      param2.getAsLongInt(ctx));
   }
 
   public static Value exp(LocaleContext ctx, Value param1, Value param2) {
@@ -458,17 +490,18 @@ public class BuiltinOperators
     return toValue(!param1.isNull());
   }
 
-  public static Value like(LocaleContext ctx, Value param1, Pattern pattern) {
+  public static Value like(LocaleContext ctx, Value param1,
+                           LikeMatcher pattern) {
     if(param1.isNull()) {
       // null propagation
       return NULL_VAL;
     }
 
-    return toValue(pattern.matcher(param1.getAsString(ctx)).matches());
+    return toValue(pattern.matches(param1.getAsString(ctx)));
   }
 
   public static Value notLike(
-      LocaleContext ctx, Value param1, Pattern pattern) {
+      LocaleContext ctx, Value param1, LikeMatcher pattern) {
     return not(ctx, like(ctx, param1, pattern));
   }
 
@@ -536,9 +569,20 @@ public class BuiltinOperators
   protected static int nonNullCompareTo(
       LocaleContext ctx, Value param1, Value param2)
   {
+    Value.Type compareType = getPrimitiveMathType(param1, param2);
+    if(compareType != null) {
+      // fast path for the common numeric types
+      if(compareType == Value.Type.LONG) {
+        int i1 = intVal(param1);
+        int i2 = intVal(param2);
+        return ((i1 < i2) ? -1 : ((i1 == i2) ? 0 : 1));
+      }
+      return Double.compare(doubleVal(param1), doubleVal(param2));
+    }
+
     // note that comparison does not do string to num coercion
-    Value.Type compareType = getMathTypePrecedence(ctx, param1, param2,
-                                                   CoercionType.COMPARE);
+    compareType = getMathTypePrecedence(ctx, param1, param2,
+                                        CoercionType.COMPARE);
 
     switch(compareType) {
     case STRING:
@@ -561,6 +605,35 @@ public class BuiltinOperators
     }
   }
 
+  /**
+   * Returns the type to use for math/comparison of the given params if they
+   * can be handled using primitive values (both params are LONG or DOUBLE),
+   * {@code null} otherwise.
+   */
+  private static Value.Type getPrimitiveMathType(Value param1, Value param2)
+  {
+    Value.Type t1 = param1.getType();
+    Value.Type t2 = param2.getType();
+    if((t1 == Value.Type.LONG) && (t2 == Value.Type.LONG)) {
+      return Value.Type.LONG;
+    }
+    if(((t1 == Value.Type.LONG) || (t1 == Value.Type.DOUBLE)) &&
+       ((t2 == Value.Type.LONG) || (t2 == Value.Type.DOUBLE))) {
+      return Value.Type.DOUBLE;
+    }
+    return null;
+  }
+
+  private static int intVal(Value param) {
+    // LONG values are always Integers
+    return ((Number)param.get()).intValue();
+  }
+
+  private static double doubleVal(Value param) {
+    // LONG and DOUBLE values are always Numbers
+    return ((Number)param.get()).doubleValue();
+  }
+
   private static Value.Type getMathTypePrecedence(
       LocaleContext ctx, Value param1, Value param2, CoercionType cType)
   {
@@ -64,7 +64,10 @@ public class Expressionator
 
 
   public enum Type {
-    DEFAULT_VALUE, EXPRESSION, FIELD_VALIDATOR, RECORD_VALIDATOR;
+    DEFAULT_VALUE, EXPRESSION, FIELD_VALIDATOR, RECORD_VALIDATOR,
+    /** a general expression within a query (or query-like criteria), which
+        may reference columns by bare names */
+    QUERY;
   }
 
   public interface ParseContext extends LocaleContext {
@@ -330,12 +333,12 @@ public class Expressionator
     },
     LIKE("Like") {
       @Override public Value eval(EvalContext ctx, Value param1, Object param2, Object param3) {
-        return BuiltinOperators.like(ctx, param1, (Pattern)param2);
+        return BuiltinOperators.like(ctx, param1, (LikeMatcher)param2);
       }
     },
     NOT_LIKE("Not Like") {
       @Override public Value eval(EvalContext ctx, Value param1, Object param2, Object param3) {
-        return BuiltinOperators.notLike(ctx, param1, (Pattern)param2);
+        return BuiltinOperators.notLike(ctx, param1, (LikeMatcher)param2);
       }
     },
     BETWEEN("Between") {
@@ -443,9 +446,17 @@ public class Expressionator
       expr = new EImplicitCompOp(expr);
     }
 
+    if(!expr.isConstant()) {
+      // constant top-level expressions are cached by the wrapper, otherwise
+      // cache any constant sub-expressions so that they are only evaluated
+      // once
+      expr.foldConstants();
+    }
+
     switch(exprType) {
     case DEFAULT_VALUE:
     case EXPRESSION:
+    case QUERY:
       return (expr.isConstant() ?
               // for now, just cache at top-level for speed (could in theory
               // cache intermediate values?)
@@ -548,6 +559,11 @@ public class Expressionator
 
               parseObjectRefExpression(t, buf);
 
+            } else if(buf.getExprType() == Type.QUERY) {
+
+              // query expressions commonly contain bare column names
+              parseObjectRefExpression(t, buf);
+
             } else {
 
               // FIXME maybe bare obj name, maybe string literal?
@@ -1224,6 +1240,25 @@ public class Expressionator
     return paramVals;
   }
 
+  private static Expr foldConstants(Expr expr) {
+    if(!expr.isConstant()) {
+      expr.foldConstants();
+      return expr;
+    }
+    if((expr instanceof EConstValue) || (expr instanceof ELiteralValue) ||
+       (expr instanceof EFoldedValue)) {
+      // already as simple as it gets
+      return expr;
+    }
+    return new EFoldedValue(expr);
+  }
+
+  private static void foldConstants(List<Expr> exprs) {
+    for(int i = 0; i < exprs.size(); ++i) {
+      exprs.set(i, foldConstants(exprs.get(i)));
+    }
+  }
+
   private static boolean areConstant(List<Expr> exprs) {
     for(Expr expr : exprs) {
       if(!expr.isConstant()) {
@@ -1248,7 +1283,11 @@ public class Expressionator
       .append("\"");
   }
 
-  private static Pattern likePatternToRegex(String pattern) {
+  /**
+   * Converts the given Access LIKE pattern into an equivalent
+   * (case-insensitive) regex Pattern.
+   */
+  public static Pattern likePatternToRegex(String pattern) {
 
     StringBuilder sb = new StringBuilder(pattern.length());
 
@@ -1311,6 +1350,167 @@ public class Expressionator
     }
   }
 
+  /**
+   * Returns the simple comparisons found in the top-level "And" terms of the
+   * given expression, i.e. comparisons of an object reference with constant
+   * values (which are evaluated using the given context) or equality
+   * comparisons of two object references.  Comparisons with constant values
+   * which evaluate to {@code null} are not included.  Rows which satisfy the
+   * expression will always satisfy all the returned comparisons (but not
+   * necessarily vice versa).
+   */
+  public static List<SimpleComparison> getSimpleComparisons(
+      Expression expr, EvalContext ctx) {
+    List<SimpleComparison> comps = new ArrayList<SimpleComparison>();
+    if(expr instanceof BaseExprWrapper) {
+      collectSimpleComparisons(((BaseExprWrapper)expr)._expr, ctx, comps);
+    }
+    return comps;
+  }
+
+  private static void collectSimpleComparisons(
+      Expr expr, EvalContext ctx, List<SimpleComparison> comps) {
+
+    expr = unwrapParens(expr);
+
+    if(expr instanceof ELogicalOp) {
+      ELogicalOp logOp = (ELogicalOp)expr;
+      if(logOp._op == LogOp.AND) {
+        collectSimpleComparisons(logOp._left, ctx, comps);
+        collectSimpleComparisons(logOp._right, ctx, comps);
+      }
+      return;
+    }
+
+    if((expr instanceof ECompOp) && !(expr instanceof EImplicitCompOp)) {
+      ECompOp compOp = (ECompOp)expr;
+      CompOp op = (CompOp)compOp._op;
+      Expr left = unwrapParens(compOp._left);
+      Expr right = unwrapParens(compOp._right);
+      if((left instanceof EObjValue) && (right instanceof EObjValue)) {
+        if(op == CompOp.EQ) {
+          comps.add(new SimpleComparison(
+                        ((EObjValue)left)._identifier, SimpleComparison.Op.EQ,
+                        null, ((EObjValue)right)._identifier));
+        }
+        return;
+      }
+      if(!(left instanceof EObjValue)) {
+        // try the "reverse" comparison
+        Expr tmp = left;
+        left = right;
+        right = tmp;
+        op = reverseCompOp(op);
+      }
+      if(left instanceof EObjValue) {
+        addSimpleComparison(((EObjValue)left)._identifier,
+                            toSimpleOp(op), ctx, comps, right);
+      }
+      return;
+    }
+
+    if(!(expr instanceof ESpecOp)) {
+      return;
+    }
+
+    ESpecOp specOp = (ESpecOp)expr;
+    Expr left = unwrapParens(specOp._expr);
+    if(!(left instanceof EObjValue)) {
+      return;
+    }
+    Identifier identifier = ((EObjValue)left)._identifier;
+
+    switch(specOp._op) {
+    case IS_NULL:
+      comps.add(new SimpleComparison(
+                    identifier, SimpleComparison.Op.IS_NULL, new Object[0],
+                    null));
+      break;
+    case IS_NOT_NULL:
+      comps.add(new SimpleComparison(
+                    identifier, SimpleComparison.Op.IS_NOT_NULL, new Object[0],
+                    null));
+      break;
+    case LIKE:
+      comps.add(new SimpleComparison(
+                    identifier, SimpleComparison.Op.LIKE,
+                    new Object[]{((ELikeOp)specOp)._patternStr}, null));
+      break;
+    case BETWEEN:
+      EBetweenOp betweenOp = (EBetweenOp)specOp;
+      addSimpleComparison(identifier, SimpleComparison.Op.BETWEEN, ctx, comps,
+                          betweenOp._startRangeExpr, betweenOp._endRangeExpr);
+      break;
+    case IN:
+      List<Expr> inExprs = ((EInOp)specOp)._exprs;
+      addSimpleComparison(identifier, SimpleComparison.Op.IN, ctx, comps,
+                          inExprs.toArray(new Expr[inExprs.size()]));
+      break;
+    default:
+      // not a simple comparison
+    }
+  }
+
+  private static void addSimpleComparison(
+      Identifier identifier, SimpleComparison.Op op, EvalContext ctx,
+      List<SimpleComparison> comps, Expr... valueExprs) {
+    Object[] values = new Object[valueExprs.length];
+    for(int i = 0; i < valueExprs.length; ++i) {
+      Expr valueExpr = valueExprs[i];
+      if(!valueExpr.isConstant()) {
+        return;
+      }
+      Value val = valueExpr.eval(ctx);
+      if(val.isNull()) {
+        return;
+      }
+      values[i] = val.get();
+    }
+    comps.add(new SimpleComparison(identifier, op, values, null));
+  }
+
+  private static Expr unwrapParens(Expr expr) {
+    while(expr instanceof EParen) {
+      expr = ((EParen)expr)._expr;
+    }
+    return expr;
+  }
+
+  private static CompOp reverseCompOp(CompOp op) {
+    switch(op) {
+    case LT:
+      return CompOp.GT;
+    case LTE:
+      return CompOp.GTE;
+    case GT:
+      return CompOp.LT;
+    case GTE:
+      return CompOp.LTE;
+    default:
+      // EQ and NE are symmetric
+      return op;
+    }
+  }
+
+  private static SimpleComparison.Op toSimpleOp(CompOp op) {
+    switch(op) {
+    case LT:
+      return SimpleComparison.Op.LT;
+    case LTE:
+      return SimpleComparison.Op.LE;
+    case GT:
+      return SimpleComparison.Op.GT;
+    case GTE:
+      return SimpleComparison.Op.GE;
+    case EQ:
+      return SimpleComparison.Op.EQ;
+    case NE:
+      return SimpleComparison.Op.NE;
+    default:
+      throw new IllegalStateException("unexpected op " + op);
+    }
+  }
+
   private static Value toLiteralValue(Value.Type valType, Object value) {
     switch(valType) {
     case STRING:
@@ -1365,6 +1565,61 @@ public class Expressionator
     public void setRight(Expr right);
   }
 
+  /**
+   * A simple comparison of an object reference with either constant values
+   * or another object reference, see {@link #getSimpleComparisons}.
+   */
+  public static final class SimpleComparison
+  {
+    public enum Op {
+      EQ, NE, LT, LE, GT, GE, BETWEEN, IN, LIKE, IS_NULL, IS_NOT_NULL;
+    }
+
+    private final Identifier _identifier;
+    private final Op _op;
+    private final Object[] _values;
+    private final Identifier _otherIdentifier;
+
+    private SimpleComparison(Identifier identifier, Op op, Object[] values,
+                             Identifier otherIdentifier) {
+      _identifier = identifier;
+      _op = op;
+      _values = values;
+      _otherIdentifier = otherIdentifier;
+    }
+
+    public Identifier getIdentifier() {
+      return _identifier;
+    }
+
+    public Op getOp() {
+      return _op;
+    }
+
+    /**
+     * @return the constant values for the comparison, or {@code null} if
+     *         the identifier is compared to another identifier
+     */
+    public Object[] getValues() {
+      return _values;
+    }
+
+    /**
+     * @return the other identifier for an equality comparison of two
+     *         object references, {@code null} otherwise
+     */
+    public Identifier getOtherIdentifier() {
+      return _otherIdentifier;
+    }
+
+    @Override
+    public String toString() {
+      return _identifier + " " + _op + " " +
+        ((_otherIdentifier != null) ? _otherIdentifier :
+         Arrays.asList(_values));
+    }
+  }
+
   private static final class DelayedValue extends BaseDelayedValue
   {
     private final Expr _expr;
@@ -1464,6 +1719,14 @@ public class Expressionator
       return outerExpr;
     }
 
+    /**
+     * Replaces any constant sub-expressions of this (non-constant)
+     * expression with versions which cache the result of evaluation.
+     */
+    protected void foldConstants() {
+      // no sub-expressions by default
+    }
+
     public abstract boolean isConstant();
 
     public abstract Value eval(EvalContext ctx);
@@ -1506,6 +1769,55 @@ public class Expressionator
     }
   }
 
+  /**
+   * Constant sub-expression which caches the result of evaluation (the
+   * original expression is retained for the string representation).
+   */
+  private static final class EFoldedValue extends Expr
+  {
+    private final Expr _expr;
+    private Value _val;
+
+    private EFoldedValue(Expr expr) {
+      _expr = expr;
+    }
+
+    @Override
+    public boolean isConstant() {
+      return true;
+    }
+
+    @Override
+    protected boolean isValidationExpr() {
+      return _expr.isValidationExpr();
+    }
+
+    @Override
+    public Value eval(EvalContext ctx) {
+      if(_val == null) {
+        _val = _expr.eval(ctx);
+      }
+      return _val;
+    }
+
+    @Override
+    public void collectIdentifiers(Collection<Identifier> identifiers) {
+      // none
+    }
+
+    @Override
+    protected StringBuilder toString(
+        LocaleContext ctx, StringBuilder sb, boolean isDebug) {
+      return _expr.toString(ctx, sb, isDebug);
+    }
+
+    @Override
+    protected void toExprString(
+        LocaleContext ctx, StringBuilder sb, boolean isDebug) {
+      _expr.toExprString(ctx, sb, isDebug);
+    }
+  }
+
   private static final class EThisValue extends Expr
   {
     @Override
@@ -1597,7 +1909,7 @@ public class Expressionator
 
   private static class EParen extends Expr
   {
-    private final Expr _expr;
+    private Expr _expr;
 
     private EParen(Expr expr) {
       _expr = expr;
@@ -1608,6 +1920,11 @@ public class Expressionator
       return _expr.isConstant();
     }
 
+    @Override
+    protected void foldConstants() {
+      _expr = Expressionator.foldConstants(_expr);
+    }
+
     @Override
     protected boolean isValidationExpr() {
       return _expr.isValidationExpr();
@@ -1647,6 +1964,11 @@ public class Expressionator
       return _func.isPure() && areConstant(_params);
     }
 
+    @Override
+    protected void foldConstants() {
+      Expressionator.foldConstants(_params);
+    }
+
     @Override
     public Value eval(EvalContext ctx) {
       return _func.eval(ctx, exprListToValues(_params, ctx));
@@ -1690,6 +2012,12 @@ public class Expressionator
       return areConstant(_left, _right);
     }
 
+    @Override
+    protected void foldConstants() {
+      _left = Expressionator.foldConstants(_left);
+      _right = Expressionator.foldConstants(_right);
+    }
+
     public OpType getOp() {
       return _op;
     }
@@ -1753,6 +2081,11 @@ public class Expressionator
       return _expr.isConstant();
     }
 
+    @Override
+    protected void foldConstants() {
+      _expr = Expressionator.foldConstants(_expr);
+    }
+
     public OpType getOp() {
       return _op;
     }
@@ -1859,6 +2192,11 @@ public class Expressionator
       return _expr.isConstant();
     }
 
+    @Override
+    protected void foldConstants() {
+      _expr = Expressionator.foldConstants(_expr);
+    }
+
     public OpType getOp() {
       return _op;
     }
@@ -1904,17 +2242,17 @@ public class Expressionator
   private static class ELikeOp extends ESpecOp
   {
     private final String _patternStr;
-    private Pattern _pattern;
+    private LikeMatcher _pattern;
 
     private ELikeOp(SpecOp op, Expr expr, String patternStr) {
       super(op, expr);
       _patternStr = patternStr;
     }
 
-    private Pattern getPattern()
+    private LikeMatcher getPattern()
     {
       if(_pattern == null) {
-        _pattern = likePatternToRegex(_patternStr);
+        _pattern = LikeMatcher.compile(_patternStr);
       }
       return _pattern;
     }
@@ -1950,6 +2288,12 @@ public class Expressionator
       return super.isConstant() && areConstant(_exprs);
     }
 
+    @Override
+    protected void foldConstants() {
+      super.foldConstants();
+      Expressionator.foldConstants(_exprs);
+    }
+
     @Override
     public Value eval(EvalContext ctx) {
       return _op.eval(ctx, _expr.eval(ctx),
@@ -1976,7 +2320,7 @@ public class Expressionator
   private static class EBetweenOp extends ESpecOp
     implements RightAssocExpr
   {
-    private final Expr _startRangeExpr;
+    private Expr _startRangeExpr;
     private Expr _endRangeExpr;
 
     private EBetweenOp(SpecOp op, Expr expr, Expr startRangeExpr,
@@ -1991,6 +2335,13 @@ public class Expressionator
       return _expr.isConstant() && areConstant(_startRangeExpr, _endRangeExpr);
     }
 
+    @Override
+    protected void foldConstants() {
+      super.foldConstants();
+      _startRangeExpr = Expressionator.foldConstants(_startRangeExpr);
+      _endRangeExpr = Expressionator.foldConstants(_endRangeExpr);
+    }
+
     public Expr getRight() {
       return _endRangeExpr;
     }
@@ -0,0 +1,230 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl.expr;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.healthmarketscience.jackcess.impl.SimpleCache;
+
+/**
+ * Compiled matcher for an Access LIKE pattern (matching is
+ * case-insensitive).  Patterns which are just literal text, optionally with
+ * a leading and/or trailing '*' (i.e. exact, prefix, suffix and contains
+ * patterns), are matched using direct string comparisons.  All other
+ * patterns are converted to a regex (see {@link
+ * Expressionator#likePatternToRegex}).
+ * <p/>
+ * Compiled matchers are immutable and are shared (by pattern text) across
+ * all expressions.
+ *
+ * @author agent
+ */
+public abstract class LikeMatcher
+{
+  private static final int MAX_CACHE_SIZE = 100;
+
+  /** cache of recently compiled matchers by pattern text */
+  private static final Map<String,LikeMatcher> CACHE =
+    new SimpleCache<String,LikeMatcher>(MAX_CACHE_SIZE);
+
+  protected final String _pattern;
+
+  private LikeMatcher(String pattern) {
+    _pattern = pattern;
+  }
+
+  /**
+   * Returns a (possibly cached) compiled matcher for the given Access LIKE
+   * pattern.
+   */
+  public static LikeMatcher compile(String pattern) {
+    LikeMatcher matcher = null;
+    synchronized(CACHE) {
+      matcher = CACHE.get(pattern);
+    }
+    if(matcher == null) {
+      matcher = create(pattern);
+      synchronized(CACHE) {
+        CACHE.put(pattern, matcher);
+      }
+    }
+    return matcher;
+  }
+
+  private static LikeMatcher create(String pattern) {
+
+    int start = 0;
+    int end = pattern.length();
+    boolean leadingWild = ((end > 0) && (pattern.charAt(0) == '*'));
+    if(leadingWild) {
+      ++start;
+    }
+    boolean trailingWild = ((end > start) && (pattern.charAt(end - 1) == '*'));
+    if(trailingWild) {
+      --end;
+    }
+
+    for(int i = start; i < end; ++i) {
+      char c = pattern.charAt(i);
+      if((c == '*') || (c == '?') || (c == '#') || (c == '[')) {
+        // not a simple pattern
+        return new RegexMatcher(pattern);
+      }
+    }
+
+    String literal = pattern.substring(start, end);
+    if(leadingWild) {
+      return (trailingWild ? new ContainsMatcher(pattern, literal) :
+              new SuffixMatcher(pattern, literal));
+    }
+    return (trailingWild ? new PrefixMatcher(pattern, literal) :
+            new ExactMatcher(pattern, literal));
+  }
+
+  /**
+   * @return the original LIKE pattern
+   */
+  public String getPattern() {
+    return _pattern;
+  }
+
+  /**
+   * Returns {@code true} if the given string matches this LIKE pattern,
+   * {@code false} otherwise.
+   */
+  public abstract boolean matches(String str);
+
+  /**
+   * @return the regex equivalent to this matcher
+   */
+  protected Pattern toRegex() {
+    return Expressionator.likePatternToRegex(_pattern);
+  }
+
+  @Override
+  public String toString() {
+    return toRegex().toString();
+  }
+
+  private static boolean matchesAt(String str, int offset, String literal) {
+    return str.regionMatches(true, offset, literal, 0, literal.length());
+  }
+
+  /**
+   * Matcher for a pattern with no wildcards.
+   */
+  private static final class ExactMatcher extends LikeMatcher
+  {
+    private final String _literal;
+
+    private ExactMatcher(String pattern, String literal) {
+      super(pattern);
+      _literal = literal;
+    }
+
+    @Override
+    public boolean matches(String str) {
+      return ((str.length() == _literal.length()) &&
+              matchesAt(str, 0, _literal));
+    }
+  }
+
+  /**
+   * Matcher for a pattern of the form "abc*".
+   */
+  private static final class PrefixMatcher extends LikeMatcher
+  {
+    private final String _literal;
+
+    private PrefixMatcher(String pattern, String literal) {
+      super(pattern);
+      _literal = literal;
+    }
+
+    @Override
+    public boolean matches(String str) {
+      return matchesAt(str, 0, _literal);
+    }
+  }
+
+  /**
+   * Matcher for a pattern of the form "*abc".
+   */
+  private static final class SuffixMatcher extends LikeMatcher
+  {
+    private final String _literal;
+
+    private SuffixMatcher(String pattern, String literal) {
+      super(pattern);
+      _literal = literal;
+    }
+
+    @Override
+    public boolean matches(String str) {
+      int offset = str.length() - _literal.length();
+      return ((offset >= 0) && matchesAt(str, offset, _literal));
+    }
+  }
+
+  /**
+   * Matcher for a pattern of the form "*abc*" (or just "*").
+   */
+  private static final class ContainsMatcher extends LikeMatcher
+  {
+    private final String _literal;
+
+    private ContainsMatcher(String pattern, String literal) {
+      super(pattern);
+      _literal = literal;
+    }
+
+    @Override
+    public boolean matches(String str) {
+      int maxOffset = str.length() - _literal.length();
+      for(int i = 0; i <= maxOffset; ++i) {
+        if(matchesAt(str, i, _literal)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Matcher for all other patterns, which uses the equivalent regex.
+   */
+  private static final class RegexMatcher extends LikeMatcher
+  {
+    private final Pattern _regex;
+
+    private RegexMatcher(String pattern) {
+      super(pattern);
+      _regex = Expressionator.likePatternToRegex(pattern);
+    }
+
+    @Override
+    public boolean matches(String str) {
+      return _regex.matcher(str).matches();
+    }
+
+    @Override
+    protected Pattern toRegex() {
+      return _regex;
+    }
+  }
+}
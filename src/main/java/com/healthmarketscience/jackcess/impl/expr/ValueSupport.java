@@ -55,6 +55,34 @@ public class ValueSupport
   public static final Value ONE_VAL = new LongValue(1);
   public static final Value ZERO_D_VAL = new DoubleValue(0d);
 
+  /** range of integral values which are cached (commonly used values) */
+  private static final int MIN_CACHED_INT = -128;
+  private static final int MAX_CACHED_INT = 1023;
+  private static final Value[] CACHED_INT_VALS =
+    new Value[MAX_CACHED_INT - MIN_CACHED_INT + 1];
+  private static final long MIN_INT = Integer.MIN_VALUE;
+  private static final long MAX_INT = Integer.MAX_VALUE;
+
+  static {
+    for(int i = MIN_CACHED_INT; i <= MAX_CACHED_INT; ++i) {
+      Value val = null;
+      switch(i) {
+      case -1:
+        val = NEG_ONE_VAL;
+        break;
+      case 0:
+        val = ZERO_VAL;
+        break;
+      case 1:
+        val = ONE_VAL;
+        break;
+      default:
+        val = new LongValue(i);
+      }
+      CACHED_INT_VALS[i - MIN_CACHED_INT] = val;
+    }
+  }
+
   static final char NUMBER_BASE_PREFIX = '&';
   static final Pattern OCTAL_PAT =
     Pattern.compile("^" + NUMBER_BASE_PREFIX + "[oO][0-7]+");
@@ -76,11 +104,25 @@ public class ValueSupport
   }
 
   public static Value toValue(int i) {
+    if((i >= MIN_CACHED_INT) && (i <= MAX_CACHED_INT)) {
+      return CACHED_INT_VALS[i - MIN_CACHED_INT];
+    }
     return new LongValue(i);
   }
 
   public static Value toValue(Integer i) {
-    return new LongValue(i);
+    return toValue(i.intValue());
+  }
+
+  /**
+   * Returns a LONG value for the given result of integral arithmetic if it
+   * fits, otherwise (on overflow) the result is promoted to a BIG_DEC value.
+   */
+  public static Value toIntValue(long l) {
+    if((l >= MIN_INT) && (l <= MAX_INT)) {
+      return toValue((int)l);
+    }
+    return toValue(BigDecimal.valueOf(l));
   }
 
   public static Value toValue(float f) {
@@ -529,7 +529,7 @@ public abstract class QueryImpl implements Query
     return builder;
   }
 
-  private String withErrorContext(String msg) {
+  protected String withErrorContext(String msg) {
     return withErrorContext(msg, getName());
   }
 
@@ -0,0 +1,1993 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl.query;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.Index;
+import com.healthmarketscience.jackcess.IndexCursor;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RuntimeIOException;
+import com.healthmarketscience.jackcess.expr.EvalException;
+import com.healthmarketscience.jackcess.expr.Expression;
+import com.healthmarketscience.jackcess.expr.Identifier;
+import com.healthmarketscience.jackcess.expr.Value;
+import com.healthmarketscience.jackcess.impl.BaseEvalContext;
+import com.healthmarketscience.jackcess.impl.ColumnImpl;
+import com.healthmarketscience.jackcess.impl.ColumnPredicate;
+import com.healthmarketscience.jackcess.impl.DatabaseImpl;
+import com.healthmarketscience.jackcess.impl.IndexData;
+import com.healthmarketscience.jackcess.impl.IndexImpl;
+import com.healthmarketscience.jackcess.impl.QueryEvalContext;
+import com.healthmarketscience.jackcess.impl.RowIdImpl;
+import com.healthmarketscience.jackcess.impl.RowImpl;
+import com.healthmarketscience.jackcess.impl.TableImpl;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator.SimpleComparison;
+import com.healthmarketscience.jackcess.query.Query;
+import com.healthmarketscience.jackcess.query.SelectQuery;
+import com.healthmarketscience.jackcess.util.CaseInsensitiveColumnMatcher;
+import com.healthmarketscience.jackcess.util.RowSorter;
+import static com.healthmarketscience.jackcess.impl.query.QueryFormat.*;
+
+/**
+ * Executes a saved {@link SelectQuery} against the data in the database,
+ * e.g.:
+ * <pre>
+ *   SelectQuery query = (SelectQuery)db.getQuery("MyQuery");
+ *   Iterator&lt;Row&gt; rows = new SelectQueryExecutor(db, query)
+ *     .setParameter("Min Total", 100).execute();
+ * </pre>
+ * The supported subset of Access SQL includes tables (and other saved
+ * select queries) in the FROM clause, inner/left/right joins, WHERE, GROUP
+ * BY (with the Count, Sum, Avg, Min, Max, First and Last aggregate
+ * functions), HAVING, ORDER BY, DISTINCT and TOP (including PERCENT).
+ * Expressions are evaluated using the same expression engine as calculated
+ * columns.  Any parameters (or other unknown identifiers) must be given
+ * using {@link #setParameter}.  Unsupported queries (e.g. remote database
+ * tables or sub-selects in the FROM clause) result in an
+ * UnsupportedOperationException.
+ * <p>
+ * The query is planned against the available indexes: simple comparisons
+ * in the WHERE clause (and in the ON clauses of the inner tables of joins)
+ * are used to restrict the table traversals (see {@link CursorBuilder#where}),
+ * equi-joins use index lookups on the joined table where possible (hash
+ * joins otherwise), and an ORDER BY on a single table may use a matching
+ * index instead of sorting.  Rows are streamed where possible, grouping
+ * and sorting need to read all the matching rows (sorting is memory bounded
+ * using a {@link RowSorter}).  Text values are ordered (and compared by
+ * Min and Max) like a text index on the column, i.e. using the Access sort
+ * order.  Note that TOP does not include "ties" for the last row.  A
+ * description of the chosen plan is available from {@link #getPlan}.
+ *
+ * @author agent
+ * @usage _advanced_class_
+ */
+public class SelectQueryExecutor
+{
+  /** prefix for the placeholder identifiers replacing aggregate calls */
+  private static final String AGG_ID_PREFIX = "__agg";
+  /** prefix for the hidden sort columns */
+  private static final String SORT_COL_PREFIX = "__sort";
+  /** number used for the first generated column name (like Access) */
+  private static final int FIRST_EXPR_NUM = 1000;
+  /** join types (see QueryFormat.JOIN_TYPE_MAP) */
+  private static final short INNER_JOIN = 1;
+  private static final short LEFT_JOIN = 2;
+  private static final short RIGHT_JOIN = 3;
+
+  private enum AggFunc {
+    COUNT, SUM, AVG, MIN, MAX, FIRST, LAST;
+
+    private static AggFunc fromName(String name) {
+      for(AggFunc func : values()) {
+        if(func.name().equalsIgnoreCase(name)) {
+          return func;
+        }
+      }
+      return null;
+    }
+  }
+
+  private enum JoinStrategy {
+    INDEX_LOOKUP, HASH, NESTED_LOOP;
+  }
+
+  private final Database _db;
+  private final BaseSelectQueryImpl _query;
+  private final SelectQueryExecutor _parent;
+  private final Map<String,Object> _params;
+  private int _maxRowsInMemory = RowSorter.DEFAULT_MAX_ROWS_IN_MEMORY;
+
+  public SelectQueryExecutor(Database db, SelectQuery query) {
+    this(db, query, null);
+  }
+
+  private SelectQueryExecutor(Database db, SelectQuery query,
+                              SelectQueryExecutor parent) {
+    _db = db;
+    _query = (BaseSelectQueryImpl)query;
+    _parent = parent;
+    _params = ((parent != null) ? parent._params :
+               new TreeMap<String,Object>(String.CASE_INSENSITIVE_ORDER));
+  }
+
+  public SelectQuery getQuery() {
+    return (SelectQuery)_query;
+  }
+
+  /**
+   * Sets the value of the parameter (or other identifier which does not
+   * reference a column) with the given name.
+   */
+  public SelectQueryExecutor setParameter(String name, Object value) {
+    _params.put(name, value);
+    return this;
+  }
+
+  /**
+   * Sets the max number of rows held in memory when sorting the results.
+   */
+  public SelectQueryExecutor setMaxRowsInMemory(int maxRowsInMemory) {
+    _maxRowsInMemory = maxRowsInMemory;
+    return this;
+  }
+
+  /**
+   * @return the names of the columns of the result rows
+   */
+  public List<String> getColumnNames() throws IOException {
+    return new Plan().getColumnNames();
+  }
+
+  /**
+   * @return a description of the execution plan for the query
+   */
+  public List<String> getPlan() throws IOException {
+    return new Plan().describe();
+  }
+
+  /**
+   * Executes the query, returning an iterator over the result rows.
+   */
+  public Iterator<Row> execute() throws IOException {
+    return new Plan().execute();
+  }
+
+  private String withErrorContext(String msg) {
+    return _query.withErrorContext(msg);
+  }
+
+  private static boolean isAggId(Identifier identifier) {
+    return ((identifier.getCollectionName() == null) &&
+            (identifier.getPropertyName() == null) &&
+            identifier.getObjectName().startsWith(AGG_ID_PREFIX));
+  }
+
+  private static int getAggIndex(Identifier identifier) {
+    return Integer.parseInt(identifier.getObjectName().substring(
+                                AGG_ID_PREFIX.length()));
+  }
+
+  private static boolean isSameColumn(ColumnRef ref1, ColumnRef ref2) {
+    return ((ref1._srcIdx == ref2._srcIdx) && ref1._name.equals(ref2._name));
+  }
+
+  /**
+   * Normalizes the given value for equality comparisons (following Access
+   * semantics, e.g. text is compared case-insensitively and numbers are
+   * compared by value).
+   */
+  private static Object normalizeKey(Object val) {
+    if(val instanceof String) {
+      return ((String)val).toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+    if(val instanceof Boolean) {
+      return toBigDecimal(((Boolean)val) ? -1 : 0);
+    }
+    if(val instanceof Number) {
+      BigDecimal dec = toBigDecimal((Number)val);
+      return ((dec.signum() == 0) ? BigDecimal.ZERO : dec.stripTrailingZeros());
+    }
+    if(val instanceof byte[]) {
+      return ByteBuffer.wrap((byte[])val);
+    }
+    return val;
+  }
+
+  private static List<Object> normalizeKeys(Object[] vals) {
+    List<Object> keys = new ArrayList<Object>(vals.length);
+    for(Object val : vals) {
+      keys.add(normalizeKey(val));
+    }
+    return keys;
+  }
+
+  /**
+   * Normalizes the given value for sorting, so that all numeric values are
+   * comparable and text values sort like in Access (using the given text
+   * sort order).
+   */
+  private static Object normalizeSortKey(Object val,
+                                         ColumnImpl.SortOrder sortOrder) {
+    if(val instanceof Boolean) {
+      return toBigDecimal(((Boolean)val) ? -1 : 0);
+    }
+    if(val instanceof Number) {
+      return toBigDecimal((Number)val);
+    }
+    if(val instanceof String) {
+      return toTextSortKey((String)val, sortOrder);
+    }
+    return val;
+  }
+
+  /**
+   * Returns the index entry bytes of the given text value for the given sort
+   * order (which sort like the text in Access), or the value itself if the
+   * sort order is not supported.
+   */
+  private static Object toTextSortKey(String val,
+                                      ColumnImpl.SortOrder sortOrder) {
+    try {
+      byte[] key = IndexData.createTextSortKey(val, sortOrder);
+      return ((key != null) ? key : val);
+    } catch(IOException e) {
+      throw new RuntimeIOException(e);
+    }
+  }
+
+  private static BigDecimal toBigDecimal(Number num) {
+    if(num instanceof BigDecimal) {
+      return (BigDecimal)num;
+    }
+    if(num instanceof BigInteger) {
+      return new BigDecimal((BigInteger)num);
+    }
+    if((num instanceof Double) || (num instanceof Float)) {
+      return BigDecimal.valueOf(num.doubleValue());
+    }
+    return BigDecimal.valueOf(num.longValue());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(Object v1, Object v2) {
+    if((v1 instanceof Number) && (v2 instanceof Number)) {
+      return toBigDecimal((Number)v1).compareTo(toBigDecimal((Number)v2));
+    }
+    if((v1 instanceof String) && (v2 instanceof String)) {
+      return String.CASE_INSENSITIVE_ORDER.compare((String)v1, (String)v2);
+    }
+    if((v1 instanceof byte[]) && (v2 instanceof byte[])) {
+      return IndexData.BYTE_CODE_COMPARATOR.compare((byte[])v1, (byte[])v2);
+    }
+    if((v1 instanceof Comparable<?>) && (v1.getClass() == v2.getClass())) {
+      return ((Comparable<Object>)v1).compareTo(v2);
+    }
+    return String.CASE_INSENSITIVE_ORDER.compare(
+        v1.toString(), v2.toString());
+  }
+
+  private static String stripBrackets(String name) {
+    if((name.length() >= 2) && (name.charAt(0) == '[') &&
+       (name.charAt(name.length() - 1) == ']')) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+
+  /**
+   * Returns the index of the matching close paren for the open paren at the
+   * given position, skipping any quoted strings, bracketed names and date
+   * literals.
+   */
+  private static int findCloseParen(String exprStr, int openPos) {
+    int depth = 0;
+    for(int i = openPos; i < exprStr.length(); ++i) {
+      char c = exprStr.charAt(i);
+      if(c == '(') {
+        ++depth;
+      } else if(c == ')') {
+        if(--depth == 0) {
+          return i;
+        }
+      } else {
+        i = skipDelimited(exprStr, i) - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * If the given position starts a quoted string, bracketed name or date
+   * literal, returns the position after the end of it, otherwise returns the
+   * next position.
+   */
+  private static int skipDelimited(String exprStr, int pos) {
+    char c = exprStr.charAt(pos);
+    char endChar = 0;
+    switch(c) {
+    case '"':
+    case '\'':
+    case '#':
+      endChar = c;
+      break;
+    case '[':
+      endChar = ']';
+      break;
+    default:
+      return pos + 1;
+    }
+    int endPos = exprStr.indexOf(endChar, pos + 1);
+    return ((endPos < 0) ? exprStr.length() : (endPos + 1));
+  }
+
+  /**
+   * A reference to a column of one of the query sources.
+   */
+  private static final class ColumnRef
+  {
+    private final int _srcIdx;
+    private final String _name;
+    /** column type (if the source is a table) */
+    private final DataType _type;
+    /** sort order (if the source is a table and the column is textual) */
+    private final ColumnImpl.SortOrder _sortOrder;
+
+    private ColumnRef(int srcIdx, String name, DataType type,
+                      ColumnImpl.SortOrder sortOrder) {
+      _srcIdx = srcIdx;
+      _name = name;
+      _type = type;
+      _sortOrder = sortOrder;
+    }
+
+    private Object getValue(Row[] rows) {
+      Row row = rows[_srcIdx];
+      return ((row != null) ? row.get(_name) : null);
+    }
+  }
+
+  /**
+   * An aggregate function call in one of the query expressions.
+   */
+  private static final class AggSpec
+  {
+    private final AggFunc _func;
+    private final String _argStr;
+    /** argument, {@code null} for "*" */
+    private ExprItem _arg;
+    /** sort order for comparing text arguments (MIN, MAX) */
+    private ColumnImpl.SortOrder _sortOrder;
+
+    private AggSpec(AggFunc func, String argStr) {
+      _func = func;
+      _argStr = argStr;
+    }
+
+    private boolean matches(AggFunc func, String argStr) {
+      return ((_func == func) && _argStr.equalsIgnoreCase(argStr));
+    }
+
+    @Override
+    public String toString() {
+      return _func + "(" + _argStr + ")";
+    }
+  }
+
+  /**
+   * Accumulated value of an aggregate function for a group.
+   */
+  private static final class AggState
+  {
+    private final AggSpec _spec;
+    private long _count;
+    private Object _value;
+    /** the sort key of the current value (MIN, MAX) */
+    private Object _valueKey;
+    private boolean _hasValue;
+    private double _doubleSum;
+    private BigDecimal _decSum = BigDecimal.ZERO;
+    private boolean _hasDouble;
+    private boolean _allIntegral = true;
+
+    private AggState(AggSpec spec) {
+      _spec = spec;
+    }
+
+    private void add(Object val) {
+      switch(_spec._func) {
+      case COUNT:
+        if((_spec._arg == null) || (val != null)) {
+          ++_count;
+        }
+        return;
+      case FIRST:
+        if(!_hasValue) {
+          _value = val;
+          _hasValue = true;
+        }
+        return;
+      case LAST:
+        _value = val;
+        _hasValue = true;
+        return;
+      default:
+        // handled below
+      }
+
+      if(val == null) {
+        return;
+      }
+
+      switch(_spec._func) {
+      case MIN:
+      case MAX:
+        Object key = ((val instanceof String) ?
+                      toTextSortKey((String)val, _spec._sortOrder) : val);
+        int cmp = (_hasValue ? compareValues(key, _valueKey) : 0);
+        if(!_hasValue || ((_spec._func == AggFunc.MIN) ? (cmp < 0) :
+                          (cmp > 0))) {
+          _value = val;
+          _valueKey = key;
+          _hasValue = true;
+        }
+        break;
+      default:
+        // SUM, AVG
+        ++_count;
+        Number num = toNumber(val);
+        if((num instanceof Double) || (num instanceof Float)) {
+          _hasDouble = true;
+          _doubleSum += num.doubleValue();
+        } else {
+          _decSum = _decSum.add(toBigDecimal(num));
+          _allIntegral &= !(num instanceof BigDecimal);
+        }
+      }
+    }
+
+    private Number toNumber(Object val) {
+      if(val instanceof Number) {
+        return (Number)val;
+      }
+      if(val instanceof Boolean) {
+        return (((Boolean)val) ? -1 : 0);
+      }
+      try {
+        return new BigDecimal(val.toString().trim());
+      } catch(NumberFormatException e) {
+        throw new EvalException("Invalid value for " + _spec + ": " + val, e);
+      }
+    }
+
+    private Object getResult() {
+      switch(_spec._func) {
+      case COUNT:
+        return (int)_count;
+      case SUM:
+        if(_count == 0L) {
+          return null;
+        }
+        if(_hasDouble) {
+          return _doubleSum + _decSum.doubleValue();
+        }
+        if(_allIntegral && (_decSum.unscaledValue().bitLength() < 32)) {
+          return _decSum.intValue();
+        }
+        return _decSum;
+      case AVG:
+        if(_count == 0L) {
+          return null;
+        }
+        if(_hasDouble || _allIntegral) {
+          return (_doubleSum + _decSum.doubleValue()) / _count;
+        }
+        return _decSum.divide(BigDecimal.valueOf(_count),
+                              MathContext.DECIMAL128);
+      default:
+        return (_hasValue ? _value : null);
+      }
+    }
+  }
+
+  /**
+   * An expression used by the query.  Simple column references are
+   * evaluated directly (returning the actual column value).
+   */
+  private static final class ExprItem
+  {
+    private final String _exprStr;
+    private final Expression _expr;
+    private final ColumnRef _ref;
+
+    private ExprItem(String exprStr, Expression expr, ColumnRef ref) {
+      _exprStr = exprStr;
+      _expr = expr;
+      _ref = ref;
+    }
+
+    private Object eval(RowContext ctx) {
+      if(_ref != null) {
+        return _ref.getValue(ctx._rows);
+      }
+      return _expr.eval(ctx);
+    }
+
+    private boolean isTrue(RowContext ctx) {
+      Object val = eval(ctx);
+      return ((val != null) && ctx.toValue(val).getAsBoolean(ctx));
+    }
+
+    @Override
+    public String toString() {
+      return _exprStr;
+    }
+  }
+
+  /**
+   * A column of the query results.
+   */
+  private static final class SelectItem
+  {
+    private final String _name;
+    private final ExprItem _expr;
+
+    private SelectItem(String name, ExprItem expr) {
+      _name = name;
+      _expr = expr;
+    }
+  }
+
+  /**
+   * A table (or select query) in the FROM clause.
+   */
+  private final class Source
+  {
+    private final int _idx;
+    private final String _alias;
+    private final TableImpl _table;
+    private final SelectQueryExecutor _subQuery;
+    private final List<String> _colNames = new ArrayList<String>();
+    private final List<SimpleComparison> _preds =
+      new ArrayList<SimpleComparison>();
+    /** whether the rows may be null (for an outer join) */
+    private boolean _nullable;
+    private IndexImpl _orderIndex;
+
+    private Source(int idx, String alias, TableImpl table,
+                   SelectQueryExecutor subQuery) throws IOException {
+      _idx = idx;
+      _alias = alias;
+      _table = table;
+      _subQuery = subQuery;
+      if(table != null) {
+        for(ColumnImpl col : table.getColumns()) {
+          _colNames.add(col.getName());
+        }
+      } else {
+        _colNames.addAll(subQuery.getColumnNames());
+      }
+    }
+
+    private ColumnRef findColumn(String name) {
+      for(String colName : _colNames) {
+        if(colName.equalsIgnoreCase(name)) {
+          if(_table == null) {
+            return new ColumnRef(_idx, colName, null, null);
+          }
+          ColumnImpl col = _table.getColumn(colName);
+          return new ColumnRef(
+              _idx, colName, col.getType(),
+              (col.getType().isTextual() ? col.getTextSortOrder() : null));
+        }
+      }
+      return null;
+    }
+
+    private long estimateRows() {
+      return ((_table != null) ? _table.getRowCount() : Long.MAX_VALUE);
+    }
+
+    private Iterator<Row> iterator() throws IOException {
+      if(_table == null) {
+        return _subQuery.execute();
+      }
+      CursorBuilder builder = _table.newCursor();
+      if(_orderIndex != null) {
+        builder.setIndex(_orderIndex);
+      }
+      for(SimpleComparison pred : _preds) {
+        builder.where(pred.getIdentifier().getObjectName(),
+                      CursorBuilder.Op.valueOf(pred.getOp().name()),
+                      pred.getValues());
+      }
+      return builder.toCursor().iterator();
+    }
+
+    @Override
+    public String toString() {
+      String name = ((_table != null) ? _table.getName() :
+                     _subQuery._query.getName());
+      return (name.equals(_alias) ? name : (name + " AS " + _alias));
+    }
+  }
+
+  /**
+   * EvalContext for evaluating expressions against the current (combined)
+   * row of the query sources.
+   */
+  private class RowContext extends QueryEvalContext
+  {
+    private final Plan _plan;
+    protected Row[] _rows;
+
+    private RowContext(Plan plan) {
+      super(_db);
+      _plan = plan;
+    }
+
+    @Override
+    public Value getIdentifierValue(Identifier identifier) {
+      ColumnRef ref = _plan.resolveColumn(identifier);
+      if(ref == null) {
+        String name = identifier.getObjectName();
+        if(!_params.containsKey(name)) {
+          throw new EvalException("Unknown parameter " + identifier);
+        }
+        return toValue(_params.get(name));
+      }
+      Object val = ref.getValue(_rows);
+      return ((ref._type != null) ? toColumnValue(val, ref._type) :
+              toValue(val));
+    }
+
+    @Override
+    protected String withErrorContext(String msg) {
+      return SelectQueryExecutor.this.withErrorContext(msg);
+    }
+  }
+
+  /**
+   * EvalContext for evaluating expressions against a group of rows (where
+   * aggregate function calls have been replaced with placeholders).
+   */
+  private final class GroupContext extends RowContext
+  {
+    private Object[] _aggValues;
+
+    private GroupContext(Plan plan) {
+      super(plan);
+    }
+
+    @Override
+    public Value getIdentifierValue(Identifier identifier) {
+      if(isAggId(identifier)) {
+        return toValue(_aggValues[getAggIndex(identifier)]);
+      }
+      return super.getIdentifierValue(identifier);
+    }
+  }
+
+  /**
+   * Node in the tree of joined query sources, produces "combined" rows
+   * containing the rows of each source (indexed by source index).
+   */
+  private abstract class Node
+  {
+    protected final Plan _plan;
+    protected final Set<Integer> _srcIdxs = new HashSet<Integer>();
+
+    protected Node(Plan plan) {
+      _plan = plan;
+    }
+
+    protected boolean containsSource(String alias) {
+      for(Integer srcIdx : _srcIdxs) {
+        if(_plan._sources.get(srcIdx)._alias.equalsIgnoreCase(alias)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    protected abstract long estimateRows();
+
+    protected abstract Iterator<Row[]> iterator() throws IOException;
+
+    protected abstract void describe(List<String> lines, String indent);
+  }
+
+  private final class SourceNode extends Node
+  {
+    private final Source _src;
+
+    private SourceNode(Plan plan, Source src) {
+      super(plan);
+      _src = src;
+      _srcIdxs.add(src._idx);
+    }
+
+    @Override
+    protected long estimateRows() {
+      return _src.estimateRows();
+    }
+
+    @Override
+    protected Iterator<Row[]> iterator() throws IOException {
+      final Iterator<Row> iter = _src.iterator();
+      final int numSources = _plan._sources.size();
+      return new LookaheadIterator<Row[]>() {
+        @Override
+        protected Row[] findNext() {
+          if(!iter.hasNext()) {
+            return null;
+          }
+          Row[] rows = new Row[numSources];
+          rows[_src._idx] = iter.next();
+          return rows;
+        }
+      };
+    }
+
+    @Override
+    protected void describe(List<String> lines, String indent) {
+      StringBuilder sb = new StringBuilder(indent).append("Scan ")
+        .append(_src);
+      if(_src._orderIndex != null) {
+        sb.append(" using index ").append(_src._orderIndex.getName());
+      }
+      if(!_src._preds.isEmpty()) {
+        sb.append(" where ").append(_src._preds);
+      }
+      lines.add(sb.toString());
+    }
+  }
+
+  private final class JoinNode extends Node
+  {
+    private Node _outer;
+    private Node _inner;
+    private final short _joinType;
+    private final List<ExprItem> _on = new ArrayList<ExprItem>();
+    private final List<ColumnRef> _outerKeys = new ArrayList<ColumnRef>();
+    private final List<ColumnRef> _innerKeys = new ArrayList<ColumnRef>();
+    private JoinStrategy _strategy;
+    private IndexImpl _lookupIndex;
+    private ColumnRef[] _lookupKeys;
+
+    private JoinNode(Plan plan, Node from, Node to, short joinType) {
+      super(plan);
+      _joinType = joinType;
+      if(joinType == RIGHT_JOIN) {
+        _outer = to;
+        _inner = from;
+      } else {
+        _outer = from;
+        _inner = to;
+      }
+      _srcIdxs.addAll(from._srcIdxs);
+      _srcIdxs.addAll(to._srcIdxs);
+    }
+
+    private boolean isOuterJoin() {
+      return ((_joinType == LEFT_JOIN) || (_joinType == RIGHT_JOIN));
+    }
+
+    @Override
+    protected long estimateRows() {
+      return Math.max(_outer.estimateRows(), _inner.estimateRows());
+    }
+
+    /**
+     * Chooses how the join will be executed using the given simple
+     * comparisons (from the ON clause and, for cross joins, the WHERE
+     * clause).
+     */
+    private void plan(List<SimpleComparison> comps) {
+      if(!isOuterJoin()) {
+        // choose the better inner side for an inner join
+        boolean innerLookup = (findLookupIndex(_outer, _inner, comps) != null);
+        boolean outerLookup = (findLookupIndex(_inner, _outer, comps) != null);
+        if((!innerLookup && outerLookup) ||
+           (!innerLookup && (_inner.estimateRows() > _outer.estimateRows()))) {
+          Node tmp = _outer;
+          _outer = _inner;
+          _inner = tmp;
+        }
+      }
+
+      for(SimpleComparison comp : comps) {
+        if(comp.getOtherIdentifier() == null) {
+          continue;
+        }
+        ColumnRef ref1 = _plan.findColumn(comp.getIdentifier());
+        ColumnRef ref2 = _plan.findColumn(comp.getOtherIdentifier());
+        if((ref1 == null) || (ref2 == null)) {
+          continue;
+        }
+        if(_outer._srcIdxs.contains(ref1._srcIdx) &&
+           _inner._srcIdxs.contains(ref2._srcIdx)) {
+          _outerKeys.add(ref1);
+          _innerKeys.add(ref2);
+        } else if(_outer._srcIdxs.contains(ref2._srcIdx) &&
+                  _inner._srcIdxs.contains(ref1._srcIdx)) {
+          _outerKeys.add(ref2);
+          _innerKeys.add(ref1);
+        }
+      }
+
+      _lookupIndex = findLookupIndex(_outer, _inner, comps);
+      if(_lookupIndex != null) {
+        _strategy = JoinStrategy.INDEX_LOOKUP;
+        List<? extends Index.Column> idxCols = _lookupIndex.getColumns();
+        _lookupKeys = new ColumnRef[idxCols.size()];
+        for(int i = 0; i < _lookupKeys.length; ++i) {
+          String colName = idxCols.get(i).getName();
+          for(int j = 0; j < _innerKeys.size(); ++j) {
+            if(_innerKeys.get(j)._name.equalsIgnoreCase(colName)) {
+              _lookupKeys[i] = _outerKeys.get(j);
+              break;
+            }
+          }
+        }
+      } else if(!_outerKeys.isEmpty()) {
+        _strategy = JoinStrategy.HASH;
+      } else {
+        _strategy = JoinStrategy.NESTED_LOOP;
+      }
+    }
+
+    /**
+     * Returns an index of the inner (table) node which may be used to lookup
+     * the rows matching each outer row, if any.
+     */
+    private IndexImpl findLookupIndex(Node outer, Node inner,
+                                      List<SimpleComparison> comps) {
+      if(!(inner instanceof SourceNode)) {
+        return null;
+      }
+      Source src = ((SourceNode)inner)._src;
+      if(src._table == null) {
+        return null;
+      }
+
+      // find the inner columns which are equal to (compatible) outer columns
+      Map<String,ColumnRef> innerCols = new TreeMap<String,ColumnRef>(
+          String.CASE_INSENSITIVE_ORDER);
+      for(SimpleComparison comp : comps) {
+        if(comp.getOtherIdentifier() == null) {
+          continue;
+        }
+        ColumnRef ref1 = _plan.findColumn(comp.getIdentifier());
+        ColumnRef ref2 = _plan.findColumn(comp.getOtherIdentifier());
+        if((ref1 == null) || (ref2 == null)) {
+          continue;
+        }
+        if(ref1._srcIdx == src._idx) {
+          ColumnRef tmp = ref1;
+          ref1 = ref2;
+          ref2 = tmp;
+        }
+        if((ref2._srcIdx == src._idx) && outer._srcIdxs.contains(ref1._srcIdx)
+           && (ref1._type != null) &&
+           (BaseEvalContext.toValueType(ref1._type) ==
+            BaseEvalContext.toValueType(ref2._type))) {
+          innerCols.put(ref2._name, ref1);
+        }
+      }
+
+      IndexImpl bestIdx = null;
+      for(IndexImpl idx : src._table.getIndexes()) {
+        boolean usable = true;
+        for(Index.Column idxCol : idx.getColumns()) {
+          if(!innerCols.containsKey(idxCol.getName())) {
+            usable = false;
+            break;
+          }
+        }
+        if(usable && ((bestIdx == null) ||
+                      (idx.isUnique() && !bestIdx.isUnique()) ||
+                      ((idx.isUnique() == bestIdx.isUnique()) &&
+                       (idx.getColumnCount() > bestIdx.getColumnCount())))) {
+          bestIdx = idx;
+        }
+      }
+      return bestIdx;
+    }
+
+    @Override
+    protected Iterator<Row[]> iterator() throws IOException {
+      final RowContext ctx = new RowContext(_plan);
+      final Iterator<Row[]> outerIter = _outer.iterator();
+      final CandidateFinder finder = createCandidateFinder();
+      final boolean outerJoin = isOuterJoin();
+
+      return new LookaheadIterator<Row[]>() {
+        private Row[] _outerRows;
+        private Iterator<?> _candidates;
+        private boolean _matched;
+
+        @Override
+        protected Row[] findNext() throws IOException {
+          while(true) {
+            if(_outerRows == null) {
+              if(!outerIter.hasNext()) {
+                return null;
+              }
+              _outerRows = outerIter.next();
+              _candidates = finder.find(_outerRows);
+              _matched = false;
+            }
+
+            while(_candidates.hasNext()) {
+              Row[] rows = finder.combine(_outerRows, _candidates.next());
+              ctx._rows = rows;
+              if(allTrue(_on, ctx)) {
+                _matched = true;
+                return rows;
+              }
+            }
+
+            Row[] outerRows = _outerRows;
+            _outerRows = null;
+            if(outerJoin && !_matched) {
+              return outerRows;
+            }
+          }
+        }
+      };
+    }
+
+    private CandidateFinder createCandidateFinder() throws IOException {
+      switch(_strategy) {
+      case INDEX_LOOKUP:
+        final int srcIdx = ((SourceNode)_inner)._src._idx;
+        final IndexCursor cursor = _lookupIndex.getTable().newCursor()
+          .setIndex(_lookupIndex).toIndexCursor();
+        cursor.setColumnMatcher(CaseInsensitiveColumnMatcher.INSTANCE);
+        return new CandidateFinder() {
+          @Override
+          public Iterator<?> find(Row[] outerRows) {
+            Object[] entry = new Object[_lookupKeys.length];
+            for(int i = 0; i < entry.length; ++i) {
+              entry[i] = _lookupKeys[i].getValue(outerRows);
+              if(entry[i] == null) {
+                // nulls never match
+                return Collections.emptyList().iterator();
+              }
+            }
+            return cursor.newEntryIterable(entry).iterator();
+          }
+          @Override
+          public Row[] combine(Row[] outerRows, Object candidate) {
+            Row[] rows = outerRows.clone();
+            rows[srcIdx] = (Row)candidate;
+            return rows;
+          }
+        };
+
+      case HASH:
+        final Map<List<Object>,List<Row[]>> hash =
+          new HashMap<List<Object>,List<Row[]>>();
+        for(Iterator<Row[]> iter = _inner.iterator(); iter.hasNext(); ) {
+          Row[] rows = iter.next();
+          List<Object> key = getKey(_innerKeys, rows);
+          if(key != null) {
+            List<Row[]> keyRows = hash.get(key);
+            if(keyRows == null) {
+              keyRows = new ArrayList<Row[]>(1);
+              hash.put(key, keyRows);
+            }
+            keyRows.add(rows);
+          }
+        }
+        return new InnerRowsFinder() {
+          @Override
+          public Iterator<?> find(Row[] outerRows) {
+            List<Object> key = getKey(_outerKeys, outerRows);
+            List<Row[]> keyRows = ((key != null) ? hash.get(key) : null);
+            return ((keyRows != null) ? keyRows :
+                    Collections.<Row[]>emptyList()).iterator();
+          }
+        };
+
+      default:
+        final List<Row[]> innerRows = new ArrayList<Row[]>();
+        for(Iterator<Row[]> iter = _inner.iterator(); iter.hasNext(); ) {
+          innerRows.add(iter.next());
+        }
+        return new InnerRowsFinder() {
+          @Override
+          public Iterator<?> find(Row[] outerRows) {
+            return innerRows.iterator();
+          }
+        };
+      }
+    }
+
+    private List<Object> getKey(List<ColumnRef> refs, Row[] rows) {
+      List<Object> key = new ArrayList<Object>(refs.size());
+      for(ColumnRef ref : refs) {
+        Object val = ref.getValue(rows);
+        if(val == null) {
+          // nulls never match
+          return null;
+        }
+        key.add(normalizeKey(val));
+      }
+      return key;
+    }
+
+    @Override
+    protected void describe(List<String> lines, String indent) {
+      StringBuilder sb = new StringBuilder(indent)
+        .append(isOuterJoin() ? "Left outer join" :
+                ((_joinType == INNER_JOIN) ? "Inner join" : "Cross join"))
+        .append(" (");
+      switch(_strategy) {
+      case INDEX_LOOKUP:
+        sb.append("index lookup using index ").append(_lookupIndex.getName());
+        break;
+      case HASH:
+        sb.append("hash join");
+        break;
+      default:
+        sb.append("nested loop");
+      }
+      sb.append(")");
+      if(!_on.isEmpty()) {
+        sb.append(" on ").append(_on);
+      }
+      lines.add(sb.toString());
+      _outer.describe(lines, indent + "  ");
+      _inner.describe(lines, indent + "  ");
+    }
+  }
+
+  /**
+   * Finds the candidate inner rows for an outer row of a join.
+   */
+  private static abstract class CandidateFinder
+  {
+    public abstract Iterator<?> find(Row[] outerRows) throws IOException;
+
+    public abstract Row[] combine(Row[] outerRows, Object candidate);
+  }
+
+  private static abstract class InnerRowsFinder extends CandidateFinder
+  {
+    @Override
+    public Row[] combine(Row[] outerRows, Object candidate) {
+      Row[] rows = outerRows.clone();
+      Row[] innerRows = (Row[])candidate;
+      for(int i = 0; i < rows.length; ++i) {
+        if(innerRows[i] != null) {
+          rows[i] = innerRows[i];
+        }
+      }
+      return rows;
+    }
+  }
+
+  private static boolean allTrue(List<ExprItem> exprs, RowContext ctx) {
+    for(ExprItem expr : exprs) {
+      if(!expr.isTrue(ctx)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Iterator which finds the next value on demand.
+   */
+  private static abstract class LookaheadIterator<T> implements Iterator<T>
+  {
+    private T _next;
+    private boolean _done;
+
+    public boolean hasNext() {
+      if((_next == null) && !_done) {
+        try {
+          _next = findNext();
+        } catch(IOException e) {
+          throw new RuntimeIOException(e);
+        }
+        _done = (_next == null);
+      }
+      return (_next != null);
+    }
+
+    public T next() {
+      if(!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T next = _next;
+      _next = null;
+      return next;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the next value, or {@code null} if there are no more values
+     */
+    protected abstract T findNext() throws IOException;
+  }
+
+  /**
+   * The execution plan for a query.
+   */
+  private final class Plan
+  {
+    private final List<Source> _sources = new ArrayList<Source>();
+    private final Map<Identifier,Object> _resolved =
+      new HashMap<Identifier,Object>();
+    private final RowContext _ctx;
+    /** the database sort order, used for text values of expressions */
+    private final ColumnImpl.SortOrder _defaultSortOrder;
+    private final List<AggSpec> _aggs = new ArrayList<AggSpec>();
+    private final List<SelectItem> _columns = new ArrayList<SelectItem>();
+    private final List<ExprItem> _where = new ArrayList<ExprItem>();
+    private final List<ExprItem> _groupBy = new ArrayList<ExprItem>();
+    private final List<ExprItem> _having = new ArrayList<ExprItem>();
+    private final List<ExprItem> _orderBy = new ArrayList<ExprItem>();
+    private final List<Boolean> _orderAscending = new ArrayList<Boolean>();
+    private Node _root;
+    private boolean _aggregate;
+    private boolean _distinct;
+    private boolean _sorted;
+    private int _top = -1;
+    private boolean _topPercent;
+
+    private Plan() throws IOException {
+      if(_query.getType() != Query.Type.SELECT) {
+        throw new UnsupportedOperationException(withErrorContext(
+            "Only select queries can be executed"));
+      }
+      QueryImpl.Row remoteRow = _query.getRemoteDatabaseRow();
+      if((remoteRow.name1 != null) || (remoteRow.expression != null)) {
+        throw new UnsupportedOperationException(withErrorContext(
+            "Remote databases are not supported"));
+      }
+
+      initSources();
+      _ctx = new RowContext(this);
+      _defaultSortOrder = ((DatabaseImpl)_db).getDefaultSortOrder();
+      initSelectType();
+      initExpressions();
+      initJoins();
+      initOrderIndex();
+    }
+
+    private void initSources() throws IOException {
+      for(QueryImpl.Row tableRow : _query.getTableRows()) {
+        if((tableRow.expression != null) || (tableRow.name1 == null)) {
+          throw new UnsupportedOperationException(withErrorContext(
+              "Unsupported table expression " + tableRow));
+        }
+        String alias = ((tableRow.name2 != null) ? tableRow.name2 :
+                        tableRow.name1);
+        TableImpl table = (TableImpl)_db.getTable(tableRow.name1);
+        SelectQueryExecutor subQuery = null;
+        if(table == null) {
+          Query query = _db.getQuery(tableRow.name1);
+          if(!(query instanceof SelectQuery)) {
+            throw new IllegalStateException(withErrorContext(
+                "Could not find table or select query " + tableRow.name1));
+          }
+          for(SelectQueryExecutor exec = SelectQueryExecutor.this;
+              exec != null; exec = exec._parent) {
+            if(exec._query.getName().equalsIgnoreCase(query.getName())) {
+              throw new IllegalStateException(withErrorContext(
+                  "Circular reference to query " + query.getName()));
+            }
+          }
+          subQuery = new SelectQueryExecutor(
+              _db, (SelectQuery)query, SelectQueryExecutor.this);
+          subQuery._maxRowsInMemory = _maxRowsInMemory;
+        }
+        _sources.add(new Source(_sources.size(), alias, table, subQuery));
+      }
+      if(_sources.isEmpty()) {
+        throw new UnsupportedOperationException(withErrorContext(
+            "Queries without tables are not supported"));
+      }
+    }
+
+    private void initSelectType() {
+      _distinct = _query.hasFlag(DISTINCT_SELECT_TYPE);
+      if(_query.hasFlag(TOP_SELECT_TYPE)) {
+        String topStr = _query.getFlagRow().name1;
+        try {
+          _top = Integer.parseInt(topStr.trim());
+        } catch(RuntimeException e) {
+          throw new IllegalStateException(withErrorContext(
+              "Invalid top value " + topStr), e);
+        }
+        _topPercent = _query.hasFlag(PERCENT_SELECT_TYPE);
+      }
+    }
+
+    private void initExpressions() {
+      // the aggregate function calls are replaced with placeholders in all
+      // the expressions evaluated for a group
+      for(QueryImpl.Row colRow : _query.getColumnRows()) {
+        addColumn(colRow.expression, colRow.name1);
+      }
+      if(_query.hasFlag(SELECT_STAR_SELECT_TYPE)) {
+        for(Source src : _sources) {
+          addSourceColumns(src);
+        }
+      }
+
+      String whereStr = _query.getWhereExpression();
+      if(whereStr != null) {
+        _where.add(parseItem(whereStr));
+      }
+
+      for(QueryImpl.Row groupRow : _query.getGroupByRows()) {
+        _groupBy.add(parseItem(groupRow.expression));
+      }
+
+      String havingStr = _query.getHavingExpression();
+      if(havingStr != null) {
+        _having.add(parseItem(replaceAggregates(havingStr)));
+      }
+
+      for(QueryImpl.Row orderRow : _query.getOrderByRows()) {
+        _orderBy.add(parseItem(replaceAggregates(orderRow.expression)));
+        _orderAscending.add(!DESCENDING_FLAG.equalsIgnoreCase(orderRow.name1));
+      }
+      _sorted = !_orderBy.isEmpty();
+
+      _aggregate = (!_aggs.isEmpty() || !_groupBy.isEmpty() ||
+                    !_having.isEmpty());
+      for(AggSpec agg : _aggs) {
+        if(!"*".equals(agg._argStr)) {
+          agg._arg = parseItem(agg._argStr);
+          agg._sortOrder = getTextSortOrder(agg._arg);
+        }
+      }
+
+      if(_aggregate) {
+        // the expressions evaluated for a group may only use the grouped
+        // columns outside of the aggregate functions (like Access)
+        for(SelectItem item : _columns) {
+          validateGroupItem(item._expr);
+        }
+        for(ExprItem item : _having) {
+          validateGroupItem(item);
+        }
+        for(ExprItem item : _orderBy) {
+          validateGroupItem(item);
+        }
+      }
+    }
+
+    /**
+     * Verifies that the given expression of an aggregate query is one of the
+     * GROUP BY expressions or only references columns within aggregate
+     * functions or as GROUP BY expressions (otherwise the value would come
+     * from an arbitrary row of the group).
+     * @throws EvalException if the expression is invalid
+     */
+    private void validateGroupItem(ExprItem item) {
+      for(ExprItem groupBy : _groupBy) {
+        if(isSameExpression(item, groupBy)) {
+          return;
+        }
+      }
+
+      List<Identifier> ids = new ArrayList<Identifier>();
+      if(item._expr != null) {
+        item._expr.collectIdentifiers(ids);
+      }
+      boolean valid = (item._expr != null);
+      for(Identifier id : ids) {
+        if(isAggId(id)) {
+          continue;
+        }
+        ColumnRef ref = findColumn(id);
+        if((ref != null) && !isGroupByColumn(ref)) {
+          valid = false;
+          break;
+        }
+      }
+      if(!valid) {
+        throw new EvalException(withErrorContext(
+            "Query does not include the specified expression '" +
+            restoreAggregates(item._exprStr) +
+            "' as part of an aggregate function"));
+      }
+    }
+
+    private boolean isSameExpression(ExprItem item1, ExprItem item2) {
+      if((item1._ref != null) && (item2._ref != null)) {
+        return isSameColumn(item1._ref, item2._ref);
+      }
+      return ((item1._expr != null) && (item2._expr != null) &&
+              item1._expr.toCleanString(_ctx).equalsIgnoreCase(
+                  item2._expr.toCleanString(_ctx)));
+    }
+
+    private boolean isGroupByColumn(ColumnRef ref) {
+      for(ExprItem groupBy : _groupBy) {
+        if((groupBy._ref != null) && isSameColumn(ref, groupBy._ref)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Replaces the aggregate placeholder identifiers in the given expression
+     * with the original aggregate function calls.
+     */
+    private String restoreAggregates(String exprStr) {
+      for(int i = 0; i < _aggs.size(); ++i) {
+        exprStr = exprStr.replace("[" + AGG_ID_PREFIX + i + "]",
+                                  _aggs.get(i).toString());
+      }
+      return exprStr;
+    }
+
+    private void addColumn(String exprStr, String alias) {
+      if(exprStr.endsWith(".*")) {
+        String srcName = stripBrackets(
+            exprStr.substring(0, exprStr.length() - 2).trim());
+        Source src = findSource(srcName);
+        if(src == null) {
+          throw new IllegalStateException(withErrorContext(
+              "Could not find table " + srcName));
+        }
+        addSourceColumns(src);
+        return;
+      }
+
+      ExprItem item = parseItem(replaceAggregates(exprStr));
+      String name = alias;
+      if(name == null) {
+        name = ((item._ref != null) ? item._ref._name :
+                ("Expr" + (FIRST_EXPR_NUM + _columns.size())));
+        if(hasColumn(name) && (item._ref != null)) {
+          name = _sources.get(item._ref._srcIdx)._alias + "." + name;
+        }
+      }
+      _columns.add(new SelectItem(uniqueName(name), item));
+    }
+
+    private void addSourceColumns(Source src) {
+      for(String colName : src._colNames) {
+        String name = (hasColumn(colName) ? (src._alias + "." + colName) :
+                       colName);
+        ColumnRef ref = src.findColumn(colName);
+        _columns.add(new SelectItem(uniqueName(name),
+                                    new ExprItem(name, null, ref)));
+      }
+    }
+
+    private boolean hasColumn(String name) {
+      for(SelectItem item : _columns) {
+        if(item._name.equalsIgnoreCase(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private String uniqueName(String name) {
+      String uniqueName = name;
+      for(int i = 1; hasColumn(uniqueName); ++i) {
+        uniqueName = name + i;
+      }
+      return uniqueName;
+    }
+
+    /**
+     * Replaces any aggregate function calls in the given expression with
+     * placeholder identifiers.
+     */
+    private String replaceAggregates(String exprStr) {
+      StringBuilder sb = new StringBuilder(exprStr.length());
+      int pos = 0;
+      while(pos < exprStr.length()) {
+        char c = exprStr.charAt(pos);
+        if(!Character.isLetter(c)) {
+          int nextPos = skipDelimited(exprStr, pos);
+          sb.append(exprStr, pos, nextPos);
+          pos = nextPos;
+          continue;
+        }
+
+        int endPos = pos + 1;
+        while((endPos < exprStr.length()) &&
+              (Character.isLetterOrDigit(exprStr.charAt(endPos)) ||
+               (exprStr.charAt(endPos) == '_'))) {
+          ++endPos;
+        }
+        String word = exprStr.substring(pos, endPos);
+        AggFunc func = AggFunc.fromName(word);
+        int openPos = endPos;
+        while((openPos < exprStr.length()) &&
+              Character.isWhitespace(exprStr.charAt(openPos))) {
+          ++openPos;
+        }
+        boolean isObjRef = ((pos > 0) &&
+                            ((exprStr.charAt(pos - 1) == '.') ||
+                             (exprStr.charAt(pos - 1) == '!')));
+        if((func == null) || isObjRef || (openPos >= exprStr.length()) ||
+           (exprStr.charAt(openPos) != '(')) {
+          sb.append(word);
+          pos = endPos;
+          continue;
+        }
+
+        int closePos = findCloseParen(exprStr, openPos);
+        if(closePos < 0) {
+          throw new IllegalStateException(withErrorContext(
+              "Invalid aggregate expression " + exprStr));
+        }
+        String argStr = exprStr.substring(openPos + 1, closePos).trim();
+        int aggIdx = -1;
+        for(int i = 0; i < _aggs.size(); ++i) {
+          if(_aggs.get(i).matches(func, argStr)) {
+            aggIdx = i;
+            break;
+          }
+        }
+        if(aggIdx < 0) {
+          aggIdx = _aggs.size();
+          _aggs.add(new AggSpec(func, argStr));
+        }
+        sb.append("[").append(AGG_ID_PREFIX).append(aggIdx).append("]");
+        pos = closePos + 1;
+      }
+      return sb.toString();
+    }
+
+    /**
+     * Returns the sort order for text values of the given expression (the
+     * sort order of the referenced column, if any, otherwise the database
+     * sort order).
+     */
+    private ColumnImpl.SortOrder getTextSortOrder(ExprItem item) {
+      return (((item._ref != null) && (item._ref._sortOrder != null)) ?
+              item._ref._sortOrder : _defaultSortOrder);
+    }
+
+    private ExprItem parseItem(String exprStr) {
+      Expression expr = _ctx.parse(exprStr);
+      ColumnRef ref = null;
+      List<Identifier> ids = new ArrayList<Identifier>();
+      expr.collectIdentifiers(ids);
+      if((ids.size() == 1) &&
+         ids.get(0).toString().equals(expr.toCleanString(_ctx))) {
+        // simple column reference
+        ref = findColumn(ids.get(0));
+      }
+      return new ExprItem(exprStr, expr, ref);
+    }
+
+    private Source findSource(String alias) {
+      for(Source src : _sources) {
+        if(src._alias.equalsIgnoreCase(alias)) {
+          return src;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns the column referenced by the given identifier, or {@code null}
+     * if it does not reference a column (e.g. a parameter).
+     * @throws EvalException if the identifier is invalid or ambiguous
+     */
+    private ColumnRef resolveColumn(Identifier identifier) {
+      Object ref = _resolved.get(identifier);
+      if(ref == null) {
+        ref = resolveColumnImpl(identifier);
+        _resolved.put(identifier, ((ref != null) ? ref : Boolean.FALSE));
+      }
+      return ((ref instanceof ColumnRef) ? (ColumnRef)ref : null);
+    }
+
+    private ColumnRef resolveColumnImpl(Identifier identifier) {
+      if(identifier.getPropertyName() != null) {
+        throw new EvalException("Unsupported identifier " + identifier);
+      }
+      String colName = identifier.getObjectName();
+      String srcName = identifier.getCollectionName();
+      if(srcName != null) {
+        Source src = findSource(srcName);
+        if(src == null) {
+          throw new EvalException("Unknown table in identifier " +
+                                  identifier);
+        }
+        ColumnRef ref = src.findColumn(colName);
+        if(ref == null) {
+          throw new EvalException("Unknown column in identifier " +
+                                  identifier);
+        }
+        return ref;
+      }
+
+      ColumnRef ref = null;
+      for(Source src : _sources) {
+        ColumnRef srcRef = src.findColumn(colName);
+        if(srcRef != null) {
+          if(ref != null) {
+            throw new EvalException("Ambiguous identifier " + identifier);
+          }
+          ref = srcRef;
+        }
+      }
+      return ref;
+    }
+
+    /**
+     * Returns the column referenced by the given identifier, or {@code null}
+     * if it is not a valid column reference.
+     */
+    private ColumnRef findColumn(Identifier identifier) {
+      try {
+        return resolveColumn(identifier);
+      } catch(EvalException e) {
+        return null;
+      }
+    }
+
+    private void initJoins() {
+      List<Node> nodes = new ArrayList<Node>();
+      for(Source src : _sources) {
+        nodes.add(new SourceNode(this, src));
+      }
+
+      // combine the tables with the query joins (see
+      // QueryImpl.getFromTables())
+      List<JoinNode> joins = new ArrayList<JoinNode>();
+      for(QueryImpl.Row joinRow : _query.getJoinRows()) {
+        Node fromNode = null;
+        Node toNode = null;
+        for(Node node : nodes) {
+          if(node.containsSource(joinRow.name1)) {
+            fromNode = node;
+          }
+          if(node.containsSource(joinRow.name2)) {
+            toNode = node;
+          }
+        }
+        if((fromNode == null) || (toNode == null)) {
+          throw new IllegalStateException(withErrorContext(
+              "Could not find tables for join " + joinRow));
+        }
+
+        short joinType = joinRow.flag;
+        if((joinType != INNER_JOIN) && (joinType != LEFT_JOIN) &&
+           (joinType != RIGHT_JOIN)) {
+          throw new UnsupportedOperationException(withErrorContext(
+              "Unsupported join type " + joinType));
+        }
+
+        JoinNode join = null;
+        if(fromNode == toNode) {
+          // additional condition for an existing join
+          if(!(fromNode instanceof JoinNode) ||
+             (((JoinNode)fromNode)._joinType != joinType)) {
+            throw new IllegalStateException(withErrorContext(
+                "Inconsistent join types for " + joinRow.name1 + " and " +
+                joinRow.name2));
+          }
+          join = (JoinNode)fromNode;
+        } else {
+          join = new JoinNode(this, fromNode, toNode, joinType);
+          nodes.remove(fromNode);
+          nodes.remove(toNode);
+          nodes.add(join);
+          joins.add(join);
+        }
+        if(joinRow.expression != null) {
+          join._on.add(parseItem(joinRow.expression));
+        }
+      }
+
+      // the inner sources of outer joins are nullable
+      for(JoinNode join : joins) {
+        if(join.isOuterJoin()) {
+          for(Integer srcIdx : join._inner._srcIdxs) {
+            _sources.get(srcIdx)._nullable = true;
+          }
+        }
+      }
+
+      // simple comparisons in the where clause may be used to restrict the
+      // traversal of the (non-nullable) tables and to join the "cross
+      // joined" tables
+      List<SimpleComparison> whereComps = new ArrayList<SimpleComparison>();
+      for(ExprItem where : _where) {
+        whereComps.addAll(
+            Expressionator.getSimpleComparisons(where._expr, _ctx));
+      }
+      for(SimpleComparison comp : whereComps) {
+        addPredicate(comp, false);
+      }
+
+      for(JoinNode join : joins) {
+        List<SimpleComparison> comps = new ArrayList<SimpleComparison>();
+        for(ExprItem on : join._on) {
+          comps.addAll(Expressionator.getSimpleComparisons(on._expr, _ctx));
+        }
+        join.plan(comps);
+        if(join._inner instanceof SourceNode) {
+          // simple comparisons on the inner table of a join may restrict the
+          // inner table traversal (even for outer joins)
+          for(SimpleComparison comp : comps) {
+            ColumnRef ref = findColumn(comp.getIdentifier());
+            if((ref != null) && join._inner._srcIdxs.contains(ref._srcIdx)) {
+              addPredicate(comp, true);
+            }
+          }
+        }
+      }
+
+      Node root = nodes.get(0);
+      for(int i = 1; i < nodes.size(); ++i) {
+        JoinNode join = new JoinNode(this, root, nodes.get(i), (short)0);
+        join.plan(whereComps);
+        root = join;
+      }
+      _root = root;
+    }
+
+    /**
+     * Adds the given simple comparison as a traversal predicate for the
+     * referenced table (if possible).  Only comparisons which the predicate
+     * evaluates exactly like the expression are used (the full expression is
+     * still evaluated for each row).
+     */
+    private void addPredicate(SimpleComparison comp, boolean allowNullable) {
+      if(comp.getOtherIdentifier() != null) {
+        return;
+      }
+      ColumnRef ref = findColumn(comp.getIdentifier());
+      if((ref == null) || (ref._type == null)) {
+        return;
+      }
+      Source src = _sources.get(ref._srcIdx);
+      if(src._nullable && !allowNullable) {
+        return;
+      }
+      if(!ColumnPredicate.isExactPredicate(
+             ref._type, CursorBuilder.Op.valueOf(comp.getOp().name()),
+             comp.getValues())) {
+        return;
+      }
+      src._preds.add(comp);
+    }
+
+    /**
+     * Uses an index for the ORDER BY (instead of sorting) if possible.
+     */
+    private void initOrderIndex() {
+      if(!_sorted || _aggregate || !(_root instanceof SourceNode)) {
+        return;
+      }
+      Source src = ((SourceNode)_root)._src;
+      if(src._table == null) {
+        return;
+      }
+      for(ExprItem order : _orderBy) {
+        if((order._ref == null) || (order._ref._type == null)) {
+          return;
+        }
+      }
+
+      for(IndexImpl idx : src._table.getIndexes()) {
+        List<? extends Index.Column> idxCols = idx.getColumns();
+        if(idx.shouldIgnoreNulls() || (idxCols.size() < _orderBy.size())) {
+          continue;
+        }
+        boolean matches = true;
+        for(int i = 0; i < _orderBy.size(); ++i) {
+          Index.Column idxCol = idxCols.get(i);
+          if(!idxCol.getName().equalsIgnoreCase(_orderBy.get(i)._ref._name) ||
+             (idxCol.isAscending() != _orderAscending.get(i))) {
+            matches = false;
+            break;
+          }
+        }
+        if(matches) {
+          src._orderIndex = idx;
+          _sorted = false;
+          // multiple ranges would not be traversed in index order
+          for(Iterator<SimpleComparison> iter = src._preds.iterator();
+              iter.hasNext(); ) {
+            if(iter.next().getOp() == SimpleComparison.Op.IN) {
+              iter.remove();
+            }
+          }
+          return;
+        }
+      }
+    }
+
+    private List<String> getColumnNames() {
+      List<String> names = new ArrayList<String>(_columns.size());
+      for(SelectItem item : _columns) {
+        names.add(item._name);
+      }
+      return names;
+    }
+
+    private List<String> describe() {
+      List<String> lines = new ArrayList<String>();
+      if((_top >= 0) && !_sorted) {
+        lines.add("Top " + _top + (_topPercent ? " percent" : ""));
+      }
+      if(_sorted) {
+        lines.add("Sort by " + _orderBy +
+                  ((_top >= 0) ? (" (top " + _top +
+                                  (_topPercent ? " percent" : "") + ")") :
+                   ""));
+      }
+      if(_distinct) {
+        lines.add("Distinct");
+      }
+      if(!_having.isEmpty()) {
+        lines.add("Filter having " + _having);
+      }
+      if(_aggregate) {
+        lines.add("Group by " + _groupBy + " aggregates " + _aggs);
+      }
+      if(!_where.isEmpty()) {
+        lines.add("Filter where " + _where);
+      }
+      _root.describe(lines, "");
+      return lines;
+    }
+
+    private Iterator<Row> execute() throws IOException {
+      final Iterator<Row[]> joinedRows = _root.iterator();
+
+      // filter rows
+      Iterator<Row[]> matchedRows = joinedRows;
+      if(!_where.isEmpty()) {
+        matchedRows = new LookaheadIterator<Row[]>() {
+          @Override
+          protected Row[] findNext() {
+            while(joinedRows.hasNext()) {
+              Row[] rows = joinedRows.next();
+              _ctx._rows = rows;
+              if(allTrue(_where, _ctx)) {
+                return rows;
+              }
+            }
+            return null;
+          }
+        };
+      }
+
+      Iterator<Row> resultRows = (_aggregate ? groupRows(matchedRows) :
+                                  toResultRows(matchedRows, _ctx));
+
+      if(_distinct) {
+        resultRows = distinctRows(resultRows);
+      }
+
+      if(_sorted) {
+        resultRows = sortRows(resultRows);
+      } else if((_top >= 0) && !_topPercent) {
+        resultRows = limitRows(resultRows, _top);
+      }
+
+      if(_topPercent) {
+        List<Row> rows = new ArrayList<Row>();
+        while(resultRows.hasNext()) {
+          rows.add(resultRows.next());
+        }
+        int numRows = (int)Math.ceil((rows.size() * (double)_top) / 100d);
+        resultRows = rows.subList(0, Math.min(numRows, rows.size()))
+          .iterator();
+      }
+
+      return resultRows;
+    }
+
+    private Iterator<Row> toResultRows(final Iterator<Row[]> rowsIter,
+                                       final RowContext ctx) {
+      return new LookaheadIterator<Row>() {
+        @Override
+        protected Row findNext() {
+          if(!rowsIter.hasNext()) {
+            return null;
+          }
+          ctx._rows = rowsIter.next();
+          return toResultRow(ctx);
+        }
+      };
+    }
+
+    private Row toResultRow(RowContext ctx) {
+      Row row = new RowImpl((RowIdImpl)null,
+                            _columns.size() + _orderBy.size());
+      for(SelectItem item : _columns) {
+        row.put(item._name, item._expr.eval(ctx));
+      }
+      if(_sorted) {
+        for(int i = 0; i < _orderBy.size(); ++i) {
+          ExprItem order = _orderBy.get(i);
+          row.put(SORT_COL_PREFIX + i,
+                  normalizeSortKey(order.eval(ctx), getTextSortOrder(order)));
+        }
+      }
+      return row;
+    }
+
+    private Iterator<Row> groupRows(Iterator<Row[]> rowsIter) {
+      Map<List<Object>,GroupState> groups =
+        new LinkedHashMap<List<Object>,GroupState>();
+      Object[] groupVals = new Object[_groupBy.size()];
+      while(rowsIter.hasNext()) {
+        Row[] rows = rowsIter.next();
+        _ctx._rows = rows;
+        for(int i = 0; i < groupVals.length; ++i) {
+          groupVals[i] = _groupBy.get(i).eval(_ctx);
+        }
+        List<Object> key = normalizeKeys(groupVals);
+        GroupState group = groups.get(key);
+        if(group == null) {
+          group = new GroupState(rows);
+          groups.put(key, group);
+        }
+        for(AggState agg : group._aggs) {
+          agg.add((agg._spec._arg != null) ? agg._spec._arg.eval(_ctx) : null);
+        }
+      }
+
+      if(groups.isEmpty() && _groupBy.isEmpty()) {
+        // aggregates over no rows still produce a result row
+        groups.put(Collections.emptyList(),
+                   new GroupState(new Row[_sources.size()]));
+      }
+
+      final Iterator<GroupState> groupIter = groups.values().iterator();
+      final GroupContext ctx = new GroupContext(this);
+      return new LookaheadIterator<Row>() {
+        @Override
+        protected Row findNext() {
+          while(groupIter.hasNext()) {
+            GroupState group = groupIter.next();
+            ctx._rows = group._rows;
+            ctx._aggValues = new Object[group._aggs.size()];
+            for(int i = 0; i < ctx._aggValues.length; ++i) {
+              ctx._aggValues[i] = group._aggs.get(i).getResult();
+            }
+            if(allTrue(_having, ctx)) {
+              return toResultRow(ctx);
+            }
+          }
+          return null;
+        }
+      };
+    }
+
+    private Iterator<Row> distinctRows(final Iterator<Row> rowsIter) {
+      final Set<List<Object>> seen = new HashSet<List<Object>>();
+      final Object[] vals = new Object[_columns.size()];
+      return new LookaheadIterator<Row>() {
+        @Override
+        protected Row findNext() {
+          while(rowsIter.hasNext()) {
+            Row row = rowsIter.next();
+            for(int i = 0; i < vals.length; ++i) {
+              vals[i] = row.get(_columns.get(i)._name);
+            }
+            if(seen.add(normalizeKeys(vals))) {
+              return row;
+            }
+          }
+          return null;
+        }
+      };
+    }
+
+    private Iterator<Row> sortRows(final Iterator<Row> rowsIter) {
+      RowSorter sorter = new RowSorter(new Iterable<Row>() {
+          public Iterator<Row> iterator() {
+            return rowsIter;
+          }
+        }).setMaxRowsInMemory(_maxRowsInMemory);
+      for(int i = 0; i < _orderBy.size(); ++i) {
+        sorter.addSortColumn(SORT_COL_PREFIX + i, _orderAscending.get(i));
+      }
+      if((_top >= 0) && !_topPercent) {
+        sorter.setLimit(_top);
+      }
+
+      // strip the sort columns
+      final Iterator<Row> sortedIter = sorter.iterator();
+      return new LookaheadIterator<Row>() {
+        @Override
+        protected Row findNext() {
+          if(!sortedIter.hasNext()) {
+            return null;
+          }
+          Row sortedRow = sortedIter.next();
+          Row row = new RowImpl((RowIdImpl)null, _columns.size());
+          for(SelectItem item : _columns) {
+            row.put(item._name, sortedRow.get(item._name));
+          }
+          return row;
+        }
+      };
+    }
+
+    private Iterator<Row> limitRows(final Iterator<Row> rowsIter,
+                                    final int limit) {
+      return new LookaheadIterator<Row>() {
+        private int _count;
+        @Override
+        protected Row findNext() {
+          if((_count >= limit) || !rowsIter.hasNext()) {
+            return null;
+          }
+          ++_count;
+          return rowsIter.next();
+        }
+      };
+    }
+
+    /**
+     * The state of a group of rows for an aggregate query.
+     */
+    private final class GroupState
+    {
+      /** the first rows of the group */
+      private final Row[] _rows;
+      private final List<AggState> _aggs = new ArrayList<AggState>();
+
+      private GroupState(Row[] rows) {
+        _rows = rows;
+        for(AggSpec spec : Plan.this._aggs) {
+          _aggs.add(new AggState(spec));
+        }
+      }
+    }
+  }
+}
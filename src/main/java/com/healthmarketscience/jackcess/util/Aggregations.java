@@ -0,0 +1,790 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.Column;
+import com.healthmarketscience.jackcess.Cursor;
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.Index;
+import com.healthmarketscience.jackcess.IndexCursor;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.impl.CursorImpl;
+import com.healthmarketscience.jackcess.impl.UnscaledDecimal;
+
+/**
+ * Builder style class for computing aggregate values (counts, sums, etc.)
+ * over the rows of a {@link Cursor}, optionally grouped by the values of
+ * some columns, e.g.:
+ * <pre>
+ *   Aggregations.Result result = Aggregations.over(cursor)
+ *     .groupBy("Region").count().sum("Total").execute();
+ * </pre>
+ * Only the relevant columns are read from each row (no Row instances are
+ * created) and the aggregate values are accumulated using primitive values
+ * where possible.  If the cursor is an {@link IndexCursor} whose leading
+ * index columns are the group by columns, the rows of each group are
+ * contiguous and no lookup of the group for each row is necessary.
+ * <p>
+ * The results of aggregations over separate parts of the data (e.g. ranges
+ * of an index) may be combined using {@link Result#merge}.  Note that the
+ * parts must be computed using separate Database instances if they are
+ * computed concurrently (a Database is not thread-safe).
+ * <p>
+ * The result types of the aggregate functions are:
+ * <ul>
+ * <li>{@code COUNT} - Long</li>
+ * <li>{@code SUM} - Long for integral columns (throws ArithmeticException on
+ *     overflow), Double for floating point columns and BigDecimal for
+ *     currency/numeric columns</li>
+ * <li>{@code AVG} - Double, or BigDecimal for currency/numeric columns</li>
+ * <li>{@code MIN}/{@code MAX} - the value type of the column</li>
+ * </ul>
+ * As in SQL, {@code null} values are ignored (except by {@code COUNT(*)})
+ * and all functions other than {@code COUNT} produce {@code null} for a
+ * group without any non-null values.
+ *
+ * @author agent
+ * @usage _general_class_
+ */
+public class Aggregations
+{
+  /** the supported aggregate functions */
+  public enum Function {
+    COUNT("Count"), SUM("Sum"), AVG("Avg"), MIN("Min"), MAX("Max");
+
+    private final String _displayName;
+
+    private Function(String displayName) {
+      _displayName = displayName;
+    }
+
+    public String getDisplayName() {
+      return _displayName;
+    }
+  }
+
+  /** the kind of accumulator used for summing values of a column */
+  private enum SumType {
+    LONG, DOUBLE, DECIMAL;
+  }
+
+  private final Cursor _cursor;
+  private final List<Column> _groupColumns = new ArrayList<Column>();
+  private final List<Aggregate> _aggregates = new ArrayList<Aggregate>();
+
+  public Aggregations(Cursor cursor) {
+    _cursor = cursor;
+  }
+
+  /**
+   * Returns a new Aggregations over all the rows of the given cursor.
+   */
+  public static Aggregations over(Cursor cursor) {
+    return new Aggregations(cursor);
+  }
+
+  /**
+   * Returns a new Aggregations over all the rows of the given table.
+   */
+  public static Aggregations over(Table table) throws IOException {
+    return new Aggregations(CursorBuilder.createCursor(table));
+  }
+
+  /**
+   * Groups the rows by the values of the given columns.
+   */
+  public Aggregations groupBy(String... columnNames) {
+    for(String columnName : columnNames) {
+      _groupColumns.add(getColumn(columnName));
+    }
+    return this;
+  }
+
+  /**
+   * Adds an aggregate which counts all the rows (named "Count(*)").
+   */
+  public Aggregations count() {
+    return addAggregate(Function.COUNT, null);
+  }
+
+  /**
+   * Adds an aggregate which counts the non-null values of the given column
+   * (named "Count(&lt;columnName&gt;)").
+   */
+  public Aggregations count(String columnName) {
+    return addAggregate(Function.COUNT, columnName);
+  }
+
+  /**
+   * Adds an aggregate which sums the values of the given numeric column
+   * (named "Sum(&lt;columnName&gt;)").
+   */
+  public Aggregations sum(String columnName) {
+    return addAggregate(Function.SUM, columnName);
+  }
+
+  /**
+   * Adds an aggregate which averages the values of the given numeric column
+   * (named "Avg(&lt;columnName&gt;)").
+   */
+  public Aggregations avg(String columnName) {
+    return addAggregate(Function.AVG, columnName);
+  }
+
+  /**
+   * Adds an aggregate which finds the minimum value of the given column
+   * (named "Min(&lt;columnName&gt;)").
+   */
+  public Aggregations min(String columnName) {
+    return addAggregate(Function.MIN, columnName);
+  }
+
+  /**
+   * Adds an aggregate which finds the maximum value of the given column
+   * (named "Max(&lt;columnName&gt;)").
+   */
+  public Aggregations max(String columnName) {
+    return addAggregate(Function.MAX, columnName);
+  }
+
+  /**
+   * Adds an aggregate with the given function for the given column
+   * ({@code null} for {@code COUNT(*)}).
+   */
+  public Aggregations addAggregate(Function function, String columnName) {
+    Column column = null;
+    if(columnName != null) {
+      column = getColumn(columnName);
+    } else if(function != Function.COUNT) {
+      throw new IllegalArgumentException(
+          "Aggregate function " + function + " requires a column");
+    }
+    _aggregates.add(new Aggregate(function, column));
+    return this;
+  }
+
+  /**
+   * Computes the aggregates over all the rows of the cursor (the cursor is
+   * reset before and left after the last row).
+   */
+  public Result execute() throws IOException
+  {
+    List<String> groupNames = new ArrayList<String>(_groupColumns.size());
+    for(Column col : _groupColumns) {
+      groupNames.add(col.getName());
+    }
+    List<String> aggNames = new ArrayList<String>(_aggregates.size());
+    for(Aggregate agg : _aggregates) {
+      aggNames.add(agg.getName());
+    }
+    Result result = new Result(groupNames, aggNames);
+
+    Map<List<Object>,Group> groups = null;
+    if(_groupColumns.isEmpty()) {
+      // there is always exactly one group
+      result.addGroup(newGroup(Collections.emptyList()));
+    } else if(!isSortedByGroup()) {
+      groups = new LinkedHashMap<List<Object>,Group>();
+    }
+
+    Object[] groupValues = new Object[_groupColumns.size()];
+    Group curGroup = null;
+    _cursor.beforeFirst();
+    while(_cursor.moveToNextRow()) {
+
+      if(!_groupColumns.isEmpty()) {
+        for(int i = 0; i < groupValues.length; ++i) {
+          groupValues[i] = _cursor.getCurrentRowValue(_groupColumns.get(i));
+        }
+      }
+
+      if(_groupColumns.isEmpty()) {
+        curGroup = result._groups.get(0);
+      } else if(groups != null) {
+        List<Object> key = Arrays.asList(groupValues);
+        curGroup = groups.get(key);
+        if(curGroup == null) {
+          curGroup = newGroup(key);
+          groups.put(curGroup._groupValues, curGroup);
+          result.addGroup(curGroup);
+        }
+      } else if((curGroup == null) ||
+                !curGroup._groupValues.equals(Arrays.asList(groupValues))) {
+        // rows are in group order, so this is the start of the next group
+        curGroup = newGroup(Arrays.asList(groupValues));
+        result.addGroup(curGroup);
+      }
+
+      for(Accumulator acc : curGroup._accumulators) {
+        acc.accumulate(_cursor);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns {@code true} if the rows of the cursor are ordered by the group
+   * columns, {@code false} otherwise.
+   */
+  private boolean isSortedByGroup() {
+    if(!(_cursor instanceof IndexCursor)) {
+      return false;
+    }
+    List<? extends Index.Column> idxCols =
+      ((IndexCursor)_cursor).getIndex().getColumns();
+    if(idxCols.size() < _groupColumns.size()) {
+      return false;
+    }
+    // the group columns must be the leading index columns (in any order)
+    Set<Column> leadingCols = new HashSet<Column>();
+    for(int i = 0; i < _groupColumns.size(); ++i) {
+      leadingCols.add(idxCols.get(i).getColumn());
+    }
+    return leadingCols.equals(new HashSet<Column>(_groupColumns));
+  }
+
+  private Group newGroup(List<Object> groupValues) {
+    List<Accumulator> accs = new ArrayList<Accumulator>(_aggregates.size());
+    for(Aggregate agg : _aggregates) {
+      accs.add(agg.newAccumulator());
+    }
+    // copy the values, the given list may be re-used
+    return new Group(new ArrayList<Object>(groupValues), accs);
+  }
+
+  private Column getColumn(String columnName) {
+    return _cursor.getTable().getColumn(columnName);
+  }
+
+  /**
+   * The results of an aggregation, one Group for each distinct combination
+   * of group values.
+   */
+  public static final class Result
+  {
+    private final List<String> _groupColumnNames;
+    private final List<String> _aggregateNames;
+    private final List<Group> _groups = new ArrayList<Group>();
+
+    private Result(List<String> groupColumnNames, List<String> aggNames) {
+      _groupColumnNames = Collections.unmodifiableList(groupColumnNames);
+      _aggregateNames = Collections.unmodifiableList(aggNames);
+    }
+
+    public List<String> getGroupColumnNames() {
+      return _groupColumnNames;
+    }
+
+    public List<String> getAggregateNames() {
+      return _aggregateNames;
+    }
+
+    /**
+     * Returns the groups, in the order in which they were first encountered.
+     */
+    public List<Group> getGroups() {
+      return Collections.unmodifiableList(_groups);
+    }
+
+    /**
+     * Returns the group with the given group values, if any, {@code null}
+     * otherwise.
+     */
+    public Group getGroup(Object... groupValues) {
+      List<Object> key = Arrays.asList(groupValues);
+      for(Group group : _groups) {
+        if(group._groupValues.equals(key)) {
+          return group;
+        }
+      }
+      return null;
+    }
+
+    private void addGroup(Group group) {
+      group._result = this;
+      _groups.add(group);
+    }
+
+    /**
+     * Merges the given result (which must be the result of the same
+     * aggregations over a different set of rows) into this result.  Any
+     * groups only in the given result are added after the existing groups.
+     * The given result should not be used afterwards.
+     *
+     * @return this result
+     */
+    public Result merge(Result other) {
+      if(!_groupColumnNames.equals(other._groupColumnNames) ||
+         !_aggregateNames.equals(other._aggregateNames)) {
+        throw new IllegalArgumentException(
+            "Cannot merge results of different aggregations");
+      }
+
+      Map<List<Object>,Group> groups = new LinkedHashMap<List<Object>,Group>();
+      for(Group group : _groups) {
+        groups.put(group._groupValues, group);
+      }
+      for(Group otherGroup : other._groups) {
+        Group group = groups.get(otherGroup._groupValues);
+        if(group == null) {
+          addGroup(otherGroup);
+          continue;
+        }
+        for(int i = 0; i < group._accumulators.size(); ++i) {
+          group._accumulators.get(i).merge(otherGroup._accumulators.get(i));
+        }
+      }
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      return "Result[groupColumns=" + _groupColumnNames + ", aggregates=" +
+        _aggregateNames + ", groups=" + _groups + "]";
+    }
+  }
+
+  /**
+   * The aggregate values for a group of rows.
+   */
+  public static final class Group
+  {
+    private final List<Object> _groupValues;
+    private final List<Accumulator> _accumulators;
+    private Result _result;
+
+    private Group(List<Object> groupValues, List<Accumulator> accumulators) {
+      _groupValues = groupValues;
+      _accumulators = accumulators;
+    }
+
+    /**
+     * Returns the values of the group columns for this group.
+     */
+    public List<Object> getGroupValues() {
+      return Collections.unmodifiableList(_groupValues);
+    }
+
+    /**
+     * Returns the value of the given group column for this group.
+     */
+    public Object getGroupValue(String columnName) {
+      return _groupValues.get(
+          indexOf(_result._groupColumnNames, columnName, "group column"));
+    }
+
+    /**
+     * Returns the value of the aggregate with the given index (in the order
+     * in which the aggregates were added).
+     */
+    public Object getValue(int index) {
+      return _accumulators.get(index).getValue();
+    }
+
+    /**
+     * Returns the value of the aggregate with the given name.
+     */
+    public Object getValue(String aggregateName) {
+      return getValue(
+          indexOf(_result._aggregateNames, aggregateName, "aggregate"));
+    }
+
+    private static int indexOf(List<String> names, String name, String desc) {
+      int idx = names.indexOf(name);
+      if(idx < 0) {
+        throw new IllegalArgumentException(
+            "Could not find " + desc + " named " + name);
+      }
+      return idx;
+    }
+
+    @Override
+    public String toString() {
+      List<Object> values = new ArrayList<Object>(_accumulators.size());
+      for(Accumulator acc : _accumulators) {
+        values.add(acc.getValue());
+      }
+      return "Group[" + _groupValues + ": " + values + "]";
+    }
+  }
+
+  /**
+   * The description of an aggregate function over a column.
+   */
+  private static final class Aggregate
+  {
+    private final Function _function;
+    private final Column _column;
+    private final SumType _sumType;
+
+    private Aggregate(Function function, Column column) {
+      _function = function;
+      _column = column;
+      _sumType = (((function == Function.SUM) || (function == Function.AVG)) ?
+                  getSumType(column) : null);
+    }
+
+    public String getName() {
+      return _function.getDisplayName() + "(" +
+        ((_column != null) ? _column.getName() : "*") + ")";
+    }
+
+    public Accumulator newAccumulator() {
+      boolean isAvg = (_function == Function.AVG);
+      switch(_function) {
+      case COUNT:
+        return new CountAccumulator(_column);
+      case SUM:
+      case AVG:
+        switch(_sumType) {
+        case LONG:
+          return new LongSumAccumulator(_column, isAvg);
+        case DOUBLE:
+          return new DoubleSumAccumulator(_column, isAvg);
+        default:
+          return new DecimalSumAccumulator(_column, isAvg);
+        }
+      default:
+        return new MinMaxAccumulator(_column, (_function == Function.MAX));
+      }
+    }
+
+    private static SumType getSumType(Column column) {
+      switch(column.getType()) {
+      case BYTE:
+      case INT:
+      case LONG:
+      case BIG_INT:
+        return SumType.LONG;
+      case FLOAT:
+      case DOUBLE:
+        return SumType.DOUBLE;
+      case MONEY:
+      case NUMERIC:
+        return SumType.DECIMAL;
+      default:
+        throw new IllegalArgumentException(
+            "Cannot sum non-numeric column " + column.getName());
+      }
+    }
+  }
+
+  /**
+   * Base class for the state of an aggregate function for a group.
+   */
+  private abstract static class Accumulator
+  {
+    protected final Column _column;
+
+    protected Accumulator(Column column) {
+      _column = column;
+    }
+
+    /**
+     * Adds the relevant value of the current row of the given cursor.
+     */
+    public abstract void accumulate(Cursor cursor) throws IOException;
+
+    /**
+     * Merges the state of the given accumulator (of the same type) into this
+     * accumulator.
+     */
+    public abstract void merge(Accumulator other);
+
+    public abstract Object getValue();
+  }
+
+  private static final class CountAccumulator extends Accumulator
+  {
+    private long _count;
+
+    private CountAccumulator(Column column) {
+      super(column);
+    }
+
+    @Override
+    public void accumulate(Cursor cursor) throws IOException {
+      if((_column == null) || (cursor.getCurrentRowValue(_column) != null)) {
+        ++_count;
+      }
+    }
+
+    @Override
+    public void merge(Accumulator other) {
+      _count += ((CountAccumulator)other)._count;
+    }
+
+    @Override
+    public Object getValue() {
+      return _count;
+    }
+  }
+
+  /**
+   * Base class for the sum/average accumulators.
+   */
+  private abstract static class SumAccumulator extends Accumulator
+  {
+    private final boolean _avg;
+    /** number of non-null values */
+    protected long _count;
+
+    protected SumAccumulator(Column column, boolean avg) {
+      super(column);
+      _avg = avg;
+    }
+
+    @Override
+    public Object getValue() {
+      if(_count == 0L) {
+        return null;
+      }
+      return (_avg ? getAverage() : getSum());
+    }
+
+    protected abstract Object getSum();
+
+    protected abstract Object getAverage();
+  }
+
+  private static final class LongSumAccumulator extends SumAccumulator
+  {
+    private long _sum;
+
+    private LongSumAccumulator(Column column, boolean avg) {
+      super(column, avg);
+    }
+
+    @Override
+    public void accumulate(Cursor cursor) throws IOException {
+      Object value = cursor.getCurrentRowValue(_column);
+      if(value != null) {
+        add(((Number)value).longValue());
+        ++_count;
+      }
+    }
+
+    private void add(long value) {
+      long sum = _sum + value;
+      if(((_sum ^ sum) & (value ^ sum)) < 0L) {
+        throw new ArithmeticException(
+            "Sum of column " + _column.getName() + " overflows a long");
+      }
+      _sum = sum;
+    }
+
+    @Override
+    public void merge(Accumulator other) {
+      LongSumAccumulator acc = (LongSumAccumulator)other;
+      add(acc._sum);
+      _count += acc._count;
+    }
+
+    @Override
+    protected Object getSum() {
+      return _sum;
+    }
+
+    @Override
+    protected Object getAverage() {
+      return ((double)_sum / _count);
+    }
+  }
+
+  private static final class DoubleSumAccumulator extends SumAccumulator
+  {
+    private double _sum;
+
+    private DoubleSumAccumulator(Column column, boolean avg) {
+      super(column, avg);
+    }
+
+    @Override
+    public void accumulate(Cursor cursor) throws IOException {
+      Object value = cursor.getCurrentRowValue(_column);
+      if(value != null) {
+        _sum += ((Number)value).doubleValue();
+        ++_count;
+      }
+    }
+
+    @Override
+    public void merge(Accumulator other) {
+      DoubleSumAccumulator acc = (DoubleSumAccumulator)other;
+      _sum += acc._sum;
+      _count += acc._count;
+    }
+
+    @Override
+    protected Object getSum() {
+      return _sum;
+    }
+
+    @Override
+    protected Object getAverage() {
+      return (_sum / _count);
+    }
+  }
+
+  /**
+   * Sums currency/numeric values as unscaled longs (as long as all the
+   * values have the same scale and the sum fits), only falling back to
+   * BigDecimal when necessary.
+   */
+  private static final class DecimalSumAccumulator extends SumAccumulator
+  {
+    private final UnscaledDecimal _value = new UnscaledDecimal();
+    private long _unscaledSum;
+    private int _scale;
+    /** the sum, once it cannot be held as an unscaled long */
+    private BigDecimal _decimalSum;
+
+    private DecimalSumAccumulator(Column column, boolean avg) {
+      super(column, avg);
+    }
+
+    @Override
+    public void accumulate(Cursor cursor) throws IOException {
+      if(!((CursorImpl)cursor).getCurrentRowDecimal(_column, _value)) {
+        return;
+      }
+      if((_decimalSum == null) && _value.fitsInLong()) {
+        long value = _value.getUnscaledLong();
+        if(_count == 0L) {
+          _unscaledSum = value;
+          _scale = _value.getScale();
+          ++_count;
+          return;
+        }
+        if((_value.getScale() == _scale) && addUnscaled(value)) {
+          ++_count;
+          return;
+        }
+      }
+      _decimalSum = getDecimalSum().add(_value.toBigDecimal());
+      ++_count;
+    }
+
+    /**
+     * Adds the given unscaled value to the unscaled sum, returning {@code
+     * false} if the sum would overflow.
+     */
+    private boolean addUnscaled(long value) {
+      long sum = _unscaledSum + value;
+      if(((_unscaledSum ^ sum) & (value ^ sum)) < 0L) {
+        return false;
+      }
+      _unscaledSum = sum;
+      return true;
+    }
+
+    private BigDecimal getDecimalSum() {
+      if(_decimalSum != null) {
+        return _decimalSum;
+      }
+      return ((_count > 0L) ? BigDecimal.valueOf(_unscaledSum, _scale) :
+              BigDecimal.ZERO);
+    }
+
+    @Override
+    public void merge(Accumulator other) {
+      DecimalSumAccumulator acc = (DecimalSumAccumulator)other;
+      if(acc._count == 0L) {
+        return;
+      }
+      if(_count == 0L) {
+        _unscaledSum = acc._unscaledSum;
+        _scale = acc._scale;
+        _decimalSum = acc._decimalSum;
+      } else if((_decimalSum != null) || (acc._decimalSum != null) ||
+                (_scale != acc._scale) || !addUnscaled(acc._unscaledSum)) {
+        _decimalSum = getDecimalSum().add(acc.getDecimalSum());
+      }
+      _count += acc._count;
+    }
+
+    @Override
+    protected Object getSum() {
+      return getDecimalSum();
+    }
+
+    @Override
+    protected Object getAverage() {
+      return getDecimalSum().divide(BigDecimal.valueOf(_count),
+                                    MathContext.DECIMAL128);
+    }
+  }
+
+  private static final class MinMaxAccumulator extends Accumulator
+  {
+    private final boolean _max;
+    private Comparable<Object> _value;
+
+    private MinMaxAccumulator(Column column, boolean max) {
+      super(column);
+      _max = max;
+    }
+
+    @Override
+    public void accumulate(Cursor cursor) throws IOException {
+      update(cursor.getCurrentRowValue(_column));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void update(Object value) {
+      if(value == null) {
+        return;
+      }
+      if(!(value instanceof Comparable<?>)) {
+        throw new IllegalArgumentException(
+            "Cannot compare values of column " + _column.getName());
+      }
+      Comparable<Object> cValue = (Comparable<Object>)value;
+      if(_value == null) {
+        _value = cValue;
+        return;
+      }
+      int cmp = cValue.compareTo(_value);
+      if(_max ? (cmp > 0) : (cmp < 0)) {
+        _value = cValue;
+      }
+    }
+
+    @Override
+    public void merge(Accumulator other) {
+      update(((MinMaxAccumulator)other)._value);
+    }
+
+    @Override
+    public Object getValue() {
+      return _value;
+    }
+  }
+}
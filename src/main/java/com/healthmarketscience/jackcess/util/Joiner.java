@@ -17,18 +17,25 @@ limitations under the License.
 package com.healthmarketscience.jackcess.util;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import com.healthmarketscience.jackcess.Cursor;
 import com.healthmarketscience.jackcess.CursorBuilder;
 import com.healthmarketscience.jackcess.Index;
 import com.healthmarketscience.jackcess.IndexCursor;
 import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RuntimeIOException;
 import com.healthmarketscience.jackcess.Table;
 import com.healthmarketscience.jackcess.impl.DatabaseImpl;
+import com.healthmarketscience.jackcess.impl.IndexData;
 import com.healthmarketscience.jackcess.impl.IndexImpl;
 
 /**
@@ -260,6 +267,135 @@ public class Joiner
     }
   }
 
+  /**
+   * Returns an Iterable over all the pairs of joined rows from the "from"
+   * and "to" tables (the inner join of the tables), using a hash join.
+   *
+   * @see #hashJoin(Collection,Collection)
+   */
+  public Iterable<JoinedRow> hashJoin() {
+    return hashJoin(null, null);
+  }
+
+  /**
+   * Returns an Iterable over all the pairs of joined rows (with the selected
+   * columns) from the "from" and "to" tables (the inner join of the tables),
+   * using a hash join.  All the rows of the smaller table are loaded into
+   * memory, and then the rows of the larger table are read once, so each
+   * table is only scanned once (instead of an index lookup for each row).
+   * As with the other lookups, text values are matched case-insensitively.
+   * Rows with a {@code null} value in any of the join columns are not
+   * matched.
+   *
+   * @param fromColumnNames desired columns in the "from" table rows,
+   *                        {@code null} for all columns
+   * @param toColumnNames desired columns in the "to" table rows, {@code null}
+   *                      for all columns
+   */
+  public Iterable<JoinedRow> hashJoin(final Collection<String> fromColumnNames,
+                                      final Collection<String> toColumnNames)
+  {
+    return new Iterable<JoinedRow>() {
+      public Iterator<JoinedRow> iterator() {
+        try {
+          return new HashJoinIterator(fromColumnNames, toColumnNames);
+        } catch(IOException e) {
+          throw new RuntimeIOException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns an Iterable over all the pairs of joined rows from the "from"
+   * and "to" tables (the inner join of the tables), using a merge join.
+   *
+   * @see #mergeJoin(Collection,Collection)
+   */
+  public Iterable<JoinedRow> mergeJoin() {
+    return mergeJoin(null, null);
+  }
+
+  /**
+   * Returns an Iterable over all the pairs of joined rows (with the selected
+   * columns) from the "from" and "to" tables (the inner join of the tables),
+   * using a merge join.  The "from" and "to" indexes are traversed in
+   * lockstep, so each index is only read once and only the "to" rows
+   * matching a single "from" row are held in memory.  The pairs are returned
+   * in the order of the "from" index.  As with the other lookups, text
+   * values are matched case-insensitively.  Rows with a {@code null} value
+   * in any of the join columns are not matched.
+   *
+   * @param fromColumnNames desired columns in the "from" table rows,
+   *                        {@code null} for all columns
+   * @param toColumnNames desired columns in the "to" table rows, {@code null}
+   *                      for all columns
+   * @throws IllegalArgumentException if the "from" and "to" indexes do not
+   *         have the same ordering (in which case {@link #hashJoin} must be
+   *         used)
+   */
+  public Iterable<JoinedRow> mergeJoin(final Collection<String> fromColumnNames,
+                                       final Collection<String> toColumnNames)
+  {
+    if(!getIndexData(_fromIndex).isJoinCompatible(
+           getIndexData(getToIndex()))) {
+      throw new IllegalArgumentException(
+          "Indexes are not compatible for a merge join: " + toFKString());
+    }
+    return new Iterable<JoinedRow>() {
+      public Iterator<JoinedRow> iterator() {
+        try {
+          return new MergeJoinIterator(fromColumnNames, toColumnNames);
+        } catch(IOException e) {
+          throw new RuntimeIOException(e);
+        }
+      }
+    };
+  }
+
+  private static IndexData getIndexData(Index index) {
+    return ((IndexImpl)index).getIndexData();
+  }
+
+  /**
+   * Returns the join key for the current row of the given cursor, or {@code
+   * null} if any of the join values are {@code null}.
+   */
+  private byte[] getJoinKey(Cursor cursor, List<? extends Index.Column> cols,
+                            Object[] entryValues)
+    throws IOException
+  {
+    for(int i = 0; i < entryValues.length; ++i) {
+      Object value = cursor.getCurrentRowValue(cols.get(i).getColumn());
+      if(value == null) {
+        return null;
+      }
+      entryValues[i] = value;
+    }
+    // keys for both tables are created by the "to" index so that they are
+    // comparable
+    return getIndexData(getToIndex()).createJoinKeyBytes(entryValues);
+  }
+
+  /**
+   * Returns {@code true} if the given join values of a "from" row match the
+   * given join values of a "to" row, using the same comparison as the
+   * lookups.  Join keys only include the inline codes of text values (which
+   * ignore punctuation, accents, etc.), so rows with equal join keys must
+   * still be checked with this method.
+   */
+  private boolean joinValuesMatch(Object[] fromValues, Object[] toValues) {
+    Table toTable = getToTable();
+    List<? extends Index.Column> toCols = getToIndex().getColumns();
+    for(int i = 0; i < toValues.length; ++i) {
+      if(!CaseInsensitiveColumnMatcher.INSTANCE.matches(
+             toTable, toCols.get(i).getName(), toValues[i], fromValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Returns a pretty string describing the foreign key relationship backing
    * this Joiner.
@@ -296,4 +432,277 @@ public class Joiner
     
     return sb.toString();
   }
+
+  /**
+   * A pair of joined rows from the "from" and "to" tables.
+   */
+  public static final class JoinedRow
+  {
+    private final Row _fromRow;
+    private final Row _toRow;
+
+    private JoinedRow(Row fromRow, Row toRow) {
+      _fromRow = fromRow;
+      _toRow = toRow;
+    }
+
+    public Row getFromRow() {
+      return _fromRow;
+    }
+
+    public Row getToRow() {
+      return _toRow;
+    }
+
+    @Override
+    public String toString() {
+      return "JoinedRow[" + _fromRow + ", " + _toRow + "]";
+    }
+  }
+
+  /**
+   * Base class for the join iterators.
+   */
+  private abstract static class JoinIterator implements Iterator<JoinedRow>
+  {
+    private JoinedRow _next;
+
+    public boolean hasNext() {
+      if(_next == null) {
+        try {
+          _next = findNext();
+        } catch(IOException e) {
+          throw new RuntimeIOException(e);
+        }
+      }
+      return (_next != null);
+    }
+
+    public JoinedRow next() {
+      if(!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      JoinedRow next = _next;
+      _next = null;
+      return next;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the next joined row, or {@code null} if there are no more
+     */
+    protected abstract JoinedRow findNext() throws IOException;
+  }
+
+  /**
+   * A row loaded by a join iterator, along with its join values.
+   */
+  private static final class KeyedRow
+  {
+    private final Object[] _joinValues;
+    private final Row _row;
+
+    private KeyedRow(Object[] joinValues, Row row) {
+      _joinValues = joinValues;
+      _row = row;
+    }
+  }
+
+  /**
+   * Iterator which hashes the rows of the smaller table and then probes
+   * with the rows of the larger table.
+   */
+  private final class HashJoinIterator extends JoinIterator
+  {
+    /** whether the "from" table was loaded (otherwise the "to" table) */
+    private final boolean _buildFrom;
+    private final Map<ByteBuffer,List<KeyedRow>> _buildRows =
+      new HashMap<ByteBuffer,List<KeyedRow>>();
+    private final Cursor _probeCursor;
+    private final List<? extends Index.Column> _probeCols;
+    private final Collection<String> _probeColumnNames;
+    private final Object[] _entryValues;
+    private Row _probeRow;
+    private final List<Row> _matches = new ArrayList<Row>();
+    private int _matchIdx;
+
+    private HashJoinIterator(Collection<String> fromColumnNames,
+                             Collection<String> toColumnNames)
+      throws IOException
+    {
+      List<? extends Index.Column> toCols = getToIndex().getColumns();
+      _buildFrom = (getFromTable().getRowCount() <=
+                    getToTable().getRowCount());
+      _entryValues = new Object[_fromCols.size()];
+
+      Cursor buildCursor = CursorBuilder.createCursor(
+          _buildFrom ? getFromTable() : getToTable());
+      List<? extends Index.Column> buildCols = (_buildFrom ? _fromCols :
+                                                toCols);
+      Collection<String> buildColumnNames = (_buildFrom ? fromColumnNames :
+                                             toColumnNames);
+      while(buildCursor.moveToNextRow()) {
+        byte[] key = getJoinKey(buildCursor, buildCols, _entryValues);
+        if(key == null) {
+          continue;
+        }
+        ByteBuffer keyBuf = ByteBuffer.wrap(key);
+        List<KeyedRow> rows = _buildRows.get(keyBuf);
+        if(rows == null) {
+          rows = new ArrayList<KeyedRow>(1);
+          _buildRows.put(keyBuf, rows);
+        }
+        rows.add(new KeyedRow(_entryValues.clone(),
+                              buildCursor.getCurrentRow(buildColumnNames)));
+      }
+
+      _probeCursor = CursorBuilder.createCursor(
+          _buildFrom ? getToTable() : getFromTable());
+      _probeCols = (_buildFrom ? toCols : _fromCols);
+      _probeColumnNames = (_buildFrom ? toColumnNames : fromColumnNames);
+    }
+
+    @Override
+    protected JoinedRow findNext() throws IOException {
+      while(true) {
+        if(_matchIdx < _matches.size()) {
+          Row buildRow = _matches.get(_matchIdx++);
+          return (_buildFrom ? new JoinedRow(buildRow, _probeRow) :
+                  new JoinedRow(_probeRow, buildRow));
+        }
+
+        if(!_probeCursor.moveToNextRow()) {
+          return null;
+        }
+
+        byte[] key = getJoinKey(_probeCursor, _probeCols, _entryValues);
+        List<KeyedRow> candidates = ((key != null) ?
+                                     _buildRows.get(ByteBuffer.wrap(key)) :
+                                     null);
+        if(candidates == null) {
+          continue;
+        }
+        _matches.clear();
+        _matchIdx = 0;
+        for(KeyedRow candidate : candidates) {
+          boolean matches = (_buildFrom ?
+                             joinValuesMatch(candidate._joinValues,
+                                             _entryValues) :
+                             joinValuesMatch(_entryValues,
+                                             candidate._joinValues));
+          if(matches) {
+            _matches.add(candidate._row);
+          }
+        }
+        if(!_matches.isEmpty()) {
+          _probeRow = _probeCursor.getCurrentRow(_probeColumnNames);
+        }
+      }
+    }
+  }
+
+  /**
+   * Iterator which traverses the "from" and "to" indexes in lockstep.
+   */
+  private final class MergeJoinIterator extends JoinIterator
+  {
+    private final Collection<String> _fromColumnNames;
+    private final Collection<String> _toColumnNames;
+    private final Cursor _fromCursor;
+    private final Cursor _toCursor;
+    private final List<? extends Index.Column> _toCols;
+    private final Object[] _entryValues;
+    /** join values of the next "to" row */
+    private final Object[] _toValues;
+    private Row _fromRow;
+    /** key of the "to" rows in the current group */
+    private byte[] _groupKey;
+    /** the "to" rows with the same key as the current "from" row */
+    private final List<KeyedRow> _group = new ArrayList<KeyedRow>();
+    /** the "to" rows matching the current "from" row */
+    private final List<Row> _matches = new ArrayList<Row>();
+    private int _matchIdx;
+    /** key of the next "to" row, {@code null} if there are no more */
+    private byte[] _toKey;
+
+    private MergeJoinIterator(Collection<String> fromColumnNames,
+                              Collection<String> toColumnNames)
+      throws IOException
+    {
+      _fromColumnNames = fromColumnNames;
+      _toColumnNames = toColumnNames;
+      _fromCursor = CursorBuilder.createCursor(_fromIndex);
+      _toCursor = CursorBuilder.createCursor(getToIndex());
+      _toCols = getToIndex().getColumns();
+      _entryValues = new Object[_fromCols.size()];
+      _toValues = new Object[_fromCols.size()];
+      moveToNextToRow();
+    }
+
+    @Override
+    protected JoinedRow findNext() throws IOException {
+      while(true) {
+        if(_matchIdx < _matches.size()) {
+          return new JoinedRow(_fromRow, _matches.get(_matchIdx++));
+        }
+
+        if(!_fromCursor.moveToNextRow()) {
+          return null;
+        }
+
+        _matches.clear();
+        _matchIdx = 0;
+        byte[] fromKey = getJoinKey(_fromCursor, _fromCols, _entryValues);
+        if(fromKey == null) {
+          continue;
+        }
+
+        if((_groupKey == null) ||
+           (IndexData.BYTE_CODE_COMPARATOR.compare(fromKey, _groupKey) != 0)) {
+          loadGroup(fromKey);
+        }
+        // the group only shares the key, check the actual values
+        for(KeyedRow toRow : _group) {
+          if(joinValuesMatch(_entryValues, toRow._joinValues)) {
+            _matches.add(toRow._row);
+          }
+        }
+        if(!_matches.isEmpty()) {
+          _fromRow = _fromCursor.getCurrentRow(_fromColumnNames);
+        }
+      }
+    }
+
+    /**
+     * Loads the "to" rows matching the given key (skipping any preceding "to"
+     * rows).
+     */
+    private void loadGroup(byte[] fromKey) throws IOException {
+      _group.clear();
+      _groupKey = fromKey;
+      while((_toKey != null) &&
+            (IndexData.BYTE_CODE_COMPARATOR.compare(_toKey, fromKey) < 0)) {
+        moveToNextToRow();
+      }
+      while((_toKey != null) &&
+            (IndexData.BYTE_CODE_COMPARATOR.compare(_toKey, fromKey) == 0)) {
+        _group.add(new KeyedRow(_toValues.clone(),
+                                _toCursor.getCurrentRow(_toColumnNames)));
+        moveToNextToRow();
+      }
+    }
+
+    private void moveToNextToRow() throws IOException {
+      _toKey = null;
+      while(_toCursor.moveToNextRow()) {
+        _toKey = getJoinKey(_toCursor, _toCols, _toValues);
+        if(_toKey != null) {
+          return;
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,249 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.Cursor;
+import com.healthmarketscience.jackcess.Index;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RowId;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.impl.CursorImpl;
+import com.healthmarketscience.jackcess.impl.IndexData;
+import com.healthmarketscience.jackcess.impl.IndexImpl;
+import com.healthmarketscience.jackcess.impl.RowIdCursor;
+import com.healthmarketscience.jackcess.impl.RowIdImpl;
+import com.healthmarketscience.jackcess.impl.RowIdSet;
+import com.healthmarketscience.jackcess.impl.TableImpl;
+
+/**
+ * Builder for finding the rows of a table which satisfy a compound predicate
+ * by combining the results of multiple index lookups.  Each lookup gathers
+ * the matching rows from an index (without reading any table data), and the
+ * lookups are combined via set intersection (AND) or set union (OR).  The
+ * surviving rows can then be read in physical (RowId) order, which reads
+ * each relevant data page only once.
+ * <p>
+ * The first lookup added to the builder defines the initial set of rows,
+ * subsequent lookups are intersected with or unioned into the current set
+ * of rows.  Example (finding rows where {@code (State = 'NY' AND Age >= 21)
+ * OR Zip = '10001'}):
+ * <pre>
+ *   Cursor cursor = new RowIdSetBuilder(table)
+ *     .intersectEntry(stateIdx, "NY")
+ *     .intersectRange(ageIdx, new Object[]{21}, true, null, true)
+ *     .unionEntry(zipIdx, "10001")
+ *     .toCursor();
+ * </pre>
+ * <p>
+ * Note, index lookups may not match exactly the same rows as a comparison
+ * of the column values (e.g. text indexes are case-insensitive and some
+ * indexes ignore null entries, see {@link IndexImpl#shouldIgnoreNulls}).
+ * Any residual checks can be applied to the resulting cursor, e.g. using
+ * {@link IterableBuilder#setMatchPattern(Map)}.
+ *
+ * @author agent
+ * @usage _intermediate_class_
+ */
+public class RowIdSetBuilder
+{
+  private final TableImpl _table;
+  /** the current rows, {@code null} until the first lookup is added */
+  private RowIdSet _rowIds;
+
+  public RowIdSetBuilder(Table table) {
+    _table = (TableImpl)table;
+  }
+
+  public Table getTable() {
+    return _table;
+  }
+
+  /**
+   * Intersects the current rows with the rows of the given index entry.
+   * Fewer values than the number of index columns may be given, in which
+   * case the lookup matches all entries with the given leading values.
+   */
+  public RowIdSetBuilder intersectEntry(Index index, Object... entryValues)
+    throws IOException
+  {
+    return intersect(findEntry(index, entryValues));
+  }
+
+  /**
+   * Unions the current rows with the rows of the given index entry.  Fewer
+   * values than the number of index columns may be given, in which case the
+   * lookup matches all entries with the given leading values.
+   */
+  public RowIdSetBuilder unionEntry(Index index, Object... entryValues)
+    throws IOException
+  {
+    return union(findEntry(index, entryValues));
+  }
+
+  /**
+   * Intersects the current rows with the rows in the given index range.
+   *
+   * @param index index which defines the range of rows
+   * @param startEntry the leading values of the first entry in the range, or
+   *                   {@code null} for the first entry
+   * @param startInclusive whether or not startEntry is inclusive or exclusive
+   * @param endEntry the leading values of the last entry in the range, or
+   *                 {@code null} for the last entry
+   * @param endInclusive whether or not endEntry is inclusive or exclusive
+   */
+  public RowIdSetBuilder intersectRange(Index index, Object[] startEntry,
+                                        boolean startInclusive,
+                                        Object[] endEntry,
+                                        boolean endInclusive)
+    throws IOException
+  {
+    return intersect(findRange(index, startEntry, startInclusive,
+                               endEntry, endInclusive));
+  }
+
+  /**
+   * Unions the current rows with the rows in the given index range.
+   *
+   * @param index index which defines the range of rows
+   * @param startEntry the leading values of the first entry in the range, or
+   *                   {@code null} for the first entry
+   * @param startInclusive whether or not startEntry is inclusive or exclusive
+   * @param endEntry the leading values of the last entry in the range, or
+   *                 {@code null} for the last entry
+   * @param endInclusive whether or not endEntry is inclusive or exclusive
+   */
+  public RowIdSetBuilder unionRange(Index index, Object[] startEntry,
+                                    boolean startInclusive,
+                                    Object[] endEntry,
+                                    boolean endInclusive)
+    throws IOException
+  {
+    return union(findRange(index, startEntry, startInclusive,
+                           endEntry, endInclusive));
+  }
+
+  /**
+   * Intersects the current rows with the rows matching the given row
+   * pattern, using an index lookup for each pattern column which is the
+   * leading column of a usable index.  Pattern columns which cannot be
+   * looked up in an index are ignored, so the result may include rows which
+   * do not match the pattern (which should be filtered from the resulting
+   * cursor, e.g. using {@link IterableBuilder#setMatchPattern(Map)}).
+   *
+   * @param rowPattern Map from column names to the values to be matched
+   */
+  public RowIdSetBuilder intersectPattern(Map<String,?> rowPattern)
+    throws IOException
+  {
+    for(Map.Entry<String,?> e : rowPattern.entrySet()) {
+      IndexImpl index = _table.findIndexForColumns(
+          Collections.singleton(e.getKey()), TableImpl.IndexFeature.ANY_MATCH);
+      if((index == null) || !RowIdCursor.isUsableIndex(index) ||
+         ((e.getValue() == null) && index.shouldIgnoreNulls())) {
+        // can't use an index to find these rows
+        continue;
+      }
+      intersect(findEntry(index, e.getValue()));
+    }
+    return this;
+  }
+
+  /**
+   * Intersects the current rows with the given rows.
+   */
+  public RowIdSetBuilder intersect(Collection<? extends RowId> rowIds) {
+    RowIdSet other = RowIdSet.of(rowIds);
+    _rowIds = ((_rowIds != null) ? _rowIds.intersect(other) : other);
+    return this;
+  }
+
+  /**
+   * Unions the current rows with the given rows.
+   */
+  public RowIdSetBuilder union(Collection<? extends RowId> rowIds) {
+    RowIdSet other = RowIdSet.of(rowIds);
+    _rowIds = ((_rowIds != null) ? _rowIds.union(other) : other);
+    return this;
+  }
+
+  /**
+   * Returns the current rows in physical (RowId) order.  If no lookups have
+   * been added to this builder, returns all the rows in the table.
+   */
+  public Set<RowId> toRowIds() throws IOException {
+    if(_rowIds != null) {
+      return _rowIds;
+    }
+
+    RowIdSet.Builder builder = new RowIdSet.Builder();
+    for(Row row : CursorImpl.createCursor(_table).newIterable()
+          .setColumnNames(Collections.<String>emptySet())) {
+      builder.add((RowIdImpl)row.getId());
+    }
+    return builder.toRowIdSet();
+  }
+
+  /**
+   * Returns a new cursor which traverses the current rows in physical (RowId)
+   * order.  If no lookups have been added to this builder, returns a simple
+   * table scan cursor.
+   */
+  public Cursor toCursor() {
+    if(_rowIds == null) {
+      return CursorImpl.createCursor(_table);
+    }
+    return RowIdCursor.createCursor(_table, _rowIds);
+  }
+
+  private RowIdSet findEntry(Index index, Object... entryValues)
+    throws IOException
+  {
+    IndexImpl indexImpl = (IndexImpl)index;
+    return RowIdCursor.findRowIds(
+        _table, indexImpl,
+        indexImpl.constructPartialIndexRowFromEntry(
+            IndexData.MIN_VALUE, entryValues), true,
+        indexImpl.constructPartialIndexRowFromEntry(
+            IndexData.MAX_VALUE, entryValues), true);
+  }
+
+  private RowIdSet findRange(Index index, Object[] startEntry,
+                             boolean startInclusive, Object[] endEntry,
+                             boolean endInclusive)
+    throws IOException
+  {
+    IndexImpl indexImpl = (IndexImpl)index;
+    // fill in any missing trailing columns so that an exclusive bound
+    // excludes all entries with the given leading values
+    Object[] startRow = ((startEntry != null) ?
+                         indexImpl.constructPartialIndexRowFromEntry(
+                             (startInclusive ? IndexData.MIN_VALUE :
+                              IndexData.MAX_VALUE), startEntry) : null);
+    Object[] endRow = ((endEntry != null) ?
+                       indexImpl.constructPartialIndexRowFromEntry(
+                           (endInclusive ? IndexData.MAX_VALUE :
+                            IndexData.MIN_VALUE), endEntry) : null);
+    return RowIdCursor.findRowIds(_table, indexImpl, startRow, startInclusive,
+                                  endRow, endInclusive);
+  }
+}
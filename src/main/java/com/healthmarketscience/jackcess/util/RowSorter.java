@@ -0,0 +1,746 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.healthmarketscience.jackcess.Column;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RuntimeIOException;
+import com.healthmarketscience.jackcess.complex.ComplexValueForeignKey;
+import com.healthmarketscience.jackcess.impl.ByteUtil;
+import com.healthmarketscience.jackcess.impl.ColumnImpl;
+import com.healthmarketscience.jackcess.impl.IndexData;
+import com.healthmarketscience.jackcess.impl.RowIdImpl;
+import com.healthmarketscience.jackcess.impl.RowImpl;
+import com.healthmarketscience.jackcess.impl.complex.ComplexValueForeignKeyImpl;
+
+/**
+ * Builder style class which sorts the rows of an Iterable (e.g. a {@link
+ * com.healthmarketscience.jackcess.Cursor}) by one or more columns, e.g.:
+ * <pre>
+ *   for(Row row : new RowSorter(table).addSortColumn("LastName")
+ *         .addSortColumn("Total", false)) {
+ *     ...
+ *   }
+ * </pre>
+ * At most {@link #getMaxRowsInMemory} rows are held in memory.  Larger
+ * inputs are sorted in runs which are written to temporary files and then
+ * merged as the sorted rows are iterated.  If a {@link #setLimit limit} is
+ * given, only the top rows are kept (without writing any temporary files
+ * if the limit fits in memory).
+ * <p>
+ * Values are compared using their natural ordering (text values are
+ * compared case-insensitively), and {@code null} values sort before all
+ * other values.  The sort is stable.  Rows read back from temporary files
+ * contain values of the same types as the original rows.  Complex values
+ * (e.g. attachments) are copied (their contents are re-loaded on demand),
+ * and values of any types which cannot be written to a file are kept in
+ * memory.
+ * <p>
+ * If the iterator over the sorted rows is abandoned before it is exhausted,
+ * it should be {@link SortedIterator#close closed} in order to delete any
+ * temporary files.
+ *
+ * @author agent
+ * @usage _general_class_
+ */
+public class RowSorter implements Iterable<Row>
+{
+  /** default max number of rows held in memory */
+  public static final int DEFAULT_MAX_ROWS_IN_MEMORY = 10000;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // tags for the values written to the temporary files
+  private static final byte NULL_VALUE = 0;
+  private static final byte BOOLEAN_VALUE = 1;
+  private static final byte BYTE_VALUE = 2;
+  private static final byte SHORT_VALUE = 3;
+  private static final byte INT_VALUE = 4;
+  private static final byte LONG_VALUE = 5;
+  private static final byte FLOAT_VALUE = 6;
+  private static final byte DOUBLE_VALUE = 7;
+  private static final byte DECIMAL_VALUE = 8;
+  private static final byte DATE_VALUE = 9;
+  private static final byte STRING_VALUE = 10;
+  private static final byte BINARY_VALUE = 11;
+  private static final byte DATE_EXT_VALUE = 12;
+  private static final byte COMPLEX_VALUE = 13;
+  private static final byte MEMORY_VALUE = 14;
+
+  private final Iterable<? extends Row> _rows;
+  private final List<String> _sortColumns = new ArrayList<String>();
+  private final List<Boolean> _sortAscending = new ArrayList<Boolean>();
+  private int _maxRowsInMemory = DEFAULT_MAX_ROWS_IN_MEMORY;
+  private int _limit = -1;
+  private File _tempDir;
+
+  public RowSorter(Iterable<? extends Row> rows) {
+    _rows = rows;
+  }
+
+  public int getMaxRowsInMemory() {
+    return _maxRowsInMemory;
+  }
+
+  public int getLimit() {
+    return _limit;
+  }
+
+  public File getTempDirectory() {
+    return _tempDir;
+  }
+
+  /**
+   * Adds a column to sort by (ascending).
+   */
+  public RowSorter addSortColumn(String columnName) {
+    return addSortColumn(columnName, true);
+  }
+
+  /**
+   * Adds a column to sort by, with the given ordering.
+   */
+  public RowSorter addSortColumn(String columnName, boolean ascending) {
+    _sortColumns.add(columnName);
+    _sortAscending.add(ascending);
+    return this;
+  }
+
+  /**
+   * Sets the max number of rows which are held in memory (and therefore the
+   * number of rows in each run written to a temporary file).
+   */
+  public RowSorter setMaxRowsInMemory(int maxRowsInMemory) {
+    if(maxRowsInMemory < 1) {
+      throw new IllegalArgumentException(
+          "Invalid max rows in memory " + maxRowsInMemory);
+    }
+    _maxRowsInMemory = maxRowsInMemory;
+    return this;
+  }
+
+  /**
+   * Sets the max number of rows returned (only the first rows in the sort
+   * order), negative for no limit.
+   */
+  public RowSorter setLimit(int limit) {
+    _limit = limit;
+    return this;
+  }
+
+  /**
+   * Sets the directory for the temporary files, {@code null} for the
+   * default temporary directory.
+   */
+  public RowSorter setTempDirectory(File tempDir) {
+    _tempDir = tempDir;
+    return this;
+  }
+
+  /**
+   * Sorts the rows and returns an iterator over the sorted rows.  Any
+   * temporary files are deleted once the iterator has been exhausted or
+   * closed.
+   */
+  public SortedIterator iterator() {
+    try {
+      return sort();
+    } catch(IOException e) {
+      throw new RuntimeIOException(e);
+    }
+  }
+
+  private SortedIterator sort() throws IOException
+  {
+    final RowComparator comparator = new RowComparator(
+        _sortColumns, _sortAscending);
+
+    if(_limit == 0) {
+      return new MemoryIterator(Collections.<Row>emptyList().iterator());
+    }
+    if((_limit > 0) && (_limit <= _maxRowsInMemory)) {
+      return sortTopRows(comparator);
+    }
+
+    List<Row> buffer = new ArrayList<Row>();
+    List<File> runFiles = new ArrayList<File>();
+    RunValues runValues = new RunValues();
+    boolean success = false;
+    try {
+      for(Row row : _rows) {
+        if(buffer.size() == _maxRowsInMemory) {
+          Collections.sort(buffer, comparator);
+          runFiles.add(writeRun(buffer, runValues));
+          buffer.clear();
+        }
+        buffer.add(row);
+      }
+      Collections.sort(buffer, comparator);
+      success = true;
+    } finally {
+      if(!success) {
+        deleteFiles(runFiles);
+      }
+    }
+
+    if(runFiles.isEmpty()) {
+      // everything fit in memory
+      return limitRows(new MemoryIterator(buffer.iterator()));
+    }
+    return limitRows(new MergeIterator(comparator, runFiles, runValues,
+                                       buffer));
+  }
+
+  /**
+   * Returns the top rows (where the limit fits in memory) using a heap.
+   */
+  private SortedIterator sortTopRows(final RowComparator comparator)
+  {
+    // max heap of the top rows (ties are resolved by input order)
+    PriorityQueue<SeqRow> topRows = new PriorityQueue<SeqRow>(
+        _limit + 1, new Comparator<SeqRow>() {
+          public int compare(SeqRow r1, SeqRow r2) {
+            return -r1.compareTo(r2, comparator);
+          }
+        });
+    long seq = 0L;
+    for(Row row : _rows) {
+      SeqRow seqRow = new SeqRow(row, seq++);
+      if(topRows.size() < _limit) {
+        topRows.add(seqRow);
+      } else if(seqRow.compareTo(topRows.peek(), comparator) < 0) {
+        topRows.poll();
+        topRows.add(seqRow);
+      }
+    }
+
+    List<SeqRow> seqRows = new ArrayList<SeqRow>(topRows);
+    Collections.sort(seqRows, new Comparator<SeqRow>() {
+      public int compare(SeqRow r1, SeqRow r2) {
+        return r1.compareTo(r2, comparator);
+      }
+    });
+    List<Row> rows = new ArrayList<Row>(seqRows.size());
+    for(SeqRow seqRow : seqRows) {
+      rows.add(seqRow._row);
+    }
+    return new MemoryIterator(rows.iterator());
+  }
+
+  private SortedIterator limitRows(final SortedIterator iter) {
+    if(_limit < 0) {
+      return iter;
+    }
+    return new SortedIterator() {
+      private int _count;
+      public boolean hasNext() {
+        if(_count < _limit) {
+          return iter.hasNext();
+        }
+        iter.close();
+        return false;
+      }
+      public Row next() {
+        if(!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        ++_count;
+        return iter.next();
+      }
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+      public void close() {
+        iter.close();
+      }
+    };
+  }
+
+  /**
+   * Writes the given sorted rows to a new temporary file.
+   */
+  private File writeRun(List<Row> rows, RunValues runValues)
+    throws IOException
+  {
+    File file = File.createTempFile("jackcess_sort", ".run", _tempDir);
+    file.deleteOnExit();
+    DataOutputStream out = null;
+    boolean success = false;
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(
+                                     new FileOutputStream(file)));
+      List<String> prevNames = null;
+      for(Row row : rows) {
+        RowIdImpl rowId = (RowIdImpl)row.getId();
+        out.writeBoolean(true);
+        out.writeInt((rowId != null) ? rowId.getPageNumber() : -1);
+        out.writeInt((rowId != null) ? rowId.getRowNumber() : -1);
+
+        // the column names are only written if they differ from the previous
+        // row (usually they are the same for all rows)
+        List<String> names = new ArrayList<String>(row.keySet());
+        boolean writeNames = !names.equals(prevNames);
+        out.writeBoolean(writeNames);
+        if(writeNames) {
+          out.writeInt(names.size());
+          for(String name : names) {
+            out.writeUTF(name);
+          }
+          prevNames = names;
+        }
+        for(Object value : row.values()) {
+          runValues.writeValue(out, value);
+        }
+      }
+      out.writeBoolean(false);
+      success = true;
+    } finally {
+      ByteUtil.closeQuietly(out);
+      if(!success) {
+        file.delete();
+      }
+    }
+    return file;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes)
+    throws IOException
+  {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException
+  {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void deleteFiles(List<File> files) {
+    for(File file : files) {
+      file.delete();
+    }
+  }
+
+  /**
+   * Iterator over the sorted rows.  Should be closed if it is abandoned
+   * before it is exhausted, in order to delete any temporary files.
+   */
+  public interface SortedIterator extends Iterator<Row>, Closeable
+  {
+    public void close();
+  }
+
+  /**
+   * Writes/reads the values of the rows in the temporary files.  Each value
+   * is written along with its type, so the values read back have the same
+   * types as the original values.  Values which cannot be written are kept
+   * in memory (only their index is written).
+   */
+  private static final class RunValues
+  {
+    /** the columns of the complex values written */
+    private final List<Column> _complexColumns = new ArrayList<Column>();
+    /** the values which are kept in memory */
+    private final List<Object> _memValues = new ArrayList<Object>();
+
+    private void writeValue(DataOutputStream out, Object value)
+      throws IOException
+    {
+      Long dateBits = null;
+      if(value == null) {
+        out.writeByte(NULL_VALUE);
+      } else if(value instanceof Boolean) {
+        out.writeByte(BOOLEAN_VALUE);
+        out.writeBoolean((Boolean)value);
+      } else if(value instanceof Byte) {
+        out.writeByte(BYTE_VALUE);
+        out.writeByte((Byte)value);
+      } else if(value instanceof Short) {
+        out.writeByte(SHORT_VALUE);
+        out.writeShort((Short)value);
+      } else if(value instanceof Integer) {
+        out.writeByte(INT_VALUE);
+        out.writeInt((Integer)value);
+      } else if(value instanceof Long) {
+        out.writeByte(LONG_VALUE);
+        out.writeLong((Long)value);
+      } else if(value instanceof Float) {
+        out.writeByte(FLOAT_VALUE);
+        out.writeFloat((Float)value);
+      } else if(value instanceof Double) {
+        out.writeByte(DOUBLE_VALUE);
+        out.writeDouble((Double)value);
+      } else if(value.getClass() == BigDecimal.class) {
+        BigDecimal dec = (BigDecimal)value;
+        out.writeByte(DECIMAL_VALUE);
+        out.writeInt(dec.scale());
+        writeBytes(out, dec.unscaledValue().toByteArray());
+      } else if(value.getClass() == Date.class) {
+        out.writeByte(DATE_VALUE);
+        out.writeLong(((Date)value).getTime());
+      } else if((dateBits = ColumnImpl.getOriginalDateBits(value)) != null) {
+        // date read from a table, keep the original bits
+        out.writeByte(DATE_EXT_VALUE);
+        out.writeLong(((Date)value).getTime());
+        out.writeLong(dateBits);
+      } else if(value instanceof String) {
+        out.writeByte(STRING_VALUE);
+        writeBytes(out, ((String)value).getBytes(UTF_8));
+      } else if(value instanceof byte[]) {
+        out.writeByte(BINARY_VALUE);
+        writeBytes(out, (byte[])value);
+      } else if((value instanceof ComplexValueForeignKey) &&
+                (((ComplexValueForeignKey)value).getColumn() != null)) {
+        // the complex values are re-loaded from the column when needed
+        ComplexValueForeignKey fk = (ComplexValueForeignKey)value;
+        int colIdx = _complexColumns.indexOf(fk.getColumn());
+        if(colIdx < 0) {
+          colIdx = _complexColumns.size();
+          _complexColumns.add(fk.getColumn());
+        }
+        out.writeByte(COMPLEX_VALUE);
+        out.writeInt(colIdx);
+        out.writeInt(fk.get());
+      } else {
+        out.writeByte(MEMORY_VALUE);
+        out.writeInt(_memValues.size());
+        _memValues.add(value);
+      }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException
+    {
+      byte type = in.readByte();
+      switch(type) {
+      case NULL_VALUE:
+        return null;
+      case BOOLEAN_VALUE:
+        return in.readBoolean();
+      case BYTE_VALUE:
+        return in.readByte();
+      case SHORT_VALUE:
+        return in.readShort();
+      case INT_VALUE:
+        return in.readInt();
+      case LONG_VALUE:
+        return in.readLong();
+      case FLOAT_VALUE:
+        return in.readFloat();
+      case DOUBLE_VALUE:
+        return in.readDouble();
+      case DECIMAL_VALUE:
+        int scale = in.readInt();
+        return new BigDecimal(new BigInteger(readBytes(in)), scale);
+      case DATE_VALUE:
+        return new Date(in.readLong());
+      case DATE_EXT_VALUE:
+        long time = in.readLong();
+        return ColumnImpl.newDateValue(time, in.readLong());
+      case STRING_VALUE:
+        return new String(readBytes(in), UTF_8);
+      case BINARY_VALUE:
+        return readBytes(in);
+      case COMPLEX_VALUE:
+        Column col = _complexColumns.get(in.readInt());
+        return new ComplexValueForeignKeyImpl(col, in.readInt());
+      case MEMORY_VALUE:
+        return _memValues.get(in.readInt());
+      default:
+        throw new IOException("Unexpected value type " + type);
+      }
+    }
+  }
+
+  /**
+   * Compares rows by the sort columns.
+   */
+  private static final class RowComparator implements Comparator<Row>
+  {
+    private final String[] _columns;
+    private final boolean[] _ascending;
+
+    private RowComparator(List<String> columns, List<Boolean> ascending) {
+      _columns = columns.toArray(new String[columns.size()]);
+      _ascending = new boolean[_columns.length];
+      for(int i = 0; i < _ascending.length; ++i) {
+        _ascending[i] = ascending.get(i);
+      }
+    }
+
+    public int compare(Row r1, Row r2) {
+      for(int i = 0; i < _columns.length; ++i) {
+        int cmp = compareValues(r1.get(_columns[i]), r2.get(_columns[i]));
+        if(cmp != 0) {
+          return (_ascending[i] ? cmp : -cmp);
+        }
+      }
+      return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object v1, Object v2) {
+      if(v1 == v2) {
+        return 0;
+      }
+      if(v1 == null) {
+        return -1;
+      }
+      if(v2 == null) {
+        return 1;
+      }
+      if((v1 instanceof String) && (v2 instanceof String)) {
+        int cmp = String.CASE_INSENSITIVE_ORDER.compare(
+            (String)v1, (String)v2);
+        return ((cmp != 0) ? cmp : ((String)v1).compareTo((String)v2));
+      }
+      if((v1 instanceof byte[]) && (v2 instanceof byte[])) {
+        return IndexData.BYTE_CODE_COMPARATOR.compare(
+            (byte[])v1, (byte[])v2);
+      }
+      return ((Comparable<Object>)v1).compareTo(v2);
+    }
+  }
+
+  /**
+   * Row with an input sequence number (used to keep the sort stable).
+   */
+  private static final class SeqRow
+  {
+    private final Row _row;
+    private final long _seq;
+
+    private SeqRow(Row row, long seq) {
+      _row = row;
+      _seq = seq;
+    }
+
+    private int compareTo(SeqRow other, RowComparator comparator) {
+      int cmp = comparator.compare(_row, other._row);
+      return ((cmp != 0) ? cmp : ((_seq < other._seq) ? -1 :
+                                  ((_seq > other._seq) ? 1 : 0)));
+    }
+  }
+
+  /**
+   * Reads the rows of a sorted run from a temporary file.
+   */
+  private static final class RunReader
+  {
+    private final File _file;
+    private final int _runIdx;
+    private final RunValues _runValues;
+    private DataInputStream _in;
+    private List<String> _names;
+    private Row _row;
+
+    private RunReader(File file, int runIdx, RunValues runValues)
+      throws IOException
+    {
+      _file = file;
+      _runIdx = runIdx;
+      _runValues = runValues;
+      _in = new DataInputStream(new BufferedInputStream(
+                                    new FileInputStream(file)));
+    }
+
+    /**
+     * Reads the next row of this run, returning {@code false} (and closing
+     * the run) if there are no more rows.
+     */
+    private boolean readRow() throws IOException {
+      if(!_in.readBoolean()) {
+        close();
+        return false;
+      }
+      int pageNumber = _in.readInt();
+      int rowNumber = _in.readInt();
+      if(_in.readBoolean()) {
+        int numNames = _in.readInt();
+        _names = new ArrayList<String>(numNames);
+        for(int i = 0; i < numNames; ++i) {
+          _names.add(_in.readUTF());
+        }
+      }
+      if(_names == null) {
+        throw new EOFException("Missing column names");
+      }
+      RowImpl row = new RowImpl(
+          ((pageNumber >= 0) ? new RowIdImpl(pageNumber, rowNumber) : null),
+          _names.size());
+      for(String name : _names) {
+        row.put(name, _runValues.readValue(_in));
+      }
+      _row = row;
+      return true;
+    }
+
+    private void close() {
+      _row = null;
+      if(_in != null) {
+        ByteUtil.closeQuietly(_in);
+        _in = null;
+        _file.delete();
+      }
+    }
+  }
+
+  /**
+   * Lazily merges the rows of the sorted runs (the last run is held in
+   * memory).
+   */
+  private final class MergeIterator implements SortedIterator
+  {
+    private final RowComparator _comparator;
+    private final List<RunReader> _runs = new ArrayList<RunReader>();
+    private final PriorityQueue<RunReader> _queue;
+    private final Iterator<Row> _memRows;
+    private Row _memRow;
+
+    private MergeIterator(final RowComparator comparator, List<File> runFiles,
+                          RunValues runValues, List<Row> memRows)
+      throws IOException
+    {
+      _queue = new PriorityQueue<RunReader>(
+          runFiles.size(), new Comparator<RunReader>() {
+            public int compare(RunReader r1, RunReader r2) {
+              int cmp = comparator.compare(r1._row, r2._row);
+              // earlier runs contain earlier rows
+              return ((cmp != 0) ? cmp : (r1._runIdx - r2._runIdx));
+            }
+          });
+      boolean success = false;
+      try {
+        for(File file : runFiles) {
+          RunReader run = new RunReader(file, _runs.size(), runValues);
+          _runs.add(run);
+          if(run.readRow()) {
+            _queue.add(run);
+          }
+        }
+        success = true;
+      } finally {
+        if(!success) {
+          close();
+          deleteFiles(runFiles);
+        }
+      }
+      _memRows = memRows.iterator();
+      _memRow = (_memRows.hasNext() ? _memRows.next() : null);
+      _comparator = comparator;
+    }
+
+    public boolean hasNext() {
+      return ((_memRow != null) || !_queue.isEmpty());
+    }
+
+    public Row next() {
+      if(!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      RunReader run = _queue.peek();
+      if((run == null) ||
+         ((_memRow != null) &&
+          (_comparator.compare(_memRow, run._row) < 0))) {
+        // the in memory run is the last run, so it only wins if it is
+        // strictly less
+        Row row = _memRow;
+        _memRow = (_memRows.hasNext() ? _memRows.next() : null);
+        return row;
+      }
+
+      _queue.poll();
+      Row row = run._row;
+      try {
+        if(run.readRow()) {
+          _queue.add(run);
+        }
+      } catch(IOException e) {
+        close();
+        throw new RuntimeIOException(e);
+      }
+      return row;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Closes and deletes all the temporary files.
+     */
+    public void close() {
+      for(RunReader run : _runs) {
+        run.close();
+      }
+      _queue.clear();
+      _memRow = null;
+    }
+  }
+
+  /**
+   * Iterator over rows which are all in memory.
+   */
+  private static final class MemoryIterator implements SortedIterator
+  {
+    private final Iterator<Row> _iter;
+
+    private MemoryIterator(Iterator<Row> iter) {
+      _iter = iter;
+    }
+
+    public boolean hasNext() {
+      return _iter.hasNext();
+    }
+
+    public Row next() {
+      return _iter.next();
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+      // nothing to do
+    }
+  }
+}
@@ -16,21 +16,30 @@ limitations under the License.
 
 package com.healthmarketscience.jackcess;
 
+import java.io.File;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.TimeZone;
 import java.util.TreeSet;
 
 import static com.healthmarketscience.jackcess.Database.*;
 import com.healthmarketscience.jackcess.impl.ColumnImpl;
+import com.healthmarketscience.jackcess.impl.ColumnPredicate;
+import com.healthmarketscience.jackcess.impl.CursorImpl;
+import com.healthmarketscience.jackcess.impl.DatabaseImpl;
 import com.healthmarketscience.jackcess.impl.JetFormatTest;
 import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
 import com.healthmarketscience.jackcess.impl.RowIdImpl;
 import com.healthmarketscience.jackcess.impl.TableImpl;
+import com.healthmarketscience.jackcess.impl.UnscaledDecimal;
 import com.healthmarketscience.jackcess.util.CaseInsensitiveColumnMatcher;
 import com.healthmarketscience.jackcess.util.ColumnMatcher;
 import com.healthmarketscience.jackcess.util.RowFilterTest;
@@ -780,6 +789,746 @@ public class CursorTest extends TestCase {
     }
   }
 
+  public void testRowIdOrderIndexSubRange() throws Exception {
+    for (final TestDB indexCursorDB : INDEX_CURSOR_DBS) {
+      for(int i = 0; i < 2; ++i) {
+        Database db = createTestIndexTable(indexCursorDB);
+
+        Table table = db.getTable("test");
+        Index idx = table.getIndexes().get(0);
+
+        Cursor cursor = table.newCursor()
+          .setIndex(idx)
+          .setStartEntry(3 - i)
+          .setStartRowInclusive(i == 0)
+          .setEndEntry(8 + i)
+          .setEndRowInclusive(i == 0)
+          .setRowIdOrder(true)
+          .toCursor();
+
+        // rows should come back in table (physical) order, not index order
+        List<Map<String,Object>> expectedRows =
+          new ArrayList<Map<String,Object>>();
+        for(Map<String,Object> row : createUnorderedTestTableData()) {
+          int id = (Integer)row.get("id");
+          if((id >= 3) && (id <= 8)) {
+            expectedRows.add(row);
+          }
+        }
+
+        doTestSimple(cursor, new ArrayList<Map<String,Object>>(expectedRows));
+        doTestReverse(cursor, new ArrayList<Map<String,Object>>(expectedRows));
+
+        Cursor fullCursor = CursorBuilder.createCursor(table);
+        assertTrue(fullCursor.findFirstRow(createExpectedRow("id", 6)));
+        Row row6 = fullCursor.getCurrentRow();
+        assertTrue(cursor.findRow(row6.getId()));
+        assertEquals(row6, cursor.getCurrentRow());
+        assertTrue(fullCursor.findFirstRow(createExpectedRow("id", 1)));
+        assertFalse(cursor.findRow(fullCursor.getCurrentRow().getId()));
+        assertEquals(row6, cursor.getCurrentRow());
+
+        table.deleteRow(row6);
+        expectedRows.remove(createExpectedRow("id", 6, "value", "data6"));
+        doTestSimple(cursor, expectedRows);
+
+        try {
+          table.newCursor().setIndex(idx).setRowIdOrder(true).toIndexCursor();
+          fail("IllegalStateException should have been thrown");
+        } catch(IllegalStateException expected) {
+          // success
+        }
+
+        db.close();
+      }
+    }
+  }
+
+  public void testTableScanIndexedSearch() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("data", DataType.TEXT))
+        .addColumn(new ColumnBuilder("num", DataType.LONG))
+        .addIndex(new IndexBuilder("data_idx").addColumns("data", "num"))
+        .toTable(db);
+
+      String[] data = {"foo", "bar", "Foo", "baz", "foo"};
+      for(int i = 0; i < 20; ++i) {
+        t.addRow(i, data[i % data.length], i % 3);
+      }
+
+      // the index is used to find the candidate rows, but the results should
+      // be in table scan order
+      List<Integer> expectedIds = Arrays.asList(0, 4, 5, 9, 10, 14, 15, 19);
+      Cursor cursor = CursorBuilder.createCursor(t);
+      List<Integer> foundIds = new ArrayList<Integer>();
+      for(Row row : cursor.newIterable().setMatchPattern("data", "foo")) {
+        foundIds.add((Integer)row.get("id"));
+      }
+      assertEquals(expectedIds, foundIds);
+
+      foundIds.clear();
+      for(Row row : cursor.newIterable().reverse()
+            .setMatchPattern(createExpectedRow("data", "foo"))) {
+        foundIds.add((Integer)row.get("id"));
+      }
+      List<Integer> reverseIds = new ArrayList<Integer>(expectedIds);
+      Collections.reverse(reverseIds);
+      assertEquals(reverseIds, foundIds);
+
+      assertTrue(cursor.findFirstRow(createExpectedRow("data", "foo",
+                                                       "num", 1)));
+      assertEquals(4, cursor.getCurrentRowValue(t.getColumn("id")));
+      assertTrue(cursor.findNextRow(createExpectedRow("data", "foo",
+                                                      "num", 1)));
+      assertEquals(10, cursor.getCurrentRowValue(t.getColumn("id")));
+
+      // text index entries are case-insensitive, but the search should not
+      // be
+      assertTrue(cursor.findFirstRow(t.getColumn("data"), "Foo"));
+      assertEquals(2, cursor.getCurrentRowValue(t.getColumn("id")));
+      cursor.setColumnMatcher(CaseInsensitiveColumnMatcher.INSTANCE);
+      assertTrue(cursor.findFirstRow(t.getColumn("data"), "FOO"));
+      assertEquals(0, cursor.getCurrentRowValue(t.getColumn("id")));
+      cursor.setColumnMatcher(null);
+
+      // modifications are seen by subsequent searches
+      Row row = CursorBuilder.findRow(t, createExpectedRow("data", "foo"));
+      assertEquals(0, row.get("id"));
+      t.deleteRow(row);
+      row = CursorBuilder.findRow(t, createExpectedRow("data", "foo"));
+      assertEquals(4, row.get("id"));
+      t.addRow(20, "bar", 7);
+      row = CursorBuilder.findRow(t, createExpectedRow("data", "bar",
+                                                       "num", 7));
+      assertEquals(20, row.get("id"));
+
+      assertNull(CursorBuilder.findRow(t, createExpectedRow("data", "blah")));
+
+      db.close();
+    }
+  }
+
+  public void testWherePredicates() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("name", DataType.TEXT))
+        .addColumn(new ColumnBuilder("num", DataType.LONG))
+        .addColumn(new ColumnBuilder("val", DataType.LONG))
+        .addIndex(new IndexBuilder("id_idx").addColumns("id"))
+        .addIndex(new IndexBuilder("name_idx").addColumns("name", "id"))
+        .addIndex(new IndexBuilder("num_idx").addColumns(false, "num"))
+        .toTable(db);
+
+      String[] names = {"apple", "Apricot", "banana", "avocado", "cherry"};
+      for(int i = 0; i < 30; ++i) {
+        t.addRow(i, names[i % names.length], ((i % 7 == 3) ? null : i % 7),
+                 i * 2);
+      }
+
+      // single index range, traversed in index order
+      assertEquals(Arrays.asList(26, 27, 28, 29),
+                   getIds(t.newCursor().where("id", CursorBuilder.Op.GT, 25)
+                          .toCursor(), false));
+      assertEquals(Arrays.asList(10, 9, 8, 7),
+                   getIds(t.newCursor().where("id", CursorBuilder.Op.BETWEEN,
+                                              10, 7)
+                          .afterLast().toCursor(), true));
+
+      // text prefix (case-insensitive)
+      assertEquals(Arrays.asList(0, 1, 5, 6, 10, 11, 15, 16, 20, 21, 25, 26),
+                   getSortedIds(t.newCursor()
+                                .where("name", CursorBuilder.Op.LIKE, "ap*")
+                                .toCursor()));
+      assertEquals(Arrays.asList(1, 6, 11, 16, 21, 26),
+                   getSortedIds(t.newCursor()
+                                .where("name", CursorBuilder.Op.LIKE, "ap?i*")
+                                .toCursor()));
+
+      // multiple index ranges
+      assertEquals(Arrays.asList(2, 4, 7, 9, 12, 14, 17, 19, 22, 24, 27, 29),
+                   getSortedIds(t.newCursor()
+                                .where("name", CursorBuilder.Op.IN,
+                                       "banana", "CHERRY", null)
+                                .toCursor()));
+
+      // descending index (nulls are never matched)
+      assertEquals(Arrays.asList(0, 1, 7, 8, 14, 15, 21, 22, 28, 29),
+                   getSortedIds(t.newCursor()
+                                .where("num", CursorBuilder.Op.LT, 2)
+                                .toCursor()));
+      assertEquals(Arrays.asList(2, 9, 16, 23),
+                   getSortedIds(t.newCursor()
+                                .where("num", CursorBuilder.Op.GT, 1)
+                                .where("num", CursorBuilder.Op.LE, 3)
+                                .toCursor()));
+
+      // combined indexed and residual predicates
+      assertEquals(Arrays.asList(5, 6, 12),
+                   getSortedIds(t.newCursor()
+                                .where("num", CursorBuilder.Op.GE, 5)
+                                .where("id", CursorBuilder.Op.LE, 12)
+                                .where("val", CursorBuilder.Op.NE, 26)
+                                .toCursor()));
+      assertEquals(Arrays.asList(2, 7, 12, 17, 22, 27),
+                   getSortedIds(t.newCursor()
+                                .where("name", CursorBuilder.Op.LIKE, "*an*")
+                                .toCursor()));
+      assertEquals(Arrays.asList(),
+                   getSortedIds(t.newCursor()
+                                .where("num", CursorBuilder.Op.EQ, (Object)null)
+                                .toCursor()));
+
+      // explicit index
+      assertEquals(Arrays.asList(29, 24),
+                   getIds(t.newCursor().setIndexByName("id_idx")
+                          .where("name", CursorBuilder.Op.EQ, "cherry")
+                          .where("id", CursorBuilder.Op.GE, 20)
+                          .afterLast().toCursor(), true));
+
+      // searches skip filtered rows
+      Cursor cursor = t.newCursor()
+        .where("id", CursorBuilder.Op.GE, 10)
+        .toCursor();
+      assertTrue(cursor.findFirstRow(createExpectedRow("name", "apple")));
+      assertEquals(10, cursor.getCurrentRowValue(t.getColumn("id")));
+      assertFalse(cursor.findFirstRow(createExpectedRow("id", 5)));
+
+      try {
+        t.newCursor().where("id", CursorBuilder.Op.GE, 10).toIndexCursor();
+        fail("IllegalStateException should have been thrown");
+      } catch(IllegalStateException expected) {
+        // success
+      }
+
+      try {
+        t.newCursor().where("id", CursorBuilder.Op.BETWEEN, 10);
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expected) {
+        // success
+      }
+
+      db.close();
+    }
+  }
+
+  public void testWhereLiteralValues() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("id2", DataType.LONG))
+        .addColumn(new ColumnBuilder("s", DataType.INT))
+        .addColumn(new ColumnBuilder("m", DataType.MONEY))
+        .addColumn(new ColumnBuilder("name", DataType.TEXT))
+        .addIndex(new IndexBuilder("id_idx").addColumns("id"))
+        .addIndex(new IndexBuilder("s_idx").addColumns(false, "s"))
+        .addIndex(new IndexBuilder("m_idx").addColumns("m"))
+        .addIndex(new IndexBuilder("name_idx").addColumns("name"))
+        .toTable(db);
+
+      String[] names = {"ab", "a-c", "_x", "0", "abc", "AB", "café",
+                        "cafe", "co-op", "coop"};
+      for(int i = 0; i < names.length; ++i) {
+        t.addRow(i, i, (short)(i * 10), new BigDecimal(i).movePointLeft(1)
+                 .multiply(new BigDecimal(5)), names[i]);
+      }
+
+      // fractional and out of range literals are compared exactly (for both
+      // the indexed and unindexed columns)
+      for(String col : new String[]{"id", "id2"}) {
+        assertEquals(Arrays.asList(0, 1, 2), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.LT, 2.5d)
+                         .toCursor()));
+        assertEquals(Arrays.asList(0, 1, 2), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.LE, "2.5")
+                         .toCursor()));
+        assertEquals(Arrays.asList(), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.EQ, 2.5d)
+                         .toCursor()));
+        assertEquals(Arrays.asList(3, 4, 5, 6, 7, 8, 9), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.GT,
+                                             new BigDecimal("2.5"))
+                         .toCursor()));
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.BETWEEN,
+                                             7.5d, 1.5d)
+                         .toCursor()));
+        assertEquals(Arrays.asList(3), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.IN,
+                                             2.5d, 3)
+                         .toCursor()));
+        assertEquals(Arrays.asList(), getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.GT,
+                                             3000000000L)
+                         .toCursor()));
+        assertEquals(10, getSortedIds(
+                         t.newCursor().where(col, CursorBuilder.Op.GT,
+                                             -3000000000L)
+                         .toCursor()).size());
+      }
+
+      assertEquals(Arrays.asList(), getSortedIds(
+                       t.newCursor().where("s", CursorBuilder.Op.GT, 100000)
+                       .toCursor()));
+      assertEquals(10, getSortedIds(
+                       t.newCursor().where("s", CursorBuilder.Op.LT, 100000)
+                       .toCursor()).size());
+      assertEquals(Arrays.asList(), getSortedIds(
+                       t.newCursor().where("s", CursorBuilder.Op.LE, -40000)
+                       .toCursor()));
+      assertEquals(Arrays.asList(3, 4), getSortedIds(
+                       t.newCursor().where("m", CursorBuilder.Op.BETWEEN,
+                                           1.00005d, 2.00001d)
+                       .toCursor()));
+
+      try {
+        t.newCursor().where("id", CursorBuilder.Op.EQ, "abc");
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expected) {
+        // success
+      }
+
+      // text ranges give the same results as text comparisons (which are not
+      // in index order)
+      Object[][] textPreds = {
+        {CursorBuilder.Op.LT, new Object[]{"ab"}},
+        {CursorBuilder.Op.GT, new Object[]{"0"}},
+        {CursorBuilder.Op.BETWEEN, new Object[]{"cafe", "coop"}},
+        {CursorBuilder.Op.EQ, new Object[]{"ab"}},
+        {CursorBuilder.Op.IN, new Object[]{"coop", "CAFE"}},
+      };
+      ColumnImpl nameCol = (ColumnImpl)t.getColumn("name");
+      for(Object[] predInfo : textPreds) {
+        CursorBuilder.Op op = (CursorBuilder.Op)predInfo[0];
+        Object[] values = (Object[])predInfo[1];
+        ColumnPredicate pred = new ColumnPredicate(nameCol, op, values);
+        List<Integer> expected = new ArrayList<Integer>();
+        for(int i = 0; i < names.length; ++i) {
+          if(pred.matches(names[i])) {
+            expected.add(i);
+          }
+        }
+        assertEquals(pred.toString(), expected, getSortedIds(
+                         t.newCursor().where("name", op, values)
+                         .toCursor()));
+      }
+      assertTrue(new ColumnPredicate(nameCol, CursorBuilder.Op.LT, "ab")
+                 .matches("a-c"));
+      assertTrue(new ColumnPredicate(nameCol, CursorBuilder.Op.GT, "0")
+                 .matches("_x"));
+
+      db.close();
+    }
+  }
+
+  public void testWhereCalcColumns() throws Exception {
+    for(TestDB testDB : TestDB.getSupportedForBasename(Basename.CALC_FIELD)) {
+      Database db = open(testDB);
+      Table t = db.getTable("Table1");
+
+      assertEquals(Arrays.asList(1), getCalcIds(
+                       t.newCursor().where("LastFirstLen",
+                                           CursorBuilder.Op.EQ, 12)));
+      assertEquals(Arrays.asList(3), getCalcIds(
+                       t.newCursor().where("LastFirst",
+                                           CursorBuilder.Op.EQ, "Doe, John")));
+      assertEquals(Arrays.asList(1, 4), getCalcIds(
+                       t.newCursor().where("MonthlySalary",
+                                           CursorBuilder.Op.GT, 1)));
+      assertEquals(Arrays.asList(1), getCalcIds(
+                       t.newCursor().where("FloatTest",
+                                           CursorBuilder.Op.GT, 1)));
+
+      db.close();
+    }
+  }
+
+  private static List<Integer> getCalcIds(CursorBuilder builder)
+    throws Exception
+  {
+    List<Integer> ids = new ArrayList<Integer>();
+    for(Row row : builder.toCursor()) {
+      ids.add(row.getInt("ID"));
+    }
+    Collections.sort(ids);
+    return ids;
+  }
+
+  public void testRawPredicates() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("b", DataType.BYTE))
+        .addColumn(new ColumnBuilder("s", DataType.INT))
+        .addColumn(new ColumnBuilder("d", DataType.DOUBLE))
+        .addColumn(new ColumnBuilder("f", DataType.FLOAT))
+        .addColumn(new ColumnBuilder("m", DataType.MONEY))
+        .addColumn(new ColumnBuilder("dt", DataType.SHORT_DATE_TIME))
+        .addColumn(new ColumnBuilder("t", DataType.TEXT)
+                   .setCompressedUnicode(true))
+        .addColumn(new ColumnBuilder("t2", DataType.TEXT))
+        .toTable(db);
+
+      Calendar cal = Calendar.getInstance();
+      cal.clear();
+      cal.set(1899, 11, 28, 12, 0, 0);
+      long baseTime = cal.getTimeInMillis();
+
+      String[] strs = {"apple", "Apple", "banana", "\u00e9clair",
+                       "\u4e2d\u6587 text", "Zed", "zed"};
+      for(int i = 0; i < 20; ++i) {
+        if((i % 5) == 4) {
+          t.addRow(i, null, null, null, null, null, null, null, null);
+          continue;
+        }
+        t.addRow(i, (byte)(i * 13), (short)((i * 100) - 700), (i * 1.5d) - 7,
+                 (i * 0.25f), new BigDecimal(i * 3).movePointLeft(2),
+                 new Date(baseTime + (i * 7L * 60L * 60L * 1000L)),
+                 strs[i % strs.length], strs[(i + 3) % strs.length]);
+      }
+
+      Object[][] preds = {
+        {"b", CursorBuilder.Op.GT, new Object[]{0}},
+        {"s", CursorBuilder.Op.BETWEEN, new Object[]{500, -200}},
+        {"d", CursorBuilder.Op.LE, new Object[]{2.5d}},
+        {"f", CursorBuilder.Op.IN, new Object[]{0.5d, 1.0d, null, 3.75d}},
+        {"m", CursorBuilder.Op.GE, new Object[]{new BigDecimal("0.27")}},
+        {"dt", CursorBuilder.Op.LT,
+         new Object[]{new Date(baseTime + (30L * 60L * 60L * 1000L))}},
+        {"t", CursorBuilder.Op.EQ, new Object[]{"APPLE"}},
+        {"t", CursorBuilder.Op.GE, new Object[]{"b"}},
+        {"t2", CursorBuilder.Op.NE, new Object[]{"zed"}},
+        {"t2", CursorBuilder.Op.LT, new Object[]{"\u00c9CLAIR"}},
+        {"t", CursorBuilder.Op.IS_NULL, new Object[0]},
+        {"d", CursorBuilder.Op.IS_NOT_NULL, new Object[0]},
+        {"s", CursorBuilder.Op.EQ, new Object[]{null}},
+      };
+
+      for(Object[] predInfo : preds) {
+        ColumnImpl col = (ColumnImpl)t.getColumn((String)predInfo[0]);
+        CursorBuilder.Op op = (CursorBuilder.Op)predInfo[1];
+        Object[] values = (Object[])predInfo[2];
+        ColumnPredicate pred = new ColumnPredicate(col, op, values);
+        assertNotNull(pred.toRawPredicate());
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for(Row row : t) {
+          if(pred.matches(row.get(col.getName()))) {
+            expected.add(row.getInt("id"));
+          }
+        }
+
+        Cursor cursor = new CursorBuilder(t).where(col, op, values)
+          .toCursor();
+        assertNotNull(((CursorImpl)cursor).getRawPredicates());
+        assertNull(((CursorImpl)cursor).getRowFilter());
+        assertEquals(pred.toString(), expected, getIds(cursor, false));
+      }
+
+      // LIKE is checked against the decoded row values
+      Cursor cursor = new CursorBuilder(t)
+        .where("t", CursorBuilder.Op.LIKE, "*e*")
+        .where("b", CursorBuilder.Op.LT, 100)
+        .where("m", CursorBuilder.Op.IS_NOT_NULL)
+        .toCursor();
+      assertEquals(2, ((CursorImpl)cursor).getRawPredicates().size());
+      assertNotNull(((CursorImpl)cursor).getRowFilter());
+      assertEquals(Arrays.asList(0, 1, 5, 6, 7, 11, 12, 13, 15, 18),
+                   getIds(cursor, false));
+
+      db.close();
+    }
+  }
+
+  public void testTextView() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("t", DataType.TEXT)
+                   .setCompressedUnicode(true))
+        .addColumn(new ColumnBuilder("t2", DataType.TEXT))
+        .addColumn(new ColumnBuilder("m", DataType.MEMO)
+                   .setCompressedUnicode(true))
+        .toTable(db);
+
+      String[] strs = {"apple", "", "\u00e9clair", "\u4e2d\u6587 text",
+                       "mixed \u4e2d text \u00e9 and more", null,
+                       "\ud83d\ude00 smile"};
+      for(int i = 0; i < strs.length; ++i) {
+        t.addRow(i, strs[i], strs[(i + 1) % strs.length],
+                 strs[(i + 2) % strs.length]);
+      }
+
+      CursorImpl cursor = (CursorImpl)CursorBuilder.createCursor(t);
+      int i = 0;
+      while(cursor.moveToNextRow()) {
+        assertEquals(strs[i], toString(
+                         cursor.getCurrentRowTextView(t.getColumn("t"))));
+        assertEquals(strs[(i + 1) % strs.length], toString(
+                         cursor.getCurrentRowTextView(t.getColumn("t2"))));
+        assertEquals(strs[(i + 2) % strs.length], toString(
+                         cursor.getCurrentRowTextView(t.getColumn("m"))));
+        // decoded values match the views
+        assertEquals(strs[i], cursor.getCurrentRowValue(t.getColumn("t")));
+        assertEquals(strs[i], toString(
+                         cursor.getCurrentRowTextView(t.getColumn("t"))));
+        ++i;
+      }
+      assertEquals(strs.length, i);
+
+      try {
+        cursor.reset();
+        cursor.moveToNextRow();
+        cursor.getCurrentRowTextView(t.getColumn("id"));
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException ignored) {
+        // success
+      }
+
+      db.close();
+    }
+  }
+
+  public void testDateMillis() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      db.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("dt", DataType.SHORT_DATE_TIME))
+        .toTable(db);
+
+      Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+      cal.clear();
+      cal.set(2018, 2, 11, 6, 59, 0);
+      long dstTime = cal.getTimeInMillis();
+      long[] times = {dstTime, dstTime + (60L * 1000L), 0L, -1L,
+                      dstTime + (180L * 24L * 60L * 60L * 1000L)};
+      for(int i = 0; i < times.length; ++i) {
+        t.addRow(i, ((times[i] != -1L) ? new Date(times[i]) : null));
+      }
+
+      CursorImpl cursor = (CursorImpl)CursorBuilder.createCursor(t);
+      Column col = t.getColumn("dt");
+      int i = 0;
+      while(cursor.moveToNextRow()) {
+        assertEquals(times[i], cursor.getCurrentRowDateMillis(col, -1L));
+        if(times[i] != -1L) {
+          // local time is the time as seen in the database timezone
+          long offset = db.getTimeZone().getOffset(times[i]);
+          assertEquals(times[i] + offset,
+                       cursor.getCurrentRowLocalDateMillis(col, -1L));
+          // same value when read from the cached row value
+          assertEquals(times[i],
+                       ((Date)cursor.getCurrentRowValue(col)).getTime());
+          assertEquals(times[i], cursor.getCurrentRowDateMillis(col, -1L));
+        } else {
+          assertEquals(-2L, cursor.getCurrentRowLocalDateMillis(col, -2L));
+        }
+        ++i;
+      }
+      assertEquals(times.length, i);
+
+      db.close();
+    }
+  }
+
+  public void testDecimalValues() throws Exception {
+    for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("cur", DataType.MONEY))
+        .addColumn(new ColumnBuilder("num", DataType.NUMERIC)
+                   .setPrecision(28).setScale(5))
+        .toTable(db);
+
+      BigDecimal[] curs = {new BigDecimal("1.25"), new BigDecimal("-3.0001"),
+                           BigDecimal.ZERO, null,
+                           new BigDecimal("922337203685477.5807")};
+      BigDecimal[] nums = {new BigDecimal("12345.6789"),
+                           new BigDecimal("-0.00001"), BigDecimal.ZERO, null,
+                           new BigDecimal("-12345678901234567890.12345")};
+      for(int i = 0; i < curs.length; ++i) {
+        t.addRow(i, curs[i], nums[i]);
+      }
+
+      CursorImpl cursor = (CursorImpl)CursorBuilder.createCursor(t);
+      Column curCol = t.getColumn("cur");
+      Column numCol = t.getColumn("num");
+      UnscaledDecimal dec = new UnscaledDecimal();
+      int i = 0;
+      while(cursor.moveToNextRow()) {
+        if(curs[i] != null) {
+          BigDecimal expected = curs[i].setScale(4);
+          assertTrue(cursor.getCurrentRowDecimal(curCol, dec));
+          assertEquals(expected, dec.toBigDecimal());
+          assertEquals(expected.unscaledValue().longValue(),
+                       cursor.getCurrentRowCurrencyUnscaled(curCol, -1L));
+          assertTrue(cursor.getCurrentRowDecimal(numCol, dec));
+          assertEquals(nums[i].setScale(5), dec.toBigDecimal());
+          assertEquals((i < 3), dec.fitsInLong());
+
+          // same value when read from the cached row value
+          assertEquals(expected, cursor.getCurrentRowValue(curCol));
+          assertEquals(nums[i].setScale(5), cursor.getCurrentRowValue(numCol));
+          assertEquals(expected.unscaledValue().longValue(),
+                       cursor.getCurrentRowCurrencyUnscaled(curCol, -1L));
+          assertTrue(cursor.getCurrentRowDecimal(numCol, dec));
+          assertEquals(nums[i].setScale(5), dec.toBigDecimal());
+        } else {
+          assertFalse(cursor.getCurrentRowDecimal(curCol, dec));
+          assertFalse(cursor.getCurrentRowDecimal(numCol, dec));
+          assertEquals(-2L, cursor.getCurrentRowCurrencyUnscaled(curCol, -2L));
+        }
+        ++i;
+      }
+      assertEquals(curs.length, i);
+
+      try {
+        cursor.getCurrentRowDecimal(t.getColumn("id"), dec);
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expected) {
+        // success
+      }
+
+      db.close();
+    }
+  }
+
+  private static String toString(CharSequence cs) {
+    return ((cs != null) ? cs.toString() : null);
+  }
+
+  public void testReadAhead() throws Exception {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("num", DataType.LONG))
+        .addColumn(new ColumnBuilder("data", DataType.TEXT))
+        .addIndex(new IndexBuilder("num_idx").addColumns("num"))
+        .toTable(db);
+
+      // enough rows to span many data and index pages
+      int numRows = 2000;
+      String data = createString(100);
+      List<Integer> expectedIds = new ArrayList<Integer>();
+      for(int i = 0; i < numRows; ++i) {
+        t.addRow(i, (i * 7) % numRows, data);
+        expectedIds.add(i);
+      }
+      List<Integer> expectedReverseIds = new ArrayList<Integer>(expectedIds);
+      Collections.reverse(expectedReverseIds);
+
+      ((DatabaseImpl)db).setReadAheadPages(4);
+      assertEquals(4, ((DatabaseImpl)db).getReadAheadPages());
+
+      Cursor cursor = CursorBuilder.createCursor(t);
+      assertEquals(4, ((CursorImpl)cursor).getReadAheadPages());
+      assertEquals(expectedIds, getIds(cursor, false));
+      assertEquals(expectedReverseIds, getIds(cursor, true));
+
+      cursor = t.newCursor().setReadAheadPages(16).toCursor();
+      assertEquals(16, ((CursorImpl)cursor).getReadAheadPages());
+      assertEquals(expectedIds, getIds(cursor, false));
+
+      IndexCursor idxCursor = CursorBuilder.createCursor(t.getIndex("num_idx"));
+      int expectedNum = 0;
+      for(Row row : idxCursor) {
+        assertEquals(expectedNum++, row.get("num"));
+      }
+      assertEquals(numRows, expectedNum);
+
+      cursor = t.newCursor().setIndexByName("num_idx").setRowIdOrder(true)
+        .toCursor();
+      assertEquals(expectedIds, getIds(cursor, false));
+
+      // writes while scanning discard any pages already read ahead
+      cursor = CursorBuilder.createCursor(t);
+      Cursor updateCursor = CursorBuilder.createCursor(t);
+      List<Integer> ids = new ArrayList<Integer>();
+      for(Row row : cursor) {
+        int id = (Integer)row.get("id");
+        ids.add(id);
+        if(id == 500) {
+          assertTrue(updateCursor.findFirstRow(
+                         Collections.singletonMap("id", (Object)1500)));
+          updateCursor.updateCurrentRow(1500, -1, "updated");
+        } else if(id == 1500) {
+          assertEquals("updated", row.get("data"));
+        }
+      }
+      assertEquals(expectedIds, ids);
+
+      ((DatabaseImpl)db).setReadAheadPages(0);
+      assertEquals(0, ((CursorImpl)CursorBuilder.createCursor(t))
+                   .getReadAheadPages());
+
+      db.close();
+
+      // index traversals of a re-opened database (where the index pages are
+      // not yet loaded)
+      db = create(fileFormat);
+      t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("data", DataType.TEXT))
+        .addIndex(new IndexBuilder("data_idx").addColumns("data"))
+        .toTable(db);
+      for(int i = 0; i < numRows; ++i) {
+        t.addRow(i, String.format("%04d", i) + data);
+      }
+      File dbFile = db.getFile();
+      db.close();
+
+      db = open(fileFormat, dbFile);
+      ((DatabaseImpl)db).setReadAheadPages(8);
+      t = db.getTable("Test");
+      idxCursor = CursorBuilder.createCursor(t.getIndex("data_idx"));
+      assertEquals(expectedIds, getIds(idxCursor, false));
+      assertEquals(expectedReverseIds, getIds(idxCursor, true));
+
+      db.close();
+    }
+  }
+
+  private static List<Integer> getIds(Cursor cursor, boolean reverse)
+    throws Exception
+  {
+    List<Integer> ids = new ArrayList<Integer>();
+    Iterable<Row> rows = (reverse ? cursor.newIterable().reverse() : cursor);
+    for(Row row : rows) {
+      ids.add((Integer)row.get("id"));
+    }
+    return ids;
+  }
+
+  private static List<Integer> getSortedIds(Cursor cursor) throws Exception
+  {
+    List<Integer> ids = getIds(cursor, false);
+    Collections.sort(ids);
+    return ids;
+  }
+
   public void testFindAllIndex() throws Exception {
     for (final FileFormat fileFormat : JetFormatTest.SUPPORTED_FILEFORMATS) {
       Database db = createDupeTestTable(fileFormat);
@@ -19,6 +19,7 @@ package com.healthmarketscience.jackcess;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -787,6 +788,102 @@ public class DatabaseTest extends TestCase
     }
   }
 
+  public void testCatalogLookups() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      new TableBuilder("Table1")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .toTable(db);
+
+      // builds the catalog index
+      assertEquals(new TreeSet<String>(Arrays.asList("Table1")),
+                   db.getTableNames());
+
+      // adding a table must invalidate the catalog index
+      Table t2 = new TableBuilder("Table2")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .toTable(db);
+      assertEquals(new TreeSet<String>(Arrays.asList("Table1", "Table2")),
+                   db.getTableNames());
+
+      assertEquals("Table2", db.getTable("TABLE2").getName());
+      assertEquals("Table1", db.getTableMetaData("table1").getName());
+      assertNull(db.getTable("Table3"));
+      assertNull(db.getTableMetaData("Table3"));
+      assertNull(db.getTable("MSysObjects"));
+      assertTrue(db.getTableMetaData("MSysObjects").isSystem());
+
+      int t2PageNum = ((TableImpl)t2).getTableDefPageNumber();
+      assertSame(t2, ((DatabaseImpl)db).getTable(t2PageNum));
+      assertTrue(db.getQueries().isEmpty());
+
+      // modifying the catalog directly also invalidates the catalog index
+      Table sysCat = db.getSystemTable("MSysObjects");
+      Cursor cursor = CursorBuilder.createCursor(sysCat);
+      assertTrue(cursor.findFirstRow(sysCat.getColumn("Name"), "Table1"));
+      Row row = cursor.getCurrentRow();
+      row.put("Name", "Table1Renamed");
+      cursor.updateCurrentRowFromMap(row);
+      assertEquals(new TreeSet<String>(Arrays.asList("Table1Renamed",
+                                                     "Table2")),
+                   db.getTableNames());
+      assertEquals("Table1Renamed",
+                   db.getTableMetaData("table1renamed").getName());
+      assertNull(db.getTableMetaData("Table1"));
+
+      db.close();
+    }
+  }
+
+  public void testTableCache() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      DatabaseImpl db = (DatabaseImpl)createMem(fileFormat);
+      assertEquals(0, db.getTableCacheSize());
+      assertFalse(db.isSoftTableCache());
+
+      for(String name : Arrays.asList("Table1", "Table2")) {
+        new TableBuilder(name)
+          .addColumn(new ColumnBuilder("id", DataType.LONG))
+          .toTable(db);
+      }
+
+      db.setTableCacheSize(1);
+      db.setSoftTableCache(true);
+
+      long hits = db.getTableCacheHits();
+
+      Table t1 = db.getTable("Table1");
+      assertSame(t1, db.getTable("table1"));
+      assertTrue(db.getTableCacheHits() > hits);
+
+      // the most recently used table is held by the cache
+      WeakReference<Table> t1Ref = new WeakReference<Table>(t1);
+      t1 = null;
+      System.gc();
+      assertNotNull(t1Ref.get());
+      hits = db.getTableCacheHits();
+      assertSame(t1Ref.get(), db.getTable("Table1"));
+      assertEquals(hits + 1, db.getTableCacheHits());
+
+      // loading a table from the file counts as a miss
+      db.setTableCacheSize(0);
+      db.setSoftTableCache(false);
+      assertEquals(0, db.getTableCacheSize());
+      assertFalse(db.isSoftTableCache());
+      long misses = db.getTableCacheMisses();
+      Table t3 = new TableBuilder("Table3")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .toTable(db);
+      assertEquals(misses + 1, db.getTableCacheMisses());
+      assertSame(t3, db.getTable("Table3"));
+
+      db.close();
+    }
+  }
+
   public void testFixedText() throws Exception
   {
     for (final TestDB testDB : TestDB.getSupportedForBasename(Basename.FIXED_TEXT)) {
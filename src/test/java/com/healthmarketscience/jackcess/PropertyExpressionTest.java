@@ -16,6 +16,7 @@ limitations under the License.
 
 package com.healthmarketscience.jackcess;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -292,6 +293,176 @@ public class PropertyExpressionTest extends TestCase
     }
   }
 
+  public void testBatchAddRows() throws Exception
+  {
+    Database db = create(FileFormat.V2016);
+    db.setEvaluateExpressions(true);
+
+    Table t = new TableBuilder("test")
+      .addColumn(new ColumnBuilder("id", DataType.LONG).setAutoNumber(true))
+      .addColumn(new ColumnBuilder("data1", DataType.LONG)
+                 .putProperty(PropertyMap.DEFAULT_VALUE_PROP, "3")
+                 .putProperty(PropertyMap.VALIDATION_RULE_PROP, "<1000"))
+      .addColumn(new ColumnBuilder("data2", DataType.LONG))
+      .addColumn(new ColumnBuilder("calc", DataType.LONG)
+                 .setCalculatedInfo("([data1]*2)+[data2]"))
+      .putProperty(PropertyMap.VALIDATION_RULE_PROP, "[data2] < 100")
+      .toTable(db);
+
+    // a row validator failure part way through the rows
+    List<Object[]> rows = new ArrayList<Object[]>();
+    for(int i = 0; i < 250; ++i) {
+      Object data1 = (((i % 2) == 0) ? null : i);
+      rows.add(new Object[]{Column.AUTO_NUMBER, data1, i % 50, null});
+    }
+    rows.get(230)[2] = 500;
+    rows.get(240)[1] = 5000;
+
+    try {
+      t.addRows(rows);
+      fail("BatchUpdateException should have been thrown");
+    } catch(BatchUpdateException be) {
+      // success
+      assertTrue(be.getCause() instanceof InvalidValueException);
+      assertEquals(230, be.getUpdateCount());
+    }
+
+    // the rows after the failed row are left untouched
+    for(int i = 231; i < 250; ++i) {
+      Object[] row = rows.get(i);
+      assertSame(Column.AUTO_NUMBER, row[0]);
+      Object data1 = (((i % 2) == 0) ? null : i);
+      if(i == 240) {
+        data1 = 5000;
+      }
+      assertEquals(data1, row[1]);
+      assertNull(row[3]);
+    }
+
+    // a column validator failure on the first row
+    try {
+      t.addRows(rows.subList(240, 250));
+      fail("BatchUpdateException should have been thrown");
+    } catch(BatchUpdateException be) {
+      // success
+      assertTrue(be.getCause() instanceof InvalidValueException);
+      assertEquals(0, be.getUpdateCount());
+    }
+
+    // unused autonumbers are recovered
+    t.addRow(Column.AUTO_NUMBER, 7, 1);
+
+    assertEquals(231, t.getRowCount());
+    int idx = 0;
+    for(Row row : t) {
+      int expectedData1 = (((idx % 2) == 0) ? 3 : idx);
+      int expectedData2 = idx % 50;
+      if(idx == 230) {
+        expectedData1 = 7;
+        expectedData2 = 1;
+      }
+      assertEquals(idx + 1, (int)row.getInt("id"));
+      assertEquals(expectedData1, (int)row.getInt("data1"));
+      assertEquals(expectedData2, (int)row.getInt("data2"));
+      assertEquals((expectedData1 * 2) + expectedData2,
+                   (int)row.getInt("calc"));
+      ++idx;
+    }
+
+    // a constraint violation while writing a prepared row
+    Table t2 = new TableBuilder("test2")
+      .addColumn(new ColumnBuilder("id", DataType.LONG).setAutoNumber(true))
+      .addColumn(new ColumnBuilder("key", DataType.LONG))
+      .addColumn(new ColumnBuilder("calc", DataType.LONG)
+                 .setCalculatedInfo("[key]*2"))
+      .addIndex(new IndexBuilder("KeyIdx").addColumns("key").setUnique())
+      .toTable(db);
+
+    rows = new ArrayList<Object[]>();
+    for(int i = 0; i < 10; ++i) {
+      rows.add(new Object[]{Column.AUTO_NUMBER, i % 7, null});
+    }
+
+    try {
+      t2.addRows(rows);
+      fail("BatchUpdateException should have been thrown");
+    } catch(BatchUpdateException be) {
+      // success
+      assertTrue(be.getCause() instanceof ConstraintViolationException);
+      assertEquals(7, be.getUpdateCount());
+    }
+
+    for(int i = 8; i < 10; ++i) {
+      Object[] row = rows.get(i);
+      assertSame(Column.AUTO_NUMBER, row[0]);
+      assertEquals(i % 7, row[1]);
+      assertNull(row[2]);
+    }
+
+    Object[] lastRow = t2.addRow(Column.AUTO_NUMBER, 100, null);
+    assertEquals(8, lastRow[0]);
+    assertEquals(200, lastRow[2]);
+    assertEquals(8, t2.getRowCount());
+
+    db.close();
+  }
+
+  public void testLazyValidators() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = create(fileFormat);
+      db.setEvaluateExpressions(true);
+
+      new TableBuilder("test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG).setAutoNumber(true))
+        .addColumn(new ColumnBuilder("data1", DataType.LONG)
+                   .putProperty(PropertyMap.DEFAULT_VALUE_PROP, "13"))
+        .addColumn(new ColumnBuilder("data2", DataType.LONG))
+        .putProperty(PropertyMap.VALIDATION_RULE_PROP, "[data2] < 100")
+        .putProperty(PropertyMap.VALIDATION_TEXT_PROP, "Too big")
+        .toTable(db);
+
+      File dbFile = db.getFile();
+      db.close();
+
+      // the validators of a newly loaded table are loaded on first use
+      db = new DatabaseBuilder(dbFile).open();
+      db.setEvaluateExpressions(true);
+      Table t = db.getTable("test");
+      assertNotNull(t.getColumn("data2").getColumnValidator());
+
+      t.addRow(Column.AUTO_NUMBER, null, 8);
+      try {
+        t.addRow(Column.AUTO_NUMBER, 1, 200);
+        fail("InvalidValueException should have been thrown");
+      } catch(InvalidValueException ive) {
+        // success
+        assertTrue(ive.getMessage().contains("Too big"));
+      }
+
+      // updating properties before first use
+      db.close();
+      db = new DatabaseBuilder(dbFile).open();
+      db.setEvaluateExpressions(true);
+      t = db.getTable("test");
+      setTableProp(t, PropertyMap.VALIDATION_RULE_PROP, "[data2] < 10");
+      try {
+        t.addRow(Column.AUTO_NUMBER, 1, 20);
+        fail("InvalidValueException should have been thrown");
+      } catch(InvalidValueException ive) {
+        // success
+      }
+
+      assertTable(createExpectedTable(
+                      createExpectedRow(
+                          "id", 1,
+                          "data1", 13,
+                          "data2", 8)), t);
+
+      db.close();
+    }
+  }
+
   public static void testCustomEvalConfig() throws Exception
   {
     TemporalConfig tempConf = new TemporalConfig("yyyy/M/d", "M/d",
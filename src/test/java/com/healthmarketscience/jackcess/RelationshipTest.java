@@ -124,6 +124,56 @@ public class RelationshipTest extends TestCase {
     }
   }
 
+  public void testRelationshipGraph() throws Exception {
+    for (final Database.FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      Table t1 = new TableBuilder("Table1")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .toTable(db);
+      Table t2 = new TableBuilder("Table2")
+        .addColumn(new ColumnBuilder("id2", DataType.LONG))
+        .addColumn(new ColumnBuilder("id3", DataType.LONG))
+        .toTable(db);
+
+      // builds the relationship graph
+      assertTrue(db.getRelationships().isEmpty());
+
+      // new relationships are added to the graph
+      Relationship rel = new RelationshipBuilder(t1, t2)
+        .addColumns("id", "id2")
+        .toRelationship(db);
+      new RelationshipBuilder("Table2", "table1")
+        .addColumns("id3", "id")
+        .setName("Table2Loop")
+        .toRelationship(db);
+
+      List<Relationship> rels = db.getRelationships(t1, t2);
+      assertEquals(2, rels.size());
+      assertEquals(rel.getName(), rels.get(0).getName());
+      assertSame(t1, rels.get(0).getFromTable());
+      assertEquals(Arrays.asList(t2.getColumn("id2")),
+                   rels.get(0).getToColumns());
+      assertEquals("Table2Loop", rels.get(1).getName());
+      assertSame(t2, rels.get(1).getFromTable());
+      assertEquals(Arrays.asList(t2.getColumn("id3")),
+                   rels.get(1).getFromColumns());
+      assertSameRelationships(rels, db.getRelationships(t2), false);
+      assertSameRelationships(rels, db.getRelationships(), true);
+
+      // modifying the relationships table directly rebuilds the graph
+      Table relTable = db.getSystemTable("MSysRelationships");
+      Cursor cursor = CursorBuilder.createCursor(relTable);
+      assertTrue(cursor.findFirstRow(relTable.getColumn("szRelationship"),
+                                     "Table2Loop"));
+      cursor.deleteCurrentRow();
+      rels = db.getRelationships(t2, t1);
+      assertEquals(1, rels.size());
+      assertEquals(rel.getName(), rels.get(0).getName());
+
+      db.close();
+    }
+  }
+
   private static void assertSameRelationships(
       List<Relationship> expected, List<Relationship> found, boolean ordered)
   {
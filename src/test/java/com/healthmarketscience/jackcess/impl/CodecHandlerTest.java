@@ -104,10 +104,125 @@ public class CodecHandlerTest extends TestCase
         autonum += 100;
       }
 
+      checkReadPages(db);
+
       db.close();
     }
   }
 
+  public void testReadPages() throws Exception
+  {
+    for(Database.FileFormat ff : SUPPORTED_FILEFORMATS) {
+      Database db = TestUtil.create(ff);
+
+      Table t = new TableBuilder("test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG).setAutoNumber(true))
+        .addColumn(new ColumnBuilder("data", DataType.TEXT).setLength(250))
+        .toTable(db);
+      // enough rows to require multiple reads for the full run of pages
+      for(int i = 0; i < 2000; ++i) {
+        t.addRow(null, "rowdata-" + i + TestUtil.createString(100));
+      }
+      int pageSize = ((DatabaseImpl)db).getFormat().PAGE_SIZE;
+      assertTrue((db.getFile().length() / pageSize) >
+                 PageChannel.MAX_MULTI_PAGE_READ_PAGES);
+
+      checkReadPages(db);
+
+      db.close();
+    }
+  }
+
+  private static void checkReadPages(Database db) throws Exception
+  {
+    PageChannel pageChannel = ((DatabaseImpl)db).getPageChannel();
+    int pageSize = pageChannel.getFormat().PAGE_SIZE;
+    int numPages = (int)(db.getFile().length() / pageSize);
+
+    ByteBuffer[] expectedPages = new ByteBuffer[numPages];
+    for(int i = 0; i < numPages; ++i) {
+      expectedPages[i] = pageChannel.createPageBuffer();
+      pageChannel.readPage(expectedPages[i], i);
+    }
+
+    // pages read as runs must match the pages read directly
+    ByteBuffer buffer = pageChannel.createPageBuffer();
+    for(int start = 0; start < numPages;
+        start += PageChannel.MAX_MULTI_PAGE_READ_PAGES) {
+      int endPage = Math.min(start + PageChannel.MAX_MULTI_PAGE_READ_PAGES,
+                             numPages);
+      pageChannel.readPages(start, endPage - start);
+      for(int i = start; i < endPage; ++i) {
+        // (page 0 is never part of a run)
+        assertEquals("page " + i, (i != 0), pageChannel.isRunPage(i));
+        pageChannel.readPage(buffer, i);
+        assertEquals("page " + i, expectedPages[i], buffer);
+      }
+    }
+    pageChannel.readPages(5, 1);
+    assertFalse(pageChannel.isRunPage(5));
+    pageChannel.readPages(3, numPages - 3);
+    assertTrue(pageChannel.isRunPage(3));
+    assertFalse(pageChannel.isRunPage(
+                    3 + PageChannel.MAX_MULTI_PAGE_READ_PAGES));
+    try {
+      pageChannel.readPages(numPages - 2, 3);
+      fail("IllegalStateException should have been thrown");
+    } catch(IllegalStateException expectedEx) {
+      // success
+    }
+
+    // pages read ahead (in runs) must match the pages read directly (the
+    // second read of each page is not read ahead)
+    ByteBuffer expected = pageChannel.createPageBuffer();
+    int runPages = PageReadAhead.MAX_READ_AHEAD_PAGES / 2;
+    for(int start = 0; start < numPages; start += runPages) {
+      int endPage = Math.min(start + runPages, numPages);
+      pageChannel.readAhead(start, endPage - start);
+      for(int i = start; i < endPage; ++i) {
+        pageChannel.readPage(buffer, i);
+        pageChannel.readPage(expected, i);
+        assertEquals("page " + i, expected, buffer);
+      }
+    }
+
+    // single pages and runs which overlap pending/read ahead pages
+    pageChannel.readAhead(5);
+    pageChannel.readAhead(3, numPages - 3);
+    for(int i = 3; i < numPages; ++i) {
+      pageChannel.readPage(buffer, i);
+      pageChannel.readPage(expected, i);
+      assertEquals("page " + i, expected, buffer);
+    }
+
+    // pages read ahead (or as runs) are discarded when the file is written
+    int pageNumber = numPages - 1;
+    pageChannel.readPages(pageNumber - 1, 2);
+    assertTrue(pageChannel.isRunPage(pageNumber));
+    pageChannel.readAhead(pageNumber);
+    pageChannel.readPage(buffer, pageNumber);
+    pageChannel.readAhead(pageNumber);
+    byte b = buffer.get(pageSize - 1);
+    buffer.put(pageSize - 1, (byte)(b + 1));
+    pageChannel.startWrite();
+    try {
+      pageChannel.writePage(buffer, pageNumber);
+    } finally {
+      pageChannel.finishWrite();
+    }
+    assertFalse(pageChannel.isRunPage(pageNumber));
+    pageChannel.readPage(expected, pageNumber);
+    buffer.rewind();
+    assertEquals(buffer, expected);
+    buffer.put(pageSize - 1, b);
+    pageChannel.startWrite();
+    try {
+      pageChannel.writePage(buffer, pageNumber);
+    } finally {
+      pageChannel.finishWrite();
+    }
+  }
+
   private static void writeData(Table t1, Table t2, int start, int end)
     throws Exception
   {
@@ -0,0 +1,171 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl;
+
+import java.io.IOException;
+
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import com.healthmarketscience.jackcess.impl.expr.Expressionator;
+import junit.framework.TestCase;
+import static com.healthmarketscience.jackcess.TestUtil.*;
+import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
+
+/**
+ *
+ * @author agent
+ */
+public class DomainFunctionsTest extends TestCase
+{
+
+  public DomainFunctionsTest(String name) {
+    super(name);
+  }
+
+  public void testDomainFunctions() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      Table t = createTestTable(db);
+
+      assertEquals(8, eval(db, "DCount('*', 'Orders')"));
+      assertEquals(7, eval(db, "DCount('[qty]', '[Orders]')"));
+      assertEquals(3, eval(db, "DCount('qty', 'Orders', " +
+                           "\"region = 'east'\")"));
+      assertEquals(0, eval(db, "DCount('*', 'Orders', 'id > 100')"));
+
+      assertEquals(12, eval(db, "DSum('qty', 'Orders', " +
+                            "\"region = 'east'\")"));
+      assertEquals(30, eval(db, "DSum('[qty]', 'Orders')"));
+      assertEquals(52.0d, eval(db, "DSum('[qty] * [price]', 'Orders', " +
+                               "'[price] > 1')"));
+      assertNull(eval(db, "DSum('qty', 'Orders', 'id > 100')"));
+
+      // index on (region, qty)
+      assertEquals(2, eval(db, "DMin('qty', 'Orders', " +
+                           "\"region = 'east'\")"));
+      assertEquals(6, eval(db, "DMax('qty', 'Orders', " +
+                           "\"region = 'east'\")"));
+      assertEquals(1, eval(db, "DMin('qty', 'Orders', " +
+                           "\"[Orders].[region] = 'west' and id > 4\")"));
+      // primary key index
+      assertEquals(8, eval(db, "DMax('id', 'Orders')"));
+      assertEquals(5, eval(db, "DMin('id', 'Orders', 'qty < 3')"));
+      // no index
+      assertEquals(4.0d, eval(db, "DMax('price', 'Orders', 'qty < 5')"));
+      assertEquals("east", eval(db, "DMin('region', 'Orders')"));
+      assertNull(eval(db, "DMax('qty', 'Orders', \"region = 'north'\")"));
+
+      assertEquals("west", eval(db, "DLookup('[region]', 'Orders', " +
+                                "'id = 5')"));
+      assertEquals(14, eval(db, "DLookup('qty + id', 'Orders', " +
+                            "'[Orders].[id] = 8')"));
+      assertNull(eval(db, "DLookup('qty', 'Orders', 'id = 2')"));
+      assertNull(eval(db, "DLookup('region', 'Orders', 'id = 100')"));
+
+      // criteria which are not exact column predicates match the same rows
+      // as the equivalent expressions
+      assertEquals(2, eval(db, "DCount('*', 'Orders', 'id < 2.5')"));
+      assertEquals(2, eval(db, "DCount('*', 'Orders', 'id + 0 < 2.5')"));
+      assertEquals(0, eval(db, "DCount('*', 'Orders', \"region < 'ab'\")"));
+      assertEquals(0, eval(db, "DCount('*', 'Orders', " +
+                           "\"region & '' < 'ab'\")"));
+      assertEquals(3, eval(db, "DCount('*', 'Orders', \"region < 'f'\")"));
+      assertEquals(3, eval(db, "DCount('*', 'Orders', " +
+                           "\"region & '' < 'f'\")"));
+      assertEquals(3, eval(db, "DCount('*', 'Orders', \"region < 'eb'\")"));
+      assertEquals(3, eval(db, "DCount('*', 'Orders', " +
+                           "\"region & '' < 'eb'\")"));
+      assertEquals(6, eval(db, "DMax('qty', 'Orders', 'price < 1.5')"));
+      assertEquals(6, eval(db, "DMax('qty', 'Orders', " +
+                           "\"region = 'east' and qty < 6.5\")"));
+      assertEquals(4, eval(db, "DCount('*', 'Orders', \"region like 'W*'\")"));
+
+      // domain results are only cached within a single evaluation
+      assertEquals(16, eval(db, "DCount('*', 'Orders') * 2"));
+      t.addRow(9, "south", 2, 1.0d);
+      assertEquals(18, eval(db, "DCount('*', 'Orders') + " +
+                            "DCount('*', 'Orders')"));
+      assertEquals(32, eval(db, "DSum('qty', 'Orders')"));
+
+      try {
+        eval(db, "DCount('*', 'Customers')");
+        fail("IOException should have been thrown");
+      } catch(IOException e) {
+        // success
+        assertTrue(e.getMessage().contains("Customers"));
+      }
+
+      db.close();
+    }
+  }
+
+  private static Object eval(Database db, String exprStr) throws Exception
+  {
+    TestContext ctx = new TestContext((DatabaseImpl)db);
+    ctx.setExpr(Expressionator.Type.EXPRESSION, exprStr);
+    Object val = ctx.eval();
+    if(val instanceof Number) {
+      if((val instanceof Double) || (val instanceof Float)) {
+        return ((Number)val).doubleValue();
+      }
+      return ((Number)val).intValue();
+    }
+    return val;
+  }
+
+  private static Table createTestTable(Database db) throws Exception
+  {
+    Table t = new TableBuilder("Orders")
+      .addColumn(new ColumnBuilder("id", DataType.LONG))
+      .addColumn(new ColumnBuilder("region", DataType.TEXT))
+      .addColumn(new ColumnBuilder("qty", DataType.LONG))
+      .addColumn(new ColumnBuilder("price", DataType.DOUBLE))
+      .addIndex(new IndexBuilder("PK")
+                .addColumns("id").setPrimaryKey())
+      .addIndex(new IndexBuilder("RegionQty")
+                .addColumns("region", "qty"))
+      .toTable(db);
+
+    t.addRow(1, "east", 4, 1.0d);
+    t.addRow(2, "west", null, 1.5d);
+    t.addRow(3, "east", 6, 1.0d);
+    t.addRow(4, "west", 3, 2.0d);
+    t.addRow(5, "west", 1, 0.5d);
+    t.addRow(6, "east", 2, 4.0d);
+    t.addRow(7, "south", 8, 2.5d);
+    t.addRow(8, "west", 6, 3.0d);
+    return t;
+  }
+
+  private static final class TestContext extends BaseEvalContext
+  {
+    private TestContext(DatabaseImpl db) {
+      super(db.getEvalContext());
+    }
+
+    @Override
+    protected String withErrorContext(String msg) {
+      return msg;
+    }
+  }
+}
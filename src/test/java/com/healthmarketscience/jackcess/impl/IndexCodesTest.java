@@ -77,6 +77,26 @@ public class IndexCodesTest extends TestCase {
     }
   }
 
+  public void testTextKeyCache() throws Exception
+  {
+    for (final TestDB testDB : TestDB.getSupportedForBasename(Basename.INDEX_CODES)) {
+      Database db = openMem(testDB);
+
+      for(Table t : db) {
+        for(Index index : t.getIndexes()) {
+          IndexData data = ((IndexImpl)index).getIndexData();
+          data.setTextKeyCacheSize(IndexData.DEFAULT_TEXT_KEY_CACHE_SIZE);
+          // the second pass uses the cached entry bytes
+          checkIndexEntries(testDB, t, index);
+          checkIndexEntries(testDB, t, index);
+          data.setTextKeyCacheSize(0);
+        }
+      }
+
+      db.close();
+    }
+  }
+
   private static void checkIndexEntries(final TestDB testDB, Table t, Index index) throws Exception
   {
 //         index.initialize();
@@ -31,6 +31,7 @@ import com.healthmarketscience.jackcess.DatabaseBuilder;
 import com.healthmarketscience.jackcess.TestUtil;
 import com.healthmarketscience.jackcess.expr.EvalContext;
 import com.healthmarketscience.jackcess.expr.Expression;
+import com.healthmarketscience.jackcess.expr.Function;
 import com.healthmarketscience.jackcess.expr.FunctionLookup;
 import com.healthmarketscience.jackcess.expr.Identifier;
 import com.healthmarketscience.jackcess.expr.NumericConfig;
@@ -364,6 +365,33 @@ public class ExpressionatorTest extends TestCase
     assertNull(eval("=Null In (23, Null, 45)"));
   }
 
+  public void testIntegralOverflow() throws Exception
+  {
+    assertEquals(2147483646, eval("=2147483647 + -1"));
+    assertEquals(2147441940, eval("=46341 * 46340"));
+    assertEquals(toBD(new BigDecimal("2147483648")),
+                 eval("=2147483647 + 1"));
+    assertEquals(toBD(new BigDecimal("-2147483649")),
+                 eval("=-2147483647 - 2"));
+    assertEquals(toBD(new BigDecimal("4294967296")), eval("=65536 * 65536"));
+    assertEquals(toBD(new BigDecimal("2147483648")),
+                 eval("=-(-2147483647 - 1)"));
+    assertEquals(toBD(new BigDecimal("2147483648")),
+                 eval("=(-2147483647 - 1) \\ -1"));
+
+    // mixed integral/floating point
+    assertEquals(5.0d, eval("=CDbl(2) + 3"));
+    assertEquals(-1.5d, eval("=3 / CDbl(-2)"));
+    assertEquals(TRUE_NUM, eval("=CDbl(3) < 4"));
+    assertEquals(FALSE_NUM, eval("=4 <> CDbl(4)"));
+
+    // common values are cached
+    assertSame(ValueSupport.toValue(42), ValueSupport.toValue(42));
+    assertSame(ValueSupport.TRUE_VAL, ValueSupport.toValue(-1));
+    assertSame(ValueSupport.ZERO_VAL, ValueSupport.toValue(0));
+    assertEquals(100000, ValueSupport.toValue(100000).get());
+  }
+
   public void testTrickyMathExpressions() throws Exception
   {
     assertEquals(37, eval("=30+7"));
@@ -421,6 +449,37 @@ public class ExpressionatorTest extends TestCase
     assertFalse(evalCondition("Like \"[abc*\"", "fcd"));
     assertTrue(evalCondition("Not Like \"[abc*\"", "fcd"));
     assertFalse(evalCondition("Like \"[abc*\"", ""));
+
+    // simple patterns are matched without a regex
+    validateExpr("Like \"ab.c*\"", "<ELikeOp>{<EThisValue>{<THIS_COL>} Like \"ab.c*\"(ab\\.c.*)}",
+                 "Like \"ab.c*\"");
+    assertTrue(evalCondition("Like \"ab.c*\"", "AB.cdef"));
+    assertTrue(evalCondition("Like \"ab.c*\"", "ab.c"));
+    assertFalse(evalCondition("Like \"ab.c*\"", "abxcdef"));
+    assertFalse(evalCondition("Like \"ab.c*\"", "ab."));
+
+    assertTrue(evalCondition("Like \"*def\"", "abcDEF"));
+    assertTrue(evalCondition("Like \"*def\"", "def"));
+    assertFalse(evalCondition("Like \"*def\"", "defabc"));
+    assertFalse(evalCondition("Like \"*def\"", "ef"));
+
+    assertTrue(evalCondition("Like \"*c$d*\"", "abC$Def"));
+    assertTrue(evalCondition("Like \"*c$d*\"", "c$d"));
+    assertFalse(evalCondition("Like \"*c$d*\"", "abcdef"));
+    assertFalse(evalCondition("Not Like \"*c$d*\"", "c$d\nef"));
+
+    assertTrue(evalCondition("Like \"Abc\"", "aBC"));
+    assertFalse(evalCondition("Like \"Abc\"", "aBCd"));
+    assertFalse(evalCondition("Like \"Abc\"", ""));
+    assertTrue(evalCondition("Like \"\"", ""));
+
+    assertTrue(evalCondition("Like \"*\"", ""));
+    assertTrue(evalCondition("Like \"**\"", "abc"));
+    assertTrue(evalCondition("Like \"a*c\"", "abbbc"));
+    assertFalse(evalCondition("Like \"a*c\"", "abbbd"));
+
+    // compiled patterns are shared
+    assertSame(LikeMatcher.compile("abc*"), LikeMatcher.compile("abc*"));
   }
 
   public void testLiteralDefaultValue() throws Exception
@@ -434,6 +493,54 @@ public class ExpressionatorTest extends TestCase
     assertEquals(-28d, eval("CDbl(9)-37", Value.Type.DOUBLE));
   }
 
+  public void testConstantFolding() throws Exception
+  {
+    final int[] numCalls = new int[1];
+    final Function countFunc = new FunctionSupport.Func1("CountCalls") {
+      @Override
+      protected Value eval1(EvalContext ctx, Value param) {
+        ++numCalls[0];
+        return param;
+      }
+    };
+    final Value[] idVal = new Value[1];
+    TestContext tc = new TestContext() {
+      @Override
+      public FunctionLookup getFunctionLookup() {
+        return new FunctionLookup() {
+          public Function getFunction(String name) {
+            return ("CountCalls".equalsIgnoreCase(name) ? countFunc :
+                    DefaultFunctions.LOOKUP.getFunction(name));
+          }
+        };
+      }
+
+      @Override
+      public Value getIdentifierValue(Identifier identifier) {
+        return idVal[0];
+      }
+    };
+
+    String exprStr = "=[A] + (CountCalls(2) * 3) - CountCalls([A])";
+    Expression expr = Expressionator.parse(
+        Expressionator.Type.DEFAULT_VALUE, exprStr, null, tc);
+    assertFalse(expr.isConstant());
+    assertEquals("<EBinaryOp>{<EBinaryOp>{<EObjValue>{[A]} + " +
+                 "<EParen>{(<EBinaryOp>{<EFunc>{CountCalls(" +
+                 "<ELiteralValue>{2})} * <ELiteralValue>{3}})}} - " +
+                 "<EFunc>{CountCalls(<EObjValue>{[A]})}}",
+                 expr.toDebugString(tc));
+    assertEquals("[A] + (CountCalls(2) * 3) - CountCalls([A])",
+                 expr.toCleanString(tc));
+
+    // the constant part is only evaluated once
+    for(int i = 1; i <= 3; ++i) {
+      idVal[0] = ValueSupport.toValue(i);
+      assertEquals(6, expr.eval(tc));
+      assertEquals(i + 1, numCalls[0]);
+    }
+  }
+
   public void testParseSomeExprs() throws Exception
   {
     BufferedReader br = new BufferedReader(new FileReader("src/test/resources/test_exprs.txt"));
@@ -492,6 +599,34 @@ public class ExpressionatorTest extends TestCase
     doTestEvalFail("=(3 + 5) Rnd()", "multiple expressions");
   }
 
+  public void testBareObjectNames() throws Exception
+  {
+    // bare column names are supported in query expressions
+    TestContext tc = new TestContext();
+    Expression expr = Expressionator.parse(
+        Expressionator.Type.QUERY, "Field1 + 1 > [Table2].Field3", null, tc);
+    assertEquals("<ECompOp>{<EBinaryOp>{<EObjValue>{[Field1]} + " +
+                 "<ELiteralValue>{1}} > <EObjValue>{[Table2].[Field3]}}",
+                 expr.toDebugString(tc));
+
+    // but not (yet) in the other expression types
+    Object[][] exprs = {
+      {Expressionator.Type.DEFAULT_VALUE, "=Field1 + 1"},
+      {Expressionator.Type.EXPRESSION, "Field1 + 1"},
+      {Expressionator.Type.FIELD_VALIDATOR, "> Field1"},
+      {Expressionator.Type.RECORD_VALIDATOR, "Field1 > 1"},
+    };
+    for(Object[] exprInfo : exprs) {
+      try {
+        Expressionator.parse((Expressionator.Type)exprInfo[0],
+                             (String)exprInfo[1], null, tc);
+        fail("UnsupportedOperationException should have been thrown");
+      } catch(UnsupportedOperationException expected) {
+        // success
+      }
+    }
+  }
+
   private static void doTestEvalFail(String exprStr, String msgStr) {
     try {
       eval(exprStr);
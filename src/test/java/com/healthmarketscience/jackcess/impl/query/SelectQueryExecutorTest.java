@@ -0,0 +1,441 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.impl.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import com.healthmarketscience.jackcess.expr.EvalException;
+import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
+import com.healthmarketscience.jackcess.query.Query;
+import com.healthmarketscience.jackcess.query.SelectQuery;
+import junit.framework.TestCase;
+import static com.healthmarketscience.jackcess.TestUtil.*;
+import static com.healthmarketscience.jackcess.impl.query.QueryFormat.*;
+
+/**
+ *
+ * @author agent
+ */
+public class SelectQueryExecutorTest extends TestCase
+{
+
+  public SelectQueryExecutorTest(String name) {
+    super(name);
+  }
+
+  public void testSelect() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      createTestTables(db);
+
+      // simple filter pushed to the table traversal
+      SelectQueryExecutor exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "Orders.oid", null, null),
+          newRow(COLUMN_ATTRIBUTE, "amount", null, null),
+          newRow(COLUMN_ATTRIBUTE, "[qty] * 2", null, null),
+          newRow(WHERE_ATTRIBUTE, "(qty > 2)", null, null)));
+      assertEquals(Arrays.asList("oid", "amount", "Expr1002"),
+                   exec.getColumnNames());
+      assertEquals(Arrays.asList("Filter where [(qty > 2)]",
+                                 "Scan Orders where [[qty] GT [2]]"),
+                   exec.getPlan());
+      List<Row> rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList(2, 4, 5), getValues(rows, "oid"));
+      assertEquals(Arrays.<Object>asList(20.0d, 7.0d, 15.0d),
+                   getValues(rows, "amount"));
+      assertEquals(Arrays.<Object>asList(10, 8, 6),
+                   getValues(rows, "Expr1002"));
+
+      // only comparisons which the traversal evaluates exactly like the
+      // expression are pushed to the table traversal
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "oid", null, null),
+          newRow(WHERE_ATTRIBUTE, "qty < 2.5 And oid >= 1", null, null)));
+      assertEquals(Arrays.asList("Filter where [qty < 2.5 And oid >= 1]",
+                                 "Scan Orders where [[oid] GE [1]]"),
+                   exec.getPlan());
+      assertEquals(Arrays.<Object>asList(1, 3),
+                   getValues(toList(exec.execute()), "oid"));
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(COLUMN_ATTRIBUTE, "name", null, null),
+          newRow(WHERE_ATTRIBUTE, "name < 'bz' And region <> 'x'", null,
+                 null)));
+      assertEquals(Arrays.asList(
+                       "Filter where [name < 'bz' And region <> 'x']",
+                       "Scan Customers"),
+                   exec.getPlan());
+      assertEquals(Arrays.<Object>asList("Alice", "Bob"),
+                   getValues(toList(exec.execute()), "name"));
+
+      // select *, top
+      exec = new SelectQueryExecutor(db, newQuery(
+          SELECT_STAR_SELECT_TYPE | TOP_SELECT_TYPE, "2",
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(ORDERBY_ATTRIBUTE, "amount", DESCENDING_FLAG, null)));
+      assertEquals(Arrays.asList("oid", "custId", "qty", "amount"),
+                   exec.getColumnNames());
+      assertEquals(Arrays.<Object>asList(2, 5),
+                   getValues(toList(exec.execute()), "oid"));
+      exec = new SelectQueryExecutor(db, newQuery(
+          SELECT_STAR_SELECT_TYPE | TOP_SELECT_TYPE | PERCENT_SELECT_TYPE,
+          "50",
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(ORDERBY_ATTRIBUTE, "amount", DESCENDING_FLAG, null)));
+      assertEquals(Arrays.<Object>asList(2, 5, 1),
+                   getValues(toList(exec.execute()), "oid"));
+
+      // order by using an index (in predicates are not pushed)
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "oid", null, null),
+          newRow(WHERE_ATTRIBUTE, "custId In (1, 2) And qty < 5", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "custId", null, null)));
+      assertEquals(Arrays.asList(
+                       "Filter where [custId In (1, 2) And qty < 5]",
+                       "Scan Orders using index CustIdx where [[qty] LT [5]]"),
+                   exec.getPlan());
+      assertEquals(Arrays.<Object>asList(1, 3, 5),
+                   getValues(toList(exec.execute()), "oid"));
+
+      // text is sorted in the Access sort order (e.g. hyphens are ignored),
+      // which matches the order of text indexes
+      Table codes = new TableBuilder("Codes")
+        .addColumn(new ColumnBuilder("code", DataType.TEXT))
+        .addIndex(new IndexBuilder("CodeIdx").addColumns("code"))
+        .toTable(db);
+      for(String code : new String[]{"ab", "a-c", "AA", "_x", "b"}) {
+        codes.addRow(code);
+      }
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Codes", null),
+          newRow(COLUMN_ATTRIBUTE, "code", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "code", null, null)));
+      assertEquals(Arrays.asList("Scan Codes using index CodeIdx"),
+                   exec.getPlan());
+      assertEquals(Arrays.<Object>asList("_x", "AA", "ab", "a-c", "b"),
+                   getValues(toList(exec.execute()), "code"));
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Codes", null),
+          newRow(COLUMN_ATTRIBUTE, "code", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "code", DESCENDING_FLAG, null)));
+      assertEquals(Arrays.asList("Sort by [code]", "Scan Codes"),
+                   exec.getPlan());
+      assertEquals(Arrays.<Object>asList("b", "a-c", "ab", "AA", "_x"),
+                   getValues(toList(exec.setMaxRowsInMemory(2).execute()),
+                             "code"));
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Codes", null),
+          newRow(COLUMN_ATTRIBUTE, "Min(code)", "MinCode", null),
+          newRow(COLUMN_ATTRIBUTE, "Max(code)", "MaxCode", null),
+          newRow(WHERE_ATTRIBUTE, "code Like 'a*'", null, null)));
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList("AA"), getValues(rows, "MinCode"));
+      assertEquals(Arrays.<Object>asList("a-c"), getValues(rows, "MaxCode"));
+
+      // distinct, sorted
+      exec = new SelectQueryExecutor(db, newQuery(
+          DISTINCT_SELECT_TYPE,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(COLUMN_ATTRIBUTE, "region", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "region", null, null)));
+      assertEquals(Arrays.<Object>asList("east", "north", "west"),
+                   getValues(toList(exec.setMaxRowsInMemory(1).execute()),
+                             "region"));
+
+      // parameters
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", "C"),
+          newRow(COLUMN_ATTRIBUTE, "C.name", "Customer", null),
+          newRow(WHERE_ATTRIBUTE, "C.region = [Which Region]", null, null)));
+      try {
+        exec.execute().hasNext();
+        fail("EvalException should have been thrown");
+      } catch(EvalException expected) {
+        // success
+      }
+      exec.setParameter("which region", "WEST");
+      assertEquals(Arrays.<Object>asList("Alice", "Carol"),
+                   getValues(toList(exec.execute()), "Customer"));
+
+      db.close();
+    }
+  }
+
+  public void testJoins() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      createTestTables(db);
+
+      // inner join using an index lookup
+      SelectQueryExecutor exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(JOIN_ATTRIBUTE, "Customers.id = Orders.custId", 1,
+                 "Customers", "Orders"),
+          newRow(COLUMN_ATTRIBUTE, "Customers.name", null, null),
+          newRow(COLUMN_ATTRIBUTE, "Orders.amount", null, null),
+          newRow(WHERE_ATTRIBUTE, "Orders.qty >= 3", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "Orders.amount", DESCENDING_FLAG, null)));
+      List<String> plan = exec.getPlan();
+      assertEquals(
+          "Inner join (index lookup using index CustIdx) " +
+          "on [Customers.id = Orders.custId]", plan.get(2));
+      List<Row> rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList("Bob", "Bob", "Carol"),
+                   getValues(rows, "name"));
+      assertEquals(Arrays.<Object>asList(20.0d, 15.0d, 7.0d),
+                   getValues(rows, "amount"));
+
+      // cross join with where clause join condition
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(TABLE_ATTRIBUTE, null, "Orders", "O"),
+          newRow(COLUMN_ATTRIBUTE, "O.oid", null, null),
+          newRow(COLUMN_ATTRIBUTE, "id", null, null),
+          newRow(WHERE_ATTRIBUTE,
+                 "Customers.id = O.custId And Customers.region = 'east'",
+                 null, null)));
+      plan = exec.getPlan();
+      assertEquals("Cross join (index lookup using index CustIdx)",
+                   plan.get(1));
+      assertEquals("  Scan Customers where [[Customers].[region] EQ [east]]",
+                   plan.get(2));
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList(2, 5), getValues(rows, "oid"));
+      assertEquals(Arrays.<Object>asList(2, 2), getValues(rows, "id"));
+
+      // hash join on an unindexed column
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", "O1"),
+          newRow(TABLE_ATTRIBUTE, null, "Orders", "O2"),
+          newRow(JOIN_ATTRIBUTE, "O1.qty = O2.oid", 1, "O1", "O2"),
+          newRow(COLUMN_ATTRIBUTE, "O1.oid", null, null),
+          newRow(COLUMN_ATTRIBUTE, "O2.oid", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "O1.oid", null, null)));
+      assertEquals(Arrays.asList("oid", "O2.oid"), exec.getColumnNames());
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList(1, 2, 3, 4, 5),
+                   getValues(rows, "oid"));
+      assertEquals(Arrays.<Object>asList(2, 5, 1, 4, 3),
+                   getValues(rows, "O2.oid"));
+
+      // left join with aggregates
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(JOIN_ATTRIBUTE, "Customers.id = Orders.custId", 2,
+                 "Customers", "Orders"),
+          newRow(COLUMN_ATTRIBUTE, "Customers.name", null, null),
+          newRow(COLUMN_ATTRIBUTE, "Count(Orders.oid)", "NumOrders", null),
+          newRow(COLUMN_ATTRIBUTE, "Sum(Orders.amount)", "Total", null),
+          newRow(GROUPBY_ATTRIBUTE, "Customers.name", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "Customers.name", null, null)));
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList("Alice", "Bob", "Carol", "Dave"),
+                   getValues(rows, "name"));
+      assertEquals(Arrays.<Object>asList(2, 2, 1, 0),
+                   getValues(rows, "NumOrders"));
+      assertEquals(Arrays.<Object>asList(13.75d, 35.0d, 7.0d, null),
+                   getValues(rows, "Total"));
+
+      // right join with having
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(TABLE_ATTRIBUTE, null, "Customers", null),
+          newRow(JOIN_ATTRIBUTE, "Orders.custId = Customers.id", 3,
+                 "Orders", "Customers"),
+          newRow(COLUMN_ATTRIBUTE, "region", null, null),
+          newRow(COLUMN_ATTRIBUTE, "Count(*)", null, null),
+          newRow(COLUMN_ATTRIBUTE, "Max(qty) + 1", "MaxQty", null),
+          newRow(GROUPBY_ATTRIBUTE, "region", null, null),
+          newRow(HAVING_ATTRIBUTE, "Count(*) > 1", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "Count(*)", DESCENDING_FLAG, null)));
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList("west", "east"),
+                   getValues(rows, "region"));
+      assertEquals(Arrays.<Object>asList(3, 2), getValues(rows, "Expr1001"));
+      assertEquals(Arrays.<Object>asList(5, 6), getValues(rows, "MaxQty"));
+
+      // aggregate over all rows
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "Count(*)", "Cnt", null),
+          newRow(COLUMN_ATTRIBUTE, "Avg(qty)", "AvgQty", null),
+          newRow(WHERE_ATTRIBUTE, "qty > 10", null, null)));
+      rows = toList(exec.execute());
+      assertEquals(1, rows.size());
+      assertEquals(0, rows.get(0).get("Cnt"));
+      assertNull(rows.get(0).get("AvgQty"));
+
+      // expressions of the grouped columns are allowed, other columns must
+      // be aggregated
+      exec = new SelectQueryExecutor(db, newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "custId * 10", "CustKey", null),
+          newRow(COLUMN_ATTRIBUTE, "Sum(qty)", "TotalQty", null),
+          newRow(GROUPBY_ATTRIBUTE, "custId", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "custId * 10", DESCENDING_FLAG, null)));
+      rows = toList(exec.execute());
+      assertEquals(Arrays.<Object>asList(30, 20, 10),
+                   getValues(rows, "CustKey"));
+      assertEquals(Arrays.<Object>asList(4, 8, 3),
+                   getValues(rows, "TotalQty"));
+
+      assertNotAggregated(db, "oid", newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "oid", null, null),
+          newRow(COLUMN_ATTRIBUTE, "Count(*)", "n", null)));
+      assertNotAggregated(db, "qty > COUNT(*)", newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "custId", null, null),
+          newRow(GROUPBY_ATTRIBUTE, "custId", null, null),
+          newRow(HAVING_ATTRIBUTE, "qty > Count(*)", null, null)));
+      assertNotAggregated(db, "amount", newQuery(
+          0,
+          newRow(TABLE_ATTRIBUTE, null, "Orders", null),
+          newRow(COLUMN_ATTRIBUTE, "custId", null, null),
+          newRow(GROUPBY_ATTRIBUTE, "custId", null, null),
+          newRow(ORDERBY_ATTRIBUTE, "amount", null, null)));
+
+      db.close();
+    }
+  }
+
+  private static void assertNotAggregated(Database db, String exprStr,
+                                          SelectQuery query)
+    throws Exception
+  {
+    try {
+      new SelectQueryExecutor(db, query).execute();
+      fail("EvalException should have been thrown");
+    } catch(EvalException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains(
+                     "does not include the specified expression '" + exprStr +
+                     "' as part of an aggregate function"));
+    }
+  }
+
+  private static SelectQuery newQuery(int flag, QueryImpl.Row... rows)
+  {
+    return newQuery(flag, null, rows);
+  }
+
+  private static SelectQuery newQuery(int flag, String top,
+                                      QueryImpl.Row... rows)
+  {
+    List<QueryImpl.Row> rowList = new ArrayList<QueryImpl.Row>();
+    rowList.add(newRow(TYPE_ATTRIBUTE, null, Query.Type.SELECT.getValue(),
+                       null, null));
+    rowList.add(newRow(FLAG_ATTRIBUTE, null, flag, top, null));
+    rowList.addAll(Arrays.asList(rows));
+    return (SelectQuery)QueryImpl.create(
+        Query.Type.SELECT.getObjectFlag(), "TestQuery", rowList, 13);
+  }
+
+  private static QueryImpl.Row newRow(Byte attr, String expr, String name1,
+                                      String name2)
+  {
+    return newRow(attr, expr, null, name1, name2);
+  }
+
+  private static QueryImpl.Row newRow(Byte attr, String expr, Number flagNum,
+                                      String name1, String name2)
+  {
+    Short flag = ((flagNum != null) ? flagNum.shortValue() : null);
+    return new QueryImpl.Row(null, attr, expr, flag, null, name1, name2,
+                             null, null);
+  }
+
+  private static void createTestTables(Database db) throws Exception
+  {
+    Table customers = new TableBuilder("Customers")
+      .addColumn(new ColumnBuilder("id", DataType.LONG))
+      .addColumn(new ColumnBuilder("name", DataType.TEXT))
+      .addColumn(new ColumnBuilder("region", DataType.TEXT))
+      .addIndex(new IndexBuilder("PK").addColumns("id").setPrimaryKey())
+      .toTable(db);
+    customers.addRow(1, "Alice", "west");
+    customers.addRow(2, "Bob", "east");
+    customers.addRow(3, "Carol", "west");
+    customers.addRow(4, "Dave", "north");
+
+    Table orders = new TableBuilder("Orders")
+      .addColumn(new ColumnBuilder("oid", DataType.LONG))
+      .addColumn(new ColumnBuilder("custId", DataType.LONG))
+      .addColumn(new ColumnBuilder("qty", DataType.LONG))
+      .addColumn(new ColumnBuilder("amount", DataType.DOUBLE))
+      .addIndex(new IndexBuilder("PK").addColumns("oid").setPrimaryKey())
+      .addIndex(new IndexBuilder("CustIdx").addColumns("custId"))
+      .toTable(db);
+    orders.addRow(1, 1, 2, 10.5d);
+    orders.addRow(2, 2, 5, 20.0d);
+    orders.addRow(3, 1, 1, 3.25d);
+    orders.addRow(4, 3, 4, 7.0d);
+    orders.addRow(5, 2, 3, 15.0d);
+  }
+
+  private static List<Row> toList(Iterator<Row> iter)
+  {
+    List<Row> rows = new ArrayList<Row>();
+    while(iter.hasNext()) {
+      rows.add(iter.next());
+    }
+    return rows;
+  }
+
+  private static List<Object> getValues(List<Row> rows, String colName)
+  {
+    List<Object> values = new ArrayList<Object>();
+    for(Row row : rows) {
+      values.add(row.get(colName));
+    }
+    return values;
+  }
+}
@@ -247,7 +247,18 @@ public class QueryTest extends TestCase
 
       Database db = TestUtil.open(testDB);
 
+      // individual queries are parsed on demand
+      Map<String,Query> foundQueries = new HashMap<String,Query>();
+      for(Map.Entry<String,String> e : expectedQueries.entrySet()) {
+        Query q = db.getQuery(e.getKey().toUpperCase());
+        assertEquals(e.getKey(), q.getName());
+        assertEquals(e.getValue(), q.toSQLString());
+        foundQueries.put(q.getName(), q);
+      }
+      assertNull(db.getQuery("NoSuchQuery"));
+
       for(Query q : db.getQueries()) {
+        assertSame(foundQueries.get(q.getName()), q);
         assertEquals(expectedQueries.remove(q.getName()), q.toSQLString());
       }
 
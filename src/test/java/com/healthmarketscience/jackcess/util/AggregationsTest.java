@@ -0,0 +1,210 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.IndexCursor;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
+import junit.framework.TestCase;
+import static com.healthmarketscience.jackcess.TestUtil.*;
+
+/**
+ *
+ * @author agent
+ */
+public class AggregationsTest extends TestCase
+{
+
+  public AggregationsTest(String name) {
+    super(name);
+  }
+
+  public void testAggregations() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      Table t = createTestTable(db);
+
+      Aggregations.Result result = Aggregations.over(t)
+        .count().count("qty").sum("qty").avg("qty").sum("price")
+        .avg("price").sum("amt").min("region").max("price")
+        .execute();
+
+      assertEquals(Arrays.asList("Count(*)", "Count(qty)", "Sum(qty)",
+                                 "Avg(qty)", "Sum(price)", "Avg(price)",
+                                 "Sum(amt)", "Min(region)", "Max(price)"),
+                   result.getAggregateNames());
+      assertEquals(1, result.getGroups().size());
+      Aggregations.Group group = result.getGroups().get(0);
+      assertEquals(7L, group.getValue("Count(*)"));
+      assertEquals(6L, group.getValue("Count(qty)"));
+      assertEquals(21L, group.getValue("Sum(qty)"));
+      assertEquals(3.5d, group.getValue("Avg(qty)"));
+      assertEquals(new BigDecimal("47.2500"), group.getValue("Sum(price)"));
+      assertEquals(0, new BigDecimal("7.875").compareTo(
+                       (BigDecimal)group.getValue("Avg(price)")));
+      assertEquals(10.5d, group.getValue("Sum(amt)"));
+      assertEquals("east", group.getValue("Min(region)"));
+      assertEquals(new BigDecimal("20.0000"), group.getValue("Max(price)"));
+
+      // hashed groups (in order of first appearance)
+      Aggregations.Result hashResult = Aggregations.over(t)
+        .groupBy("region").count().sum("qty").min("qty").sum("price")
+        .execute();
+      checkGroups(hashResult);
+      assertEquals(Arrays.asList("west", "east", "north", null),
+                   getGroupRegions(hashResult));
+
+      // sorted groups using the index order
+      IndexCursor idxCursor = CursorBuilder.createCursor(
+          t.getIndex("RegionIdx"));
+      Aggregations.Result sortedResult = Aggregations.over(idxCursor)
+        .groupBy("region").count().sum("qty").min("qty").sum("price")
+        .execute();
+      checkGroups(sortedResult);
+      assertEquals(Arrays.asList(null, "east", "north", "west"),
+                   getGroupRegions(sortedResult));
+
+      // partial results merged
+      Aggregations.Result partResult1 = Aggregations.over(
+          new CursorBuilder(t).setIndex(t.getIndex("RegionIdx"))
+          .setEndEntry("north").setEndRowInclusive(false).toIndexCursor())
+        .groupBy("region").count().sum("qty").min("qty").sum("price")
+        .execute();
+      Aggregations.Result partResult2 = Aggregations.over(
+          new CursorBuilder(t).setIndex(t.getIndex("RegionIdx"))
+          .setStartEntry("north").toIndexCursor())
+        .groupBy("region").count().sum("qty").min("qty").sum("price")
+        .execute();
+      checkGroups(partResult1.merge(partResult2));
+
+      // merged groups
+      Aggregations.Result dblResult = Aggregations.over(t)
+        .count().sum("qty").avg("price").max("amt").execute();
+      dblResult.merge(Aggregations.over(t)
+                      .count().sum("qty").avg("price").max("amt").execute());
+      group = dblResult.getGroups().get(0);
+      assertEquals(14L, group.getValue(0));
+      assertEquals(42L, group.getValue(1));
+      assertEquals(0, new BigDecimal("7.875").compareTo(
+                       (BigDecimal)group.getValue(2)));
+      assertEquals(3.0d, group.getValue(3));
+
+      try {
+        Aggregations.over(t).sum("region");
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expected) {
+        // success
+      }
+
+      try {
+        partResult1.merge(Aggregations.over(t).count().execute());
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expected) {
+        // success
+      }
+
+      db.close();
+    }
+  }
+
+  public void testEmpty() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("qty", DataType.LONG))
+        .addColumn(new ColumnBuilder("price", DataType.MONEY))
+        .toTable(db);
+
+      Aggregations.Result result = Aggregations.over(t)
+        .count().sum("qty").avg("price").max("qty").execute();
+      Aggregations.Group group = result.getGroups().get(0);
+      assertEquals(0L, group.getValue(0));
+      assertNull(group.getValue(1));
+      assertNull(group.getValue(2));
+      assertNull(group.getValue(3));
+
+      assertTrue(Aggregations.over(t).groupBy("qty").count().execute()
+                 .getGroups().isEmpty());
+
+      db.close();
+    }
+  }
+
+  private static Table createTestTable(Database db) throws Exception
+  {
+    Table t = new TableBuilder("Test")
+      .addColumn(new ColumnBuilder("id", DataType.LONG))
+      .addColumn(new ColumnBuilder("region", DataType.TEXT))
+      .addColumn(new ColumnBuilder("qty", DataType.LONG))
+      .addColumn(new ColumnBuilder("price", DataType.MONEY))
+      .addColumn(new ColumnBuilder("amt", DataType.DOUBLE))
+      .addIndex(new IndexBuilder("RegionIdx").addColumns("region"))
+      .toTable(db);
+
+    t.addRow(1, "west", 1, new BigDecimal("1.25"), 1.5d);
+    t.addRow(2, "east", 2, new BigDecimal("10.00"), 2.0d);
+    t.addRow(3, "west", 3, null, 0.5d);
+    t.addRow(4, "north", 4, new BigDecimal("20.00"), null);
+    t.addRow(5, "east", null, new BigDecimal("6.00"), 3.0d);
+    t.addRow(6, null, 5, new BigDecimal("5.00"), 1.5d);
+    t.addRow(7, "west", 6, new BigDecimal("5.00"), 2.0d);
+    return t;
+  }
+
+  private static void checkGroups(Aggregations.Result result)
+  {
+    assertEquals(Arrays.asList("region"), result.getGroupColumnNames());
+    assertEquals(4, result.getGroups().size());
+    checkGroup(result.getGroup("west"), 3L, 10L, 1, "6.2500");
+    checkGroup(result.getGroup("east"), 2L, 2L, 2, "16.0000");
+    checkGroup(result.getGroup("north"), 1L, 4L, 4, "20.0000");
+    checkGroup(result.getGroup((Object)null), 1L, 5L, 5, "5.0000");
+    assertNull(result.getGroup("south"));
+  }
+
+  private static void checkGroup(Aggregations.Group group, long count,
+                                 long sumQty, int minQty, String sumPrice)
+  {
+    assertEquals(count, group.getValue("Count(*)"));
+    assertEquals(sumQty, group.getValue("Sum(qty)"));
+    assertEquals(minQty, group.getValue("Min(qty)"));
+    assertEquals(new BigDecimal(sumPrice), group.getValue("Sum(price)"));
+  }
+
+  private static List<Object> getGroupRegions(Aggregations.Result result)
+  {
+    List<Object> regions = new ArrayList<Object>();
+    for(Aggregations.Group group : result.getGroups()) {
+      regions.add(group.getGroupValue("region"));
+    }
+    return regions;
+  }
+}
@@ -24,10 +24,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.DataType;
 import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
 import com.healthmarketscience.jackcess.Index;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.RelationshipBuilder;
 import com.healthmarketscience.jackcess.Row;
 import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import com.healthmarketscience.jackcess.impl.IndexData;
+import com.healthmarketscience.jackcess.impl.IndexImpl;
 import com.healthmarketscience.jackcess.impl.RowImpl;
 import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
 import junit.framework.TestCase;
@@ -81,6 +89,225 @@ public class JoinerTest extends TestCase {
     }    
   }
 
+  public void testSetJoins() throws Exception
+  {
+    for (final TestDB testDB : TestDB.getSupportedForBasename(Basename.INDEX)) {
+
+      Database db = openCopy(testDB);
+      Table t1 = db.getTable("Table1");
+
+      Joiner t2t1Join = Joiner.create(
+          t1.getIndex("Table2Table1").getReferencedIndex());
+      doTestSetJoins(t2t1Join, createT2T1Data());
+      Joiner t3t1Join = Joiner.create(
+          t1.getIndex("Table3Table1").getReferencedIndex());
+      doTestSetJoins(t3t1Join, createT3T1Data());
+
+      db.close();
+    }
+
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      Table parent = new TableBuilder("Parent")
+        .addColumn(new ColumnBuilder("code", DataType.TEXT))
+        .addColumn(new ColumnBuilder("name", DataType.TEXT))
+        .addIndex(new IndexBuilder(IndexBuilder.PRIMARY_KEY_NAME)
+                  .addColumns("code").setPrimaryKey())
+        .toTable(db);
+      Table child = new TableBuilder("Child")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("code", DataType.TEXT))
+        .toTable(db);
+      new RelationshipBuilder(parent, child)
+        .addColumns("code", "code")
+        .setReferentialIntegrity()
+        .toRelationship(db);
+
+      parent.addRow("a", "parent-a");
+      parent.addRow("B", "parent-b");
+      parent.addRow("c", "parent-c");
+      parent.addRow("d", "parent-d");
+      child.addRow(1, "a");
+      child.addRow(2, "b");
+      child.addRow(3, "B");
+      child.addRow(4, "C");
+      child.addRow(5, null);
+
+      // text values are matched case-insensitively
+      Map<Integer,List<Row>> expectedData = new HashMap<Integer,List<Row>>();
+      expectedData.put(1, createExpectedTable(
+                           createExpectedRow("code", "a", "name", "parent-a")));
+      expectedData.put(2, createExpectedTable(
+                           createExpectedRow("code", "B", "name", "parent-b")));
+      expectedData.put(3, expectedData.get(2));
+      expectedData.put(4, createExpectedTable(
+                           createExpectedRow("code", "c", "name", "parent-c")));
+      expectedData.put(5, createExpectedTable());
+
+      Joiner join = Joiner.create(child, parent);
+      List<List<Row>> expected = toPairs(join, expectedData, "id");
+      assertEquals(4, expected.size());
+      // the parent table is smaller, so it is used for the hash table
+      assertSamePairs(expected, join.hashJoin());
+      assertEquals(expected, toPairs(join.mergeJoin()));
+
+      // the "from" table is used for the hash table
+      Joiner revJoin = join.createReverse();
+      List<List<Row>> revExpected = new ArrayList<List<Row>>();
+      for(List<Row> pair : expected) {
+        revExpected.add(Arrays.asList(pair.get(1), pair.get(0)));
+      }
+      assertSamePairs(revExpected, revJoin.hashJoin());
+      assertSamePairs(revExpected, revJoin.mergeJoin());
+
+      // projection
+      List<List<Row>> projected = toPairs(join.hashJoin(
+          Arrays.asList("id"), Arrays.asList("name")));
+      assertEquals(4, projected.size());
+      for(List<Row> pair : projected) {
+        assertEquals(1, pair.get(0).size());
+        assertEquals(1, pair.get(1).size());
+        assertTrue(pair.get(1).getString("name").startsWith("parent-"));
+      }
+
+      db.close();
+    }
+  }
+
+  public void testTextSetJoins() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+
+      Table parent = new TableBuilder("Parent")
+        .addColumn(new ColumnBuilder("code", DataType.TEXT))
+        .addIndex(new IndexBuilder(IndexBuilder.PRIMARY_KEY_NAME)
+                  .addColumns("code").setPrimaryKey())
+        .toTable(db);
+      Table child = new TableBuilder("Child")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("code", DataType.TEXT))
+        .toTable(db);
+      new RelationshipBuilder(parent, child)
+        .addColumns("code", "code")
+        .setReferentialIntegrity()
+        .toRelationship(db);
+
+      // these values only differ by punctuation or accents, which the inline
+      // index codes ignore
+      String[] codes = {"ac", "a-c", "cafe", "caf\u00e9", "coop", "co-op"};
+      for(String code : codes) {
+        parent.addRow(code);
+      }
+      int id = 0;
+      for(String code : codes) {
+        child.addRow(++id, code);
+        child.addRow(++id, code.toUpperCase());
+      }
+
+      // the joins must match the lookups
+      Joiner join = Joiner.create(child, parent);
+      List<List<Row>> expected = new ArrayList<List<Row>>();
+      for(Row row : child) {
+        for(Row toRow : join.findRows(row)) {
+          expected.add(Arrays.<Row>asList(row, toRow));
+        }
+      }
+      assertEquals(12, expected.size());
+      for(List<Row> pair : expected) {
+        assertTrue(pair.get(0).getString("code").equalsIgnoreCase(
+                       pair.get(1).getString("code")));
+      }
+      doTestSetJoins(join, expected);
+
+      Joiner revJoin = join.createReverse();
+      List<List<Row>> revExpected = new ArrayList<List<Row>>();
+      for(List<Row> pair : expected) {
+        revExpected.add(Arrays.asList(pair.get(1), pair.get(0)));
+      }
+      assertSamePairs(revExpected, revJoin.hashJoin());
+      assertSamePairs(revExpected, revJoin.mergeJoin());
+
+      db.close();
+    }
+  }
+
+  private static void doTestSetJoins(Joiner join, List<List<Row>> expected)
+    throws Exception
+  {
+    assertSamePairs(expected, join.hashJoin());
+    assertSamePairs(expected, join.createReverse().hashJoin(),
+                    true);
+
+    IndexData fromData = ((IndexImpl)join.getFromIndex()).getIndexData();
+    IndexData toData = ((IndexImpl)join.getToIndex()).getIndexData();
+    if(fromData.isJoinCompatible(toData)) {
+      assertSamePairs(expected, join.mergeJoin());
+    } else {
+      try {
+        join.mergeJoin();
+        fail("IllegalArgumentException should have been thrown");
+      } catch(IllegalArgumentException expectedEx) {
+        // success
+      }
+    }
+  }
+
+  private static void doTestSetJoins(
+      Joiner join, Map<Integer,List<Row>> expectedData)
+    throws Exception
+  {
+    doTestSetJoins(join, toPairs(join, expectedData, "id"));
+  }
+
+  private static List<List<Row>> toPairs(
+      Joiner join, Map<Integer,List<Row>> expectedData, String idCol)
+    throws Exception
+  {
+    List<List<Row>> pairs = new ArrayList<List<Row>>();
+    for(Row row : join.getFromTable()) {
+      for(Row toRow : expectedData.get(row.getInt(idCol))) {
+        pairs.add(Arrays.<Row>asList(row, toRow));
+      }
+    }
+    return pairs;
+  }
+
+  private static List<List<Row>> toPairs(Iterable<Joiner.JoinedRow> joined) {
+    List<List<Row>> pairs = new ArrayList<List<Row>>();
+    for(Joiner.JoinedRow joinedRow : joined) {
+      pairs.add(Arrays.<Row>asList(joinedRow.getFromRow(),
+                                   joinedRow.getToRow()));
+    }
+    return pairs;
+  }
+
+  private static void assertSamePairs(List<List<Row>> expected,
+                                      Iterable<Joiner.JoinedRow> joined)
+  {
+    assertSamePairs(expected, joined, false);
+  }
+
+  private static void assertSamePairs(List<List<Row>> expected,
+                                      Iterable<Joiner.JoinedRow> joined,
+                                      boolean reversed)
+  {
+    List<List<Row>> actual = toPairs(joined);
+    if(reversed) {
+      List<List<Row>> tmp = new ArrayList<List<Row>>();
+      for(List<Row> pair : actual) {
+        tmp.add(Arrays.asList(pair.get(1), pair.get(0)));
+      }
+      actual = tmp;
+    }
+    assertEquals(expected.size(), actual.size());
+    List<List<Row>> remaining = new ArrayList<List<Row>>(actual);
+    for(List<Row> pair : expected) {
+      assertTrue("missing " + pair, remaining.remove(pair));
+    }
+  }
+
   private static void doTestJoiner(
       Joiner join, Map<Integer,List<Row>> expectedData)
     throws Exception
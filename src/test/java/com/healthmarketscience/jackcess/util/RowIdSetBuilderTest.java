@@ -0,0 +1,128 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.Cursor;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
+import com.healthmarketscience.jackcess.Index;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.RowId;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
+import junit.framework.TestCase;
+import static com.healthmarketscience.jackcess.TestUtil.*;
+
+/**
+ * @author agent
+ */
+public class RowIdSetBuilderTest extends TestCase
+{
+
+  public RowIdSetBuilderTest(String name) {
+    super(name);
+  }
+
+  public void testCombineIndexes() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+
+      Database db = createMem(fileFormat);
+
+      Table t = new TableBuilder("Test")
+        .addColumn(new ColumnBuilder("id", DataType.LONG))
+        .addColumn(new ColumnBuilder("state", DataType.TEXT))
+        .addColumn(new ColumnBuilder("num", DataType.LONG))
+        .addIndex(new IndexBuilder("state_idx").addColumns("state"))
+        .addIndex(new IndexBuilder("num_idx").addColumns("num"))
+        .toTable(db);
+
+      String[] states = {"NY", "CA", "TX"};
+      for(int i = 0; i < 30; ++i) {
+        t.addRow(i, states[i % 3], i % 10);
+      }
+
+      Index stateIdx = t.getIndex("state_idx");
+      Index numIdx = t.getIndex("num_idx");
+
+      // state = 'NY' AND num >= 5
+      assertEquals(Arrays.asList(6, 9, 15, 18, 27),
+                   getIds(new RowIdSetBuilder(t)
+                          .intersectEntry(stateIdx, "NY")
+                          .intersectRange(numIdx, new Object[]{5}, true,
+                                          null, true)
+                          .toCursor()));
+
+      // (state = 'NY' AND num > 5) OR num = 1
+      assertEquals(Arrays.asList(1, 6, 9, 11, 18, 21, 27),
+                   getIds(new RowIdSetBuilder(t)
+                          .intersectEntry(stateIdx, "NY")
+                          .intersectRange(numIdx, new Object[]{5}, false,
+                                          null, true)
+                          .unionEntry(numIdx, 1)
+                          .toCursor()));
+
+      // state = 'CA' AND state = 'TX' (no rows)
+      RowIdSetBuilder builder = new RowIdSetBuilder(t)
+        .intersectEntry(stateIdx, "CA")
+        .intersectEntry(stateIdx, "TX");
+      assertTrue(builder.toRowIds().isEmpty());
+      assertEquals(Arrays.asList(), getIds(builder.toCursor()));
+
+      // pattern lookups ("id" is not indexed and must be filtered by the
+      // caller)
+      builder = new RowIdSetBuilder(t)
+        .intersectPattern(createExpectedRow("num", 2, "id", 22));
+      assertEquals(Arrays.asList(2, 12, 22),
+                   getIds(builder.toCursor()));
+      assertEquals(Arrays.asList(22),
+                   getIds(builder.toCursor().newIterable()
+                          .setMatchPattern(createExpectedRow("id", 22))));
+      assertEquals(Arrays.asList(12),
+                   getIds(new RowIdSetBuilder(t)
+                          .intersectPattern(createExpectedRow("num", 2,
+                                                              "state", "NY"))
+                          .toCursor()));
+
+      // no lookups, all rows
+      Set<RowId> allRowIds = new RowIdSetBuilder(t).toRowIds();
+      assertEquals(30, allRowIds.size());
+      assertEquals(allRowIds, new RowIdSetBuilder(t)
+                   .union(allRowIds)
+                   .toRowIds());
+
+      db.close();
+    }
+  }
+
+  private static List<Integer> getIds(Iterable<Row> rows) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for(Row row : rows) {
+      ids.add((Integer)row.get("id"));
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,218 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.jackcess.util;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import com.healthmarketscience.jackcess.Column;
+import com.healthmarketscience.jackcess.ColumnBuilder;
+import com.healthmarketscience.jackcess.CursorBuilder;
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.Database;
+import static com.healthmarketscience.jackcess.Database.*;
+import com.healthmarketscience.jackcess.IndexBuilder;
+import com.healthmarketscience.jackcess.Row;
+import com.healthmarketscience.jackcess.Table;
+import com.healthmarketscience.jackcess.TableBuilder;
+import com.healthmarketscience.jackcess.complex.ComplexValueForeignKey;
+import static com.healthmarketscience.jackcess.impl.JetFormatTest.*;
+import junit.framework.TestCase;
+import static com.healthmarketscience.jackcess.TestUtil.*;
+
+/**
+ *
+ * @author agent
+ */
+public class RowSorterTest extends TestCase
+{
+
+  public RowSorterTest(String name) {
+    super(name);
+  }
+
+  public void testSort() throws Exception
+  {
+    for (final FileFormat fileFormat : SUPPORTED_FILEFORMATS) {
+      Database db = createMem(fileFormat);
+      Table t = createTestTable(db);
+
+      List<Integer> expectedIds = Arrays.asList(
+          6, 11, 2, 5, 4, 9, 12, 8, 3, 7, 1, 10);
+
+      // all in memory
+      assertEquals(expectedIds, getIds(newSorter(t)));
+
+      // spilled to temporary files
+      File tempDir = createTempDir();
+      try {
+        for(int maxRows = 1; maxRows <= 5; ++maxRows) {
+          List<Row> rows = toList(newSorter(t).setMaxRowsInMemory(maxRows)
+                                  .setTempDirectory(tempDir));
+          assertEquals(expectedIds, getIds(rows));
+          assertEquals(0, tempDir.list().length);
+
+          // values (and their types) survive the round trip
+          Row row = rows.get(2);
+          Row origRow = CursorBuilder.findRowByPrimaryKey(t, 2);
+          assertEquals("east", row.get("region"));
+          assertEquals(new BigDecimal("10.0000"), row.get("price"));
+          assertEquals(new Date(2000000L), row.get("ts"));
+          assertEquals(origRow.get("ts").getClass(),
+                       row.get("ts").getClass());
+          assertTrue(Arrays.equals(new byte[]{2}, (byte[])row.get("data")));
+          assertNotNull(row.getId());
+          assertEquals(origRow.getId(), row.getId());
+        }
+
+        // abandoned iterators delete their temporary files when closed
+        RowSorter.SortedIterator iter = newSorter(t).setMaxRowsInMemory(2)
+          .setTempDirectory(tempDir).iterator();
+        assertEquals(6, iter.next().getInt("id").intValue());
+        assertTrue(tempDir.list().length > 0);
+        iter.close();
+        assertEquals(0, tempDir.list().length);
+        assertFalse(iter.hasNext());
+
+        // limited
+        for(int maxRows : new int[]{3, 10, 20}) {
+          assertEquals(expectedIds.subList(0, 5), getIds(
+                           newSorter(t).setMaxRowsInMemory(maxRows)
+                           .setTempDirectory(tempDir).setLimit(5)));
+          assertEquals(0, tempDir.list().length);
+        }
+        assertEquals(expectedIds, getIds(newSorter(t).setLimit(20)));
+        assertTrue(getIds(newSorter(t).setLimit(0)).isEmpty());
+      } finally {
+        tempDir.delete();
+      }
+
+      // stable sort, descending
+      assertEquals(Arrays.asList(1, 7, 10, 3, 8, 12, 2, 4, 5, 9, 6, 11),
+                   getIds(new RowSorter(t).addSortColumn("region", false)
+                          .setMaxRowsInMemory(2)));
+      assertEquals(Arrays.asList(1, 7, 10, 3, 8),
+                   getIds(new RowSorter(t).addSortColumn("region", false)
+                          .setLimit(5)));
+
+      // no sort columns
+      assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12),
+                   getIds(new RowSorter(t).setMaxRowsInMemory(5)));
+
+      db.close();
+    }
+  }
+
+  public void testSortComplex() throws Exception
+  {
+    for(final TestDB testDB : TestDB.getSupportedForBasename(Basename.COMPLEX)) {
+
+      Database db = openCopy(testDB);
+      Table t1 = db.getTable("Table1");
+      Column col = t1.getColumn("attach-data");
+
+      File tempDir = createTempDir();
+      try {
+        List<Row> rows = toList(new RowSorter(t1).addSortColumn("id", false)
+                                .setMaxRowsInMemory(1)
+                                .setTempDirectory(tempDir));
+        assertEquals(0, tempDir.list().length);
+        assertEquals(t1.getRowCount(), rows.size());
+
+        Iterator<Row> origRows = t1.iterator();
+        for(int i = rows.size() - 1; i >= 0; --i) {
+          Row origRow = origRows.next();
+          Row row = rows.get(i);
+          assertEquals(origRow.get("id"), row.get("id"));
+          ComplexValueForeignKey origFk =
+            (ComplexValueForeignKey)col.getRowValue(origRow);
+          ComplexValueForeignKey fk =
+            (ComplexValueForeignKey)col.getRowValue(row);
+          assertEquals(origFk.get(), fk.get());
+          assertEquals(origFk.getAttachments().toString(),
+                       fk.getAttachments().toString());
+        }
+      } finally {
+        tempDir.delete();
+      }
+
+      db.close();
+    }
+  }
+
+  private static RowSorter newSorter(Table t)
+  {
+    return new RowSorter(t).addSortColumn("region")
+      .addSortColumn("qty", false).addSortColumn("id");
+  }
+
+  private static Table createTestTable(Database db) throws Exception
+  {
+    Table t = new TableBuilder("Test")
+      .addColumn(new ColumnBuilder("id", DataType.LONG))
+      .addColumn(new ColumnBuilder("region", DataType.TEXT))
+      .addColumn(new ColumnBuilder("qty", DataType.LONG))
+      .addColumn(new ColumnBuilder("price", DataType.MONEY))
+      .addColumn(new ColumnBuilder("ts", DataType.SHORT_DATE_TIME))
+      .addColumn(new ColumnBuilder("data", DataType.BINARY))
+      .addIndex(new IndexBuilder("PK")
+                .addColumns("id").setPrimaryKey())
+      .toTable(db);
+
+    Object[][] rows = {
+      {"west", 1}, {"east", 5}, {"West", 3}, {"east", 2}, {"east", 5},
+      {null, 4}, {"west", 7}, {"north", null}, {"east", 2}, {"west", 1},
+      {null, 1}, {"north", 8}};
+    for(int i = 0; i < rows.length; ++i) {
+      int id = i + 1;
+      t.addRow(id, rows[i][0], rows[i][1], new BigDecimal(id * 5),
+               new Date(id * 1000000L), new byte[]{(byte)id});
+    }
+    return t;
+  }
+
+  private static List<Row> toList(Iterable<Row> rows)
+  {
+    List<Row> list = new ArrayList<Row>();
+    for(Row row : rows) {
+      list.add(row);
+    }
+    return list;
+  }
+
+  private static List<Integer> getIds(Iterable<Row> rows)
+  {
+    List<Integer> ids = new ArrayList<Integer>();
+    for(Row row : rows) {
+      ids.add(row.getInt("id"));
+    }
+    return ids;
+  }
+
+  private static File createTempDir() throws Exception
+  {
+    File tempDir = File.createTempFile("sorttest", "");
+    tempDir.delete();
+    assertTrue(tempDir.mkdir());
+    return tempDir;
+  }
+}